@@ -18,6 +18,10 @@
 
 package org.wso2.carbon.identity.application.common.cache;
 
+import org.apache.axis2.clustering.ClusteringAgent;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.caching.impl.CacheImpl;
 import org.wso2.carbon.caching.impl.CachingConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
@@ -29,13 +33,20 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.cache.Cache;
 import javax.cache.CacheBuilder;
 import javax.cache.CacheConfiguration;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
+import javax.cache.Status;
 
 /**
  * A base class for all cache implementations in Identity Application Management modules.
@@ -45,11 +56,32 @@ import javax.cache.Caching;
  */
 public class BaseCache<K extends Serializable, V extends Serializable> {
 
+    private static final Log log = LogFactory.getLog(BaseCache.class);
     private static final String CACHE_MANAGER_NAME = "IdentityApplicationManagementCacheManager";
+    private static final int DEFAULT_NEAR_CACHE_CAPACITY = 1000;
+    private static final int DEFAULT_NEAR_CACHE_TIMEOUT = 60;
+    private static final int NEAR_CACHE_INVALIDATION_QUEUE_CAPACITY = 10000;
+    private static final ConcurrentMap<String, NearCache<?, ?>> nearCaches = new ConcurrentHashMap<>();
+    /*
+     * Near cache invalidation messages are sent off the caller thread, so that a cache mutation does not wait for a
+     * cluster round trip. The caller sends the message itself only if the queue is full.
+     */
+    private static final ExecutorService nearCacheInvalidationSender = new ThreadPoolExecutor(1, 1, 0L,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(NEAR_CACHE_INVALIDATION_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "NearCacheInvalidationSender");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
     private CacheBuilder<K, V> cacheBuilder;
     private String cacheName;
     private List<AbstractCacheListener> cacheListeners = new ArrayList<>();
     private IdentityCacheConfig identityCacheConfig;
+    private volatile Cache<K, V> cache;
+    private NearCache<K, V> nearCache;
+    private NearCacheInvalidationListener<K, V> nearCacheInvalidationListener;
+    private Cache<K, V> nearCacheListenerRegisteredCache;
+    private final LongAdder distributedCacheHitCount = new LongAdder();
+    private final LongAdder distributedCacheMissCount = new LongAdder();
 
     public BaseCache(String cacheName) {
 
@@ -58,6 +90,7 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
         if (identityCacheConfig != null && !identityCacheConfig.isDistributed()) {
             this.cacheName = CachingConstants.LOCAL_CACHE_PREFIX + cacheName;
         }
+        initNearCache();
     }
 
     public BaseCache(String cacheName, boolean isTemp) {
@@ -70,19 +103,44 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
             }
             identityCacheConfig.setTemporary(isTemp);
         }
+        initNearCache();
+    }
+
+    /**
+     * Creates the node local near cache in front of a distributed cache when it is enabled for the cache. Instances
+     * with the same cache name share the same near cache.
+     */
+    @SuppressWarnings("unchecked")
+    private void initNearCache() {
 
+        if (identityCacheConfig == null || !identityCacheConfig.isDistributed() ||
+                !identityCacheConfig.isNearCacheEnabled()) {
+            return;
+        }
+
+        final int capacity = identityCacheConfig.getNearCacheCapacity() > 0 ?
+                identityCacheConfig.getNearCacheCapacity() : DEFAULT_NEAR_CACHE_CAPACITY;
+        final int timeout = identityCacheConfig.getNearCacheTimeout() > 0 ?
+                identityCacheConfig.getNearCacheTimeout() : DEFAULT_NEAR_CACHE_TIMEOUT;
+        nearCache = (NearCache<K, V>) nearCaches.computeIfAbsent(cacheName,
+                name -> new NearCache<K, V>(capacity, timeout));
+        nearCacheInvalidationListener = new NearCacheInvalidationListener<>(nearCache);
+        if (log.isDebugEnabled()) {
+            log.debug("Near cache enabled for the cache: " + cacheName + " with capacity: " + capacity +
+                    " and timeout: " + timeout + " seconds.");
+        }
     }
 
     private Cache<K, V> getBaseCache() {
 
-        Cache<K, V> cache = null;
-        try {
-
-            PrivilegedCarbonContext.startTenantFlow();
-            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
-            carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
-            carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        // The resolved cache handle is reused until the cache is stopped by the cache manager.
+        Cache<K, V> cache = this.cache;
+        if (cache != null && cache.getStatus() == Status.STARTED) {
+            return cache;
+        }
 
+        boolean tenantFlowStarted = startSuperTenantFlow();
+        try {
             CacheManager cacheManager = Caching.getCacheManagerFactory()
                     .getCacheManager(CACHE_MANAGER_NAME);
 
@@ -119,12 +177,59 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
 
             }
         } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            endSuperTenantFlow(tenantFlowStarted);
         }
 
+        registerNearCacheInvalidationListener(cache);
+        this.cache = cache;
         return cache;
     }
 
+    /**
+     * Registers the near cache invalidation listener on the resolved cache, whether or not the cache is built with an
+     * expiry, so that the near cache follows the updates of the distributed cache.
+     */
+    private void registerNearCacheInvalidationListener(Cache<K, V> cache) {
+
+        if (nearCacheInvalidationListener == null || cache == null) {
+            return;
+        }
+        synchronized (nearCacheInvalidationListener) {
+            if (nearCacheListenerRegisteredCache != cache) {
+                cache.registerCacheEntryListener(nearCacheInvalidationListener);
+                nearCacheListenerRegisteredCache = cache;
+            }
+        }
+    }
+
+    /**
+     * Starts a super tenant flow unless the thread is already running in the super tenant context. Caches of this
+     * class are owned by the super tenant.
+     *
+     * @return true if a new tenant flow was started.
+     */
+    private boolean startSuperTenantFlow() {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        if (carbonContext.getTenantId() == MultitenantConstants.SUPER_TENANT_ID &&
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(carbonContext.getTenantDomain())) {
+            return false;
+        }
+
+        PrivilegedCarbonContext.startTenantFlow();
+        carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        return true;
+    }
+
+    private void endSuperTenantFlow(boolean tenantFlowStarted) {
+
+        if (tenantFlowStarted) {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
     /**
      * Add a cache entry.
      *
@@ -137,19 +242,23 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
             return;
         }
 
+        boolean update = false;
+        boolean tenantFlowStarted = startSuperTenantFlow();
         try {
-            PrivilegedCarbonContext.startTenantFlow();
-            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext
-                    .getThreadLocalCarbonContext();
-            carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
-            carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
-            // Element already in the cache. Remove it first
             Cache<K, V> cache = getBaseCache();
             if (cache != null) {
+                // Other nodes can only hold the key in their near caches if it is already in the distributed cache.
+                update = nearCache != null && cache.containsKey(key);
                 cache.put(key, entry);
             }
         } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            endSuperTenantFlow(tenantFlowStarted);
+        }
+        if (nearCache != null) {
+            nearCache.put(key, entry);
+            if (update) {
+                sendNearCacheInvalidationMessage(key);
+            }
         }
     }
 
@@ -169,20 +278,36 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
             return null;
         }
 
+        long nearCacheVersion = 0;
+        if (nearCache != null) {
+            V value = nearCache.get(key);
+            if (value != null) {
+                return value;
+            }
+            nearCacheVersion = nearCache.getVersion(key);
+        }
+
+        V value = null;
+        boolean tenantFlowStarted = startSuperTenantFlow();
         try {
-            PrivilegedCarbonContext.startTenantFlow();
-            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext
-                    .getThreadLocalCarbonContext();
-            carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
-            carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
             Cache<K, V> cache = getBaseCache();
-            if (cache != null && cache.get(key) != null) {
-                return (V) cache.get(key);
+            if (cache != null) {
+                value = cache.get(key);
             }
-            return null;
         } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            endSuperTenantFlow(tenantFlowStarted);
         }
+
+        if (nearCache != null) {
+            if (value != null) {
+                distributedCacheHitCount.increment();
+                // Skipped if the entry was invalidated while it was read from the distributed cache.
+                nearCache.putIfCurrent(key, value, nearCacheVersion);
+            } else {
+                distributedCacheMissCount.increment();
+            }
+        }
+        return value;
     }
 
     /**
@@ -196,18 +321,18 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
             return;
         }
 
+        boolean tenantFlowStarted = startSuperTenantFlow();
         try {
-            PrivilegedCarbonContext.startTenantFlow();
-            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext
-                    .getThreadLocalCarbonContext();
-            carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
-            carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
             Cache<K, V> cache = getBaseCache();
             if (cache != null) {
                 cache.remove(key);
             }
         } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            endSuperTenantFlow(tenantFlowStarted);
+        }
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+            sendNearCacheInvalidationMessage(key);
         }
     }
 
@@ -220,21 +345,83 @@ public class BaseCache<K extends Serializable, V extends Serializable> {
             return;
         }
 
+        boolean tenantFlowStarted = startSuperTenantFlow();
         try {
-            PrivilegedCarbonContext.startTenantFlow();
-            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext
-                    .getThreadLocalCarbonContext();
-            carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
-            carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
             Cache<K, V> cache = getBaseCache();
             if (cache != null) {
                 cache.removeAll();
             }
         } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            endSuperTenantFlow(tenantFlowStarted);
+        }
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+            sendNearCacheInvalidationMessage(null);
         }
     }
 
+    /**
+     * Returns the statistics of the node local near cache.
+     *
+     * @return Near cache statistics or null if the near cache is not enabled for this cache.
+     */
+    public CacheStatistics getNearCacheStatistics() {
+
+        if (nearCache == null) {
+            return null;
+        }
+        return nearCache.getStatistics();
+    }
+
+    /**
+     * Returns the statistics of the distributed cache lookups done on near cache misses.
+     *
+     * @return Distributed cache statistics or null if the near cache is not enabled for this cache.
+     */
+    public CacheStatistics getDistributedCacheStatistics() {
+
+        if (nearCache == null) {
+            return null;
+        }
+        return new CacheStatistics(distributedCacheHitCount.sum(), distributedCacheMissCount.sum(), 0, 0);
+    }
+
+    /**
+     * Invalidates the near cache of the given cache in this node.
+     *
+     * @param cacheName Name of the cache.
+     * @param key       Key to invalidate. All the entries are invalidated if the key is null.
+     */
+    @SuppressWarnings("unchecked")
+    static void invalidateNearCache(String cacheName, Serializable key) {
+
+        NearCache<Serializable, ?> nearCache = (NearCache<Serializable, ?>) nearCaches.get(cacheName);
+        if (nearCache == null) {
+            return;
+        }
+        if (key == null) {
+            nearCache.invalidateAll();
+        } else {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private void sendNearCacheInvalidationMessage(K key) {
+
+        ClusteringAgent clusteringAgent = IdentityUtil.getClusteringAgent();
+        if (clusteringAgent == null) {
+            return;
+        }
+        NearCacheInvalidationClusteringMessage message = new NearCacheInvalidationClusteringMessage(cacheName, key);
+        nearCacheInvalidationSender.execute(() -> {
+            try {
+                clusteringAgent.sendMessage(message, true);
+            } catch (ClusteringFault e) {
+                log.error("Error while sending the near cache invalidation message for the cache: " + cacheName, e);
+            }
+        });
+    }
+
     public void addListener(AbstractCacheListener listener) {
 
         cacheListeners.add(listener);
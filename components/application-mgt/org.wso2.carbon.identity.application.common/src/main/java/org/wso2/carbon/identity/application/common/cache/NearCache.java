@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.common.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, node local cache kept in front of a distributed cache. Entries are evicted in approximately least recently
+ * used order once the capacity is reached and expire after the configured time to live, which bounds the staleness of
+ * an entry if an invalidation is missed. Reads do not take a lock.
+ * <p>
+ * Every entry carries a version which changes on each local put and invalidation of its key. An invalidated key is
+ * kept as an entry without a value, so that a value read from the distributed cache before the invalidation is not
+ * put back. See {@link #getVersion(Object)} and {@link #putIfCurrent(Object, Object, long)}.
+ *
+ * @param <K> cache key type.
+ * @param <V> cache value type.
+ */
+public class NearCache<K, V> {
+
+    private final Cache<K, NearCacheEntry<V>> entries;
+    private final AtomicLong versionSequence = new AtomicLong();
+    // Version of the keys which have no entry. Advanced when an invalidated entry is evicted or all entries are
+    // invalidated, so that a fill which started before either of them is skipped.
+    private final AtomicLong absentVersion = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public NearCache(int capacity, int timeToLiveSeconds) {
+
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                .<K, NearCacheEntry<V>>removalListener(notification -> {
+                    if (!notification.wasEvicted()) {
+                        return;
+                    }
+                    if (notification.getValue().value == null) {
+                        advanceAbsentVersion(notification.getValue().version);
+                    } else {
+                        evictionCount.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the value of the given key if it is present and not expired.
+     *
+     * @param key Cache key.
+     * @return Cached value or null.
+     */
+    public V get(K key) {
+
+        NearCacheEntry<V> entry = entries.getIfPresent(key);
+        if (entry == null || entry.value == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        entries.put(key, new NearCacheEntry<>(value, versionSequence.incrementAndGet()));
+    }
+
+    /**
+     * Returns the current version of the given key. A value read from the distributed cache is put with the version
+     * taken before the read, so that a put or an invalidation of the key which happened in between is not undone.
+     *
+     * @param key Cache key.
+     * @return Current version of the key.
+     */
+    public long getVersion(K key) {
+
+        NearCacheEntry<V> entry = entries.getIfPresent(key);
+        return entry != null ? entry.version : absentVersion.get();
+    }
+
+    /**
+     * Puts the value only if the version of the key did not change since the given version was taken.
+     *
+     * @param key     Cache key.
+     * @param value   Value read from the distributed cache.
+     * @param version Version of the key taken before the value was read.
+     * @return true if the value was put.
+     */
+    public boolean putIfCurrent(K key, V value, long version) {
+
+        if (value == null) {
+            return false;
+        }
+        NearCacheEntry<V> filled = new NearCacheEntry<>(value, version);
+        return entries.asMap().compute(key, (cacheKey, current) -> {
+            long currentVersion = current != null ? current.version : absentVersion.get();
+            return currentVersion == version ? filled : current;
+        }) == filled;
+    }
+
+    public void invalidate(K key) {
+
+        NearCacheEntry<V> previous = entries.asMap().put(key, new NearCacheEntry<>(null,
+                versionSequence.incrementAndGet()));
+        if (previous != null && previous.value != null) {
+            invalidationCount.increment();
+        }
+    }
+
+    public void invalidateAll() {
+
+        advanceAbsentVersion(versionSequence.incrementAndGet());
+        for (NearCacheEntry<V> entry : entries.asMap().values()) {
+            if (entry.value != null) {
+                invalidationCount.increment();
+            }
+        }
+        entries.invalidateAll();
+    }
+
+    public int size() {
+
+        int size = 0;
+        for (NearCacheEntry<V> entry : entries.asMap().values()) {
+            if (entry.value != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public CacheStatistics getStatistics() {
+
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), invalidationCount.sum());
+    }
+
+    private void advanceAbsentVersion(long version) {
+
+        absentVersion.accumulateAndGet(version, Math::max);
+    }
+
+    private static class NearCacheEntry<V> {
+
+        private final V value;
+        private final long version;
+
+        NearCacheEntry(V value, long version) {
+
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
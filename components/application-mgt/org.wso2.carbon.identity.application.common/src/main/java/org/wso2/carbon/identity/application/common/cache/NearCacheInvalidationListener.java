@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.common.cache;
+
+import org.wso2.carbon.identity.application.common.listener.AbstractCacheListener;
+
+import java.io.Serializable;
+
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+/**
+ * Invalidates near cache entries when the corresponding entries of the distributed cache are updated or removed.
+ *
+ * @param <K> cache key type.
+ * @param <V> cache value type.
+ */
+public class NearCacheInvalidationListener<K extends Serializable, V extends Serializable>
+        extends AbstractCacheListener<K, V> implements CacheEntryUpdatedListener<K, V>, CacheEntryRemovedListener<K, V> {
+
+    private final NearCache<K, V> nearCache;
+
+    public NearCacheInvalidationListener(NearCache<K, V> nearCache) {
+
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public void entryUpdated(CacheEntryEvent<? extends K, ? extends V> event) throws CacheEntryListenerException {
+
+        if (event != null && event.getKey() != null) {
+            nearCache.invalidate(event.getKey());
+        }
+    }
+
+    @Override
+    public void entryRemoved(CacheEntryEvent<? extends K, ? extends V> event) throws CacheEntryListenerException {
+
+        if (event != null && event.getKey() != null) {
+            nearCache.invalidate(event.getKey());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.common.cache;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Testing the NearCache class
+ */
+public class NearCacheTest {
+
+    @Test
+    public void testEvictLeastRecentlyUsedEntryWhenFull() {
+
+        NearCache<String, String> nearCache = new NearCache<>(2, 60);
+        nearCache.put("key1", "value1");
+        nearCache.put("key2", "value2");
+        nearCache.get("key1");
+        nearCache.put("key3", "value3");
+
+        assertEquals(nearCache.size(), 2);
+        assertEquals(nearCache.get("key1"), "value1");
+        assertNull(nearCache.get("key2"));
+        assertEquals(nearCache.getStatistics().getEvictionCount(), 1);
+    }
+
+    @Test
+    public void testExpireEntriesAfterTimeout() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 0);
+        nearCache.put("key1", "value1");
+
+        assertNull(nearCache.get("key1"));
+        assertEquals(nearCache.size(), 0);
+    }
+
+    @Test
+    public void testCountHitsMissesAndInvalidations() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60);
+        nearCache.put("key1", "value1");
+        nearCache.put("key2", "value2");
+        nearCache.get("key1");
+        nearCache.get("key3");
+        nearCache.invalidate("key1");
+        nearCache.invalidateAll();
+
+        CacheStatistics statistics = nearCache.getStatistics();
+        assertEquals(statistics.getHitCount(), 1);
+        assertEquals(statistics.getMissCount(), 1);
+        assertEquals(statistics.getInvalidationCount(), 2);
+        assertNull(nearCache.get("key2"));
+    }
+
+    @Test
+    public void testPutIfCurrentSkipsValueReadBeforeInvalidation() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60);
+        long version = nearCache.getVersion("key1");
+        // Invalidated by another thread or node while the value was read from the distributed cache.
+        nearCache.invalidate("key1");
+
+        assertFalse(nearCache.putIfCurrent("key1", "stale", version));
+        assertNull(nearCache.get("key1"));
+        assertTrue(nearCache.putIfCurrent("key1", "value1", nearCache.getVersion("key1")));
+        assertEquals(nearCache.get("key1"), "value1");
+    }
+
+    @Test
+    public void testPutIfCurrentSkipsValueReadBeforePut() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60);
+        long version = nearCache.getVersion("key1");
+        nearCache.put("key1", "value1");
+
+        assertFalse(nearCache.putIfCurrent("key1", "stale", version));
+        assertEquals(nearCache.get("key1"), "value1");
+    }
+
+    @Test
+    public void testPutIfCurrentIgnoresInvalidationOfOtherKeys() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60);
+        long version = nearCache.getVersion("key1");
+        nearCache.put("key2", "value2");
+        nearCache.invalidate("key2");
+
+        assertTrue(nearCache.putIfCurrent("key1", "value1", version));
+        assertEquals(nearCache.get("key1"), "value1");
+    }
+
+    @Test
+    public void testPutIfCurrentSkipsValueReadBeforeInvalidateAll() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60);
+        long version = nearCache.getVersion("key1");
+        nearCache.invalidateAll();
+
+        assertFalse(nearCache.putIfCurrent("key1", "stale", version));
+        assertNull(nearCache.get("key1"));
+    }
+}
@@ -84,6 +84,8 @@ public class ApplicationConstants {
     public static final String ITEMS_PER_PAGE_PROPERTY = "ItemsPerPage";
     public static final int DEFAULT_FETCH_CHUNK_SIZE = 50;
     public static final String FETCH_CHUNK_SIZE = "FetchChunkSize";
+    public static final int DEFAULT_LOADER_POOL_SIZE = 5;
+    public static final String LOADER_POOL_SIZE = "LoaderPoolSize";
 
     // Named query fields
     public static final String OFFSET = "OFFSET";
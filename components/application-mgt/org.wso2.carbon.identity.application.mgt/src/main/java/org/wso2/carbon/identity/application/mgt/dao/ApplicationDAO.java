@@ -22,6 +22,7 @@ import org.wso2.carbon.identity.application.common.IdentityApplicationManagement
 import org.wso2.carbon.identity.application.common.model.ApplicationBasicInfo;
 import org.wso2.carbon.identity.application.common.model.ServiceProvider;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +54,26 @@ public interface ApplicationDAO {
      */
     ServiceProvider getApplication(int applicationId) throws IdentityApplicationManagementException;
 
+    /**
+     * Loads the service providers with the given internal IDs.
+     *
+     * @param applicationIds internal IDs of the applications
+     * @return loaded service providers, in no particular order, skipping the applications which do not exist
+     * @throws IdentityApplicationManagementException if a service provider cannot be loaded
+     */
+    default List<ServiceProvider> getApplications(List<Integer> applicationIds)
+            throws IdentityApplicationManagementException {
+
+        List<ServiceProvider> serviceProviders = new ArrayList<>(applicationIds.size());
+        for (int applicationId : applicationIds) {
+            ServiceProvider serviceProvider = getApplication(applicationId);
+            if (serviceProvider != null) {
+                serviceProviders.add(serviceProvider);
+            }
+        }
+        return serviceProviders;
+    }
+
     /**
      * @return
      * @throws IdentityApplicationManagementException
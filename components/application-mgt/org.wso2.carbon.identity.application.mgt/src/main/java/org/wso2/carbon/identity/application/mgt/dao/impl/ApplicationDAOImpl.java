@@ -100,6 +100,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -2092,58 +2097,143 @@ public class ApplicationDAOImpl extends AbstractApplicationDAOImpl implements Pa
     @Override
     public ServiceProvider getApplication(int applicationId) throws IdentityApplicationManagementException {
 
+        return getApplication(applicationId, ApplicationLoaderPool.getExecutor());
+    }
+
+    /**
+     * Loads the service providers with the given IDs in parallel, each on its own connection.
+     *
+     * @param applicationIds internal IDs of the applications
+     * @return loaded service providers, skipping the applications which do not exist
+     * @throws IdentityApplicationManagementException if a service provider cannot be loaded
+     */
+    @Override
+    public List<ServiceProvider> getApplications(List<Integer> applicationIds)
+            throws IdentityApplicationManagementException {
+
+        List<ServiceProvider> serviceProviders = new ArrayList<>(applicationIds.size());
+        ExecutorService executor = ApplicationLoaderPool.getExecutor();
+        if (executor == null) {
+            for (int applicationId : applicationIds) {
+                ServiceProvider serviceProvider = getApplication(applicationId, null);
+                if (serviceProvider != null) {
+                    serviceProviders.add(serviceProvider);
+                }
+            }
+            return serviceProviders;
+        }
+
+        // The configurations of each application are loaded sequentially in the loader thread, so that the loader
+        // threads never wait for each other.
+        List<Future<ServiceProvider>> futures = new ArrayList<>(applicationIds.size());
+        try {
+            for (int applicationId : applicationIds) {
+                try {
+                    futures.add(executor.submit(() -> getApplication(applicationId, null)));
+                } catch (RejectedExecutionException e) {
+                    // The loader pool is saturated, hence the application is loaded in the calling thread.
+                    futures.add(CompletableFuture.completedFuture(getApplication(applicationId, null)));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                ServiceProvider serviceProvider = waitForLoad(futures.get(i), applicationIds.get(i));
+                if (serviceProvider != null) {
+                    serviceProviders.add(serviceProvider);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityApplicationManagementException("Failed to get service providers with ids: " +
+                    applicationIds, e);
+        } finally {
+            for (Future<ServiceProvider> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return serviceProviders;
+    }
+
+    /**
+     * Loads a service provider. When an executor is given, the inbound and provisioning configurations and the
+     * claim, role and request path authenticator configurations are loaded in the executor, each group on its own
+     * connection, while the rest of the service provider is loaded in the calling thread. The connection of the
+     * calling thread is closed before waiting for the executor, so that a thread never holds more than one
+     * connection.
+     *
+     * @param applicationId internal ID of the application
+     * @param executor      executor to load the configurations in parallel, null to load them sequentially
+     * @return service provider, null if the application does not exist
+     * @throws IdentityApplicationManagementException if the service provider cannot be loaded
+     */
+    private ServiceProvider getApplication(int applicationId, ExecutorService executor)
+            throws IdentityApplicationManagementException {
+
         Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+        List<Future<Void>> configurations = new ArrayList<>();
+        ServiceProvider serviceProvider;
         try {
+            try {
+                // Load basic application data
+                serviceProvider = getBasicApplicationData(applicationId, connection);
+                if (serviceProvider == null) {
+                    return null;
+                }
+                int tenantID = IdentityTenantUtil.getTenantId(serviceProvider.getOwner().getTenantDomain());
+
+                configurations.add(loadConfiguration(executor, connection, configConnection -> {
+                    serviceProvider.setInboundAuthenticationConfig(getInboundAuthenticationConfig(
+                            applicationId, configConnection, tenantID));
+
+                    serviceProvider.setInboundProvisioningConfig(getInboundProvisioningConfiguration(
+                            applicationId, configConnection, tenantID));
+
+                    serviceProvider.setOutboundProvisioningConfig(getOutboundProvisioningConfiguration(
+                            applicationId, configConnection, tenantID));
+                }));
+
+                configurations.add(loadConfiguration(executor, connection, configConnection -> {
+                    // Load Claim Mapping
+                    serviceProvider.setClaimConfig(getClaimConfiguration(applicationId, configConnection,
+                            tenantID));
+
+                    // Load Role Mappings
+                    List<RoleMapping> roleMappings = getRoleMappingOfApplication(applicationId, configConnection,
+                            tenantID);
+                    PermissionsAndRoleConfig permissionAndRoleConfig = new PermissionsAndRoleConfig();
+                    permissionAndRoleConfig.setRoleMappings(roleMappings.toArray(new RoleMapping[0]));
+                    serviceProvider.setPermissionAndRoleConfig(permissionAndRoleConfig);
+
+                    RequestPathAuthenticatorConfig[] requestPathAuthenticators = getRequestPathAuthenticators(
+                            applicationId, configConnection, tenantID);
+                    serviceProvider.setRequestPathAuthenticatorConfigs(requestPathAuthenticators);
+                }));
+
+                List<ServiceProviderProperty> propertyList = getServicePropertiesBySpId(connection, applicationId);
+
+                serviceProvider.setJwksUri(getJwksUri(propertyList));
+                serviceProvider.setTemplateId(getTemplateId(propertyList));
+                serviceProvider
+                        .setLocalAndOutBoundAuthenticationConfig(getLocalAndOutboundAuthenticationConfig(
+                                applicationId, connection, tenantID, propertyList));
 
-            // Load basic application data
-            ServiceProvider serviceProvider = getBasicApplicationData(applicationId, connection);
-            if (serviceProvider == null) {
-                return null;
+                serviceProvider.setSpProperties(propertyList.toArray(new ServiceProviderProperty[0]));
+                serviceProvider.setCertificateContent(getCertificateContent(propertyList, connection));
+
+                // Will be supported with 'Advance Consent Management Feature'.
+                /*
+                ConsentConfig consentConfig = serviceProvider.getConsentConfig();
+                if (isNull(consentConfig)) {
+                    consentConfig = new ConsentConfig();
+                }
+                consentConfig.setConsentPurposeConfigs(getConsentPurposeConfigs(connection, applicationId, tenantID));
+                serviceProvider.setConsentConfig(consentConfig);
+                */
+            } finally {
+                IdentityApplicationManagementUtil.closeConnection(connection);
             }
-            int tenantID = IdentityTenantUtil.getTenantId(serviceProvider.getOwner().getTenantDomain());
-            List<ServiceProviderProperty> propertyList = getServicePropertiesBySpId(connection, applicationId);
-
-            serviceProvider.setJwksUri(getJwksUri(propertyList));
-            serviceProvider.setTemplateId(getTemplateId(propertyList));
-            serviceProvider.setInboundAuthenticationConfig(getInboundAuthenticationConfig(
-                    applicationId, connection, tenantID));
-            serviceProvider
-                    .setLocalAndOutBoundAuthenticationConfig(getLocalAndOutboundAuthenticationConfig(
-                            applicationId, connection, tenantID, propertyList));
-
-            serviceProvider.setInboundProvisioningConfig(getInboundProvisioningConfiguration(
-                    applicationId, connection, tenantID));
-
-            serviceProvider.setOutboundProvisioningConfig(getOutboundProvisioningConfiguration(
-                    applicationId, connection, tenantID));
-
-            // Load Claim Mapping
-            serviceProvider.setClaimConfig(getClaimConfiguration(applicationId, connection,
-                    tenantID));
-
-            // Load Role Mappings
-            List<RoleMapping> roleMappings = getRoleMappingOfApplication(applicationId, connection,
-                    tenantID);
-            PermissionsAndRoleConfig permissionAndRoleConfig = new PermissionsAndRoleConfig();
-            permissionAndRoleConfig.setRoleMappings(roleMappings.toArray(new RoleMapping[0]));
-            serviceProvider.setPermissionAndRoleConfig(permissionAndRoleConfig);
-
-            RequestPathAuthenticatorConfig[] requestPathAuthenticators = getRequestPathAuthenticators(
-                    applicationId, connection, tenantID);
-            serviceProvider.setRequestPathAuthenticatorConfigs(requestPathAuthenticators);
-
-            serviceProvider.setSpProperties(propertyList.toArray(new ServiceProviderProperty[0]));
-            serviceProvider.setCertificateContent(getCertificateContent(propertyList, connection));
-
-            // Will be supported with 'Advance Consent Management Feature'.
-            /*
-            ConsentConfig consentConfig = serviceProvider.getConsentConfig();
-            if (isNull(consentConfig)) {
-                consentConfig = new ConsentConfig();
+
+            for (Future<Void> configuration : configurations) {
+                waitForLoad(configuration, applicationId);
             }
-            consentConfig.setConsentPurposeConfigs(getConsentPurposeConfigs(connection, applicationId, tenantID));
-            serviceProvider.setConsentConfig(consentConfig);
-            */
 
             String serviceProviderName = serviceProvider.getApplicationName();
             loadApplicationPermissions(serviceProviderName, serviceProvider);
@@ -2152,7 +2242,70 @@ public class ApplicationDAOImpl extends AbstractApplicationDAOImpl implements Pa
             throw new IdentityApplicationManagementException("Failed to get service provider with id: " + applicationId,
                     e);
         } finally {
-            IdentityApplicationManagementUtil.closeConnection(connection);
+            for (Future<Void> configuration : configurations) {
+                configuration.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Loads a part of the configuration of a service provider. The configuration is loaded in the executor with a
+     * connection of its own, or with the given connection in the calling thread if there is no executor or the
+     * executor is saturated.
+     *
+     * @param executor   executor to load the configuration, null to load it in the calling thread
+     * @param connection connection of the calling thread
+     * @param loader     loads the configuration
+     * @return result of loading the configuration
+     */
+    private Future<Void> loadConfiguration(ExecutorService executor, Connection connection,
+                                           ConfigurationLoader loader)
+            throws SQLException, IdentityApplicationManagementException {
+
+        if (executor != null) {
+            try {
+                return executor.submit(() -> {
+                    Connection configConnection = IdentityDatabaseUtil.getDBConnection(false);
+                    try {
+                        loader.load(configConnection);
+                        return null;
+                    } finally {
+                        IdentityApplicationManagementUtil.closeConnection(configConnection);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Application loader pool is saturated. Loading the configuration in the calling " +
+                            "thread.");
+                }
+            }
+        }
+        loader.load(connection);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private <T> T waitForLoad(Future<T> future, int applicationId)
+            throws SQLException, IdentityApplicationManagementException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityApplicationManagementException("Interrupted while loading service provider with id: " +
+                    applicationId, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IdentityApplicationManagementException) {
+                throw (IdentityApplicationManagementException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IdentityApplicationManagementException("Failed to get service provider with id: " +
+                    applicationId, cause);
         }
     }
 
@@ -5178,4 +5331,13 @@ public class ApplicationDAOImpl extends AbstractApplicationDAOImpl implements Pa
 
         AUDIT_LOG.info(String.format(AUDIT_MESSAGE, loggedInUser, action, data, result));
     }
+
+    /**
+     * Loads a part of the configuration of a service provider with the given connection.
+     */
+    @FunctionalInterface
+    private interface ConfigurationLoader {
+
+        void load(Connection connection) throws SQLException, IdentityApplicationManagementException;
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.dao.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.mgt.ApplicationConstants;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool used to load service providers from the database in parallel, each task on its own pooled
+ * connection.
+ * <p>
+ * The pool is bounded and shared by all tenants. When it is saturated or shut down, a task is rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException} instead of queueing without limit, and the caller loads the
+ * data itself with the connection it already holds, so that a thread never holds two connections at once. The size of
+ * the pool is configured with <code>ServiceProviders.LoaderPoolSize</code> in identity.xml, and a size of zero
+ * disables parallel loading.
+ */
+public class ApplicationLoaderPool {
+
+    private static final Log log = LogFactory.getLog(ApplicationLoaderPool.class);
+
+    private static final int QUEUE_SIZE_PER_THREAD = 10;
+
+    private static final Object lock = new Object();
+    private static volatile ExecutorService executor;
+    private static volatile boolean disabled;
+
+    private ApplicationLoaderPool() {
+
+    }
+
+    /**
+     * @return executor loading the service providers, null if parallel loading is disabled
+     */
+    static ExecutorService getExecutor() {
+
+        if (executor == null && !disabled) {
+            synchronized (lock) {
+                if (executor == null && !disabled) {
+                    int poolSize = getPoolSize();
+                    if (poolSize <= 0) {
+                        disabled = true;
+                        return null;
+                    }
+                    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(poolSize * QUEUE_SIZE_PER_THREAD), new LoaderThreadFactory(),
+                            new ThreadPoolExecutor.AbortPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the thread pool loading the service providers. Tasks which are already queued are still run.
+     */
+    public static void shutdown() {
+
+        synchronized (lock) {
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
+            disabled = false;
+        }
+    }
+
+    private static int getPoolSize() {
+
+        String poolSize = IdentityUtil.getProperty(ApplicationConstants.SERVICE_PROVIDERS + "." +
+                ApplicationConstants.LOADER_POOL_SIZE);
+        if (StringUtils.isNotBlank(poolSize)) {
+            try {
+                return Integer.parseInt(poolSize.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value: " + poolSize + " for " + ApplicationConstants.SERVICE_PROVIDERS + "." +
+                        ApplicationConstants.LOADER_POOL_SIZE + ". Using the default value: " +
+                        ApplicationConstants.DEFAULT_LOADER_POOL_SIZE);
+            }
+        }
+        return ApplicationConstants.DEFAULT_LOADER_POOL_SIZE;
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "application-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -40,12 +40,14 @@ import org.wso2.carbon.identity.application.mgt.internal.cache.ApplicationBasicI
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByIDCache;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByInboundAuthCache;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByResourceIdCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderCacheWarmUpHandler;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderCacheInboundAuthEntry;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderCacheInboundAuthKey;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderIDCacheEntry;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderIDCacheKey;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderResourceIdCacheEntry;
 import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderResourceIdCacheKey;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpService;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.util.ArrayList;
@@ -95,6 +97,7 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
                 throw new IdentityApplicationManagementException(error, e);
             }
         }
+        recordAccess(serviceProvider, tenantDomain);
         return serviceProvider;
     }
 
@@ -109,9 +112,34 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
             }
             addToCache(serviceProvider, serviceProvider.getOwner().getTenantDomain());
         }
+        recordAccess(serviceProvider, serviceProvider.getOwner().getTenantDomain());
         return serviceProvider;
     }
 
+    @Override
+    public List<ServiceProvider> getApplications(List<Integer> applicationIds)
+            throws IdentityApplicationManagementException {
+
+        List<ServiceProvider> serviceProviders = new ArrayList<>(applicationIds.size());
+        List<Integer> uncachedApplicationIds = new ArrayList<>();
+        for (int applicationId : applicationIds) {
+            ServiceProvider serviceProvider = getApplicationFromCache(applicationId);
+            if (serviceProvider == null) {
+                uncachedApplicationIds.add(applicationId);
+            } else {
+                serviceProviders.add(serviceProvider);
+            }
+        }
+
+        if (!uncachedApplicationIds.isEmpty()) {
+            for (ServiceProvider serviceProvider : appDAO.getApplications(uncachedApplicationIds)) {
+                addToCache(serviceProvider, serviceProvider.getOwner().getTenantDomain());
+                serviceProviders.add(serviceProvider);
+            }
+        }
+        return serviceProviders;
+    }
+
     public String getApplicationName(int applicationID) throws IdentityApplicationManagementException {
 
         ServiceProvider applicationFromCache = getApplicationFromCache(applicationID);
@@ -359,6 +387,7 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
                 addToCache(application, tenantDomain);
             }
         }
+        recordAccess(application, tenantDomain);
         return application;
     }
 
@@ -421,6 +450,17 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
         return appDAO.isApplicationDiscoverable(resourceId, tenantDomain);
     }
 
+    /**
+     * Records the access to a service provider, so that it can be loaded into the caches when the server starts.
+     */
+    private void recordAccess(ServiceProvider serviceProvider, String tenantDomain) {
+
+        if (serviceProvider != null) {
+            CacheWarmUpService.getInstance().recordAccess(ServiceProviderCacheWarmUpHandler.NAME, tenantDomain,
+                    String.valueOf(serviceProvider.getApplicationID()));
+        }
+    }
+
     private void addToCache(ServiceProvider serviceProvider, String tenantDomain) throws
             IdentityApplicationManagementException {
 
@@ -43,14 +43,17 @@ import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
 import org.wso2.carbon.identity.application.mgt.ApplicationManagementServiceImpl;
 import org.wso2.carbon.identity.application.mgt.ApplicationMgtSystemConfig;
 import org.wso2.carbon.identity.application.mgt.DiscoverableApplicationManager;
+import org.wso2.carbon.identity.application.mgt.dao.impl.ApplicationLoaderPool;
 import org.wso2.carbon.identity.application.mgt.defaultsequence.DefaultAuthSeqMgtService;
 import org.wso2.carbon.identity.application.mgt.defaultsequence.DefaultAuthSeqMgtServiceImpl;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderCacheWarmUpHandler;
 import org.wso2.carbon.identity.application.mgt.internal.impl.DiscoverableApplicationManagerImpl;
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationIdentityProviderMgtListener;
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtAuditLogger;
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtListener;
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationResourceManagementListener;
 import org.wso2.carbon.identity.application.mgt.listener.DefaultApplicationResourceMgtListener;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
 import org.wso2.carbon.idp.mgt.listener.IdentityProviderMgtListener;
 import org.wso2.carbon.registry.core.service.RegistryService;
 import org.wso2.carbon.user.core.service.RealmService;
@@ -101,6 +104,8 @@ public class ApplicationManagementServiceComponent {
 
             bundleContext.registerService(DiscoverableApplicationManager.class.getName(),
                     new DiscoverableApplicationManagerImpl(), null);
+            bundleContext.registerService(CacheWarmUpHandler.class.getName(),
+                    new ServiceProviderCacheWarmUpHandler(), null);
             buildFileBasedSPList();
             loadAuthenticationTemplates();
 
@@ -114,6 +119,8 @@ public class ApplicationManagementServiceComponent {
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
+
+        ApplicationLoaderPool.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("Identity ApplicationManagementComponent bundle is deactivated");
         }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.internal.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
+import org.wso2.carbon.identity.application.mgt.ApplicationMgtSystemConfig;
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the most accessed service providers of a tenant into the service provider caches. The entries are the ids of
+ * the service providers, as recorded by the cache backed application DAO.
+ */
+public class ServiceProviderCacheWarmUpHandler implements CacheWarmUpHandler {
+
+    public static final String NAME = "ServiceProvider";
+
+    private static final Log log = LogFactory.getLog(ServiceProviderCacheWarmUpHandler.class);
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public void warmUp(String tenantDomain, List<String> entries) throws IdentityException {
+
+        List<Integer> applicationIds = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            try {
+                applicationIds.add(Integer.parseInt(entry));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid service provider id : " + entry + " of tenant : " + tenantDomain);
+            }
+        }
+        if (applicationIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            // The cache backed DAO adds the loaded service providers to the caches.
+            ApplicationMgtSystemConfig.getInstance().getApplicationDAO().getApplications(applicationIds);
+        } catch (IdentityApplicationManagementException e) {
+            throw new IdentityException("Error while loading the service providers of tenant : " + tenantDomain, e);
+        }
+    }
+}
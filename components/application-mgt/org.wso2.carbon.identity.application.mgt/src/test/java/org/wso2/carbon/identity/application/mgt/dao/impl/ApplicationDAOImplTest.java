@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.dao.impl;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.mgt.ApplicationConstants;
+import org.wso2.carbon.identity.application.mgt.ApplicationMgtUtil;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.anyBoolean;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Unit tests for loading service providers with ApplicationDAOImpl, backed by an in memory H2 database.
+ */
+@PrepareForTest({IdentityDatabaseUtil.class, IdentityTenantUtil.class, IdentityUtil.class, ApplicationMgtUtil.class})
+public class ApplicationDAOImplTest extends PowerMockTestCase {
+
+    private static final String DB_URL = "jdbc:h2:mem:APPLICATION_MGT_DB;DB_CLOSE_DELAY=-1";
+    private static final String SUPER_TENANT_DOMAIN = "carbon.super";
+    private static final int SUPER_TENANT_ID = -1234;
+    private static final int APPLICATION_COUNT = 50;
+    private static final int CALLER_COUNT = 4;
+
+    private Connection keepAliveConnection;
+    private List<Integer> applicationIds = new ArrayList<>();
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        Class.forName("org.h2.Driver");
+        keepAliveConnection = DriverManager.getConnection(DB_URL);
+        String script = new File("src/test/resources/dbscripts/h2.sql").getAbsolutePath();
+        try (Statement statement = keepAliveConnection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            applicationIds.add(addApplication("application" + i));
+        }
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        ApplicationLoaderPool.shutdown();
+        keepAliveConnection.close();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(invocation ->
+                DriverManager.getConnection(DB_URL));
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantDomain(SUPER_TENANT_ID)).thenReturn(SUPER_TENANT_DOMAIN);
+        when(IdentityTenantUtil.getTenantId(SUPER_TENANT_DOMAIN)).thenReturn(SUPER_TENANT_ID);
+        mockStatic(IdentityUtil.class);
+        mockStatic(ApplicationMgtUtil.class);
+    }
+
+    @Test
+    public void testGetApplication() throws Exception {
+
+        ApplicationDAOImpl applicationDAO = new ApplicationDAOImpl();
+        ServiceProvider serviceProvider = applicationDAO.getApplication(applicationIds.get(0));
+
+        assertNotNull(serviceProvider);
+        assertEquals(serviceProvider.getApplicationName(), "application0");
+        assertEquals(serviceProvider.getOwner().getTenantDomain(), SUPER_TENANT_DOMAIN);
+        assertEquals(serviceProvider.getInboundAuthenticationConfig().getInboundAuthenticationRequestConfigs()
+                .length, 1);
+        assertEquals(serviceProvider.getInboundAuthenticationConfig().getInboundAuthenticationRequestConfigs()[0]
+                .getInboundAuthKey(), "client-application0");
+        assertEquals(serviceProvider.getClaimConfig().getClaimMappings().length, 1);
+        assertEquals(serviceProvider.getPermissionAndRoleConfig().getRoleMappings().length, 1);
+        assertEquals(serviceProvider.getRequestPathAuthenticatorConfigs().length, 1);
+        assertEquals(serviceProvider.getSpProperties().length, 1);
+        assertNotNull(serviceProvider.getLocalAndOutBoundAuthenticationConfig());
+        assertNotNull(serviceProvider.getInboundProvisioningConfig());
+        assertNotNull(serviceProvider.getOutboundProvisioningConfig());
+    }
+
+    @Test
+    public void testGetApplicationNotFound() throws Exception {
+
+        assertNull(new ApplicationDAOImpl().getApplication(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetApplications() throws Exception {
+
+        List<Integer> ids = new ArrayList<>(applicationIds);
+        ids.add(Integer.MAX_VALUE);
+        List<ServiceProvider> serviceProviders = new ApplicationDAOImpl().getApplications(ids);
+
+        assertEquals(serviceProviders.size(), APPLICATION_COUNT);
+        for (ServiceProvider serviceProvider : serviceProviders) {
+            assertEquals(serviceProvider.getInboundAuthenticationConfig().getInboundAuthenticationRequestConfigs()
+                    [0].getInboundAuthKey(), "client-" + serviceProvider.getApplicationName());
+            assertEquals(serviceProvider.getClaimConfig().getClaimMappings().length, 1);
+        }
+    }
+
+    /**
+     * Loads the service providers from several threads with a loader pool of a single thread, so that the pool is
+     * saturated, and checks that no thread holds more than one connection at a time.
+     */
+    @Test
+    public void testThreadHoldsSingleConnectionWhenPoolIsSaturated() throws Exception {
+
+        ApplicationLoaderPool.shutdown();
+        when(IdentityUtil.getProperty(ApplicationConstants.SERVICE_PROVIDERS + "." +
+                ApplicationConstants.LOADER_POOL_SIZE)).thenReturn("1");
+        Map<Thread, AtomicInteger> openConnections = new ConcurrentHashMap<>();
+        AtomicInteger maxOpenConnections = new AtomicInteger();
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(invocation -> {
+            Connection connection = DriverManager.getConnection(DB_URL);
+            AtomicInteger threadConnections = openConnections.computeIfAbsent(Thread.currentThread(),
+                    thread -> new AtomicInteger());
+            maxOpenConnections.accumulateAndGet(threadConnections.incrementAndGet(), Math::max);
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName())) {
+                            threadConnections.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        });
+
+        ApplicationDAOImpl applicationDAO = new ApplicationDAOImpl();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_COUNT);
+        try {
+            List<Future<Integer>> loads = new ArrayList<>();
+            for (int i = 0; i < CALLER_COUNT; i++) {
+                loads.add(callers.submit(() -> {
+                    int loaded = 0;
+                    for (int applicationId : applicationIds) {
+                        if (applicationDAO.getApplication(applicationId) != null) {
+                            loaded++;
+                        }
+                    }
+                    return loaded + applicationDAO.getApplications(applicationIds).size();
+                }));
+            }
+            for (Future<Integer> load : loads) {
+                assertEquals(load.get().intValue(), APPLICATION_COUNT * 2);
+            }
+        } finally {
+            callers.shutdownNow();
+            ApplicationLoaderPool.shutdown();
+        }
+        assertEquals(maxOpenConnections.get(), 1);
+    }
+
+    private int addApplication(String applicationName) throws SQLException {
+
+        int applicationId;
+        try (PreparedStatement statement = keepAliveConnection.prepareStatement("INSERT INTO SP_APP (TENANT_ID, " +
+                "APP_NAME, USER_STORE, USERNAME, DESCRIPTION, AUTH_TYPE, UUID) VALUES (?, ?, 'PRIMARY', 'admin', " +
+                "'description', 'default', ?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setInt(1, SUPER_TENANT_ID);
+            statement.setString(2, applicationName);
+            statement.setString(3, UUID.randomUUID().toString());
+            statement.executeUpdate();
+            try (ResultSet resultSet = statement.getGeneratedKeys()) {
+                resultSet.next();
+                applicationId = resultSet.getInt(1);
+            }
+        }
+
+        execute("INSERT INTO SP_METADATA (SP_ID, NAME, VALUE, DISPLAY_NAME, TENANT_ID) VALUES (?, 'templateId', " +
+                "'template', 'Template Id', ?)", applicationId);
+        execute("INSERT INTO SP_INBOUND_AUTH (APP_ID, TENANT_ID, INBOUND_AUTH_KEY, INBOUND_AUTH_TYPE, " +
+                "INBOUND_CONFIG_TYPE) VALUES (?, ?, 'client-" + applicationName + "', 'oauth2', 'standardAPP')",
+                applicationId);
+        execute("INSERT INTO SP_CLAIM_MAPPING (APP_ID, TENANT_ID, IDP_CLAIM, SP_CLAIM, IS_REQUESTED) VALUES (?, ?, " +
+                "'http://wso2.org/claims/emailaddress', 'email', '1')", applicationId);
+        execute("INSERT INTO SP_ROLE_MAPPING (APP_ID, TENANT_ID, IDP_ROLE, SP_ROLE) VALUES (?, ?, 'admin', " +
+                "'administrator')", applicationId);
+        execute("INSERT INTO SP_REQ_PATH_AUTHENTICATOR (APP_ID, TENANT_ID, AUTHENTICATOR_NAME) VALUES (?, ?, " +
+                "'BasicAuthRequestPathAuthenticator')", applicationId);
+        return applicationId;
+    }
+
+    private void execute(String query, int applicationId) throws SQLException {
+
+        try (PreparedStatement statement = keepAliveConnection.prepareStatement(query)) {
+            statement.setInt(1, applicationId);
+            statement.setInt(2, SUPER_TENANT_ID);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+CREATE TABLE IF NOT EXISTS SP_APP (
+        ID INTEGER NOT NULL AUTO_INCREMENT,
+        TENANT_ID INTEGER NOT NULL,
+        APP_NAME VARCHAR (255) NOT NULL ,
+        USER_STORE VARCHAR (255) NOT NULL,
+        USERNAME VARCHAR (255) NOT NULL ,
+        DESCRIPTION VARCHAR (1024),
+        ROLE_CLAIM VARCHAR (512),
+        AUTH_TYPE VARCHAR (255) NOT NULL,
+        PROVISIONING_USERSTORE_DOMAIN VARCHAR (512),
+        IS_LOCAL_CLAIM_DIALECT CHAR(1) DEFAULT '1',
+        IS_SEND_LOCAL_SUBJECT_ID CHAR(1) DEFAULT '0',
+        IS_SEND_AUTH_LIST_OF_IDPS CHAR(1) DEFAULT '0',
+        IS_USE_TENANT_DOMAIN_SUBJECT CHAR(1) DEFAULT '1',
+        IS_USE_USER_DOMAIN_SUBJECT CHAR(1) DEFAULT '1',
+        ENABLE_AUTHORIZATION CHAR(1) DEFAULT '0',
+        SUBJECT_CLAIM_URI VARCHAR (512),
+        IS_SAAS_APP CHAR(1) DEFAULT '0',
+        IS_DUMB_MODE CHAR(1) DEFAULT '0',
+        UUID CHAR(36),
+        IMAGE_URL VARCHAR(1024),
+        ACCESS_URL VARCHAR(1024),
+        IS_DISCOVERABLE CHAR(1) DEFAULT '0',
+
+        PRIMARY KEY (ID));
+
+ALTER TABLE SP_APP ADD CONSTRAINT APPLICATION_NAME_CONSTRAINT UNIQUE(APP_NAME, TENANT_ID);
+ALTER TABLE SP_APP ADD CONSTRAINT APPLICATION_UUID_CONSTRAINT UNIQUE(UUID);
+
+CREATE TABLE IF NOT EXISTS SP_METADATA (
+            ID INTEGER AUTO_INCREMENT,
+            SP_ID INTEGER,
+            NAME VARCHAR(255) NOT NULL,
+            VALUE VARCHAR(255) NOT NULL,
+            DISPLAY_NAME VARCHAR(255),
+            TENANT_ID INTEGER DEFAULT -1,
+            PRIMARY KEY (ID),
+            CONSTRAINT SP_METADATA_CONSTRAINT UNIQUE (SP_ID, NAME),
+            FOREIGN KEY (SP_ID) REFERENCES SP_APP(ID) ON DELETE CASCADE);
+
+CREATE TABLE IF NOT EXISTS SP_INBOUND_AUTH (
+            ID INTEGER NOT NULL AUTO_INCREMENT,
+            TENANT_ID INTEGER NOT NULL,
+            INBOUND_AUTH_KEY VARCHAR (255),
+            INBOUND_AUTH_TYPE VARCHAR (255) NOT NULL,
+            INBOUND_CONFIG_TYPE VARCHAR (255) NOT NULL,
+            PROP_NAME VARCHAR (255),
+            PROP_VALUE VARCHAR (1024) ,
+            APP_ID INTEGER NOT NULL,
+            PRIMARY KEY (ID));
+
+ALTER TABLE SP_INBOUND_AUTH ADD CONSTRAINT APPLICATION_ID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_AUTH_STEP (
+            ID INTEGER NOT NULL AUTO_INCREMENT,
+            TENANT_ID INTEGER NOT NULL,
+            STEP_ORDER INTEGER DEFAULT 1,
+            APP_ID INTEGER NOT NULL ,
+            IS_SUBJECT_STEP CHAR(1) DEFAULT '0',
+            IS_ATTRIBUTE_STEP CHAR(1) DEFAULT '0',
+            PRIMARY KEY (ID));
+
+ALTER TABLE SP_AUTH_STEP ADD CONSTRAINT APPLICATION_ID_CONSTRAINT_STEP FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_FEDERATED_IDP (
+            ID INTEGER NOT NULL,
+            TENANT_ID INTEGER NOT NULL,
+            AUTHENTICATOR_ID INTEGER NOT NULL,
+            PRIMARY KEY (ID, AUTHENTICATOR_ID));
+
+ALTER TABLE SP_FEDERATED_IDP ADD CONSTRAINT STEP_ID_CONSTRAINT FOREIGN KEY (ID) REFERENCES SP_AUTH_STEP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_CLAIM_DIALECT (
+	   	ID INTEGER NOT NULL AUTO_INCREMENT,
+	   	TENANT_ID INTEGER NOT NULL,
+	   	SP_DIALECT VARCHAR (512) NOT NULL,
+	   	APP_ID INTEGER NOT NULL,
+	   	PRIMARY KEY (ID));
+
+ALTER TABLE SP_CLAIM_DIALECT ADD CONSTRAINT DIALECTID_APPID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_CLAIM_MAPPING (
+	   	ID INTEGER NOT NULL AUTO_INCREMENT,
+	   	TENANT_ID INTEGER NOT NULL,
+	   	IDP_CLAIM VARCHAR (512) NOT NULL ,
+	   	SP_CLAIM VARCHAR (512) NOT NULL ,
+	   	APP_ID INTEGER NOT NULL,
+	   	IS_REQUESTED VARCHAR(128) DEFAULT '0',
+		IS_MANDATORY VARCHAR(128) DEFAULT '0',
+	   	DEFAULT_VALUE VARCHAR(255),
+	   	PRIMARY KEY (ID));
+
+ALTER TABLE SP_CLAIM_MAPPING ADD CONSTRAINT CLAIMID_APPID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_ROLE_MAPPING (
+	    	ID INTEGER NOT NULL AUTO_INCREMENT,
+	    	TENANT_ID INTEGER NOT NULL,
+	    	IDP_ROLE VARCHAR (255) NOT NULL ,
+	    	SP_ROLE VARCHAR (255) NOT NULL ,
+	    	APP_ID INTEGER NOT NULL,
+	    	PRIMARY KEY (ID));
+
+ALTER TABLE SP_ROLE_MAPPING ADD CONSTRAINT ROLEID_APPID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_REQ_PATH_AUTHENTICATOR (
+	    	ID INTEGER NOT NULL AUTO_INCREMENT,
+	    	TENANT_ID INTEGER NOT NULL,
+	    	AUTHENTICATOR_NAME VARCHAR (255) NOT NULL ,
+	    	APP_ID INTEGER NOT NULL,
+	    	PRIMARY KEY (ID));
+
+ALTER TABLE SP_REQ_PATH_AUTHENTICATOR ADD CONSTRAINT REQ_AUTH_APPID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_PROVISIONING_CONNECTOR (
+	    	ID INTEGER NOT NULL AUTO_INCREMENT,
+	    	TENANT_ID INTEGER NOT NULL,
+	    	IDP_NAME VARCHAR (255) NOT NULL ,
+	    	CONNECTOR_NAME VARCHAR (255) NOT NULL ,
+	    	APP_ID INTEGER NOT NULL,
+	    	IS_JIT_ENABLED CHAR(1) NOT NULL DEFAULT '0',
+	    	BLOCKING CHAR(1) NOT NULL DEFAULT '0',
+	    	RULE_ENABLED CHAR(1) NOT NULL DEFAULT '0',
+	    	PRIMARY KEY (ID));
+
+ALTER TABLE SP_PROVISIONING_CONNECTOR ADD CONSTRAINT PRO_CONNECTOR_APPID_CONSTRAINT FOREIGN KEY (APP_ID) REFERENCES SP_APP (ID) ON DELETE CASCADE;
+
+CREATE TABLE IF NOT EXISTS SP_AUTH_SCRIPT (
+  ID         INTEGER AUTO_INCREMENT NOT NULL,
+  TENANT_ID  INTEGER                NOT NULL,
+  APP_ID     INTEGER                NOT NULL,
+  TYPE       VARCHAR(255)           NOT NULL,
+  CONTENT    BLOB    DEFAULT NULL,
+  IS_ENABLED CHAR(1) NOT NULL DEFAULT '0',
+  PRIMARY KEY (ID));
+
+CREATE TABLE SP_TEMPLATE (
+  ID         INTEGER AUTO_INCREMENT NOT NULL,
+  TENANT_ID  INTEGER                NOT NULL,
+  NAME VARCHAR(255) NOT NULL,
+  DESCRIPTION VARCHAR(1023),
+  CONTENT BLOB DEFAULT NULL,
+  PRIMARY KEY (ID),
+  CONSTRAINT SP_TEMPLATE_CONSTRAINT UNIQUE (TENANT_ID, NAME));
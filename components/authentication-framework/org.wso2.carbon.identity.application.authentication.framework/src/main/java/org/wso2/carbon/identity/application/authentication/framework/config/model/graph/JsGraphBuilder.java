@@ -53,7 +53,6 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.script.Bindings;
-import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
@@ -72,6 +71,7 @@ public class JsGraphBuilder {
     private AuthGraphNode currentNode = null;
     private AuthenticationContext authenticationContext;
     private ScriptEngine engine;
+    private JsGraphBuilderFactory jsGraphBuilderFactory;
     private static ThreadLocal<AuthenticationContext> contextForJs = new ThreadLocal<>();
     private static ThreadLocal<AuthGraphNode> dynamicallyBuiltBaseNode = new ThreadLocal<>();
     private static ThreadLocal<JsGraphBuilder> currentBuilder = new ThreadLocal<>();
@@ -110,6 +110,37 @@ public class JsGraphBuilder {
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
+    /**
+     * Constructs the builder with the given authentication context. The script engine is borrowed from the given
+     * factory only while the script is executed.
+     *
+     * @param authenticationContext current authentication context.
+     * @param stepConfigMap         The Step map from the service provider configuration.
+     * @param jsGraphBuilderFactory Factory providing the script engines.
+     */
+    JsGraphBuilder(AuthenticationContext authenticationContext, Map<Integer, StepConfig> stepConfigMap,
+                   JsGraphBuilderFactory jsGraphBuilderFactory) {
+
+        this(authenticationContext, stepConfigMap, (ScriptEngine) null);
+        this.jsGraphBuilderFactory = jsGraphBuilderFactory;
+    }
+
+    /**
+     * Constructs the builder with the given authentication context. The script engine is borrowed from the given
+     * factory only while the script is executed.
+     *
+     * @param authenticationContext current authentication context.
+     * @param stepConfigMap         The Step map from the service provider configuration.
+     * @param jsGraphBuilderFactory Factory providing the script engines.
+     * @param currentNode           Current authentication graph node.
+     */
+    JsGraphBuilder(AuthenticationContext authenticationContext, Map<Integer, StepConfig> stepConfigMap,
+                   JsGraphBuilderFactory jsGraphBuilderFactory, AuthGraphNode currentNode) {
+
+        this(authenticationContext, stepConfigMap, (ScriptEngine) null, currentNode);
+        this.jsGraphBuilderFactory = jsGraphBuilderFactory;
+    }
+
     /**
      * Returns the built graph.
      *
@@ -137,6 +168,10 @@ public class JsGraphBuilder {
      */
     public JsGraphBuilder createWith(String script) {
 
+        boolean borrowedEngine = engine == null && jsGraphBuilderFactory != null;
+        if (borrowedEngine) {
+            engine = jsGraphBuilderFactory.createEngine(authenticationContext);
+        }
         try {
             currentBuilder.set(this);
             Bindings globalBindings = engine.getBindings(ScriptContext.GLOBAL_SCOPE);
@@ -159,8 +194,8 @@ public class JsGraphBuilder {
                 functionMap.forEach(globalBindings::put);
             }
             Invocable invocable = (Invocable) engine;
-            engine.eval(FrameworkServiceDataHolder.getInstance().getCodeForRequireFunction());
-            engine.eval(script);
+            evalScript(FrameworkServiceDataHolder.getInstance().getCodeForRequireFunction());
+            evalScript(script);
             invocable.invokeFunction(FrameworkConstants.JSAttributes.JS_FUNC_ON_LOGIN_REQUEST,
                     new JsAuthenticationContext(authenticationContext));
             JsGraphBuilderFactory.persistCurrentContext(authenticationContext, engine);
@@ -179,10 +214,23 @@ public class JsGraphBuilder {
             }
         } finally {
             clearCurrentBuilder();
+            if (borrowedEngine) {
+                jsGraphBuilderFactory.releaseEngine(engine);
+                engine = null;
+            }
         }
         return this;
     }
 
+    private void evalScript(String script) throws ScriptException {
+
+        if (jsGraphBuilderFactory != null) {
+            jsGraphBuilderFactory.compile(engine, script, authenticationContext).eval();
+        } else {
+            engine.eval(script);
+        }
+    }
+
     public static void clearCurrentBuilder() {
 
         currentBuilder.remove();
@@ -930,7 +978,8 @@ public class JsGraphBuilder {
                 return null;
             }
             if (jsFunction.isFunction()) {
-                ScriptEngine scriptEngine = getEngine(authenticationContext);
+                JsGraphBuilderFactory factory = getJsGraphBuilderFactory();
+                ScriptEngine scriptEngine = factory.createEngine(authenticationContext);
                 try {
                     currentBuilder.set(graphBuilder);
                     JsGraphBuilderFactory.restoreCurrentContext(authenticationContext, scriptEngine);
@@ -953,10 +1002,10 @@ public class JsGraphBuilder {
                                 .getSubsystemFunctionsMap(JsFunctionRegistry.Subsystem.SEQUENCE_HANDLER);
                         functionMap.forEach(globalBindings::put);
                     }
-                    Compilable compilable = (Compilable) scriptEngine;
                     JsGraphBuilder.contextForJs.set(authenticationContext);
 
-                    CompiledScript compiledScript = compilable.compile(jsFunction.getSource());
+                    CompiledScript compiledScript = factory.compile(scriptEngine, jsFunction.getSource(),
+                            authenticationContext);
                     JSObject builderFunction = (JSObject) compiledScript.eval();
                     result = jsConsumer.apply(builderFunction);
 
@@ -980,6 +1029,7 @@ public class JsGraphBuilder {
                     contextForJs.remove();
                     dynamicallyBuiltBaseNode.remove();
                     clearCurrentBuilder();
+                    factory.releaseEngine(scriptEngine);
                 }
 
             } else {
@@ -1000,10 +1050,12 @@ public class JsGraphBuilder {
             return executingNode instanceof DynamicDecisionNode && dynamicallyBuiltBaseNode.get() != null;
         }
 
-        private ScriptEngine getEngine(AuthenticationContext authenticationContext) {
+        private JsGraphBuilderFactory getJsGraphBuilderFactory() {
 
-            return FrameworkServiceDataHolder.getInstance().getJsGraphBuilderFactory()
-                    .createEngine(authenticationContext);
+            if (jsGraphBuilderFactory != null) {
+                return jsGraphBuilderFactory;
+            }
+            return FrameworkServiceDataHolder.getInstance().getJsGraphBuilderFactory();
         }
     }
 }
@@ -19,6 +19,8 @@
 package org.wso2.carbon.identity.application.authentication.framework.config.model.graph;
 
 import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.authentication.framework.config.model.StepConfig;
@@ -30,30 +32,63 @@ import org.wso2.carbon.identity.application.authentication.framework.handler.seq
 import org.wso2.carbon.identity.application.authentication.framework.handler.sequence.impl.SelectOneFunction;
 import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants;
 import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_COMPILED_SCRIPT_CACHE_SIZE;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_SCRIPT_ENGINE_POOL_SIZE;
 
 /**
  * Factory to create a Javascript based sequence builder.
  * This factory is there to reuse of Nashorn engine and any related expnsive objects.
+ * <p>
+ * Engines are pooled. Each engine handed out by {@link #createEngine(AuthenticationContext)} gets new global
+ * bindings, so nothing defined by a previous script is visible to the next one, and should be handed back with
+ * {@link #releaseEngine(ScriptEngine)} once done. Scripts are compiled once per pooled engine and the compiled
+ * scripts are looked up by the hash of the script content, so an updated script is never served from the cache.
  */
 public class JsGraphBuilderFactory {
 
     private static final Log LOG = LogFactory.getLog(JsGraphBuilderFactory.class);
     private static final String JS_BINDING_CURRENT_CONTEXT = "JS_BINDING_CURRENT_CONTEXT";
+    private static final int DEFAULT_SCRIPT_ENGINE_POOL_SIZE = 10;
+    private static final int DEFAULT_COMPILED_SCRIPT_CACHE_SIZE = 100;
 
     // Suppress the Nashorn deprecation warnings in jdk 11
     @SuppressWarnings("removal")
     private NashornScriptEngineFactory factory;
-
+    private int scriptEnginePoolSize;
+    private int compiledScriptCacheSize;
+    private final Queue<ScriptEngine> idleEngines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleEngineCount = new AtomicInteger();
+    private final Map<ScriptEngine, Map<String, CompiledScript>> compiledScripts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> scriptHashesOfServiceProviders = new ConcurrentHashMap<>();
+    private final LongAdder compiledScriptHits = new LongAdder();
+    private final LongAdder compiledScriptMisses = new LongAdder();
 
     public void init() {
 
         factory = new NashornScriptEngineFactory();
+        scriptEnginePoolSize = getIntProperty(ADAPTIVE_AUTH_SCRIPT_ENGINE_POOL_SIZE, DEFAULT_SCRIPT_ENGINE_POOL_SIZE);
+        compiledScriptCacheSize = getIntProperty(ADAPTIVE_AUTH_COMPILED_SCRIPT_CACHE_SIZE,
+                DEFAULT_COMPILED_SCRIPT_CACHE_SIZE);
     }
 
     public static void restoreCurrentContext(AuthenticationContext context, ScriptEngine engine)
@@ -82,7 +117,12 @@ public class JsGraphBuilderFactory {
 
     public ScriptEngine createEngine(AuthenticationContext authenticationContext) {
 
-        ScriptEngine engine = factory.getScriptEngine("--no-java");
+        ScriptEngine engine = idleEngines.poll();
+        if (engine != null) {
+            idleEngineCount.decrementAndGet();
+        } else {
+            engine = factory.getScriptEngine("--no-java");
+        }
 
         Bindings bindings = engine.createBindings();
         engine.setBindings(bindings, ScriptContext.GLOBAL_SCOPE);
@@ -97,16 +137,157 @@ public class JsGraphBuilderFactory {
         return engine;
     }
 
+    /**
+     * Hands an engine created with {@link #createEngine(AuthenticationContext)} back to the pool. The engine must
+     * not be used by the caller afterwards.
+     *
+     * @param engine Script engine.
+     */
+    public void releaseEngine(ScriptEngine engine) {
+
+        if (engine == null) {
+            return;
+        }
+        // Drop the bindings, so the idle engine does not keep the objects of the last authentication flow reachable.
+        engine.setBindings(new SimpleBindings(), ScriptContext.GLOBAL_SCOPE);
+        engine.setBindings(new SimpleBindings(), ScriptContext.ENGINE_SCOPE);
+        if (idleEngineCount.incrementAndGet() <= scriptEnginePoolSize) {
+            idleEngines.offer(engine);
+        } else {
+            idleEngineCount.decrementAndGet();
+            compiledScripts.remove(engine);
+        }
+    }
+
+    /**
+     * Compiles the given script in the given engine. A script already compiled in the same engine is reused.
+     *
+     * @param engine                Script engine, created with {@link #createEngine(AuthenticationContext)}.
+     * @param script                Script to compile.
+     * @param authenticationContext Current authentication context, used to track the scripts of each service
+     *                              provider.
+     * @return Compiled script, bound to the given engine.
+     * @throws ScriptException If the script can not be compiled.
+     */
+    public CompiledScript compile(ScriptEngine engine, String script, AuthenticationContext authenticationContext)
+            throws ScriptException {
+
+        if (compiledScriptCacheSize <= 0) {
+            return ((Compilable) engine).compile(script);
+        }
+
+        String scriptHash = DigestUtils.sha256Hex(script);
+        Map<String, CompiledScript> engineScripts = compiledScripts.computeIfAbsent(engine,
+                key -> createCompiledScriptCache());
+        CompiledScript compiledScript = engineScripts.get(scriptHash);
+        if (compiledScript != null) {
+            compiledScriptHits.increment();
+            return compiledScript;
+        }
+
+        compiledScriptMisses.increment();
+        compiledScript = ((Compilable) engine).compile(script);
+        engineScripts.put(scriptHash, compiledScript);
+        String serviceProviderName = authenticationContext != null ?
+                authenticationContext.getServiceProviderName() : null;
+        if (serviceProviderName != null) {
+            scriptHashesOfServiceProviders.computeIfAbsent(getServiceProviderKey(serviceProviderName,
+                    authenticationContext.getTenantDomain()), key -> ConcurrentHashMap.newKeySet()).add(scriptHash);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Compiled the script of service provider : " + serviceProviderName
+                    + ". Compiled script cache hits : " + compiledScriptHits.sum() + ", misses : "
+                    + compiledScriptMisses.sum());
+        }
+        return compiledScript;
+    }
+
+    /**
+     * Removes the compiled scripts of the given service provider from all the pooled engines. Used when the service
+     * provider is updated or deleted.
+     *
+     * @param serviceProviderName Name of the service provider.
+     * @param tenantDomain        Tenant domain of the service provider.
+     */
+    public void clearCompiledScripts(String serviceProviderName, String tenantDomain) {
+
+        Set<String> scriptHashes = scriptHashesOfServiceProviders.remove(getServiceProviderKey(serviceProviderName,
+                tenantDomain));
+        if (scriptHashes == null) {
+            return;
+        }
+        for (Map<String, CompiledScript> engineScripts : compiledScripts.values()) {
+            engineScripts.keySet().removeAll(scriptHashes);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cleared the compiled scripts of service provider : " + serviceProviderName + " of tenant : "
+                    + tenantDomain);
+        }
+    }
+
+    /**
+     * @return Number of scripts served from the compiled script cache.
+     */
+    public long getCompiledScriptCacheHitCount() {
+
+        return compiledScriptHits.sum();
+    }
+
+    /**
+     * @return Number of scripts compiled as they were not in the compiled script cache.
+     */
+    public long getCompiledScriptCacheMissCount() {
+
+        return compiledScriptMisses.sum();
+    }
+
+    /**
+     * @return Number of engines idling in the pool.
+     */
+    public int getIdleEngineCount() {
+
+        return idleEngineCount.get();
+    }
+
     public JsGraphBuilder createBuilder(AuthenticationContext authenticationContext,
             Map<Integer, StepConfig> stepConfigMap) {
 
-        return new JsGraphBuilder(authenticationContext, stepConfigMap, createEngine(authenticationContext));
+        return new JsGraphBuilder(authenticationContext, stepConfigMap, this);
     }
 
     public JsGraphBuilder createBuilder(AuthenticationContext authenticationContext,
                                         Map<Integer, StepConfig> stepConfigMap, AuthGraphNode currentNode) {
 
-        return new JsGraphBuilder(authenticationContext, stepConfigMap,
-                createEngine(authenticationContext), currentNode);
+        return new JsGraphBuilder(authenticationContext, stepConfigMap, this, currentNode);
+    }
+
+    private Map<String, CompiledScript> createCompiledScriptCache() {
+
+        return Collections.synchronizedMap(new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+
+                return size() > compiledScriptCacheSize;
+            }
+        });
+    }
+
+    private static String getServiceProviderKey(String serviceProviderName, String tenantDomain) {
+
+        return tenantDomain + ":" + serviceProviderName;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(name);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid value : " + value + " for " + name + ". Using the default value : " + defaultValue);
+            }
+        }
+        return defaultValue;
     }
 }
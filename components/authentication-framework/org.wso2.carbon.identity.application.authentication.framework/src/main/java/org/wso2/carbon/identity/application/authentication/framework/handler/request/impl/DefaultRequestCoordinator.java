@@ -141,11 +141,27 @@ public class DefaultRequestCoordinator extends AbstractRequestCoordinator implem
         try {
             AuthenticationRequestCacheEntry authRequest = null;
             boolean returning = false;
-            // Check whether this is the start of the authentication flow.
-            // 'type' parameter should be present if so. This parameter contains
-            // the request type (e.g. samlsso) set by the calling servlet.
-            // TODO: use a different mechanism to determine the flow start.
-            if (request.getParameter("type") != null) {
+            String resumedContextId = (String) request.getAttribute(
+                    FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_CONTEXT_ID);
+            if (resumedContextId != null) {
+                // The request was suspended during a long wait and is dispatched again. Continue the flow from where
+                // it was suspended.
+                request.removeAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_CONTEXT_ID);
+                context = FrameworkUtils.getAuthenticationContextFromCache(resumedContextId);
+                if (context != null) {
+                    returning = context.isReturning();
+                    setLongWaitOutcome(request, context);
+                    if (request.getParameter("type") != null && context.getAuthenticationRequest() != null) {
+                        request = FrameworkUtils.getCommonAuthReqWithParams(request,
+                                new AuthenticationRequestCacheEntry(context.getAuthenticationRequest()));
+                    }
+                    associateTransientRequestData(request, responseWrapper, context);
+                }
+            } else if (request.getParameter("type") != null) {
+                // Check whether this is the start of the authentication flow.
+                // 'type' parameter should be present if so. This parameter contains
+                // the request type (e.g. samlsso) set by the calling servlet.
+                // TODO: use a different mechanism to determine the flow start.
                 // Retrieves AuthenticationRequestCache entry, if the request contains a valid session data key and
                 // handles common auth logout request.
                 if (sessionDataKey != null) {
@@ -320,7 +336,9 @@ public class DefaultRequestCoordinator extends AbstractRequestCoordinator implem
                     }
                 }
             }
-            unwrapResponse(responseWrapper, sessionDataKey, response, context);
+            if (!request.isAsyncStarted()) {
+                unwrapResponse(responseWrapper, sessionDataKey, response, context);
+            }
         }
     }
 
@@ -422,6 +440,26 @@ public class DefaultRequestCoordinator extends AbstractRequestCoordinator implem
      * @param response
      * @param context
      */
+    /**
+     * Sets the outcome of the external call, which the suspended request waited for, on the context. The outcome is
+     * absent if the wait timed out.
+     *
+     * @param request resumed request
+     * @param context authentication context of the resumed request
+     */
+    private void setLongWaitOutcome(HttpServletRequest request, AuthenticationContext context) {
+
+        Object status = request.getAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_STATUS);
+        if (status == null) {
+            return;
+        }
+        context.setProperty(FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_STATUS, status);
+        context.setProperty(FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_DATA,
+                request.getAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_DATA));
+        request.removeAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_STATUS);
+        request.removeAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_DATA);
+    }
+
     private void associateTransientRequestData(HttpServletRequest request, HttpServletResponse response,
             AuthenticationContext context) {
 
@@ -30,26 +30,133 @@ import org.wso2.carbon.identity.application.authentication.framework.store.LongW
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_ASYNC_SEQUENCE_EXECUTOR_QUEUE_SIZE;
+
+/**
+ * Executes the asynchronous calls of the adaptive authentication scripts, and the callbacks resuming the
+ * authentication flow once the calls return.
+ * <p>
+ * The tasks are executed on a bounded thread pool with a bounded queue. If the queue is full, the task is executed in
+ * the submitting thread, which throttles the submitters instead of queueing without limit. Timeouts of the long
+ * waits are handled by a scheduler, so no thread is blocked while waiting.
+ */
 public class AsyncSequenceExecutor {
 
     private static final Log log = LogFactory.getLog(AsyncSequenceExecutor.class);
 
-    private ExecutorService executorService;
+    private static final int DEFAULT_POOL_SIZE = 5;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private ThreadPoolExecutor executorService;
+    private ScheduledExecutorService scheduler;
+    private final LongAdder executedTasks = new LongAdder();
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder totalQueueWaitMillis = new LongAdder();
+    private final AtomicLong maxQueueWaitMillis = new AtomicLong();
 
     public void init() {
 
-        String poolSizeString = IdentityUtil.getProperty("AdaptiveAuth.AsyncSequenceExecutorPoolSize");
-        int poolSize;
-        if (poolSizeString != null) {
-            poolSize = Integer.parseInt(poolSizeString);
-        } else {
-            poolSize = 5;
+        int poolSize = getIntProperty("AdaptiveAuth.AsyncSequenceExecutorPoolSize", DEFAULT_POOL_SIZE);
+        int queueSize = getIntProperty(ADAPTIVE_AUTH_ASYNC_SEQUENCE_EXECUTOR_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+
+        RejectedExecutionHandler callerRunsPolicy = new ThreadPoolExecutor.CallerRunsPolicy();
+        executorService = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueSize), new NamedThreadFactory("AdaptiveAuthAsyncExecutor"),
+                (task, executor) -> {
+                    rejectedTasks.increment();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Async sequence executor queue is full. Executing the task in the calling thread.");
+                    }
+                    callerRunsPolicy.rejectedExecution(task, executor);
+                });
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("AdaptiveAuthLongWaitTimer"));
+    }
+
+    /**
+     * Stops the executor and the scheduler. Tasks already submitted are still executed.
+     */
+    public void shutdown() {
+
+        if (executorService != null) {
+            executorService.shutdown();
         }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules the given task, for example the handling of a long wait timeout.
+     *
+     * @param task  Task to execute.
+     * @param delay Delay before executing the task.
+     * @param unit  Unit of the delay.
+     * @return Future to cancel the task.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+
+        return scheduler.schedule(task, delay, unit);
+    }
+
+    /**
+     * @return Number of tasks waiting in the queue.
+     */
+    public int getQueueSize() {
+
+        return executorService.getQueue().size();
+    }
+
+    /**
+     * @return Number of threads executing tasks.
+     */
+    public int getActiveCount() {
+
+        return executorService.getActiveCount();
+    }
+
+    /**
+     * @return Number of tasks executed, including the tasks executed in the calling thread.
+     */
+    public long getExecutedTaskCount() {
+
+        return executedTasks.sum();
+    }
+
+    /**
+     * @return Number of tasks executed in the calling thread as the queue was full.
+     */
+    public long getRejectedTaskCount() {
+
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * @return Average time in milliseconds the tasks waited in the queue before being executed.
+     */
+    public double getAverageQueueWaitMillis() {
 
-        executorService = Executors.newFixedThreadPool(poolSize);
+        long executed = executedTasks.sum();
+        return executed == 0 ? 0 : (double) totalQueueWaitMillis.sum() / executed;
+    }
+
+    /**
+     * @return Maximum time in milliseconds a task waited in the queue before being executed.
+     */
+    public long getMaxQueueWaitMillis() {
+
+        return maxQueueWaitMillis.get();
     }
 
     public void exec(AsyncCaller caller, AsyncReturn returnFunction, AuthenticationContext authenticationContext) throws FrameworkException {
@@ -63,15 +170,60 @@ public class AsyncSequenceExecutor {
             this.execReturn(returnFunction, ctx, m, r);
         };
 
-        executorService.submit(
-                new AsyncCallerTask(
-                        new ObservingAsyncProcess(caller, wrappedReturn, authenticationContext)));
+        execute(new AsyncCallerTask(new ObservingAsyncProcess(caller, wrappedReturn, authenticationContext)));
     }
 
     private void execReturn(AsyncReturn returnFunction,
                             AuthenticationContext authenticationContext, Map<String, Object> data, String result) {
 
-        executorService.execute(new AsyncReturnWorker(returnFunction, authenticationContext, data, result));
+        execute(new AsyncReturnWorker(returnFunction, authenticationContext, data, result));
+    }
+
+    private void execute(Runnable task) {
+
+        long queuedTime = System.currentTimeMillis();
+        executorService.execute(() -> {
+            long waitMillis = System.currentTimeMillis() - queuedTime;
+            executedTasks.increment();
+            totalQueueWaitMillis.add(waitMillis);
+            long max = maxQueueWaitMillis.get();
+            while (waitMillis > max && !maxQueueWaitMillis.compareAndSet(max, waitMillis)) {
+                max = maxQueueWaitMillis.get();
+            }
+            task.run();
+        });
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value : " + value + " for " + name + ". Using the default value : " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private NamedThreadFactory(String namePrefix) {
+
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, namePrefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
     private class AsyncCallerTask implements Runnable {
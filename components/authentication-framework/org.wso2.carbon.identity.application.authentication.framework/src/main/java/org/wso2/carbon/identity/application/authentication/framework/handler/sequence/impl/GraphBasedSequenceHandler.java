@@ -66,6 +66,12 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -73,6 +79,7 @@ import static org.wso2.carbon.identity.application.authentication.framework.Auth
 import static org.wso2.carbon.identity.application.authentication.framework.AuthenticatorFlowStatus.INCOMPLETE;
 import static org.wso2.carbon.identity.application.authentication.framework.AuthenticatorFlowStatus.SUCCESS_COMPLETED;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_LONG_WAIT_TIMEOUT;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.BACK_TO_PREVIOUS_STEP;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.JSAttributes.PROP_CURRENT_NODE;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils.promptOnLongWait;
@@ -86,6 +93,8 @@ public class GraphBasedSequenceHandler extends DefaultStepBasedSequenceHandler i
     public static final String SKIPPED_CALLBACK_NAME = "onSkip";
     public static final String STEP_IDENTIFIER_PARAM = "step";
 
+    private static volatile boolean asyncNotSupportedWarned;
+
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AuthenticationContext context)
             throws FrameworkException {
@@ -571,8 +580,16 @@ public class GraphBasedSequenceHandler extends DefaultStepBasedSequenceHandler i
             return false;
         }
         AsyncCaller caller = asyncProcess.getAsyncCaller();
+        AsyncLongWaitResumer resumer = caller != null && !promptOnLongWait() && isNonBlockingLongWait(request) ?
+                new AsyncLongWaitResumer(context.getContextIdentifier()) : null;
 
         AsyncReturn asyncReturn = rethrowTriConsumer((authenticationContext, data, result) -> {
+            if (resumer != null) {
+                // The suspended request thread may still be persisting the context. Hand the outcome over to the
+                // resumed request, which sets it on the context.
+                resumer.onReturn(result, data);
+                return;
+            }
             authenticationContext.setProperty(
                     FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_STATUS, result);
             authenticationContext.setProperty(
@@ -587,7 +604,12 @@ public class GraphBasedSequenceHandler extends DefaultStepBasedSequenceHandler i
 
         if (caller != null) {
             FrameworkServiceDataHolder.getInstance().getAsyncSequenceExecutor().exec(caller, asyncReturn, context);
-            if (!promptOnLongWait()) {
+            if (resumer != null) {
+                // Release the request thread. The flow is resumed in a new dispatch of the request once the external
+                // call returns or the wait times out.
+                resumer.suspend(request, getLongWaitTimeout());
+                request.setAttribute(FrameworkConstants.RequestParams.FLOW_STATUS, AuthenticatorFlowStatus.INCOMPLETE);
+            } else if (!promptOnLongWait()) {
                 int waitTimeout = getLongWaitTimeout();
                 synchronized (context) {
                     try {
@@ -605,19 +627,29 @@ public class GraphBasedSequenceHandler extends DefaultStepBasedSequenceHandler i
         return false;
     }
 
-    private int getLongWaitTimeout() {
+    private boolean isNonBlockingLongWait(HttpServletRequest request) {
 
-        String waitTimeoutPropValue = IdentityUtil.getProperty(ADAPTIVE_AUTH_LONG_WAIT_TIMEOUT);
-        int waitTimeout = 10000;
-        try {
-            if (waitTimeoutPropValue != null) {
-                waitTimeout = Integer.parseInt(waitTimeoutPropValue);
+        if (!IdentityUtil.getConfigSnapshot().getBoolean(ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT, false)) {
+            return false;
+        }
+        if (!request.isAsyncSupported()) {
+            // The servlets and filters in front of /commonauth are registered by the product and all of them need to
+            // be async supported.
+            if (!asyncNotSupportedWarned) {
+                asyncNotSupportedWarned = true;
+                log.warn(ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT + " is enabled, but the request to " +
+                        request.getRequestURI() + " does not support asynchronous processing. Blocking the request " +
+                        "thread while waiting for external calls.");
             }
-        } catch (NumberFormatException e) {
-            //ignore. Default value will be used.
-            log.warn("Error while reading the wait timeout. Default value of 10 seconds will be used. ", e);
+            return false;
         }
-        return waitTimeout;
+        return true;
+    }
+
+    private int getLongWaitTimeout() {
+
+        // Invalid values fall back to the default of 10 seconds.
+        return IdentityUtil.getConfigSnapshot().getInt(ADAPTIVE_AUTH_LONG_WAIT_TIMEOUT, 10000);
     }
 
     private void handleDecisionPoint(HttpServletRequest request, HttpServletResponse response,
@@ -761,4 +793,116 @@ public class GraphBasedSequenceHandler extends DefaultStepBasedSequenceHandler i
         }
         return false;
     }
+
+    /**
+     * Resumes a request suspended while waiting for an external call. The request is dispatched again once the call
+     * returns or the wait times out, whichever happens first, and the dispatched request continues the flow from the
+     * long wait node. The outcome of the call is passed to the dispatched request as request attributes, and the
+     * container starts the dispatch only after the suspending request has returned, so the context is never changed
+     * by two threads at the same time.
+     */
+    private static class AsyncLongWaitResumer implements AsyncListener {
+
+        /**
+         * Time allowed for the wait timeout to be handled before the container times out the request.
+         */
+        private static final long CONTAINER_TIMEOUT_GRACE_PERIOD = 5000;
+
+        private final String contextIdentifier;
+        private AsyncContext asyncContext;
+        private ScheduledFuture<?> timeoutTask;
+        private boolean returned;
+        private String result;
+        private Map<String, Object> data;
+        private boolean dispatched;
+
+        private AsyncLongWaitResumer(String contextIdentifier) {
+
+            this.contextIdentifier = contextIdentifier;
+        }
+
+        private synchronized void suspend(HttpServletRequest request, int waitTimeout) {
+
+            asyncContext = request.startAsync();
+            asyncContext.setTimeout(waitTimeout + CONTAINER_TIMEOUT_GRACE_PERIOD);
+            asyncContext.addListener(this);
+            if (returned) {
+                dispatch();
+            } else {
+                timeoutTask = FrameworkServiceDataHolder.getInstance().getAsyncSequenceExecutor()
+                        .schedule(this::onWaitTimeout, waitTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private synchronized void onReturn(String result, Map<String, Object> data) {
+
+            if (dispatched) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Ignoring the outcome of the external call returned after the wait timed out for " +
+                            "session data key: " + contextIdentifier);
+                }
+                return;
+            }
+            this.result = result;
+            this.data = data;
+            returned = true;
+            if (asyncContext != null) {
+                dispatch();
+            }
+        }
+
+        private synchronized void onWaitTimeout() {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Timed out while waiting for the external call to complete for session data key: " +
+                        contextIdentifier);
+            }
+            dispatch();
+        }
+
+        private void dispatch() {
+
+            if (dispatched) {
+                return;
+            }
+            dispatched = true;
+            if (timeoutTask != null) {
+                timeoutTask.cancel(false);
+            }
+            try {
+                ServletRequest request = asyncContext.getRequest();
+                request.setAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_CONTEXT_ID,
+                        contextIdentifier);
+                if (returned) {
+                    request.setAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_STATUS, result);
+                    request.setAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_DATA, data);
+                }
+                asyncContext.dispatch();
+            } catch (IllegalStateException e) {
+                log.error("Error while resuming the request waiting for the external call to complete for session " +
+                        "data key: " + contextIdentifier, e);
+            }
+        }
+
+        @Override
+        public synchronized void onTimeout(AsyncEvent asyncEvent) {
+
+            dispatch();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent asyncEvent) {
+
+        }
+
+        @Override
+        public void onError(AsyncEvent asyncEvent) {
+
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent asyncEvent) {
+
+        }
+    }
 }
@@ -71,12 +71,14 @@ import org.wso2.carbon.identity.application.authentication.framework.inbound.Ide
 import org.wso2.carbon.identity.application.authentication.framework.inbound.IdentityServlet;
 import org.wso2.carbon.identity.application.authentication.framework.internal.impl.AuthenticationMethodNameTranslatorImpl;
 import org.wso2.carbon.identity.application.authentication.framework.listener.AuthenticationEndpointTenantActivityListener;
+import org.wso2.carbon.identity.application.authentication.framework.listener.JsScriptCacheApplicationMgtListener;
 import org.wso2.carbon.identity.application.authentication.framework.services.PostAuthenticationMgtService;
 import org.wso2.carbon.identity.application.authentication.framework.servlet.CommonAuthenticationServlet;
 import org.wso2.carbon.identity.application.authentication.framework.servlet.LoginContextServlet;
 import org.wso2.carbon.identity.application.authentication.framework.servlet.LongWaitStatusServlet;
 import org.wso2.carbon.identity.application.authentication.framework.store.LongWaitStatusStoreService;
 import org.wso2.carbon.identity.application.authentication.framework.store.SessionDataStore;
+import org.wso2.carbon.identity.application.authentication.framework.store.SessionObjectSerializer;
 import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants;
 import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
 import org.wso2.carbon.identity.application.common.ApplicationAuthenticatorService;
@@ -84,6 +86,7 @@ import org.wso2.carbon.identity.application.common.model.FederatedAuthenticatorC
 import org.wso2.carbon.identity.application.common.model.LocalAuthenticatorConfig;
 import org.wso2.carbon.identity.application.common.model.Property;
 import org.wso2.carbon.identity.application.common.model.RequestPathAuthenticatorConfig;
+import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtListener;
 import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataManagementService;
 import org.wso2.carbon.identity.core.handler.HandlerComparator;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
@@ -261,6 +264,8 @@ public class FrameworkServiceComponent {
         UIBasedConfigurationLoader uiBasedConfigurationLoader = new UIBasedConfigurationLoader();
         dataHolder.setSequenceLoader(uiBasedConfigurationLoader);
         dataHolder.setJsGraphBuilderFactory(jsGraphBuilderFactory);
+        bundleContext.registerService(ApplicationMgtListener.class.getName(),
+                new JsScriptCacheApplicationMgtListener(), null);
 
         PostAuthenticationMgtService postAuthenticationMgtService = new PostAuthenticationMgtService();
         bundleContext.registerService(PostAuthenticationMgtService.class.getName(), postAuthenticationMgtService, null);
@@ -332,6 +337,9 @@ public class FrameworkServiceComponent {
 
         FrameworkServiceDataHolder.getInstance().setBundleContext(null);
         SessionDataStore.getInstance().stopService();
+        if (FrameworkServiceDataHolder.getInstance().getAsyncSequenceExecutor() != null) {
+            FrameworkServiceDataHolder.getInstance().getAsyncSequenceExecutor().shutdown();
+        }
     }
 
     @Reference(
@@ -721,6 +729,36 @@ public class FrameworkServiceComponent {
         }
     }
 
+    @Reference(
+            name = "session.object.serializer",
+            service = SessionObjectSerializer.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unsetSessionObjectSerializer"
+    )
+    protected void setSessionObjectSerializer(SessionObjectSerializer sessionObjectSerializer) {
+
+        if (sessionObjectSerializer.getId() < SessionObjectSerializer.MIN_CUSTOM_SERIALIZER_ID) {
+            log.error("Session object serializer: " + sessionObjectSerializer.getClass().getName() + " uses the " +
+                    "reserved id: " + sessionObjectSerializer.getId() + ". Hence it is not registered.");
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Session object serializer: " + sessionObjectSerializer.getName() + " is set in the " +
+                    "Application Authentication Framework bundle");
+        }
+        FrameworkServiceDataHolder.getInstance().addSessionObjectSerializer(sessionObjectSerializer);
+    }
+
+    protected void unsetSessionObjectSerializer(SessionObjectSerializer sessionObjectSerializer) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Session object serializer: " + sessionObjectSerializer.getName() + " is unset in the " +
+                    "Application Authentication Framework bundle");
+        }
+        FrameworkServiceDataHolder.getInstance().removeSessionObjectSerializer(sessionObjectSerializer);
+    }
+
     @Reference(
             name = "identity.user.profile.mgt.component",
             service = FederatedAssociationManager.class,
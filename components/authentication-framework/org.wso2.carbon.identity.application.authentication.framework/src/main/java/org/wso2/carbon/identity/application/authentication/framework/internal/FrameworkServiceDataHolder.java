@@ -39,6 +39,7 @@ import org.wso2.carbon.identity.application.authentication.framework.inbound.Htt
 import org.wso2.carbon.identity.application.authentication.framework.inbound.IdentityProcessor;
 import org.wso2.carbon.identity.application.authentication.framework.services.PostAuthenticationMgtService;
 import org.wso2.carbon.identity.application.authentication.framework.store.LongWaitStatusStoreService;
+import org.wso2.carbon.identity.application.authentication.framework.store.SessionObjectSerializer;
 import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataManagementService;
 import org.wso2.carbon.identity.core.handler.HandlerComparator;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
@@ -51,6 +52,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FrameworkServiceDataHolder {
 
@@ -83,6 +85,7 @@ public class FrameworkServiceDataHolder {
     private String requireCode = "";
     private boolean userSessionMappingEnabled;
     private FederatedAssociationManager federatedAssociationManager;
+    private List<SessionObjectSerializer> sessionObjectSerializers = new CopyOnWriteArrayList<>();
 
     private FrameworkServiceDataHolder() {
 
@@ -447,6 +450,36 @@ public class FrameworkServiceDataHolder {
         this.functionLibraryManagementService = functionLibraryManagementService;
     }
 
+    /**
+     * Get the registered session object serializers.
+     *
+     * @return list of session object serializers
+     */
+    public List<SessionObjectSerializer> getSessionObjectSerializers() {
+
+        return sessionObjectSerializers;
+    }
+
+    /**
+     * Add a session object serializer.
+     *
+     * @param sessionObjectSerializer session object serializer
+     */
+    public void addSessionObjectSerializer(SessionObjectSerializer sessionObjectSerializer) {
+
+        sessionObjectSerializers.add(sessionObjectSerializer);
+    }
+
+    /**
+     * Remove a session object serializer.
+     *
+     * @param sessionObjectSerializer session object serializer
+     */
+    public void removeSessionObjectSerializer(SessionObjectSerializer sessionObjectSerializer) {
+
+        sessionObjectSerializers.remove(sessionObjectSerializer);
+    }
+
     /**
      * Get require() function's code.
      *
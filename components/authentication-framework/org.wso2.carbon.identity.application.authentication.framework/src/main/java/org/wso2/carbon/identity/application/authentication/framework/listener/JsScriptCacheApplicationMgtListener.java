@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.listener;
+
+import org.wso2.carbon.identity.application.authentication.framework.config.model.graph.JsGraphBuilderFactory;
+import org.wso2.carbon.identity.application.authentication.framework.internal.FrameworkServiceDataHolder;
+import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.mgt.listener.AbstractApplicationMgtListener;
+
+/**
+ * Clears the compiled adaptive authentication scripts of a service provider when the service provider is updated or
+ * deleted. Compiled scripts are looked up by the hash of the script content, so this only releases the memory held
+ * by the scripts which are no longer used.
+ */
+public class JsScriptCacheApplicationMgtListener extends AbstractApplicationMgtListener {
+
+    @Override
+    public int getDefaultOrderId() {
+
+        return 910;
+    }
+
+    @Override
+    public boolean doPostUpdateApplication(ServiceProvider serviceProvider, String tenantDomain, String userName)
+            throws IdentityApplicationManagementException {
+
+        if (isEnable()) {
+            clearCompiledScripts(serviceProvider.getApplicationName(), tenantDomain);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteApplication(String applicationName, String tenantDomain, String userName)
+            throws IdentityApplicationManagementException {
+
+        if (isEnable()) {
+            clearCompiledScripts(applicationName, tenantDomain);
+        }
+        return true;
+    }
+
+    private void clearCompiledScripts(String applicationName, String tenantDomain) {
+
+        JsGraphBuilderFactory jsGraphBuilderFactory = FrameworkServiceDataHolder.getInstance()
+                .getJsGraphBuilderFactory();
+        if (jsGraphBuilderFactory != null) {
+            jsGraphBuilderFactory.clearCompiledScripts(applicationName, tenantDomain);
+        }
+    }
+}
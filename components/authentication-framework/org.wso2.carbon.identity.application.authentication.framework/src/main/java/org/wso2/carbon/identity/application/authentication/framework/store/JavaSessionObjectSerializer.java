@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Default {@link SessionObjectSerializer} based on Java serialization. Used for every object which is not handled
+ * by the configured serializer.
+ */
+public class JavaSessionObjectSerializer implements SessionObjectSerializer {
+
+    public static final byte ID = 1;
+    public static final String NAME = "java";
+
+    @Override
+    public byte getId() {
+
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public boolean canHandle(Object value) {
+
+        return true;
+    }
+
+    @Override
+    public void serialize(Object value, OutputStream outputStream) throws IOException {
+
+        ObjectOutputStream oos = new ObjectOutputStream(outputStream);
+        oos.writeObject(value);
+        oos.flush();
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException, ClassNotFoundException {
+
+        ObjectInputStream ois = new ObjectInputStream(inputStream);
+        return ois.readObject();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the session data persistence queue. Queue depth is available via
+ * {@link SessionDataStore#getSessionDataQueueSize()}.
+ */
+public class SessionDataPersistStatistics {
+
+    private static final SessionDataPersistStatistics instance = new SessionDataPersistStatistics();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedEntryCount = new AtomicLong();
+    private final AtomicLong coalescedEntryCount = new AtomicLong();
+    private final AtomicLong droppedEntryCount = new AtomicLong();
+    private final AtomicLong callerRunsEntryCount = new AtomicLong();
+    private final AtomicLong totalFlushTimeNanos = new AtomicLong();
+    private final AtomicLong maxFlushTimeNanos = new AtomicLong();
+    private final AtomicLong maxFlushSize = new AtomicLong();
+
+    private SessionDataPersistStatistics() {
+
+    }
+
+    public static SessionDataPersistStatistics getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Records a completed flush of the persistence queue.
+     *
+     * @param drainedEntries  Number of entries taken from the queue.
+     * @param persistedEntries Number of entries written to the database after coalescing.
+     * @param flushTimeNanos  Time taken to write the entries.
+     */
+    void recordFlush(int drainedEntries, int persistedEntries, long flushTimeNanos) {
+
+        flushCount.incrementAndGet();
+        flushedEntryCount.addAndGet(persistedEntries);
+        coalescedEntryCount.addAndGet(drainedEntries - persistedEntries);
+        totalFlushTimeNanos.addAndGet(flushTimeNanos);
+        updateMax(maxFlushTimeNanos, flushTimeNanos);
+        updateMax(maxFlushSize, persistedEntries);
+    }
+
+    void recordDroppedEntry() {
+
+        droppedEntryCount.incrementAndGet();
+    }
+
+    void recordCallerRunsEntry() {
+
+        callerRunsEntryCount.incrementAndGet();
+    }
+
+    public long getFlushCount() {
+
+        return flushCount.get();
+    }
+
+    public long getFlushedEntryCount() {
+
+        return flushedEntryCount.get();
+    }
+
+    public long getCoalescedEntryCount() {
+
+        return coalescedEntryCount.get();
+    }
+
+    public long getDroppedEntryCount() {
+
+        return droppedEntryCount.get();
+    }
+
+    public long getCallerRunsEntryCount() {
+
+        return callerRunsEntryCount.get();
+    }
+
+    public long getMaxFlushSize() {
+
+        return maxFlushSize.get();
+    }
+
+    public double getAverageFlushSize() {
+
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : (double) flushedEntryCount.get() / flushes;
+    }
+
+    public long getMaxFlushTimeMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(maxFlushTimeNanos.get());
+    }
+
+    public double getAverageFlushTimeMillis() {
+
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : (double) totalFlushTimeNanos.get() / flushes / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
@@ -21,27 +21,49 @@ package org.wso2.carbon.identity.application.authentication.framework.store;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Task to persist and remove session data
+ * Task to persist and remove session data. When a batch size is given, the task drains up to that many operations
+ * or waits until the flush interval elapses, keeps only the latest operation per session key and type, and
+ * writes them with a single JDBC batch.
  */
 public class SessionDataPersistTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(SessionDataPersistTask.class);
     private BlockingDeque<SessionContextDO> sessionContextQueue;
     private static volatile boolean running;
+    private int batchSize;
+    private long flushIntervalMillis;
 
     public SessionDataPersistTask(BlockingDeque<SessionContextDO> sessionContextQueue) {
         this.sessionContextQueue = sessionContextQueue;
     }
 
+    public SessionDataPersistTask(BlockingDeque<SessionContextDO> sessionContextQueue, int batchSize,
+                                  long flushIntervalMillis) {
+
+        this.sessionContextQueue = sessionContextQueue;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
     @Override
     public void run() {
 
         log.debug("Session Context persist consumer is started");
 
         running = true;
+        if (batchSize > 1) {
+            runBatched();
+            return;
+        }
         while (running) {
 
             try {
@@ -67,6 +89,75 @@ public class SessionDataPersistTask implements Runnable {
         }
     }
 
+    private void runBatched() {
+
+        List<SessionContextDO> drained = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                SessionContextDO first = sessionContextQueue.take();
+                drained.add(first);
+                long flushDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (drained.size() < batchSize) {
+                    sessionContextQueue.drainTo(drained, batchSize - drained.size());
+                    long remainingNanos = flushDeadline - System.nanoTime();
+                    if (drained.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    SessionContextDO next = sessionContextQueue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drained.add(next);
+                }
+                flush(drained);
+            } catch (InterruptedException e) {
+                // Persist what has been drained already before going back to the queue.
+                log.error(e);
+                flush(drained);
+            } catch (RuntimeException e) {
+                log.error("Error while persisting a batch of session data.", e);
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    private void flush(List<SessionContextDO> drained) {
+
+        if (drained.isEmpty()) {
+            return;
+        }
+        Collection<SessionContextDO> latestOperations = coalesce(drained);
+        long startTime = System.nanoTime();
+        SessionDataStore.getInstance().persistSessionDataBatch(latestOperations);
+        long flushTime = System.nanoTime() - startTime;
+        SessionDataPersistStatistics.getInstance().recordFlush(drained.size(), latestOperations.size(), flushTime);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Persisted %d session data operations out of %d drained operations in %d ms.",
+                    latestOperations.size(), drained.size(), TimeUnit.NANOSECONDS.toMillis(flushTime)));
+        }
+    }
+
+    /**
+     * Keeps only the newest operation for each session key and type, since the session store only reads the latest
+     * operation of a session.
+     *
+     * @param sessionContextDOs Drained session data operations.
+     * @return Latest operation of each session key and type.
+     */
+    static Collection<SessionContextDO> coalesce(List<SessionContextDO> sessionContextDOs) {
+
+        Map<String, SessionContextDO> latestOperations = new LinkedHashMap<>();
+        for (SessionContextDO sessionContextDO : sessionContextDOs) {
+            String operationKey = sessionContextDO.getType() + ":" + sessionContextDO.getKey();
+            SessionContextDO existing = latestOperations.get(operationKey);
+            if (existing == null || existing.getNanoTime() <= sessionContextDO.getNanoTime()) {
+                latestOperations.put(operationKey, sessionContextDO);
+            }
+        }
+        return latestOperations.values();
+    }
+
     public static void shutdown() {
         running = false;
     }
@@ -34,16 +34,15 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.idp.mgt.util.IdPManagementUtil;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -130,7 +129,14 @@ public class SessionDataStore {
     public static final String DEFAULT_TEMP_SESSION_STORE_TABLE_NAME = "IDN_AUTH_TEMP_SESSION_STORE";
     private static int maxSessionDataPoolSize = 100;
     private static int maxTempDataPoolSize = 50;
-    private static BlockingDeque<SessionContextDO> sessionContextQueue = new LinkedBlockingDeque();
+    private static final int DEFAULT_PERSIST_BATCH_SIZE = 100;
+    private static final long DEFAULT_PERSIST_BATCH_FLUSH_INTERVAL = 100L;
+    private static boolean persistBatchEnabled = false;
+    private static int persistBatchSize = DEFAULT_PERSIST_BATCH_SIZE;
+    private static long persistBatchFlushInterval = DEFAULT_PERSIST_BATCH_FLUSH_INTERVAL;
+    private static int sessionDataQueueCapacity = 0;
+    private static QueueFullPolicy queueFullPolicy = QueueFullPolicy.CALLER_RUNS;
+    private static BlockingDeque<SessionContextDO> sessionContextQueue;
     private static BlockingDeque<SessionContextDO> tempAuthnContextDataDeleteQueue = new LinkedBlockingDeque();
     private static volatile SessionDataStore instance;
     private boolean enablePersist;
@@ -169,17 +175,72 @@ public class SessionDataStore {
                 maxTempDataPoolSize = Integer.parseInt(maxTempDataPoolSizeValue);
             }
 
+            String persistBatchEnabledValue = IdentityUtil.getProperty(
+                    "JDBCPersistenceManager.SessionDataPersist.PersistBatch.Enable");
+            if (StringUtils.isNotBlank(persistBatchEnabledValue)) {
+                persistBatchEnabled = Boolean.parseBoolean(persistBatchEnabledValue);
+            }
+
+            String persistBatchSizeValue = IdentityUtil.getProperty(
+                    "JDBCPersistenceManager.SessionDataPersist.PersistBatch.Size");
+            if (StringUtils.isNotBlank(persistBatchSizeValue)) {
+                persistBatchSize = Integer.parseInt(persistBatchSizeValue);
+            }
+
+            String persistBatchFlushIntervalValue = IdentityUtil.getProperty(
+                    "JDBCPersistenceManager.SessionDataPersist.PersistBatch.FlushInterval");
+            if (StringUtils.isNotBlank(persistBatchFlushIntervalValue)) {
+                persistBatchFlushInterval = Long.parseLong(persistBatchFlushIntervalValue);
+            }
+
+            String queueCapacityValue = IdentityUtil.getProperty(
+                    "JDBCPersistenceManager.SessionDataPersist.QueueCapacity");
+            if (StringUtils.isNotBlank(queueCapacityValue)) {
+                sessionDataQueueCapacity = Integer.parseInt(queueCapacityValue);
+            }
         } catch (NumberFormatException e) {
             if (log.isDebugEnabled()) {
                 log.debug("Exception ignored : ", e);
             }
             log.warn("One or more pool size configurations cause NumberFormatException. Default values would be used");
         }
+
+        String queueFullPolicyValue = IdentityUtil.getProperty(
+                "JDBCPersistenceManager.SessionDataPersist.QueueFullPolicy");
+        if (StringUtils.isNotBlank(queueFullPolicyValue)) {
+            try {
+                queueFullPolicy = QueueFullPolicy.valueOf(queueFullPolicyValue.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid session data queue full policy: " + queueFullPolicyValue + ". Default policy: "
+                        + queueFullPolicy + " would be used.");
+            }
+        }
+        if (persistBatchSize <= 0) {
+            persistBatchSize = DEFAULT_PERSIST_BATCH_SIZE;
+        }
+        if (persistBatchFlushInterval <= 0) {
+            persistBatchFlushInterval = DEFAULT_PERSIST_BATCH_FLUSH_INTERVAL;
+        }
+        if (sessionDataQueueCapacity > 0) {
+            sessionContextQueue = new LinkedBlockingDeque<>(sessionDataQueueCapacity);
+        } else {
+            sessionContextQueue = new LinkedBlockingDeque<>();
+        }
+
         if (maxSessionDataPoolSize > 0) {
             log.info("Thread pool size for session persistent consumer : " + maxSessionDataPoolSize);
+            if (persistBatchEnabled) {
+                log.info(String.format("Session data is persisted in batches of maximum %d entries flushed at least " +
+                        "every %d ms.", persistBatchSize, persistBatchFlushInterval));
+            }
             ExecutorService threadPool = Executors.newFixedThreadPool(maxSessionDataPoolSize);
             for (int i = 0; i < maxSessionDataPoolSize; i++) {
-                threadPool.execute(new SessionDataPersistTask(sessionContextQueue));
+                if (persistBatchEnabled) {
+                    threadPool.execute(new SessionDataPersistTask(sessionContextQueue, persistBatchSize,
+                            persistBatchFlushInterval));
+                } else {
+                    threadPool.execute(new SessionDataPersistTask(sessionContextQueue));
+                }
             }
         }
         if (tempDataCleanupEnabled && maxTempDataPoolSize > 0) {
@@ -357,7 +418,10 @@ public class SessionDataStore {
         }
         long nanoTime = FrameworkUtils.getCurrentStandardNano();
         if (maxSessionDataPoolSize > 0 && !isTempCache(type)) {
-            sessionContextQueue.push(new SessionContextDO(key, type, entry, nanoTime, tenantId));
+            SessionContextDO sessionContextDO = new SessionContextDO(key, type, entry, nanoTime, tenantId);
+            if (!enqueueSessionData(sessionContextDO)) {
+                persistSessionData(key, type, entry, nanoTime, tenantId);
+            }
         } else {
             persistSessionData(key, type, entry, nanoTime, tenantId);
         }
@@ -369,12 +433,70 @@ public class SessionDataStore {
         }
         long nanoTime = FrameworkUtils.getCurrentStandardNano();
         if (maxSessionDataPoolSize > 0 && !isTempCache(type)) {
-            sessionContextQueue.push(new SessionContextDO(key, type, null, nanoTime));
+            if (!enqueueSessionData(new SessionContextDO(key, type, null, nanoTime))) {
+                removeSessionData(key, type, nanoTime);
+            }
         } else {
             removeSessionData(key, type, nanoTime);
         }
     }
 
+    /**
+     * Adds a session data operation to the persistence queue honouring the configured queue full policy.
+     *
+     * @param sessionContextDO Session data operation.
+     * @return false if the operation has to be persisted by the calling thread, true otherwise.
+     */
+    private boolean enqueueSessionData(SessionContextDO sessionContextDO) {
+
+        if (sessionContextQueue.offerFirst(sessionContextDO)) {
+            return true;
+        }
+        switch (queueFullPolicy) {
+            case BLOCK:
+                try {
+                    sessionContextQueue.putFirst(sessionContextDO);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while waiting for space in the session data queue. Session data of key: "
+                            + sessionContextDO.getKey() + " will be persisted by the calling thread.");
+                    return false;
+                }
+            case DROP:
+                if (sessionContextDO.getEntry() != null) {
+                    SessionDataPersistStatistics.getInstance().recordDroppedEntry();
+                    log.warn("Session data queue is full. Dropping the session data operation of type: "
+                            + sessionContextDO.getType());
+                    return true;
+                }
+                // A lost delete would leave a terminated session readable, so it is persisted by the caller.
+                SessionDataPersistStatistics.getInstance().recordCallerRunsEntry();
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data queue is full. Persisting the session data delete operation of type: "
+                            + sessionContextDO.getType() + " in the calling thread.");
+                }
+                return false;
+            default:
+                SessionDataPersistStatistics.getInstance().recordCallerRunsEntry();
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data queue is full. Persisting the session data of type: "
+                            + sessionContextDO.getType() + " in the calling thread.");
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Returns the number of session data operations waiting to be persisted.
+     *
+     * @return Current depth of the session data queue.
+     */
+    public int getSessionDataQueueSize() {
+
+        return sessionContextQueue.size();
+    }
+
     /**
      * Method to stop running tasks, when the component is deactivated.
      */
@@ -500,27 +622,11 @@ public class SessionDataStore {
             return;
         }
 
-        long validityPeriodNano = 0L;
-
-        if (entry instanceof CacheEntry) {
-            validityPeriodNano = ((CacheEntry) entry).getValidityPeriod();
-        }
-
-        if (validityPeriodNano == 0L) {
-            validityPeriodNano = getCleanupTimeout(type, tenantId);
-        }
-
         PreparedStatement preparedStatement = null;
         try {
             String sqlQuery = getSessionStoreDBQuery(sqlInsertSTORE, type);
             preparedStatement = connection.prepareStatement(sqlQuery);
-            preparedStatement.setString(1, key);
-            preparedStatement.setString(2, type);
-            preparedStatement.setString(3, OPERATION_STORE);
-            setBlobObject(preparedStatement, entry, 4);
-            preparedStatement.setLong(5, nanoTime);
-            preparedStatement.setLong(6, nanoTime + validityPeriodNano);
-            preparedStatement.setInt(7, tenantId);
+            setStoreOperationParameters(preparedStatement, key, type, entry, nanoTime, tenantId);
             preparedStatement.executeUpdate();
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException | IOException e) {
@@ -550,15 +656,9 @@ public class SessionDataStore {
             return;
         }
         PreparedStatement preparedStatement = null;
-
-        long timeoutNano = nanoTime + getCleanupTimeout(type, MultitenantConstants.INVALID_TENANT_ID);
         try {
             preparedStatement = connection.prepareStatement(getSessionStoreDBQuery(sqlInsertDELETE, type));
-            preparedStatement.setString(1, key);
-            preparedStatement.setString(2, type);
-            preparedStatement.setString(3, OPERATION_DELETE);
-            preparedStatement.setLong(4, nanoTime);
-            preparedStatement.setLong(5, timeoutNano);
+            setDeleteOperationParameters(preparedStatement, key, type, nanoTime);
             preparedStatement.executeUpdate();
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (Exception e) {
@@ -570,6 +670,119 @@ public class SessionDataStore {
 
     }
 
+    /**
+     * Persists a batch of STORE and DELETE operations using a single connection and transaction. If the batch fails,
+     * the operations are retried one by one so that a single bad entry does not discard the whole batch.
+     *
+     * @param sessionContextDOs Session data operations to be persisted. Entries with a null entry are DELETE operations.
+     */
+    public void persistSessionDataBatch(Collection<SessionContextDO> sessionContextDOs) {
+
+        if (!enablePersist || sessionContextDOs == null || sessionContextDOs.isEmpty()) {
+            return;
+        }
+        Connection connection = null;
+        try {
+            connection = IdentityDatabaseUtil.getDBConnection();
+        } catch (IdentityRuntimeException e) {
+            log.error(e.getMessage(), e);
+            return;
+        }
+
+        Map<String, PreparedStatement> batchStatements = new HashMap<>();
+        boolean batchFailed = false;
+        try {
+            for (SessionContextDO sessionContextDO : sessionContextDOs) {
+                String key = sessionContextDO.getKey();
+                String type = sessionContextDO.getType();
+                if (sessionContextDO.getEntry() == null) {
+                    PreparedStatement preparedStatement = getBatchStatement(connection, batchStatements,
+                            getSessionStoreDBQuery(sqlInsertDELETE, type));
+                    setDeleteOperationParameters(preparedStatement, key, type, sessionContextDO.getNanoTime());
+                    preparedStatement.addBatch();
+                } else {
+                    PreparedStatement preparedStatement = getBatchStatement(connection, batchStatements,
+                            getSessionStoreDBQuery(sqlInsertSTORE, type));
+                    setStoreOperationParameters(preparedStatement, key, type, sessionContextDO.getEntry(),
+                            sessionContextDO.getNanoTime(), sessionContextDO.getTenantId());
+                    preparedStatement.addBatch();
+                }
+            }
+            for (PreparedStatement preparedStatement : batchStatements.values()) {
+                preparedStatement.executeBatch();
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException | IOException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            log.error("Error while storing a batch of " + sessionContextDOs.size() + " session data operations. " +
+                    "Retrying the operations individually.", e);
+            batchFailed = true;
+        } finally {
+            for (PreparedStatement preparedStatement : batchStatements.values()) {
+                IdentityDatabaseUtil.closeStatement(preparedStatement);
+            }
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+
+        if (batchFailed) {
+            for (SessionContextDO sessionContextDO : sessionContextDOs) {
+                if (sessionContextDO.getEntry() == null) {
+                    removeSessionData(sessionContextDO.getKey(), sessionContextDO.getType(),
+                            sessionContextDO.getNanoTime());
+                } else {
+                    persistSessionData(sessionContextDO.getKey(), sessionContextDO.getType(),
+                            sessionContextDO.getEntry(), sessionContextDO.getNanoTime(),
+                            sessionContextDO.getTenantId());
+                }
+            }
+        }
+    }
+
+    private PreparedStatement getBatchStatement(Connection connection, Map<String, PreparedStatement> batchStatements,
+                                                String sqlQuery) throws SQLException {
+
+        PreparedStatement preparedStatement = batchStatements.get(sqlQuery);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(sqlQuery);
+            batchStatements.put(sqlQuery, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+    private void setStoreOperationParameters(PreparedStatement preparedStatement, String key, String type,
+                                             Object entry, long nanoTime, int tenantId)
+            throws SQLException, IOException {
+
+        long validityPeriodNano = 0L;
+
+        if (entry instanceof CacheEntry) {
+            validityPeriodNano = ((CacheEntry) entry).getValidityPeriod();
+        }
+
+        if (validityPeriodNano == 0L) {
+            validityPeriodNano = getCleanupTimeout(type, tenantId);
+        }
+
+        preparedStatement.setString(1, key);
+        preparedStatement.setString(2, type);
+        preparedStatement.setString(3, OPERATION_STORE);
+        setBlobObject(preparedStatement, entry, 4);
+        preparedStatement.setLong(5, nanoTime);
+        preparedStatement.setLong(6, nanoTime + validityPeriodNano);
+        preparedStatement.setInt(7, tenantId);
+    }
+
+    private void setDeleteOperationParameters(PreparedStatement preparedStatement, String key, String type,
+                                              long nanoTime) throws SQLException {
+
+        long timeoutNano = nanoTime + getCleanupTimeout(type, MultitenantConstants.INVALID_TENANT_ID);
+        preparedStatement.setString(1, key);
+        preparedStatement.setString(2, type);
+        preparedStatement.setString(3, OPERATION_DELETE);
+        preparedStatement.setLong(4, nanoTime);
+        preparedStatement.setLong(5, timeoutNano);
+    }
+
     /**
      * Removes temporary authn context data from the table if temporary data cleanup is enabled.
      *
@@ -606,13 +819,9 @@ public class SessionDataStore {
     private void setBlobObject(PreparedStatement prepStmt, Object value, int index)
             throws SQLException, IOException {
         if (value != null) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(value);
-            oos.flush();
-            oos.close();
-            InputStream inputStream = new ByteArrayInputStream(baos.toByteArray());
-            prepStmt.setBinaryStream(index, inputStream, inputStream.available());
+            byte[] serializedObject = SessionObjectSerializationManager.getInstance().serialize(value);
+            InputStream inputStream = new ByteArrayInputStream(serializedObject);
+            prepStmt.setBinaryStream(index, inputStream, serializedObject.length);
         } else {
             prepStmt.setBinaryStream(index, null, 0);
         }
@@ -621,17 +830,13 @@ public class SessionDataStore {
     private Object getBlobObject(InputStream is)
             throws IdentityApplicationManagementException, IOException, ClassNotFoundException {
         if (is != null) {
-            ObjectInput ois = null;
             try {
-                ois = new ObjectInputStream(is);
-                return ois.readObject();
+                return SessionObjectSerializationManager.getInstance().deserialize(is);
             } finally {
-                if (ois != null) {
-                    try {
-                        ois.close();
-                    } catch (IOException e) {
-                        log.error("IOException while trying to close ObjectInputStream.", e);
-                    }
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    log.error("IOException while trying to close the session object stream.", e);
                 }
             }
         }
@@ -709,4 +914,25 @@ public class SessionDataStore {
         }
     }
 
+    /**
+     * Policies applied when the bounded session data queue is full.
+     */
+    public enum QueueFullPolicy {
+
+        /**
+         * Wait until there is space in the queue.
+         */
+        BLOCK,
+
+        /**
+         * Discard a store operation. Session data will not be available after a cache eviction or node restart.
+         * Delete operations are persisted synchronously in the calling thread.
+         */
+        DROP,
+
+        /**
+         * Persist the operation synchronously in the calling thread.
+         */
+        CALLER_RUNS
+    }
 }
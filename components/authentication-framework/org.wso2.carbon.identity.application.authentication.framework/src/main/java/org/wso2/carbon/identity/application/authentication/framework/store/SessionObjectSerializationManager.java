@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.authentication.framework.internal.FrameworkServiceDataHolder;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Writes and reads the session objects persisted in the session store.
+ * <p>
+ * Objects are written with a four byte header: a magic byte which can never start a Java serialization stream, the
+ * format version, the id of the {@link SessionObjectSerializer} and a flags byte. When compression is enabled,
+ * payloads larger than the configured threshold are deflated. Rows without the header are read with Java
+ * serialization so that data written by earlier versions remains readable.
+ * <p>
+ * When neither compression nor a custom serializer is configured, objects are written as plain Java serialization
+ * streams so that nodes running earlier versions can read them during a rolling upgrade.
+ */
+public class SessionObjectSerializationManager {
+
+    private static final Log log = LogFactory.getLog(SessionObjectSerializationManager.class);
+
+    static final byte HEADER_MAGIC = (byte) 0x5E;
+    static final byte FORMAT_VERSION = 1;
+    static final byte FLAG_DEFLATED = 0x01;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 4096;
+
+    private static volatile SessionObjectSerializationManager instance;
+
+    private final SessionObjectSerializer javaSerializer = new JavaSessionObjectSerializer();
+    private String serializerName = JavaSessionObjectSerializer.NAME;
+    private boolean compressionEnabled = false;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    SessionObjectSerializationManager(String serializerName, boolean compressionEnabled, int compressionThreshold) {
+
+        if (StringUtils.isNotBlank(serializerName)) {
+            this.serializerName = serializerName.trim();
+        }
+        this.compressionEnabled = compressionEnabled;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    private SessionObjectSerializationManager() {
+
+        String serializerNameValue = IdentityUtil.getProperty(
+                "JDBCPersistenceManager.SessionDataPersist.Serializer.Name");
+        if (StringUtils.isNotBlank(serializerNameValue)) {
+            serializerName = serializerNameValue.trim();
+        }
+        String compressionEnabledValue = IdentityUtil.getProperty(
+                "JDBCPersistenceManager.SessionDataPersist.Serializer.Compression.Enable");
+        if (StringUtils.isNotBlank(compressionEnabledValue)) {
+            compressionEnabled = Boolean.parseBoolean(compressionEnabledValue);
+        }
+        String compressionThresholdValue = IdentityUtil.getProperty(
+                "JDBCPersistenceManager.SessionDataPersist.Serializer.Compression.Threshold");
+        if (StringUtils.isNotBlank(compressionThresholdValue)) {
+            try {
+                compressionThreshold = Integer.parseInt(compressionThresholdValue.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid session object compression threshold: " + compressionThresholdValue
+                        + ". Default value: " + DEFAULT_COMPRESSION_THRESHOLD + " would be used.");
+            }
+        }
+    }
+
+    public static SessionObjectSerializationManager getInstance() {
+
+        if (instance == null) {
+            synchronized (SessionObjectSerializationManager.class) {
+                if (instance == null) {
+                    instance = new SessionObjectSerializationManager();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Serializes the given session object.
+     *
+     * @param value Session object.
+     * @return Serialized bytes.
+     * @throws IOException If the object cannot be serialized.
+     */
+    public byte[] serialize(Object value) throws IOException {
+
+        SessionObjectSerializer serializer = getSerializerFor(value);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        serializer.serialize(value, payload);
+
+        boolean deflate = compressionEnabled && payload.size() > compressionThreshold;
+        if (!compressionEnabled && serializer.getId() == JavaSessionObjectSerializer.ID) {
+            return payload.toByteArray();
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(deflate ? payload.size() / 2 : payload.size() + 4);
+        output.write(HEADER_MAGIC);
+        output.write(FORMAT_VERSION);
+        output.write(serializer.getId());
+        output.write(deflate ? FLAG_DEFLATED : 0);
+        if (deflate) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(output, deflater)) {
+                payload.writeTo(deflaterOutputStream);
+            } finally {
+                deflater.end();
+            }
+        } else {
+            payload.writeTo(output);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Deserializes a session object written by this class or by plain Java serialization.
+     *
+     * @param inputStream Stream of the persisted session object.
+     * @return Deserialized session object.
+     * @throws IOException            If the object cannot be read.
+     * @throws ClassNotFoundException If the class of the serialized object cannot be found.
+     */
+    public Object deserialize(InputStream inputStream) throws IOException, ClassNotFoundException {
+
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+        bufferedInputStream.mark(1);
+        int firstByte = bufferedInputStream.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        if ((byte) firstByte != HEADER_MAGIC) {
+            // Rows written before the header was introduced.
+            bufferedInputStream.reset();
+            return javaSerializer.deserialize(bufferedInputStream);
+        }
+
+        int version = bufferedInputStream.read();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported session object format version: " + version);
+        }
+        int serializerId = bufferedInputStream.read();
+        int flags = bufferedInputStream.read();
+        if (serializerId == -1 || flags == -1) {
+            throw new IOException("Truncated session object header.");
+        }
+        SessionObjectSerializer serializer = getSerializerById((byte) serializerId);
+        if ((flags & FLAG_DEFLATED) != 0) {
+            try (InflaterInputStream inflaterInputStream = new InflaterInputStream(bufferedInputStream)) {
+                return serializer.deserialize(inflaterInputStream);
+            }
+        }
+        return serializer.deserialize(bufferedInputStream);
+    }
+
+    private SessionObjectSerializer getSerializerFor(Object value) {
+
+        if (!JavaSessionObjectSerializer.NAME.equals(serializerName)) {
+            for (SessionObjectSerializer serializer : getRegisteredSerializers()) {
+                if (serializerName.equals(serializer.getName()) && serializer.canHandle(value)) {
+                    return serializer;
+                }
+            }
+        }
+        return javaSerializer;
+    }
+
+    private SessionObjectSerializer getSerializerById(byte serializerId) throws IOException {
+
+        if (serializerId == JavaSessionObjectSerializer.ID) {
+            return javaSerializer;
+        }
+        for (SessionObjectSerializer serializer : getRegisteredSerializers()) {
+            if (serializer.getId() == serializerId) {
+                return serializer;
+            }
+        }
+        throw new IOException("No session object serializer registered with the id: " + serializerId);
+    }
+
+    protected Iterable<SessionObjectSerializer> getRegisteredSerializers() {
+
+        return FrameworkServiceDataHolder.getInstance().getSessionObjectSerializers();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Serializes the objects persisted in the SESSION_OBJECT column of the session store. Implementations are
+ * registered as OSGi services and selected with the
+ * "JDBCPersistenceManager.SessionDataPersist.Serializer.Name" configuration.
+ * <p>
+ * The id of the serializer is written to the header of every persisted object, hence it must never change once
+ * data has been written with it. Ids below {@link #MIN_CUSTOM_SERIALIZER_ID} are reserved for the framework.
+ */
+public interface SessionObjectSerializer {
+
+    byte MIN_CUSTOM_SERIALIZER_ID = 16;
+
+    /**
+     * @return Unique id of the serializer written to the header of the serialized object.
+     */
+    byte getId();
+
+    /**
+     * @return Name used to select the serializer in the configuration.
+     */
+    String getName();
+
+    /**
+     * Checks whether this serializer can serialize the given object. Objects which cannot be handled are
+     * serialized with Java serialization.
+     *
+     * @param value Object to be persisted.
+     * @return true if the object can be serialized by this serializer.
+     */
+    boolean canHandle(Object value);
+
+    /**
+     * Writes the given object to the output stream.
+     *
+     * @param value        Object to be serialized.
+     * @param outputStream Stream to write to.
+     * @throws IOException If an error occurs while writing the object.
+     */
+    void serialize(Object value, OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads an object written by {@link #serialize(Object, OutputStream)}.
+     *
+     * @param inputStream Stream to read from.
+     * @return Deserialized object.
+     * @throws IOException            If an error occurs while reading the object.
+     * @throws ClassNotFoundException If the class of the serialized object cannot be found.
+     */
+    Object deserialize(InputStream inputStream) throws IOException, ClassNotFoundException;
+}
@@ -321,6 +321,9 @@ public abstract class FrameworkConstants {
         public static final String HTTP_REQUEST = "HttpServletRequest";
         public static final String HTTP_RESPONSE = "HttpServletResponse";
         public static final String IDENTIFIER_FIRST_AUTHENTICATOR = "IdentifierExecutor";
+        public static final String RESUMED_LONG_WAIT_CONTEXT_ID = "resumedLongWaitContextId";
+        public static final String RESUMED_LONG_WAIT_STATUS = "resumedLongWaitStatus";
+        public static final String RESUMED_LONG_WAIT_DATA = "resumedLongWaitData";
 
         private RequestAttribute() {
         }
@@ -449,6 +452,11 @@ public abstract class FrameworkConstants {
     public static class AdaptiveAuthentication {
 
         public static final String ADAPTIVE_AUTH_LONG_WAIT_TIMEOUT = "AdaptiveAuth.LongWaitTimeout";
+        public static final String ADAPTIVE_AUTH_SCRIPT_ENGINE_POOL_SIZE = "AdaptiveAuth.ScriptEnginePoolSize";
+        public static final String ADAPTIVE_AUTH_COMPILED_SCRIPT_CACHE_SIZE = "AdaptiveAuth.CompiledScriptCacheSize";
+        public static final String ADAPTIVE_AUTH_ASYNC_SEQUENCE_EXECUTOR_QUEUE_SIZE =
+                "AdaptiveAuth.AsyncSequenceExecutorQueueSize";
+        public static final String ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT = "AdaptiveAuth.NonBlockingLongWait";
     }
 
     public static class ResidentIdpPropertyName {
@@ -132,6 +132,36 @@ public class JsGraphBuilderTest extends AbstractFrameworkTest {
         assertTrue(firstStep.getNext() instanceof DynamicDecisionNode);
     }
 
+    @Test
+    public void testCompiledScriptReuse() throws Exception {
+
+        String script = "var onLoginRequest = function(context) { executeStep(1); };";
+        JsGraphBuilderFactory factory = new JsGraphBuilderFactory();
+        factory.init();
+
+        ServiceProvider sp1 = getTestServiceProvider("js-sp-1.xml");
+        AuthenticationContext context = getAuthenticationContext(sp1);
+        context.setServiceProviderName(sp1.getApplicationName());
+        context.setTenantDomain("carbon.super");
+        Map<Integer, StepConfig> stepConfigMap = new HashMap<>();
+        stepConfigMap.put(1, new StepConfig());
+
+        assertNotNull(factory.createBuilder(context, stepConfigMap).createWith(script).build().getStartNode());
+        assertEquals(factory.getIdleEngineCount(), 1);
+        long misses = factory.getCompiledScriptCacheMissCount();
+        assertTrue(misses > 0);
+        assertEquals(factory.getCompiledScriptCacheHitCount(), 0);
+
+        assertNotNull(factory.createBuilder(context, stepConfigMap).createWith(script).build().getStartNode());
+        assertEquals(factory.getIdleEngineCount(), 1);
+        assertEquals(factory.getCompiledScriptCacheMissCount(), misses);
+        assertEquals(factory.getCompiledScriptCacheHitCount(), misses);
+
+        factory.clearCompiledScripts(sp1.getApplicationName(), "carbon.super");
+        assertNotNull(factory.createBuilder(context, stepConfigMap).createWith(script).build().getStartNode());
+        assertEquals(factory.getCompiledScriptCacheMissCount(), misses * 2);
+    }
+
     @Test(dataProvider = "filterOptionsDataProvider")
     public void testFilterOptions(Map<String, Map<String, String>> options, StepConfig stepConfig, int
         expectedStepsAfterFilter)
@@ -24,18 +24,32 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.application.authentication.framework.context.AuthenticationContext;
+import org.wso2.carbon.identity.application.authentication.framework.handler.request.AuthenticationRequestHandler;
+import org.wso2.carbon.identity.application.authentication.framework.model.CommonAuthResponseWrapper;
+import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkUtils;
 import org.wso2.carbon.identity.common.testng.WithCarbonHome;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
+import java.util.Collections;
+import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_DATA;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_STATUS;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_CONTEXT_ID;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_DATA;
+import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_STATUS;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestParams.LOGOUT;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestParams.TENANT_DOMAIN;
 import static org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants.RequestParams.TYPE;
@@ -46,7 +60,7 @@ import static org.wso2.carbon.utils.multitenancy.MultitenantConstants.SUPER_TENA
  * Unit tests for {@link DefaultRequestCoordinator}.
  */
 @WithCarbonHome
-@PrepareForTest(IdentityTenantUtil.class)
+@PrepareForTest({IdentityTenantUtil.class, FrameworkUtils.class})
 public class DefaultRequestCoordinatorTest extends PowerMockIdentityBaseTest {
 
     private DefaultRequestCoordinator requestCoordinator;
@@ -98,4 +112,30 @@ public class DefaultRequestCoordinatorTest extends PowerMockIdentityBaseTest {
 
         assertEquals(context.getTenantDomain(), expected);
     }
+
+    @Test
+    public void testResumeSuspendedLongWaitRequest() throws Exception {
+
+        AuthenticationContext context = new AuthenticationContext();
+        context.setContextIdentifier("long-wait-context");
+        Map<String, Object> data = Collections.singletonMap("key", "value");
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getAttribute(RESUMED_LONG_WAIT_CONTEXT_ID)).thenReturn("long-wait-context");
+        when(request.getAttribute(RESUMED_LONG_WAIT_STATUS)).thenReturn("onSuccess");
+        when(request.getAttribute(RESUMED_LONG_WAIT_DATA)).thenReturn(data);
+
+        AuthenticationRequestHandler authenticationRequestHandler = mock(AuthenticationRequestHandler.class);
+        mockStatic(FrameworkUtils.class);
+        when(FrameworkUtils.getAuthenticationContextFromCache("long-wait-context")).thenReturn(context);
+        when(FrameworkUtils.getAuthenticationRequestHandler()).thenReturn(authenticationRequestHandler);
+
+        requestCoordinator.handle(request, new CommonAuthResponseWrapper(mock(HttpServletResponse.class)));
+
+        verify(request).removeAttribute(RESUMED_LONG_WAIT_CONTEXT_ID);
+        verify(authenticationRequestHandler).handle(eq(request), any(HttpServletResponse.class), eq(context));
+        assertEquals(context.getProperty(JS_CALL_AND_WAIT_STATUS), "onSuccess");
+        assertEquals(context.getProperty(JS_CALL_AND_WAIT_DATA), data);
+        assertFalse(context.isActiveInAThread());
+    }
 }
@@ -29,16 +29,25 @@ import org.wso2.carbon.identity.application.authentication.framework.dao.impl.Ca
 import org.wso2.carbon.identity.application.authentication.framework.dao.impl.LongWaitStatusDAOImpl;
 import org.wso2.carbon.identity.application.authentication.framework.internal.FrameworkServiceDataHolder;
 import org.wso2.carbon.identity.application.authentication.framework.store.LongWaitStatusStoreService;
+import org.wso2.carbon.identity.application.authentication.framework.util.FrameworkConstants;
 import org.wso2.carbon.identity.application.common.model.ServiceProvider;
 import org.wso2.carbon.identity.common.testng.WithH2Database;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 
+import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.Map;
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertNull;
 
 @Test
 @WithH2Database(jndiName = "jdbc/WSO2IdentityDB", files = {"dbScripts/h2.sql"})
@@ -73,6 +82,94 @@ public class GraphBasedSequenceHandlerLongWaitTest extends GraphBasedSequenceHan
 
     }
 
+    @Test
+    public void testHandleLongWaitWithoutBlocking() throws Exception {
+
+        JsFunctionRegistryImpl jsFunctionRegistrar = new JsFunctionRegistryImpl();
+        FrameworkServiceDataHolder.getInstance().setJsFunctionRegistry(jsFunctionRegistrar);
+        LongWaitStatusDAOImpl daoImpl = new LongWaitStatusDAOImpl();
+        CacheBackedLongWaitStatusDAO cacheBackedDao = new CacheBackedLongWaitStatusDAO(daoImpl);
+        FrameworkServiceDataHolder.getInstance().setLongWaitStatusStoreService(new LongWaitStatusStoreService
+                (cacheBackedDao, 5000));
+        jsFunctionRegistrar.register(JsFunctionRegistry.Subsystem.SEQUENCE_HANDLER, "testLongWaitCall",
+                new AsyncAnalyticsCbFunctionImpl());
+
+        ServiceProvider sp1 = getTestServiceProvider("js-sp-longwait-1.xml");
+        AuthenticationContext context = getAuthenticationContext(sp1);
+        context.setSessionIdentifier("1234");
+        context.setContextIdentifier("long-wait-without-blocking");
+        SequenceConfig sequenceConfig = configurationLoader
+                .getSequenceConfig(context, Collections.emptyMap(), sp1);
+        context.setSequenceConfig(sequenceConfig);
+
+        HttpServletRequest req = createMockHttpServletRequest();
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(req.isAsyncSupported()).thenReturn(true);
+        when(req.startAsync()).thenReturn(asyncContext);
+        when(asyncContext.getRequest()).thenReturn(req);
+
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+
+        UserCoreUtil.setDomainInThreadLocal("test_domain");
+
+        Map<String, Object> configuration = getIdentityConfiguration();
+        configuration.put(FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT, "true");
+        IdentityUtil.reloadConfigSnapshot();
+        try {
+            graphBasedSequenceHandler.handle(req, resp, context);
+
+            verify(req).startAsync();
+            verify(asyncContext, timeout(5000)).dispatch();
+            verify(req).setAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_CONTEXT_ID,
+                    "long-wait-without-blocking");
+            verify(req).setAttribute(FrameworkConstants.RequestAttribute.RESUMED_LONG_WAIT_STATUS, "onSuccess");
+            // The outcome is handed over to the resumed request instead of being set by the callback thread.
+            assertNull(context.getProperty(FrameworkConstants.JSAttributes.JS_CALL_AND_WAIT_STATUS));
+        } finally {
+            configuration.remove(FrameworkConstants.AdaptiveAuthentication.ADAPTIVE_AUTH_NON_BLOCKING_LONG_WAIT);
+            IdentityUtil.reloadConfigSnapshot();
+        }
+    }
+
+    @Test
+    public void testHandleLongWaitBlocksWhenNonBlockingNotEnabled() throws Exception {
+
+        JsFunctionRegistryImpl jsFunctionRegistrar = new JsFunctionRegistryImpl();
+        FrameworkServiceDataHolder.getInstance().setJsFunctionRegistry(jsFunctionRegistrar);
+        LongWaitStatusDAOImpl daoImpl = new LongWaitStatusDAOImpl();
+        CacheBackedLongWaitStatusDAO cacheBackedDao = new CacheBackedLongWaitStatusDAO(daoImpl);
+        FrameworkServiceDataHolder.getInstance().setLongWaitStatusStoreService(new LongWaitStatusStoreService
+                (cacheBackedDao, 5000));
+        jsFunctionRegistrar.register(JsFunctionRegistry.Subsystem.SEQUENCE_HANDLER, "testLongWaitCall",
+                new AsyncAnalyticsCbFunctionImpl());
+
+        ServiceProvider sp1 = getTestServiceProvider("js-sp-longwait-1.xml");
+        AuthenticationContext context = getAuthenticationContext(sp1);
+        context.setSessionIdentifier("1234");
+        SequenceConfig sequenceConfig = configurationLoader
+                .getSequenceConfig(context, Collections.emptyMap(), sp1);
+        context.setSequenceConfig(sequenceConfig);
+
+        HttpServletRequest req = createMockHttpServletRequest();
+        when(req.isAsyncSupported()).thenReturn(true);
+
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+
+        UserCoreUtil.setDomainInThreadLocal("test_domain");
+
+        graphBasedSequenceHandler.handle(req, resp, context);
+
+        verify(req, never()).startAsync();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getIdentityConfiguration() throws Exception {
+
+        Field configurationField = IdentityUtil.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        return (Map<String, Object>) configurationField.get(null);
+    }
+
     @FunctionalInterface
     public interface Fn1 {
 
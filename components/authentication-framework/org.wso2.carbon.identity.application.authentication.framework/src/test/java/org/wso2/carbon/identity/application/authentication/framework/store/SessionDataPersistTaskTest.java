@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unit tests for the coalescing of session data operations in SessionDataPersistTask.
+ */
+public class SessionDataPersistTaskTest {
+
+    @Test
+    public void testCoalesceKeepsLatestOperationPerSession() {
+
+        SessionContextDO oldStore = new SessionContextDO("session1", "AppAuthFrameworkSessionContextCache",
+                "old", 1L);
+        SessionContextDO newStore = new SessionContextDO("session1", "AppAuthFrameworkSessionContextCache",
+                "new", 3L);
+        SessionContextDO delete = new SessionContextDO("session1", "AppAuthFrameworkSessionContextCache",
+                null, 2L);
+        SessionContextDO otherType = new SessionContextDO("session1", "AuthenticationContextCache",
+                "context", 1L);
+
+        // Operations are pushed to the head of the queue, hence may be drained out of order.
+        List<SessionContextDO> drained = Arrays.asList(newStore, delete, oldStore, otherType);
+        Collection<SessionContextDO> coalesced = SessionDataPersistTask.coalesce(drained);
+
+        Assert.assertEquals(coalesced.size(), 2);
+        Assert.assertTrue(coalesced.contains(newStore));
+        Assert.assertTrue(coalesced.contains(otherType));
+    }
+
+    @Test
+    public void testCoalesceKeepsDeleteWhenNewest() {
+
+        SessionContextDO store = new SessionContextDO("session2", "AppAuthFrameworkSessionContextCache",
+                "value", 1L);
+        SessionContextDO delete = new SessionContextDO("session2", "AppAuthFrameworkSessionContextCache",
+                null, 5L);
+
+        Collection<SessionContextDO> coalesced = SessionDataPersistTask.coalesce(Arrays.asList(store, delete));
+
+        Assert.assertEquals(coalesced.size(), 1);
+        Assert.assertNull(coalesced.iterator().next().getEntry());
+    }
+
+    @Test
+    public void testCoalesceEmpty() {
+
+        Assert.assertTrue(SessionDataPersistTask.coalesce(new ArrayList<SessionContextDO>()).isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+
+/**
+ * Unit tests for SessionObjectSerializationManager.
+ */
+public class SessionObjectSerializationManagerTest {
+
+    @DataProvider
+    public Object[][] getSerializationConfigs() {
+
+        return new Object[][]{
+                {false, 4096},
+                {true, 4096},
+                {true, 0},
+        };
+    }
+
+    @Test(dataProvider = "getSerializationConfigs")
+    public void testRoundTrip(boolean compressionEnabled, int threshold) throws Exception {
+
+        SessionObjectSerializationManager manager = new SessionObjectSerializationManager(
+                JavaSessionObjectSerializer.NAME, compressionEnabled, threshold);
+        HashMap<String, String> sessionObject = createSessionObject();
+
+        byte[] serialized = manager.serialize(sessionObject);
+        Object deserialized = manager.deserialize(new ByteArrayInputStream(serialized));
+
+        Assert.assertEquals(deserialized, sessionObject);
+    }
+
+    @Test
+    public void testCompressionReducesSize() throws Exception {
+
+        SessionObjectSerializationManager plain = new SessionObjectSerializationManager(
+                JavaSessionObjectSerializer.NAME, false, 0);
+        SessionObjectSerializationManager compressed = new SessionObjectSerializationManager(
+                JavaSessionObjectSerializer.NAME, true, 0);
+        HashMap<String, String> sessionObject = createSessionObject();
+
+        byte[] compressedBytes = compressed.serialize(sessionObject);
+        Assert.assertEquals(compressedBytes[0], SessionObjectSerializationManager.HEADER_MAGIC);
+        Assert.assertEquals(compressedBytes[3], SessionObjectSerializationManager.FLAG_DEFLATED);
+        Assert.assertTrue(compressedBytes.length < plain.serialize(sessionObject).length);
+    }
+
+    @Test
+    public void testReadLegacyJavaSerializedObject() throws Exception {
+
+        HashMap<String, String> sessionObject = createSessionObject();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(sessionObject);
+        oos.close();
+
+        SessionObjectSerializationManager manager = new SessionObjectSerializationManager(
+                JavaSessionObjectSerializer.NAME, true, 0);
+        Object deserialized = manager.deserialize(new ByteArrayInputStream(baos.toByteArray()));
+
+        Assert.assertEquals(deserialized, sessionObject);
+    }
+
+    @Test
+    public void testDefaultFormatIsPlainJavaSerialization() throws Exception {
+
+        SessionObjectSerializationManager manager = new SessionObjectSerializationManager(null, false, 4096);
+        byte[] serialized = manager.serialize(createSessionObject());
+
+        Assert.assertEquals(serialized[0], (byte) 0xAC);
+        Assert.assertEquals(serialized[1], (byte) 0xED);
+    }
+
+    private HashMap<String, String> createSessionObject() {
+
+        HashMap<String, String> sessionObject = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            sessionObject.put("http://wso2.org/claims/attribute" + i, "value" + i);
+        }
+        return sessionObject;
+    }
+}
@@ -19,6 +19,9 @@ package org.wso2.carbon.identity.claim.metadata.mgt;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDictionary;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDictionaryCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedClaimDialectDAO;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedExternalClaimDAO;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedLocalClaimDAO;
@@ -44,6 +47,8 @@ import org.wso2.carbon.user.core.claim.inmemory.ClaimConfig;
 import org.wso2.carbon.user.core.listener.ClaimManagerListener;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -265,45 +270,20 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
         }
 
         try {
-            // Add listener
-
-            List<LocalClaim> localClaimList = this.localClaimDAO.getLocalClaims(tenantId);
-
-            // Add listener
-
-            for (LocalClaim localClaim : localClaimList) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    return getMappedAttribute(domainName, localClaim, tenantId);
-                }
+            ClaimDictionary claimDictionary = getClaimDictionary();
+            LocalClaim localClaim = claimDictionary.getLocalClaim(claimURI);
+            if (localClaim != null) {
+                return getMappedAttribute(domainName, localClaim, claimDictionary, tenantId);
             }
 
-
             // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
-
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
-
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaimList) {
-                            if (localClaim.getClaimURI().equalsIgnoreCase(externalClaim.getMappedLocalClaim())) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug("Picking mapped attribute for external claim : " + externalClaim
-                                            .getClaimURI() + " using mapped local claim : " + localClaim.getClaimURI());
-                                }
-                                return getMappedAttribute(domainName, localClaim, tenantId);
-                            }
-                        }
-
-                    }
+            localClaim = getMappedLocalClaim(claimDictionary, claimURI);
+            if (localClaim != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Picking mapped attribute for external claim : " + claimURI + " using mapped local " +
+                            "claim : " + localClaim.getClaimURI());
                 }
+                return getMappedAttribute(domainName, localClaim, claimDictionary, tenantId);
             }
 
             if (log.isDebugEnabled()) {
@@ -318,10 +298,84 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
         }
     }
 
-    private String getMappedAttribute(String domainName, LocalClaim localClaim, int tenantId) throws
-            UserStoreException {
+    /**
+     * Loads the claims of the tenant into the claim caches and builds the claim dictionary of the tenant, if they are
+     * not loaded yet.
+     *
+     * @throws ClaimMetadataException if the claims cannot be retrieved
+     */
+    public void loadClaimDictionary() throws ClaimMetadataException {
 
-        String mappedAttribute = localClaim.getMappedAttribute(domainName);
+        getClaimDictionary();
+    }
+
+    /**
+     * Returns the claim dictionary of the tenant, building it from the cached claims if there is no dictionary yet
+     * or if the claims were modified since the dictionary was built, in this node or in another node.
+     *
+     * @return claim dictionary of the tenant
+     * @throws ClaimMetadataException if the claims cannot be retrieved
+     */
+    private ClaimDictionary getClaimDictionary() throws ClaimMetadataException {
+
+        if (!LocalClaimCache.getInstance().isEnabled()) {
+            // Local claims are read from the database on every call, therefore only index the local claims and read
+            // the external claims when they are needed.
+            return new ClaimDictionary(localClaimDAO.getLocalClaims(tenantId),
+                    Collections.<ClaimDialect>emptyList(), Collections.<String, List<ExternalClaim>>emptyMap());
+        }
+        ClaimDictionary claimDictionary = ClaimDictionaryCache.getInstance().getClaimDictionary(tenantId);
+        if (claimDictionary != null) {
+            return claimDictionary;
+        }
+
+        long generation = ClaimDictionaryCache.getInstance().getGeneration(tenantId);
+        claimDictionary = buildClaimDictionary(generation);
+        ClaimDictionaryCache.getInstance().putClaimDictionary(tenantId, claimDictionary);
+        if (log.isDebugEnabled()) {
+            log.debug("Built claim dictionary with " + claimDictionary.size() + " local claims for tenant : " +
+                    tenantId);
+        }
+        return claimDictionary;
+    }
+
+    private ClaimDictionary buildClaimDictionary(long generation) throws ClaimMetadataException {
+
+        List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(tenantId);
+        List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
+        Map<String, List<ExternalClaim>> externalClaims = new HashMap<>();
+        for (ClaimDialect claimDialect : claimDialects) {
+            if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
+                continue;
+            }
+            externalClaims.put(claimDialect.getClaimDialectURI(),
+                    externalClaimDAO.getExternalClaims(claimDialect.getClaimDialectURI(), tenantId));
+        }
+        return new ClaimDictionary(localClaims, claimDialects, externalClaims, generation);
+    }
+
+    /**
+     * Returns the local claim an external claim is mapped to.
+     *
+     * @param claimDictionary  claim dictionary of the tenant
+     * @param externalClaimURI URI of the external claim
+     * @return mapped local claim, null if there is none
+     * @throws ClaimMetadataException if the claims cannot be retrieved
+     */
+    private LocalClaim getMappedLocalClaim(ClaimDictionary claimDictionary, String externalClaimURI)
+            throws ClaimMetadataException {
+
+        if (!LocalClaimCache.getInstance().isEnabled()) {
+            // The dictionary only indexes the local claims when the local claim cache is disabled.
+            claimDictionary = buildClaimDictionary(0);
+        }
+        return claimDictionary.getMappedLocalClaim(externalClaimURI);
+    }
+
+    private String getMappedAttribute(String domainName, LocalClaim localClaim, ClaimDictionary claimDictionary,
+                                      int tenantId) throws UserStoreException {
+
+        String mappedAttribute = claimDictionary.getMappedAttribute(domainName, localClaim.getClaimURI());
 
         if (StringUtils.isNotBlank(mappedAttribute)) {
             if (log.isDebugEnabled()) {
@@ -377,92 +431,33 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
     @Override
     @Deprecated
     public Claim getClaim(String claimURI) throws UserStoreException {
-        try {
-            List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(this.tenantId);
-
-            for (LocalClaim localClaim : localClaims) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
-                            .tenantId);
-                    return claimMapping.getClaim();
-                }
-            }
 
-            // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
-
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
-
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaims) {
-                            ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping
-                                    (localClaim, this.tenantId);
-                            return claimMapping.getClaim();
-                        }
-
-                    }
-                }
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Returning NULL for getClaim() for claim URI : " + claimURI);
-            }
-            return null;
-        } catch (ClaimMetadataException e) {
-            throw new UserStoreException(e.getMessage(), e);
-        }
+        ClaimMapping claimMapping = getClaimMapping(claimURI, "getClaim()");
+        return claimMapping != null ? claimMapping.getClaim() : null;
     }
 
     @Override
     @Deprecated
     public ClaimMapping getClaimMapping(String claimURI) throws UserStoreException {
-        try {
-            List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(this.tenantId);
-
-            for (LocalClaim localClaim : localClaims) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
-                            .tenantId);
-                    return claimMapping;
-                }
-            }
-
-            // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
 
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
+        return getClaimMapping(claimURI, "getClaimMapping()");
+    }
 
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaims) {
-                            if (localClaim.getClaimURI().equalsIgnoreCase(externalClaim.getMappedLocalClaim())) {
-                                ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping
-                                        (localClaim, this.tenantId);
-                                return claimMapping;
-                            }
-                        }
+    private ClaimMapping getClaimMapping(String claimURI, String operation) throws UserStoreException {
 
-                    }
-                }
+        try {
+            ClaimDictionary claimDictionary = getClaimDictionary();
+            LocalClaim localClaim = claimDictionary.getLocalClaim(claimURI);
+            if (localClaim == null) {
+                // For backward compatibility
+                localClaim = getMappedLocalClaim(claimDictionary, claimURI);
+            }
+            if (localClaim != null) {
+                return ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this.tenantId);
             }
 
             if (log.isDebugEnabled()) {
-                log.debug("Returning NULL for getClaimMapping() for claim URI : " + claimURI);
+                log.debug("Returning NULL for " + operation + " for claim URI : " + claimURI);
             }
             return null;
         } catch (ClaimMetadataException e) {
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt.cache;
+
+import org.wso2.carbon.identity.claim.metadata.mgt.model.AttributeMapping;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ClaimDialect;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.util.ClaimConstants;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, indexed view of the local and external claims of a tenant.
+ * <p>
+ * Claim URIs are matched case insensitively, the same way as a linear scan with <code>equalsIgnoreCase</code>. When
+ * several claims match the same URI, the first one in the source lists wins. Each dictionary records the generation
+ * of the claims of the tenant it was built from, which {@link ClaimDictionaryCache} uses to detect dictionaries
+ * invalidated by another node of the cluster.
+ */
+public class ClaimDictionary {
+
+    private final long generation;
+    private final long createdTime = System.currentTimeMillis();
+    private final Map<String, LocalClaim> localClaimsByURI = new HashMap<>();
+    private final Map<String, Map<String, String>> mappedAttributesByURI = new HashMap<>();
+    private final Map<String, LocalClaim> localClaimsByExternalURI = new HashMap<>();
+
+    /**
+     * Builds a dictionary which is not tracked by a generation.
+     *
+     * @param localClaims    local claims of the tenant
+     * @param claimDialects  claim dialects of the tenant
+     * @param externalClaims external claims of the tenant, keyed by the URI of their dialect
+     */
+    public ClaimDictionary(List<LocalClaim> localClaims, List<ClaimDialect> claimDialects,
+                           Map<String, List<ExternalClaim>> externalClaims) {
+
+        this(localClaims, claimDialects, externalClaims, 0);
+    }
+
+    /**
+     * Builds the dictionary.
+     *
+     * @param localClaims    local claims of the tenant
+     * @param claimDialects  claim dialects of the tenant
+     * @param externalClaims external claims of the tenant, keyed by the URI of their dialect
+     * @param generation     generation of the claims of the tenant, read before reading the claims
+     */
+    public ClaimDictionary(List<LocalClaim> localClaims, List<ClaimDialect> claimDialects,
+                           Map<String, List<ExternalClaim>> externalClaims, long generation) {
+
+        this.generation = generation;
+        for (LocalClaim localClaim : localClaims) {
+            String key = toKey(localClaim.getClaimURI());
+            if (localClaimsByURI.putIfAbsent(key, localClaim) != null) {
+                continue;
+            }
+            Map<String, String> mappedAttributes = new HashMap<>();
+            for (AttributeMapping attributeMapping : localClaim.getMappedAttributes()) {
+                mappedAttributes.putIfAbsent(attributeMapping.getUserStoreDomain(),
+                        attributeMapping.getAttributeName());
+            }
+            mappedAttributesByURI.put(key, mappedAttributes);
+        }
+
+        for (ClaimDialect claimDialect : claimDialects) {
+            if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
+                continue;
+            }
+            List<ExternalClaim> externalClaimList = externalClaims.get(claimDialect.getClaimDialectURI());
+            if (externalClaimList == null) {
+                continue;
+            }
+            for (ExternalClaim externalClaim : externalClaimList) {
+                if (externalClaim.getMappedLocalClaim() == null) {
+                    continue;
+                }
+                LocalClaim localClaim = localClaimsByURI.get(toKey(externalClaim.getMappedLocalClaim()));
+                if (localClaim != null) {
+                    localClaimsByExternalURI.putIfAbsent(toKey(externalClaim.getClaimURI()), localClaim);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param claimURI URI of the local claim
+     * @return local claim with the given URI, null if there is none
+     */
+    public LocalClaim getLocalClaim(String claimURI) {
+
+        return claimURI == null ? null : localClaimsByURI.get(toKey(claimURI));
+    }
+
+    /**
+     * Returns the attribute explicitly mapped to a local claim for a user store domain. Default attributes of the
+     * claim are not considered.
+     *
+     * @param domainName user store domain
+     * @param claimURI   URI of the local claim
+     * @return mapped attribute, null if there is none
+     */
+    public String getMappedAttribute(String domainName, String claimURI) {
+
+        if (domainName == null || claimURI == null) {
+            return null;
+        }
+        Map<String, String> mappedAttributes = mappedAttributesByURI.get(toKey(claimURI));
+        return mappedAttributes == null ? null : mappedAttributes.get(domainName.toUpperCase());
+    }
+
+    /**
+     * @param externalClaimURI URI of an external claim of any external dialect
+     * @return local claim the external claim is mapped to, null if there is none
+     */
+    public LocalClaim getMappedLocalClaim(String externalClaimURI) {
+
+        return externalClaimURI == null ? null : localClaimsByExternalURI.get(toKey(externalClaimURI));
+    }
+
+    /**
+     * @return number of indexed local claims
+     */
+    public int size() {
+
+        return localClaimsByURI.size();
+    }
+
+    /**
+     * @return generation of the claims the dictionary was built from
+     */
+    public long getGeneration() {
+
+        return generation;
+    }
+
+    /**
+     * @return time the dictionary was built at, in milliseconds
+     */
+    public long getCreatedTime() {
+
+        return createdTime;
+    }
+
+    private static String toKey(String claimURI) {
+
+        return claimURI.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.claim.metadata.mgt.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the claim dictionary of each tenant in this node.
+ * <p>
+ * Dictionaries are not shared across the cluster. They are built from the claim caches, replaced as a whole and
+ * cleared whenever the claims of the tenant are modified through the cache backed DAOs. Each dictionary records the
+ * generation of the claims of the tenant it was built from. The generation is kept in a claim metadata cache shared by
+ * the cluster and is only advanced when a dictionary is cleared, so that clearing the dictionary in one node
+ * invalidates the dictionaries built by the other nodes, and a dictionary built from claims read before the clear is
+ * not stored.
+ * <p>
+ * A generation which is not in the cache is read as zero. A generation is advanced to at least the current time, so
+ * it never goes back to a value seen before it expired from the cache. A dictionary of generation zero is only kept
+ * for the timeout of the generation cache, as a clear which happened after it was built may have expired from the
+ * cache since.
+ */
+public class ClaimDictionaryCache {
+
+    private static final String GENERATION_CACHE_NAME = "ClaimDictionaryGenerationCache";
+    // Default expiry of the carbon caches.
+    private static final int DEFAULT_GENERATION_CACHE_TIMEOUT = 900;
+    private static final ClaimDictionaryCache instance = new ClaimDictionaryCache();
+
+    private final BaseCache<Integer, Long> generationCache = new BaseCache<>(GENERATION_CACHE_NAME);
+    private final ConcurrentMap<Integer, ClaimDictionary> claimDictionaries = new ConcurrentHashMap<>();
+    // Generations of this node, used when the generation cache is disabled.
+    private final ConcurrentMap<Integer, Long> localGenerations = new ConcurrentHashMap<>();
+
+    /*
+     * Prevents instantiation.
+     */
+    private ClaimDictionaryCache() {
+
+    }
+
+    public static ClaimDictionaryCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Returns the claim dictionary of the tenant, unless it was cleared in this node or in another node.
+     *
+     * @param tenantId tenant id
+     * @return claim dictionary of the tenant, null if there is none
+     */
+    public ClaimDictionary getClaimDictionary(int tenantId) {
+
+        ClaimDictionary claimDictionary = claimDictionaries.get(tenantId);
+        if (claimDictionary == null) {
+            return null;
+        }
+        if (claimDictionary.getGeneration() != getGeneration(tenantId) || (claimDictionary.getGeneration() == 0 &&
+                System.currentTimeMillis() - claimDictionary.getCreatedTime() > getGenerationTimeoutMillis())) {
+            claimDictionaries.remove(tenantId, claimDictionary);
+            return null;
+        }
+        return claimDictionary;
+    }
+
+    /**
+     * Returns the current generation of the claims of the tenant. Read it before reading the claims a dictionary is
+     * built from and build the dictionary with it.
+     *
+     * @param tenantId tenant id
+     * @return current generation
+     */
+    public long getGeneration(int tenantId) {
+
+        Long generation = generationCache.isEnabled() ? generationCache.getValueFromCache(tenantId) :
+                localGenerations.get(tenantId);
+        return generation == null ? 0 : generation;
+    }
+
+    /**
+     * Stores the claim dictionary of the tenant, unless the claims were modified after the generation the dictionary
+     * was built from. The shared generation is not modified.
+     *
+     * @param tenantId        tenant id
+     * @param claimDictionary claim dictionary of the tenant
+     */
+    public synchronized void putClaimDictionary(int tenantId, ClaimDictionary claimDictionary) {
+
+        if (getGeneration(tenantId) != claimDictionary.getGeneration()) {
+            return;
+        }
+        claimDictionaries.put(tenantId, claimDictionary);
+    }
+
+    public synchronized void clearClaimDictionary(int tenantId) {
+
+        long generation = Math.max(getGeneration(tenantId) + 1, System.currentTimeMillis());
+        localGenerations.put(tenantId, generation);
+        generationCache.addToCache(tenantId, generation);
+        claimDictionaries.remove(tenantId);
+    }
+
+    private long getGenerationTimeoutMillis() {
+
+        int timeout = generationCache.getCacheTimeout();
+        return TimeUnit.SECONDS.toMillis(timeout > 0 ? timeout : DEFAULT_GENERATION_CACHE_TIMEOUT);
+    }
+}
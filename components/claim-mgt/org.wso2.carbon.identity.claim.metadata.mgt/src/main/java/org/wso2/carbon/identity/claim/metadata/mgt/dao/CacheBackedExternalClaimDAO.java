@@ -18,6 +18,7 @@ package org.wso2.carbon.identity.claim.metadata.mgt.dao;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDictionaryCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.cache.ExternalClaimCacheKey;
 import org.wso2.carbon.identity.claim.metadata.mgt.cache.ExternalClaimCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.exception.ClaimMetadataException;
@@ -72,6 +73,7 @@ public class CacheBackedExternalClaimDAO {
         String externalClaimDialectURI = externalClaim.getClaimDialectURI();
         ExternalClaimCacheKey cacheKey = new ExternalClaimCacheKey(externalClaimDialectURI, tenantId);
         externalClaimCache.clearCacheEntry(cacheKey);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
     public void updateExternalClaim(ExternalClaim externalClaim, int tenantId) throws ClaimMetadataException {
 
@@ -79,6 +81,7 @@ public class CacheBackedExternalClaimDAO {
         String externalClaimDialectURI = externalClaim.getClaimDialectURI();
         ExternalClaimCacheKey cacheKey = new ExternalClaimCacheKey(externalClaimDialectURI, tenantId);
         externalClaimCache.clearCacheEntry(cacheKey);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
     public void removeExternalClaim(String externalClaimDialectURI, String externalClaimURI, int tenantId) throws
             ClaimMetadataException {
@@ -86,6 +89,7 @@ public class CacheBackedExternalClaimDAO {
         externalClaimDAO.removeExternalClaim(externalClaimDialectURI, externalClaimURI, tenantId);
         ExternalClaimCacheKey cacheKey = new ExternalClaimCacheKey(externalClaimDialectURI, tenantId);
         externalClaimCache.clearCacheEntry(cacheKey);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 
     public boolean isMappedLocalClaim(String mappedLocalClaimURI, int tenantId) throws
@@ -105,5 +109,6 @@ public class CacheBackedExternalClaimDAO {
 
         ExternalClaimCacheKey cacheKey = new ExternalClaimCacheKey(externalClaimDialectURI, tenantId);
         externalClaimCache.clearCacheEntry(cacheKey);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 }
@@ -19,6 +19,7 @@ package org.wso2.carbon.identity.claim.metadata.mgt.dao;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDictionaryCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.exception.ClaimMetadataException;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
@@ -67,18 +68,21 @@ public class CacheBackedLocalClaimDAO {
 
         localClaimDAO.addLocalClaim(localClaim, tenantId);
         localClaimInvalidationCache.clearCacheEntry(tenantId);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 
     public void updateLocalClaim(LocalClaim localClaim, int tenantId) throws ClaimMetadataException {
 
         localClaimDAO.updateLocalClaim(localClaim, tenantId);
         localClaimInvalidationCache.clearCacheEntry(tenantId);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 
     public void removeLocalClaim(String localClaimURI, int tenantId) throws ClaimMetadataException {
 
         localClaimDAO.removeLocalClaim(localClaimURI, tenantId);
         localClaimInvalidationCache.clearCacheEntry(tenantId);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 
     /**
@@ -99,5 +103,6 @@ public class CacheBackedLocalClaimDAO {
         }
         localClaimDAO.deleteClaimMappingAttributes(tenantId, userstoreDomain);
         localClaimInvalidationCache.clearCacheEntry(tenantId);
+        ClaimDictionaryCache.getInstance().clearClaimDictionary(tenantId);
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt.internal;
+
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.claim.metadata.mgt.DefaultClaimMetadataStore;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+
+import java.util.List;
+
+/**
+ * Loads the claim dialects, local claims and external claims of a tenant into the claim caches and builds the claim
+ * dictionary of the tenant. Claims are loaded as a whole, therefore this handler does not record any entry and warms
+ * up every tenant selected from the accesses recorded by the other handlers.
+ */
+public class ClaimCacheWarmUpHandler implements CacheWarmUpHandler {
+
+    public static final String NAME = "Claim";
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public void warmUp(String tenantDomain, List<String> entries) throws IdentityException {
+
+        DefaultClaimMetadataStore.getInstance(IdentityTenantUtil.getTenantId(tenantDomain)).loadClaimDictionary();
+    }
+}
@@ -25,6 +25,7 @@ import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataManagementServic
 import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataStoreFactory;
 import org.wso2.carbon.identity.claim.metadata.mgt.listener.ClaimConfigListener;
 import org.wso2.carbon.identity.claim.metadata.mgt.listener.ClaimMetadataTenantMgtListener;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
 import org.wso2.carbon.identity.user.store.configuration.listener.UserStoreConfigListener;
 import org.wso2.carbon.registry.core.service.RegistryService;
@@ -63,6 +64,7 @@ public class IdentityClaimManagementServiceComponent {
 
             bundleCtx.registerService(TenantMgtListener.class.getName(),
                     new ClaimMetadataTenantMgtListener(), null);
+            bundleCtx.registerService(CacheWarmUpHandler.class.getName(), new ClaimCacheWarmUpHandler(), null);
 
             registerClaimConfigListener(bundleCtx);
 
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt.cache;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.AttributeMapping;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ClaimDialect;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.util.ClaimConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Unit tests for ClaimDictionary.
+ */
+public class ClaimDictionaryTest {
+
+    private static final int CLAIM_COUNT = 2000;
+    private static final String LOCAL_CLAIM_PREFIX = "http://wso2.org/claims/claim";
+    private static final String EXTERNAL_DIALECT_URI = "http://schemas.xmlsoap.org/ws/2005/05/identity";
+    private static final String EXTERNAL_CLAIM_PREFIX = EXTERNAL_DIALECT_URI + "/claims/claim";
+
+    private List<LocalClaim> localClaims;
+    private List<ClaimDialect> claimDialects;
+    private Map<String, List<ExternalClaim>> externalClaims;
+    private ClaimDictionary claimDictionary;
+
+    @BeforeClass
+    public void setUp() {
+
+        localClaims = new ArrayList<>();
+        List<ExternalClaim> externalClaimList = new ArrayList<>();
+        for (int i = 0; i < CLAIM_COUNT; i++) {
+            List<AttributeMapping> attributeMappings = new ArrayList<>();
+            attributeMappings.add(new AttributeMapping("PRIMARY", "attribute" + i));
+            attributeMappings.add(new AttributeMapping("secondary", "secondaryAttribute" + i));
+            localClaims.add(new LocalClaim(LOCAL_CLAIM_PREFIX + i, attributeMappings, new HashMap<>()));
+            externalClaimList.add(new ExternalClaim(EXTERNAL_DIALECT_URI, EXTERNAL_CLAIM_PREFIX + i,
+                    LOCAL_CLAIM_PREFIX + i));
+        }
+        externalClaimList.add(new ExternalClaim(EXTERNAL_DIALECT_URI, EXTERNAL_CLAIM_PREFIX + "Unmapped",
+                LOCAL_CLAIM_PREFIX + "Unknown"));
+
+        claimDialects = new ArrayList<>();
+        claimDialects.add(new ClaimDialect(ClaimConstants.LOCAL_CLAIM_DIALECT_URI));
+        claimDialects.add(new ClaimDialect(EXTERNAL_DIALECT_URI));
+        externalClaims = Collections.singletonMap(EXTERNAL_DIALECT_URI, externalClaimList);
+
+        claimDictionary = new ClaimDictionary(localClaims, claimDialects, externalClaims);
+    }
+
+    @Test
+    public void testGetLocalClaim() {
+
+        assertEquals(claimDictionary.size(), CLAIM_COUNT);
+        assertSame(claimDictionary.getLocalClaim(LOCAL_CLAIM_PREFIX + 10), localClaims.get(10));
+        assertSame(claimDictionary.getLocalClaim((LOCAL_CLAIM_PREFIX + 10).toUpperCase()), localClaims.get(10));
+        assertNull(claimDictionary.getLocalClaim(LOCAL_CLAIM_PREFIX + "Unknown"));
+        assertNull(claimDictionary.getLocalClaim(null));
+    }
+
+    @Test
+    public void testGetMappedAttribute() {
+
+        assertEquals(claimDictionary.getMappedAttribute("PRIMARY", LOCAL_CLAIM_PREFIX + 10), "attribute10");
+        assertEquals(claimDictionary.getMappedAttribute("Secondary", LOCAL_CLAIM_PREFIX + 10),
+                "secondaryAttribute10");
+        assertNull(claimDictionary.getMappedAttribute("OTHER", LOCAL_CLAIM_PREFIX + 10));
+        assertNull(claimDictionary.getMappedAttribute("PRIMARY", LOCAL_CLAIM_PREFIX + "Unknown"));
+    }
+
+    @Test
+    public void testGetMappedLocalClaim() {
+
+        assertSame(claimDictionary.getMappedLocalClaim(EXTERNAL_CLAIM_PREFIX + 10), localClaims.get(10));
+        assertSame(claimDictionary.getMappedLocalClaim((EXTERNAL_CLAIM_PREFIX + 10).toLowerCase()),
+                localClaims.get(10));
+        assertNull(claimDictionary.getMappedLocalClaim(EXTERNAL_CLAIM_PREFIX + "Unmapped"));
+        assertNull(claimDictionary.getMappedLocalClaim(LOCAL_CLAIM_PREFIX + 10));
+    }
+
+    @Test
+    public void testGetGeneration() {
+
+        assertEquals(claimDictionary.getGeneration(), 0);
+        assertEquals(new ClaimDictionary(localClaims, claimDialects, externalClaims, 42).getGeneration(), 42);
+    }
+}
@@ -57,6 +57,33 @@ public interface ConfigurationManager {
     Resources getTenantResources(String tenantDomain, Condition searchCondition) throws
             ConfigurationManagementException;
 
+    /**
+     * This API is used to get a page of resources from all the tenants filtered with the {@link Condition}.
+     *
+     * @param searchCondition {@link Condition} representing a search filter for resources.
+     * @param cursor          Cursor returned with the previous page, or null for the first page.
+     * @param limit           Maximum number of resources in the page.
+     * @return {@link Resources} object with a page of resources matching to the given {@link Condition}, along with
+     * the cursor of the next page if there are more resources.
+     * @throws ConfigurationManagementException Configuration Management Exception.
+     */
+    Resources getTenantResources(Condition searchCondition, String cursor, int limit)
+            throws ConfigurationManagementException;
+
+    /**
+     * This API is used to get a page of resources from a specific tenant filtered with the {@link Condition}.
+     *
+     * @param tenantDomain    Tenant domain.
+     * @param searchCondition {@link Condition} representing a search filter for resources.
+     * @param cursor          Cursor returned with the previous page, or null for the first page.
+     * @param limit           Maximum number of resources in the page.
+     * @return {@link Resources} object with a page of resources matching to the given {@link Condition}, along with
+     * the cursor of the next page if there are more resources.
+     * @throws ConfigurationManagementException Configuration Management Exception.
+     */
+    Resources getTenantResources(String tenantDomain, Condition searchCondition, String cursor, int limit)
+            throws ConfigurationManagementException;
+
     /**
      * This API is used to store a new {@link ResourceType}.
      *
@@ -126,6 +126,35 @@ public class ConfigurationManagerImpl implements ConfigurationManager {
         return getTenantResources(getTenantSpecificSearchCondition(tenantDomain, searchCondition));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Resources getTenantResources(Condition searchCondition, String cursor, int limit)
+            throws ConfigurationManagementException {
+
+        checkFeatureStatus();
+
+        validateSearchRequest(searchCondition);
+        if (limit <= 0) {
+            throw handleClientException(ErrorMessages.ERROR_CODE_INVALID_SEARCH_LIMIT, String.valueOf(limit));
+        }
+        Resources resources = getConfigurationDAO().getTenantResources(searchCondition, cursor,
+                Math.min(limit, ConfigurationConstants.MAX_SEARCH_LIMIT));
+        if (resources == null) {
+            throw handleClientException(ErrorMessages.ERROR_CODE_RESOURCES_DOES_NOT_EXISTS, null);
+        }
+        return resources;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Resources getTenantResources(String tenantDomain, Condition searchCondition, String cursor, int limit)
+            throws ConfigurationManagementException {
+
+        return getTenantResources(getTenantSpecificSearchCondition(tenantDomain, searchCondition), cursor, limit);
+    }
+
     /**
      * Append tenant domain search to then search condition.
      *
@@ -38,6 +38,8 @@ public class ConfigurationConstants {
     public static final String INFORMIX = "Informix";
     public static final String H2 = "H2";
     public static final String ORACLE = "Oracle";
+    public static final int DEFAULT_SEARCH_LIMIT = 100;
+    public static final int MAX_SEARCH_LIMIT = 1000;
     public static final String RESOURCE_SEARCH_BEAN_FIELD_TENANT_ID = "tenantId";
     public static final String RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN = "tenantDomain";
     public static final String RESOURCE_SEARCH_BEAN_FIELD_RESOURCE_TYPE_ID = "resourceTypeId";
@@ -128,7 +130,10 @@ public class ConfigurationConstants {
         ERROR_CODE_RESOURCE_ID_DOES_NOT_EXISTS("CONFIGM_00046", "Resource with the id: %s does not exists."),
         ERROR_CODE_INVALID_RESOURCE_ID("CONFIGM_00047", "Invalid resource id: %s."),
         ERROR_CODE_DELETE_RESOURCE("CONFIGM_00048", "Error while deleting the resource: %s."),
-        ERROR_CODE_CHECK_DB_METADATA("CONFIGM_00049", "Error occurred while checking the DB metadata.");
+        ERROR_CODE_CHECK_DB_METADATA("CONFIGM_00049", "Error occurred while checking the DB metadata."),
+        ERROR_CODE_INVALID_SEARCH_CURSOR("CONFIGM_00050", "Invalid search cursor: %s."),
+        ERROR_CODE_INVALID_SEARCH_LIMIT("CONFIGM_00051", "Invalid search limit: %s. The limit should be a " +
+                "positive integer.");
 
         private final String code;
         private final String message;
@@ -431,6 +431,96 @@ public class SQLConstants {
             "    R.HAS_FILE = TRUE\n" +
             "    AND F.RESOURCE_ID = R.ID\n" +
             "  )\n";
+    public static final String GET_TENANT_RESOURCES_AFTER_CURSOR_SQL = " AND (R.TENANT_ID > ? OR (R.TENANT_ID = ? AND " +
+            "R.ID > ?))";
+    public static final String GET_TENANT_RESOURCES_ORDER_BY_CURSOR_SQL = " ORDER BY R.TENANT_ID, R.ID";
+    public static final String GET_TENANT_RESOURCE_KEYS_SELECT_MYSQL = "SELECT DISTINCT\n" +
+            "  R.TENANT_ID,\n" +
+            "  R.ID\n" +
+            "FROM\n" +
+            "  IDN_CONFIG_RESOURCE AS R\n" +
+            "  INNER JOIN IDN_CONFIG_TYPE AS T ON R.TYPE_ID = T.ID\n" +
+            "  LEFT JOIN IDN_CONFIG_ATTRIBUTE AS A ON (\n" +
+            "    R.HAS_ATTRIBUTE = TRUE\n" +
+            "    AND A.RESOURCE_ID = R.ID\n" +
+            "  )\n";
+    public static final String GET_TENANT_RESOURCE_KEYS_SELECT_ORACLE = "SELECT DISTINCT" +
+            "   R.TENANT_ID," +
+            "   R.ID " +
+            "FROM" +
+            "   IDN_CONFIG_RESOURCE  R" +
+            "   INNER JOIN IDN_CONFIG_TYPE  T ON R.TYPE_ID = T.ID" +
+            "   LEFT JOIN IDN_CONFIG_ATTRIBUTE  A ON (" +
+            "       R.HAS_ATTRIBUTE = 1" +
+            "       AND A.RESOURCE_ID = R.ID" +
+            "   ) ";
+    public static final String GET_TENANT_RESOURCE_KEYS_SELECT_MSSQL = "SELECT DISTINCT TOP %d" +
+            "   R.TENANT_ID," +
+            "   R.ID " +
+            "FROM" +
+            "   IDN_CONFIG_RESOURCE  R" +
+            "   INNER JOIN IDN_CONFIG_TYPE  T ON R.TYPE_ID = T.ID" +
+            "   LEFT JOIN IDN_CONFIG_ATTRIBUTE  A ON (" +
+            "       R.HAS_ATTRIBUTE = 1" +
+            "       AND A.RESOURCE_ID = R.ID" +
+            "   ) ";
+    public static final String GET_TENANT_RESOURCE_KEYS_LIMIT_SQL = " LIMIT %d";
+    public static final String GET_TENANT_RESOURCE_KEYS_FETCH_FIRST_SQL = " FETCH FIRST %d ROWS ONLY";
+    public static final String GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS = "SELECT\n" +
+            "  R.ID,\n" +
+            "  R.TENANT_ID,\n" +
+            "  R.NAME,\n" +
+            "  R.CREATED_TIME,\n" +
+            "  R.LAST_MODIFIED,\n" +
+            "  T.NAME AS RESOURCE_TYPE,\n" +
+            "  T.DESCRIPTION AS DESCRIPTION,\n" +
+            "  F.ID AS FILE_ID,\n" +
+            "  A.ID AS ATTR_ID,\n" +
+            "  A.ATTR_KEY AS ATTR_KEY,\n" +
+            "  A.ATTR_VALUE AS ATTR_VALUE\n" +
+            "FROM\n" +
+            "  (\n";
+    public static final String GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS_WITHOUT_CREATED_TIME = "SELECT\n" +
+            "  R.ID,\n" +
+            "  R.TENANT_ID,\n" +
+            "  R.NAME,\n" +
+            "  R.LAST_MODIFIED,\n" +
+            "  T.NAME AS RESOURCE_TYPE,\n" +
+            "  T.DESCRIPTION AS DESCRIPTION,\n" +
+            "  F.ID AS FILE_ID,\n" +
+            "  A.ID AS ATTR_ID,\n" +
+            "  A.ATTR_KEY AS ATTR_KEY,\n" +
+            "  A.ATTR_VALUE AS ATTR_VALUE\n" +
+            "FROM\n" +
+            "  (\n";
+    public static final String GET_TENANT_RESOURCES_PAGE_JOIN_MYSQL = "\n  ) P\n" +
+            "  INNER JOIN IDN_CONFIG_RESOURCE AS R ON (\n" +
+            "    R.TENANT_ID = P.TENANT_ID\n" +
+            "    AND R.ID = P.ID\n" +
+            "  )\n" +
+            "  INNER JOIN IDN_CONFIG_TYPE AS T ON R.TYPE_ID = T.ID\n" +
+            "  LEFT JOIN IDN_CONFIG_ATTRIBUTE AS A ON (\n" +
+            "    R.HAS_ATTRIBUTE = TRUE\n" +
+            "    AND A.RESOURCE_ID = R.ID\n" +
+            "  )\n" +
+            "  LEFT JOIN IDN_CONFIG_FILE AS F ON (\n" +
+            "    R.HAS_FILE = TRUE\n" +
+            "    AND F.RESOURCE_ID = R.ID\n" +
+            "  )\n";
+    public static final String GET_TENANT_RESOURCES_PAGE_JOIN_MSSQL_OR_ORACLE = " ) P" +
+            "   INNER JOIN IDN_CONFIG_RESOURCE  R ON (" +
+            "       R.TENANT_ID = P.TENANT_ID" +
+            "       AND R.ID = P.ID" +
+            "   )" +
+            "   INNER JOIN IDN_CONFIG_TYPE  T ON R.TYPE_ID = T.ID" +
+            "   LEFT JOIN IDN_CONFIG_ATTRIBUTE  A ON (" +
+            "       R.HAS_ATTRIBUTE = 1" +
+            "       AND A.RESOURCE_ID = R.ID" +
+            "   )" +
+            "   LEFT JOIN IDN_CONFIG_FILE  F ON (" +
+            "       R.HAS_FILE = 1" +
+            "       AND F.RESOURCE_ID = R.ID" +
+            "   ) ";
     public static final String GET_RESOURCE_CREATED_TIME_BY_NAME_SQL = "SELECT\n" +
             "  CREATED_TIME\n" +
             "FROM\n" +
@@ -50,6 +50,23 @@ public interface ConfigurationDAO {
      */
     Resources getTenantResources(Condition condition) throws ConfigurationManagementException;
 
+    /**
+     * Get a page of {@link Resources} across tenants based on the search filter described by a {@link Condition}.
+     * Resources are ordered by their tenant and id.
+     *
+     * @param condition Search condition.
+     * @param cursor    Cursor returned with the previous page, or null for the first page.
+     * @param limit     Maximum number of resources in the page.
+     * @return Page of {@link Resource} objects along with the cursor of the next page, or null if there are no
+     * resources.
+     * @throws ConfigurationManagementException Configuration Management Exception.
+     */
+    default Resources getTenantResources(Condition condition, String cursor, int limit)
+            throws ConfigurationManagementException {
+
+        throw new ConfigurationManagementException("This method is not implemented", null);
+    }
+
     /**
      * Returns {@link Resource} by name.
      *
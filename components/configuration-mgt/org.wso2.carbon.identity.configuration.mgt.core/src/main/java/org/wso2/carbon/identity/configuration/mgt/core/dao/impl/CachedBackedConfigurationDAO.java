@@ -69,6 +69,13 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
         return configurationDAO.getTenantResources(condition);
     }
 
+    @Override
+    public Resources getTenantResources(Condition condition, String cursor, int limit)
+            throws ConfigurationManagementException {
+
+        return configurationDAO.getTenantResources(condition, cursor, limit);
+    }
+
     @Override
     public Resource getResourceByName(int tenantId, String resourceTypeId, String name)
             throws ConfigurationManagementException {
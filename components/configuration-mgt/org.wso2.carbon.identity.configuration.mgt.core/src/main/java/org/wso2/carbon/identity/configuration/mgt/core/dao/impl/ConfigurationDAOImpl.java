@@ -40,14 +40,21 @@ import org.wso2.carbon.identity.configuration.mgt.core.search.PlaceholderSQL;
 import org.wso2.carbon.identity.configuration.mgt.core.search.PrimitiveConditionValidator;
 import org.wso2.carbon.identity.configuration.mgt.core.search.exception.PrimitiveConditionValidationException;
 import org.wso2.carbon.identity.configuration.mgt.core.util.JdbcUtils;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.LambdaExceptionUtils;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -121,6 +128,8 @@ import static org.wso2.carbon.identity.configuration.mgt.core.constant.Configura
         .ERROR_CODE_INSERT_ATTRIBUTE;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.ErrorMessages
         .ERROR_CODE_INSERT_FILE;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.ErrorMessages
+        .ERROR_CODE_INVALID_SEARCH_CURSOR;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.ErrorMessages
         .ERROR_CODE_QUERY_LENGTH_EXCEEDED;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.ErrorMessages
@@ -201,6 +210,28 @@ import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConsta
         INSERT_OR_UPDATE_RESOURCE_TYPE_MSSQL_OR_DB2;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
         .INSERT_OR_UPDATE_RESOURCE_TYPE_ORACLE;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_AFTER_CURSOR_SQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_ORDER_BY_CURSOR_SQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_PAGE_JOIN_MSSQL_OR_ORACLE;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_PAGE_JOIN_MYSQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS_WITHOUT_CREATED_TIME;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCE_KEYS_FETCH_FIRST_SQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCE_KEYS_LIMIT_SQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCE_KEYS_SELECT_MSSQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCE_KEYS_SELECT_MYSQL;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
+        .GET_TENANT_RESOURCE_KEYS_SELECT_ORACLE;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants.INSERT_RESOURCE_SQL;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.SQLConstants
         .INSERT_RESOURCE_SQL_WITHOUT_CREATED_TIME;
@@ -247,55 +278,13 @@ public class ConfigurationDAOImpl implements ConfigurationDAO {
     public Resources getTenantResources(Condition condition) throws ConfigurationManagementException {
 
         PlaceholderSQL placeholderSQL = buildPlaceholderSQL(condition, useCreatedTimeField());
-        if (placeholderSQL.getQuery().getBytes().length > getMaximumQueryLengthInBytes()) {
-            if (log.isDebugEnabled()) {
-                log.debug("Error building SQL query for the search. Search expression " +
-                        "query length: " + placeholderSQL.getQuery().length() + " exceeds the maximum limit: " +
-                        MAX_QUERY_LENGTH_IN_BYTES_SQL);
-            }
-            throw handleClientException(ERROR_CODE_QUERY_LENGTH_EXCEEDED, null);
-        }
+        validateSearchQueryLength(placeholderSQL);
         JdbcTemplate jdbcTemplate = JdbcUtils.getNewTemplate();
         List<ConfigurationRawDataCollector> configurationRawDataCollectors;
         try {
             configurationRawDataCollectors = jdbcTemplate.executeQuery(placeholderSQL.getQuery(),
-                    (resultSet, rowNumber) -> {
-                        ConfigurationRawDataCollector.ConfigurationRawDataCollectorBuilder
-                                configurationRawDataCollectorBuilder =
-                                new ConfigurationRawDataCollector.ConfigurationRawDataCollectorBuilder()
-                                        .setResourceId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ID))
-                                        .setTenantId(resultSet.getInt(DB_SCHEMA_COLUMN_NAME_TENANT_ID))
-                                        .setResourceName(resultSet.getString(DB_SCHEMA_COLUMN_NAME_NAME))
-                                        .setLastModified(resultSet.getTimestamp(DB_SCHEMA_COLUMN_NAME_LAST_MODIFIED,
-                                                calendar))
-                                        .setResourceTypeName(resultSet.getString(DB_SCHEMA_COLUMN_NAME_RESOURCE_TYPE))
-                                        .setResourceTypeDescription(resultSet.getString
-                                                (DB_SCHEMA_COLUMN_NAME_DESCRIPTTION))
-                                        .setAttributeKey(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_KEY))
-                                        .setAttributeValue(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_VALUE))
-                                        .setAttributeId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_ID))
-                                        .setFileId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_FILE_ID));
-                        if (useCreatedTimeField()) {
-                            configurationRawDataCollectorBuilder
-                                    .setCreatedTime(resultSet.getTimestamp(DB_SCHEMA_COLUMN_NAME_CREATED_TIME,
-                                            calendar));
-                        }
-                        return configurationRawDataCollectorBuilder.build();
-                    }, preparedStatement -> {
-                        for (int count = 0; count < placeholderSQL.getData().size(); count++) {
-                            if (placeholderSQL.getData().get(count).getClass().equals(Integer.class)) {
-                                preparedStatement.setInt(
-                                        count + 1,
-                                        (Integer) placeholderSQL.getData().get(count)
-                                );
-                            } else {
-                                preparedStatement.setString(
-                                        count + 1,
-                                        (String) placeholderSQL.getData().get(count)
-                                );
-                            }
-                        }
-                    });
+                    (resultSet, rowNumber) -> buildSearchRawData(resultSet),
+                    preparedStatement -> setSearchParameters(preparedStatement, placeholderSQL));
             /*
             Database call can contain duplicate data for some columns. Need to filter them in order to build the
             resource.
@@ -307,6 +296,63 @@ public class ConfigurationDAOImpl implements ConfigurationDAO {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * At most one resource more than the limit is selected from the database. Rows are ordered by the tenant id and
+     * the resource id, and are read from a forward only result set. The rows of a resource are adjacent, so each
+     * resource is built as soon as its rows are read, and the result set is closed once the page is filled.
+     */
+    @Override
+    public Resources getTenantResources(Condition condition, String cursor, int limit)
+            throws ConfigurationManagementException {
+
+        SearchCursor after = StringUtils.isBlank(cursor) ? null : SearchCursor.decode(cursor);
+        // One resource more than the limit is read to find out whether there is a next page.
+        PlaceholderSQL placeholderSQL = buildPagePlaceholderSQL(condition, useCreatedTimeField(), after, limit + 1);
+        validateSearchQueryLength(placeholderSQL);
+
+        List<Resource> resources = new ArrayList<>();
+        ConfigurationRawDataCollector lastResourceRow = null;
+        boolean hasMoreResources = false;
+        try (Connection connection = IdentityDatabaseUtil.getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(placeholderSQL.getQuery())) {
+            setSearchParameters(preparedStatement, placeholderSQL);
+            preparedStatement.setFetchSize(limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                List<ConfigurationRawDataCollector> resourceRows = new ArrayList<>();
+                while (resultSet.next()) {
+                    ConfigurationRawDataCollector row = buildSearchRawData(resultSet);
+                    if (!resourceRows.isEmpty() &&
+                            !resourceRows.get(0).getResourceId().equals(row.getResourceId())) {
+                        lastResourceRow = resourceRows.get(0);
+                        resources.add(buildResourceFromRawData(resourceRows));
+                        resourceRows = new ArrayList<>();
+                        if (resources.size() == limit) {
+                            hasMoreResources = true;
+                            break;
+                        }
+                    }
+                    resourceRows.add(row);
+                }
+                if (!hasMoreResources && !resourceRows.isEmpty()) {
+                    resources.add(buildResourceFromRawData(resourceRows));
+                }
+            }
+        } catch (SQLException e) {
+            throw handleServerException(ERROR_CODE_SEARCH_TENANT_RESOURCES, null, e);
+        }
+        if (resources.isEmpty()) {
+            return null;
+        }
+        Resources page = new Resources(resources);
+        if (hasMoreResources) {
+            page.setNextCursor(new SearchCursor(lastResourceRow.getTenantId(), lastResourceRow.getResourceId())
+                    .encode());
+        }
+        return page;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1121,6 +1167,115 @@ public class ConfigurationDAOImpl implements ConfigurationDAO {
         }
     }
 
+    /**
+     * Build the query of a search page. The matching resource keys after the cursor are selected in a subquery that
+     * is bounded to the page size, and only the rows of those resources are joined, ordered by the resource key.
+     */
+    private PlaceholderSQL buildPagePlaceholderSQL(Condition condition, boolean useCreatedTime, SearchCursor after,
+                                                   int pageSize) throws ConfigurationManagementException {
+
+        PlaceholderSQL placeholderSQL;
+        try {
+            placeholderSQL = condition.buildQuery(new PrimitiveConditionValidator(new ResourceSearchBean()));
+        } catch (PrimitiveConditionValidationException e) {
+            throw handleClientException(
+                    ERROR_CODE_SEARCH_QUERY_SQL_PROPERTY_PARSE_ERROR, e.getMessage(), e);
+        }
+        String conditionQuery = "(" + placeholderSQL.getQuery() + ")";
+        ArrayList<Object> data = new ArrayList<>(placeholderSQL.getData());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(useCreatedTime ? GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS :
+                GET_TENANT_RESOURCES_PAGE_SELECT_COLUMNS_WITHOUT_CREATED_TIME);
+        try {
+            if (isMSSqlDB()) {
+                sb.append(String.format(GET_TENANT_RESOURCE_KEYS_SELECT_MSSQL, pageSize));
+            } else if (isOracleDB()) {
+                sb.append(GET_TENANT_RESOURCE_KEYS_SELECT_ORACLE);
+            } else {
+                sb.append(GET_TENANT_RESOURCE_KEYS_SELECT_MYSQL);
+            }
+            sb.append("WHERE\n").append(conditionQuery);
+            if (after != null) {
+                sb.append(GET_TENANT_RESOURCES_AFTER_CURSOR_SQL);
+                data.add(after.tenantId);
+                data.add(after.tenantId);
+                data.add(after.resourceId);
+            }
+            sb.append(GET_TENANT_RESOURCES_ORDER_BY_CURSOR_SQL);
+            if (isOracleDB() || isDB2DB()) {
+                sb.append(String.format(GET_TENANT_RESOURCE_KEYS_FETCH_FIRST_SQL, pageSize));
+            } else if (!isMSSqlDB()) {
+                sb.append(String.format(GET_TENANT_RESOURCE_KEYS_LIMIT_SQL, pageSize));
+            }
+            sb.append(isOracleDB() || isMSSqlDB() ? GET_TENANT_RESOURCES_PAGE_JOIN_MSSQL_OR_ORACLE :
+                    GET_TENANT_RESOURCES_PAGE_JOIN_MYSQL);
+        } catch (DataAccessException e) {
+            throw handleServerException(ERROR_CODE_CHECK_DB_METADATA, e.getMessage(), e);
+        }
+
+        // The search condition is applied again, so that the rows of a resource are the same as in the full search.
+        sb.append("WHERE\n").append(conditionQuery);
+        data.addAll(placeholderSQL.getData());
+        sb.append(GET_TENANT_RESOURCES_ORDER_BY_CURSOR_SQL);
+
+        placeholderSQL.setQuery(sb.toString());
+        placeholderSQL.setData(data);
+        return placeholderSQL;
+    }
+
+    private void validateSearchQueryLength(PlaceholderSQL placeholderSQL) throws ConfigurationManagementException {
+
+        if (placeholderSQL.getQuery().getBytes().length > getMaximumQueryLengthInBytes()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error building SQL query for the search. Search expression " +
+                        "query length: " + placeholderSQL.getQuery().length() + " exceeds the maximum limit: " +
+                        MAX_QUERY_LENGTH_IN_BYTES_SQL);
+            }
+            throw handleClientException(ERROR_CODE_QUERY_LENGTH_EXCEEDED, null);
+        }
+    }
+
+    private void setSearchParameters(PreparedStatement preparedStatement, PlaceholderSQL placeholderSQL)
+            throws SQLException {
+
+        for (int count = 0; count < placeholderSQL.getData().size(); count++) {
+            if (placeholderSQL.getData().get(count).getClass().equals(Integer.class)) {
+                preparedStatement.setInt(
+                        count + 1,
+                        (Integer) placeholderSQL.getData().get(count)
+                );
+            } else {
+                preparedStatement.setString(
+                        count + 1,
+                        (String) placeholderSQL.getData().get(count)
+                );
+            }
+        }
+    }
+
+    private ConfigurationRawDataCollector buildSearchRawData(ResultSet resultSet) throws SQLException {
+
+        ConfigurationRawDataCollector.ConfigurationRawDataCollectorBuilder
+                configurationRawDataCollectorBuilder =
+                new ConfigurationRawDataCollector.ConfigurationRawDataCollectorBuilder()
+                        .setResourceId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ID))
+                        .setTenantId(resultSet.getInt(DB_SCHEMA_COLUMN_NAME_TENANT_ID))
+                        .setResourceName(resultSet.getString(DB_SCHEMA_COLUMN_NAME_NAME))
+                        .setLastModified(resultSet.getTimestamp(DB_SCHEMA_COLUMN_NAME_LAST_MODIFIED, calendar))
+                        .setResourceTypeName(resultSet.getString(DB_SCHEMA_COLUMN_NAME_RESOURCE_TYPE))
+                        .setResourceTypeDescription(resultSet.getString(DB_SCHEMA_COLUMN_NAME_DESCRIPTTION))
+                        .setAttributeKey(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_KEY))
+                        .setAttributeValue(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_VALUE))
+                        .setAttributeId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_ATTRIBUTE_ID))
+                        .setFileId(resultSet.getString(DB_SCHEMA_COLUMN_NAME_FILE_ID));
+        if (useCreatedTimeField()) {
+            configurationRawDataCollectorBuilder
+                    .setCreatedTime(resultSet.getTimestamp(DB_SCHEMA_COLUMN_NAME_CREATED_TIME, calendar));
+        }
+        return configurationRawDataCollectorBuilder.build();
+    }
+
     private Resources buildResourcesFromRawData(List<ConfigurationRawDataCollector> configurationRawDataCollectors) {
 
         Map<String, Resource> resourcesCollector = new HashMap<>();
@@ -1582,4 +1737,42 @@ public class ConfigurationDAOImpl implements ConfigurationDAO {
         }, resource, false);
     }
 
+    /**
+     * Position of a paginated search, which is the key of the last resource of a page. It is handed to the clients
+     * as an opaque URL safe string.
+     */
+    private static final class SearchCursor {
+
+        private static final String SEPARATOR = ":";
+
+        private final int tenantId;
+        private final String resourceId;
+
+        private SearchCursor(int tenantId, String resourceId) {
+
+            this.tenantId = tenantId;
+            this.resourceId = resourceId;
+        }
+
+        private String encode() {
+
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((tenantId + SEPARATOR + resourceId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static SearchCursor decode(String cursor) throws ConfigurationManagementClientException {
+
+            try {
+                String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separatorIndex = decodedCursor.indexOf(SEPARATOR);
+                if (separatorIndex > 0 && separatorIndex < decodedCursor.length() - 1) {
+                    return new SearchCursor(Integer.parseInt(decodedCursor.substring(0, separatorIndex)),
+                            decodedCursor.substring(separatorIndex + 1));
+                }
+            } catch (IllegalArgumentException e) {
+                throw handleClientException(ERROR_CODE_INVALID_SEARCH_CURSOR, cursor, e);
+            }
+            throw handleClientException(ERROR_CODE_INVALID_SEARCH_CURSOR, cursor);
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.util.List;
 public class Resources {
 
     private List<Resource> resources;
+    private String nextCursor;
 
     public Resources(List<Resource> resources) {
 
@@ -43,4 +44,17 @@ public class Resources {
 
         this.resources = resources;
     }
+
+    /**
+     * @return Cursor of the next page of a paginated search, or null if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+
+        this.nextCursor = nextCursor;
+    }
 }
@@ -39,6 +39,9 @@ import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceFile;
 import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceTypeAdd;
 import org.wso2.carbon.identity.configuration.mgt.core.model.Resources;
 import org.wso2.carbon.identity.configuration.mgt.core.search.ComplexCondition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.Condition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.PrimitiveCondition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.constant.ConditionType;
 import org.wso2.carbon.identity.configuration.mgt.core.util.JdbcUtils;
 import org.wso2.carbon.identity.configuration.mgt.core.util.TestUtils;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
@@ -50,6 +53,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.sql.DataSource;
@@ -57,6 +61,7 @@ import javax.sql.DataSource;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -66,6 +71,8 @@ import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
 import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_ID;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants
+        .RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_ATTRIBUTE_NAME1;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_ATTRIBUTE_VALUE3_UPDATED;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_RESOURCE_NAME1;
@@ -426,6 +433,74 @@ public class ConfigurationManagerTest extends PowerMockTestCase {
         assertTrue(isSearchConditionMatch(resources));
     }
 
+    @Test(priority = 26)
+    public void testSearchMultiTenantResourcesByPage() throws Exception {
+
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceTypeAdd());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        mockCarbonContextForTenant(SAMPLE_TENANT_ID_ABC, SAMPLE_TENANT_DOMAIN_ABC);
+        configurationManager.addResource(resourceType.getName(), getSampleResource2Add());
+
+        mockIdentityTenantUtilForTheTest();
+        // Mock carbon context back to the super tenant.
+        mockCarbonContextForTenant(SUPER_TENANT_ID, SUPER_TENANT_DOMAIN_NAME);
+
+        Resources firstPage = configurationManager.getTenantResources(getSampleSearchCondition(), null, 1);
+        assertEquals(firstPage.getResources().size(), 1);
+        assertNotNull(firstPage.getNextCursor());
+        assertTrue(isSearchConditionMatch(firstPage));
+
+        Resources secondPage = configurationManager.getTenantResources(getSampleSearchCondition(),
+                firstPage.getNextCursor(), 1);
+        assertEquals(secondPage.getResources().size(), 1);
+        assertNull(secondPage.getNextCursor());
+        assertTrue(isSearchConditionMatch(secondPage));
+        assertNotEquals(secondPage.getResources().get(0).getResourceId(),
+                firstPage.getResources().get(0).getResourceId());
+    }
+
+    @Test(priority = 26)
+    public void testSearchMultiAttributeResourcesAcrossPages() throws Exception {
+
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceTypeAdd());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        mockCarbonContextForTenant(SAMPLE_TENANT_ID_ABC, SAMPLE_TENANT_DOMAIN_ABC);
+        configurationManager.addResource(resourceType.getName(), getSampleResource2Add());
+
+        mockIdentityTenantUtilForTheTest();
+        // Mock carbon context back to the super tenant.
+        mockCarbonContextForTenant(SUPER_TENANT_ID, SUPER_TENANT_DOMAIN_NAME);
+
+        // Each resource has two attributes, so the page boundary falls between the rows of the resources.
+        ComplexCondition condition = getTenantDomainSearchCondition();
+        Resources firstPage = configurationManager.getTenantResources(condition, null, 1);
+        assertEquals(firstPage.getResources().size(), 1);
+        assertEquals(firstPage.getResources().get(0).getAttributes().size(), 2);
+        assertNotNull(firstPage.getNextCursor());
+
+        Resources secondPage = configurationManager.getTenantResources(condition, firstPage.getNextCursor(), 1);
+        assertEquals(secondPage.getResources().size(), 1);
+        assertEquals(secondPage.getResources().get(0).getAttributes().size(), 2);
+        assertNull(secondPage.getNextCursor());
+        assertNotEquals(firstPage.getResources().get(0).getResourceId(),
+                secondPage.getResources().get(0).getResourceId());
+
+        Resources singlePage = configurationManager.getTenantResources(condition, null, 2);
+        assertEquals(singlePage.getResources().size(), 2);
+        for (Resource resource : singlePage.getResources()) {
+            assertEquals(resource.getAttributes().size(), 2);
+        }
+        assertNull(singlePage.getNextCursor());
+    }
+
+    @Test(priority = 26, expectedExceptions = ConfigurationManagementClientException.class)
+    public void testSearchResourcesWithInvalidCursor() throws Exception {
+
+        configurationManager.getTenantResources(getSampleSearchCondition(), "invalid-cursor", 1);
+
+        fail("Expected: " + ConfigurationManagementClientException.class.getName());
+    }
+
     @Test(priority = 27)
     public void testSearchMultiTenantResourcesWithoutCreatedTime() throws Exception {
 
@@ -596,6 +671,16 @@ public class ConfigurationManagerTest extends PowerMockTestCase {
         when(identityTenantUtil.getTenantDomain(SAMPLE_TENANT_ID_ABC)).thenReturn(SAMPLE_TENANT_DOMAIN_ABC);
     }
 
+    private ComplexCondition getTenantDomainSearchCondition() {
+
+        List<Condition> tenantDomainConditions = new ArrayList<>();
+        tenantDomainConditions.add(new PrimitiveCondition(RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN,
+                ConditionType.PrimitiveOperator.EQUALS, SUPER_TENANT_DOMAIN_NAME));
+        tenantDomainConditions.add(new PrimitiveCondition(RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN,
+                ConditionType.PrimitiveOperator.EQUALS, SAMPLE_TENANT_DOMAIN_ABC));
+        return new ComplexCondition(ConditionType.ComplexOperator.OR, tenantDomainConditions);
+    }
+
     private boolean isSearchConditionMatch(Resources resources) {
 
         for (Resource resource : resources.getResources()) {
@@ -42,8 +42,10 @@ public class SearchApi  {
 
          @io.swagger.annotations.ApiResponse(code = 500, message = "Server Error") })
 
- public Response searchGet(@Context SearchContext searchContext)
+ public Response searchGet(@Context SearchContext searchContext,
+    @ApiParam(value = "Maximum number of resources to return. When given, the resources are returned in pages ordered by the tenant and the resource id.") @QueryParam("limit")  Integer limit,
+    @ApiParam(value = "Cursor of the page to return, as given in the nextCursor of the previous page.") @QueryParam("after")  String after)
  {
-  return delegate.searchGet(searchContext);
+  return delegate.searchGet(searchContext,limit,after);
  }
 }
@@ -15,5 +15,5 @@ import org.apache.cxf.jaxrs.ext.multipart.Attachment;
 import javax.ws.rs.core.Response;
 
 public abstract class SearchApiService {
-    public abstract Response searchGet(SearchContext searchContext);
+    public abstract Response searchGet(SearchContext searchContext,Integer limit,String after);
 }
@@ -19,6 +19,9 @@ public class ResourcesDTO  {
   
   @NotNull
   private List<ResourceDTO> resources = new ArrayList<ResourceDTO>();
+  
+  
+  private String nextCursor = null;
 
   
   /**
@@ -33,6 +36,19 @@ public class ResourcesDTO  {
   }
 
   
+  /**
+   * Cursor of the next page of a paginated search. Absent on the last page.
+   **/
+  @ApiModelProperty(value = "Cursor of the next page of a paginated search. Absent on the last page.")
+  @JsonProperty("nextCursor")
+  public String getNextCursor() {
+    return nextCursor;
+  }
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  
 
   @Override
   public String toString()  {
@@ -40,6 +56,7 @@ public class ResourcesDTO  {
     sb.append("class ResourcesDTO {\n");
     
     sb.append("  resources: ").append(resources).append("\n");
+    sb.append("  nextCursor: ").append(nextCursor).append("\n");
     sb.append("}\n");
     return sb.toString();
   }
@@ -33,6 +33,7 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 
 import javax.ws.rs.core.Response;
 
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.DEFAULT_SEARCH_LIMIT;
 import static org.wso2.carbon.identity.configuration.mgt.endpoint.util.ConfigurationEndpointUtils.buildSearchCondition;
 import static org.wso2.carbon.identity.configuration.mgt.endpoint.util.ConfigurationEndpointUtils.getConfigurationManager;
 import static org.wso2.carbon.identity.configuration.mgt.endpoint.util.ConfigurationEndpointUtils.getResourcesDTO;
@@ -48,11 +49,13 @@ public class SearchApiServiceImpl extends SearchApiService {
             ".AllowCrossTenantSearch"));
 
     @Override
-    public Response searchGet(SearchContext searchContext) {
+    public Response searchGet(SearchContext searchContext, Integer limit, String after) {
 
         try {
             Resources resources;
-            if (allowCrossTenantSearch) {
+            if (limit != null || after != null) {
+                resources = searchPage(searchContext, limit != null ? limit : DEFAULT_SEARCH_LIMIT, after);
+            } else if (allowCrossTenantSearch) {
                 resources = getConfigurationManager().getTenantResources(getSearchCondition(searchContext));
             } else {
                 resources = getConfigurationManager().getTenantResources(IdentityTenantUtil
@@ -70,6 +73,16 @@ public class SearchApiServiceImpl extends SearchApiService {
         }
     }
 
+    private Resources searchPage(SearchContext searchContext, int limit, String after)
+            throws SearchConditionException, ConfigurationManagementException {
+
+        if (allowCrossTenantSearch) {
+            return getConfigurationManager().getTenantResources(getSearchCondition(searchContext), after, limit);
+        }
+        return getConfigurationManager().getTenantResources(IdentityTenantUtil.getTenantDomainFromContext(),
+                getSearchCondition(searchContext), after, limit);
+    }
+
     private Condition getSearchCondition(SearchContext searchContext)
             throws SearchConditionException {
 
@@ -138,6 +138,7 @@ public class ConfigurationEndpointUtils {
                 .map(ConfigurationEndpointUtils::getResourceDTO)
                 .collect(Collectors.toList())
         );
+        resourcesDTO.setNextCursor(resources.getNextCursor());
         return resourcesDTO;
     }
 
@@ -26,11 +26,14 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.ctx.AbstractRequestCtx;
 import org.wso2.balana.ctx.ResponseCtx;
 import org.wso2.balana.ctx.xacml3.RequestCtx;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
 import org.wso2.carbon.identity.entitlement.dto.EntitledResultSetDTO;
 import org.wso2.carbon.identity.entitlement.endpoint.exception.ExceptionBean;
 import org.wso2.carbon.identity.entitlement.endpoint.exception.RequestParseException;
+import org.wso2.carbon.identity.entitlement.endpoint.exception.ResponseWriteException;
 import org.wso2.carbon.identity.entitlement.endpoint.resources.models.AllEntitlementsRequestModel;
 import org.wso2.carbon.identity.entitlement.endpoint.resources.models.AllEntitlementsResponseModel;
 import org.wso2.carbon.identity.entitlement.endpoint.resources.models.DecisionRequestModel;
@@ -49,7 +52,14 @@ import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Entry point class for the REST API end points
@@ -133,6 +143,62 @@ public class DecisionResource extends AbstractResource {
 
     }
 
+    /**
+     * API endpoint for evaluating a batch of XACML JSON requests, given either as a JSON array of requests or as a
+     * request with a MultiRequests element. The requests are evaluated in parallel and the results are streamed as a
+     * single XACML JSON response, in the order of the requests.
+     *
+     * @return XACML JSON response with a result per request
+     */
+    @POST
+    @Path("pdp/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get response by evaluating a batch of JSON XACML requests", response = String.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "XACML JSON Response"),
+            @ApiResponse(code = 40010, message = EntitlementEndpointConstants.ERROR_UNAUTHORIZED_MESSAGE,
+                    response = ExceptionBean.class),
+            @ApiResponse(code = 40020, message = EntitlementEndpointConstants.ERROR_REQUEST_PARSE_MESSAGE,
+                    response = ExceptionBean.class),
+            @ApiResponse(code = 40010, message = EntitlementEndpointConstants.ERROR_RESPONSE_READ_MESSAGE,
+                    response = ExceptionBean.class)
+    })
+    public StreamingOutput getDecisions(@ApiParam(value = "Request Media Type", required = true)
+                                        @HeaderParam(EntitlementEndpointConstants.ACCEPT_HEADER) String format,
+                                        @ApiParam(value = "Authentication Type", required = true)
+                                        @HeaderParam(EntitlementEndpointConstants.AUTHENTICATION_TYPE_HEADER) String authMechanism,
+                                        @ApiParam(value = "Add HTTP Basic Authorization", required = true)
+                                        @HeaderParam(EntitlementEndpointConstants.AUTHORIZATION_HEADER) String authorization,
+                                        @ApiParam(value = "Response Media Type", required = true)
+                                        @HeaderParam(EntitlementEndpointConstants.CONTENT_TYPE_HEADER) String contentType,
+                                        @ApiParam(value = "XACML JSON Requests", required = true)
+                                                String xacmlRequests) throws Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("recieved :" + xacmlRequests);
+        }
+        EntitlementEngine entitlementEngine = EntitlementEngine.getInstance();
+
+        List<AbstractRequestCtx> requestCtxs = new ArrayList<AbstractRequestCtx>(
+                JSONRequestParser.parseAll(xacmlRequests));
+        final List<ResponseCtx> responseCtxs;
+        try {
+            responseCtxs = entitlementEngine.evaluate(requestCtxs);
+        } catch (EntitlementException e) {
+            throw new RequestParseException(e.getMessage());
+        }
+
+        return outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            try {
+                JSONResponseWriter.write(responseCtxs, writer);
+            } catch (ResponseWriteException e) {
+                throw new WebApplicationException(e);
+            }
+        };
+    }
+
     /**
      * API endpoint for evaluating policy by attributes as queries
      *
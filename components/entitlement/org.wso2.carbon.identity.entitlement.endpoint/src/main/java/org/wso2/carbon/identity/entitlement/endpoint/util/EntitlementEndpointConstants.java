@@ -156,6 +156,7 @@ public class EntitlementEndpointConstants {
     public static final String XPATH_VERSION = "XPathVersion";
     public static final String MULTI_REQUESTS = "MultiRequests";
     public static final String REFERENCE_ID = "ReferenceId";
+    public static final String REQUEST_REFERENCE = "RequestReference";
 
 
     public static final String RESPONSE = "Response";
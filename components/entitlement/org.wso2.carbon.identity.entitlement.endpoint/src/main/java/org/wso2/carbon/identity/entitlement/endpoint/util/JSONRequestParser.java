@@ -69,6 +69,67 @@ public class JSONRequestParser {
     public static RequestCtx parse(String jsonRequest) throws JsonParseException, RequestParseException,
             UnknownIdentifierException {
         JsonObject requestObject = null;
+
+        try {
+            requestObject = gson.fromJson(jsonRequest, JsonObject.class);
+        } catch (Exception e) {
+            throw new JsonParseException("Error in JSON Request String");
+        }
+        return jsonObjectToRequestCtx(requestObject);
+    }
+
+    /**
+     * Static method that will convert a JSON array of XACML JSON Requests, or a single XACML JSON Request, to
+     * <code>{@link RequestCtx}</code> instances
+     *
+     * @param jsonRequests <code>String</code> with JSON requests
+     * @return <code>List</code> of <code>{@link RequestCtx}</code> instances in the order of the requests
+     * @throws JsonParseException         <code>{@link JsonParseException}</code>
+     * @throws RequestParseException      <code>{@link RequestParseException}</code>
+     * @throws UnknownIdentifierException <code>{@link UnknownIdentifierException}</code>
+     */
+    public static List<RequestCtx> parseAll(String jsonRequests) throws JsonParseException, RequestParseException,
+            UnknownIdentifierException {
+        JsonElement requestsElement = null;
+        List<RequestCtx> requestCtxs = new ArrayList<>();
+
+        try {
+            requestsElement = gson.fromJson(jsonRequests, JsonElement.class);
+        } catch (Exception e) {
+            throw new JsonParseException("Error in JSON Request String");
+        }
+
+        if (requestsElement != null && requestsElement.isJsonArray()) {
+            for (JsonElement requestElement : requestsElement.getAsJsonArray()) {
+                if (!requestElement.isJsonObject()) {
+                    throw new JsonParseException("Error in JSON Request String");
+                }
+                requestCtxs.add(jsonObjectToRequestCtx(requestElement.getAsJsonObject()));
+            }
+            if (requestCtxs.isEmpty()) {
+                throw new RequestParseException("Request array should contain at least one Request");
+            }
+        } else if (requestsElement != null && requestsElement.isJsonObject()) {
+            requestCtxs.add(jsonObjectToRequestCtx(requestsElement.getAsJsonObject()));
+        } else {
+            throw new JsonParseException("Error in JSON Request String");
+        }
+        return requestCtxs;
+    }
+
+    /**
+     * Private method to convert a given XACML JSON Request <code>{@link JsonObject}</code> to a
+     * <code>{@link RequestCtx}</code>
+     *
+     * @param jsonRequest <code>{@link JsonObject}</code> wrapping the Request
+     * @return <code>{@link RequestCtx}</code>
+     * @throws JsonParseException         <code>{@link JsonParseException}</code>
+     * @throws RequestParseException      <code>{@link RequestParseException}</code>
+     * @throws UnknownIdentifierException <code>{@link UnknownIdentifierException}</code>
+     */
+    private static RequestCtx jsonObjectToRequestCtx(JsonObject jsonRequest) throws JsonParseException,
+            RequestParseException, UnknownIdentifierException {
+        JsonObject requestObject = null;
         Set<Attributes> categories = new HashSet<>();
         boolean returnPolicyIdList = false;
         boolean combinedDecision = false;
@@ -76,8 +137,7 @@ public class JSONRequestParser {
         RequestDefaults requestDefaults = null;
 
         try {
-            requestObject = gson.fromJson(jsonRequest, JsonObject.class);
-            requestObject = requestObject.get("Request").getAsJsonObject();
+            requestObject = jsonRequest.get("Request").getAsJsonObject();
         } catch (Exception e) {
             throw new JsonParseException("Error in JSON Request String");
         }
@@ -104,6 +164,8 @@ public class JSONRequestParser {
                         requestDefaults = new RequestDefaults(xPathVersion);
                         break;
                 }
+            } else if (EntitlementEndpointConstants.MULTI_REQUESTS.equals(jsonAttribute.getKey())) {
+                multiRequests = jsonElementToMultiRequests(jsonAttribute.getValue());
             } else if (!jsonAttribute.getValue().isJsonNull()) {
                 JsonObject jsonCategory = null;
                 if (jsonAttribute.getValue().isJsonObject()) {
@@ -115,18 +177,6 @@ public class JSONRequestParser {
                         jsonCategory = jsonElement.getAsJsonObject();
                         jsonAttributeSeperator(jsonAttribute, jsonCategory, categories);
                     }
-                } else if (EntitlementEndpointConstants.MULTI_REQUESTS.equals(jsonAttribute.getKey())) {
-                    Set<Map.Entry<String, JsonElement>> jsonRequestReferences = jsonCategory.entrySet();
-                    Set<RequestReference> requestReferences = new HashSet<>();
-
-                    if (jsonRequestReferences.isEmpty()) {
-                        throw new RequestParseException("MultiRequest should contain at least one Reference Request");
-                    }
-                    for (Map.Entry<String, JsonElement> jsonRequstReference : jsonRequestReferences) {
-                        requestReferences.add(jsonObjectToRequestReference(jsonRequstReference.getValue()
-                                .getAsJsonObject()));
-                    }
-                    multiRequests = new MultiRequests(requestReferences);
                 }
             }
 
@@ -311,6 +361,36 @@ public class JSONRequestParser {
         return attributeValue;
     }
 
+    /**
+     * Private method to convert a given MultiRequests <code>{@link JsonElement}</code> to a Balana
+     * <code>{@link MultiRequests}</code>
+     *
+     * @param jsonMultiRequests <code>{@link JsonElement}</code>
+     * @return <code>{@link MultiRequests}</code>
+     * @throws RequestParseException <code>{@link RequestParseException}</code>
+     */
+    private static MultiRequests jsonElementToMultiRequests(JsonElement jsonMultiRequests)
+            throws RequestParseException {
+        Set<RequestReference> requestReferences = new HashSet<>();
+
+        if (jsonMultiRequests.isJsonObject()) {
+            JsonElement jsonRequestReferences = jsonMultiRequests.getAsJsonObject()
+                    .get(EntitlementEndpointConstants.REQUEST_REFERENCE);
+            if (jsonRequestReferences != null && jsonRequestReferences.isJsonArray()) {
+                for (JsonElement jsonRequestReference : jsonRequestReferences.getAsJsonArray()) {
+                    requestReferences.add(jsonObjectToRequestReference(jsonRequestReference.getAsJsonObject()));
+                }
+            } else if (jsonRequestReferences != null && jsonRequestReferences.isJsonObject()) {
+                requestReferences.add(jsonObjectToRequestReference(jsonRequestReferences.getAsJsonObject()));
+            }
+        }
+
+        if (requestReferences.isEmpty()) {
+            throw new RequestParseException("MultiRequest should contain at least one Reference Request");
+        }
+        return new MultiRequests(requestReferences);
+    }
+
     /**
      * Private method to convert a given <code>{@link JsonObject}</code> to a Balana <code>{@link RequestReference}</code>
      *
@@ -22,6 +22,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import org.wso2.balana.ObligationResult;
 import org.wso2.balana.attr.AttributeValue;
 import org.wso2.balana.attr.StringAttribute;
@@ -38,6 +39,9 @@ import org.wso2.carbon.identity.entitlement.EntitlementUtil;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.endpoint.exception.ResponseWriteException;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -64,12 +68,7 @@ public class JSONResponseWriter {
         //JsonObject jsonResponse = new JsonObject();
         JsonArray results = new JsonArray();
 
-        Properties properties = EntitlementUtil.getPropertiesFromEntitlementConfig();
-        if (properties != null) {
-            if (Boolean.parseBoolean(properties.getProperty(PDPConstants.XACML_JSON_SHORT_FORM_ENABLED))) {
-                xacmlJSONProfileShortFormEnable = true;
-            }
-        }
+        loadShortFormConfig();
         //Loop all AbstractResult objects in ResponseCtx and add them as
         //Requests to JSON Response
         //There should be at least 1 request
@@ -87,6 +86,49 @@ public class JSONResponseWriter {
         return responseWrap;
     }
 
+    /**
+     * Writes the contents of the given Balana <code>{@link ResponseCtx}</code>s as a single XACML JSON Response to
+     * the given <code>{@link Writer}</code>. Results are written one at a time, in the order of the responses, so
+     * the whole Response is never held in memory.
+     *
+     * @param responses <code>List</code> of <code>{@link ResponseCtx}</code>
+     * @param writer    <code>{@link Writer}</code> to write the Response to
+     * @throws ResponseWriteException <code>{@link ResponseWriteException}</code>
+     * @throws IOException            if writing fails
+     */
+    public static void write(List<ResponseCtx> responses, Writer writer) throws ResponseWriteException,
+            IOException {
+
+        loadShortFormConfig();
+
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.beginObject();
+        jsonWriter.name(EntitlementEndpointConstants.RESPONSE);
+        jsonWriter.beginArray();
+        for (ResponseCtx response : responses) {
+            //There should be at least 1 result per response
+            if (response.getResults().size() < 1) {
+                throw new ResponseWriteException(40032, "XACML response should contain at least 1 Result");
+            }
+            for (AbstractResult result : response.getResults()) {
+                gson.toJson(abstractResultToJSONObject(result), jsonWriter);
+            }
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    private static void loadShortFormConfig() {
+
+        Properties properties = EntitlementUtil.getPropertiesFromEntitlementConfig();
+        if (properties != null) {
+            if (Boolean.parseBoolean(properties.getProperty(PDPConstants.XACML_JSON_SHORT_FORM_ENABLED))) {
+                xacmlJSONProfileShortFormEnable = true;
+            }
+        }
+    }
+
     /**
      * Private method to convert a given Balana <code>{@link AbstractResult}</code> to a <code>{@link JsonObject}</code>
      *
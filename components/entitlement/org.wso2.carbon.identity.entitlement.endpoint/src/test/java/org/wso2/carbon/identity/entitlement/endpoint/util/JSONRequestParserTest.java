@@ -22,6 +22,7 @@ import com.google.gson.JsonParseException;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.wso2.balana.ctx.xacml3.RequestCtx;
 import org.wso2.carbon.identity.testutil.IdentityBaseTest;
 
 public class JSONRequestParserTest extends IdentityBaseTest {
@@ -120,6 +121,19 @@ public class JSONRequestParserTest extends IdentityBaseTest {
         };
     }
 
+    @DataProvider(name = "BuildBatchRequest")
+    public Object[][] buildBatchRequest() {
+
+        return new Object[][] {
+                {"[{\"Request\": {\"Resource\": {\"Attribute\": [{\"AttributeId\": \"resource-id\", " +
+                        "\"Value\": \"index.jsp\"}]}}}, " +
+                        "{\"Request\": {\"Resource\": {\"Attribute\": [{\"AttributeId\": \"resource-id\", " +
+                        "\"Value\": \"home.jsp\"}]}}}]", 2},
+                {"{\"Request\": {\"Resource\": {\"Attribute\": [{\"AttributeId\": \"resource-id\", " +
+                        "\"Value\": \"index.jsp\"}]}}}", 1}
+        };
+    }
+
     @Test(dataProvider = "BuildRequest")
     public void testParseNonEmptyRequests(String request) throws Exception {
 
@@ -135,4 +149,37 @@ public class JSONRequestParserTest extends IdentityBaseTest {
                 " The passed request is :" + request );
     }
 
+    @Test(dataProvider = "BuildBatchRequest")
+    public void testParseAll(String requests, int requestCount) throws Exception {
+
+        Assert.assertEquals(JSONRequestParser.parseAll(requests).size(), requestCount,
+                "Unexpected number of requests parsed from :" + requests);
+    }
+
+    @Test(dataProvider = "BuildNullRequest", expectedExceptions = JsonParseException.class)
+    public void testParseAllEmptyRequests(String requests) throws Exception {
+
+        JSONRequestParser.parseAll(requests);
+    }
+
+    @Test
+    public void testParseMultiRequests() throws Exception {
+
+        String request = "{\"Request\": {" +
+                "\"AccessSubject\": {\"Id\": \"s1\", \"Attribute\": [{\"AttributeId\": \"subject-id\", " +
+                "\"Value\": \"alice\"}]}, " +
+                "\"Resource\": [{\"Id\": \"r1\", \"Attribute\": [{\"AttributeId\": \"resource-id\", " +
+                "\"Value\": \"index.jsp\"}]}, " +
+                "{\"Id\": \"r2\", \"Attribute\": [{\"AttributeId\": \"resource-id\", " +
+                "\"Value\": \"home.jsp\"}]}], " +
+                "\"MultiRequests\": {\"RequestReference\": [{\"ReferenceId\": [\"s1\", \"r1\"]}, " +
+                "{\"ReferenceId\": [\"s1\", \"r2\"]}]}}}";
+
+        RequestCtx requestCtx = JSONRequestParser.parse(request);
+        Assert.assertNotNull(requestCtx.getMultiRequests(), "MultiRequests element is not parsed");
+        Assert.assertEquals(requestCtx.getMultiRequests().getRequestReferences().size(), 2,
+                "Unexpected number of request references");
+        Assert.assertEquals(requestCtx.getAttributesSet().size(), 3, "Unexpected number of categories");
+    }
+
 }
@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.entitlement.endpoint.util;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -35,6 +36,7 @@ import org.wso2.balana.xacml3.Advice;
 import org.wso2.balana.xacml3.Obligation;
 import org.wso2.carbon.identity.entitlement.endpoint.exception.ResponseWriteException;
 
+import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -122,4 +124,25 @@ public class TestJSONResponseWriter extends Assert {
         }
 
     }
+
+    @Test
+    public void testWriteMultipleResponses() throws Exception {
+
+        List<String> codes = new ArrayList<>();
+        codes.add("urn:oasis:names:tc:xacml:1.0:status:ok");
+        List<ResponseCtx> responses = new ArrayList<>();
+        responses.add(new ResponseCtx(new Result(0, new Status(codes), null, null, null)));
+        responses.add(new ResponseCtx(new Result(1, new Status(codes), null, null, null)));
+
+        StringWriter writer = new StringWriter();
+        JSONResponseWriter.write(responses, writer);
+
+        JsonObject jsonObject = new Gson().fromJson(writer.toString(), JsonObject.class);
+        JsonArray jsonArray = jsonObject.getAsJsonArray("Response");
+        assertEquals("Failed to write a result per response", 2, jsonArray.size());
+        assertEquals("Failed to keep the order of the responses", "Permit",
+                jsonArray.get(0).getAsJsonObject().get("Decision").getAsString());
+        assertEquals("Failed to keep the order of the responses", "Deny",
+                jsonArray.get(1).getAsJsonObject().get("Decision").getAsString());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ForwardingConcurrentMap;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread safe, bounded in memory cache exposed as a <code>ConcurrentMap</code>. Unlike
+ * <code>EntitlementLRUCache</code>, reads and writes from concurrent threads are safe, as the entries are kept in
+ * lock striped segments and least recently used entries are evicted per segment. The cache can be bounded either
+ * by the number of entries or by the total weight of the entries, for example their approximate size in bytes.
+ * <p>
+ * Iteration over the cache is weakly consistent, and null keys and values are not supported.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class EntitlementBoundedCache<K, V> extends ForwardingConcurrentMap<K, V> {
+
+    private final Cache<K, V> cache;
+    private final ConcurrentMap<K, V> map;
+
+    /**
+     * Creates a cache bounded by the number of entries.
+     *
+     * @param maxEntries maximum number of entries, the cache is not bounded if zero or negative
+     */
+    public EntitlementBoundedCache(int maxEntries) {
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (maxEntries > 0) {
+            builder.maximumSize(maxEntries);
+        }
+        this.cache = builder.build();
+        this.map = cache.asMap();
+    }
+
+    /**
+     * Creates a cache bounded by the total weight of the entries.
+     *
+     * @param maxWeight maximum total weight of the entries
+     * @param weigher   computes the weight of an entry, for example its approximate size in bytes
+     */
+    public EntitlementBoundedCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+
+        this.cache = CacheBuilder.newBuilder().recordStats().maximumWeight(maxWeight).weigher(weigher).build();
+        this.map = cache.asMap();
+    }
+
+    @Override
+    protected ConcurrentMap<K, V> delegate() {
+
+        return map;
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache. Only lookups through <code>get</code> are
+     * counted as hits or misses.
+     *
+     * @return statistics of the cache
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+}
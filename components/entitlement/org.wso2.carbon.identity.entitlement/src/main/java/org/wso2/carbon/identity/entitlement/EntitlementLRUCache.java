@@ -24,12 +24,16 @@ import java.util.Map;
 /**
  * This is a simple LRU cache, based on <code>LinkedHashMap</code>. If the cache is full and another
  * entry is added, the least recently used entry is dropped.
+ *
+ * @deprecated This cache is not thread safe, as even reads reorder the entries. Use
+ * <code>{@link EntitlementBoundedCache}</code> instead.
  */
+@Deprecated
 public class EntitlementLRUCache<String, Set> extends LinkedHashMap<String, Set> {
 
     private static final long serialVersionUID = -1308554805704597171L;
     private final static int INITIAL_CACHE_CAPACITY = 16;
-    private final static float LOAD_FACTOR = 75f;
+    private final static float LOAD_FACTOR = 0.75f;
     private int cacheSize;
 
     public EntitlementLRUCache(int cacheSize) {
@@ -40,7 +44,7 @@ public class EntitlementLRUCache<String, Set> extends LinkedHashMap<String, Set>
     @Override
     protected boolean removeEldestEntry(Map.Entry eldest) {
         // oldest entry of the cache would be removed when max cache size become
-        return size() == this.cacheSize;
+        return this.cacheSize > 0 && size() > this.cacheSize;
     }
 
 }
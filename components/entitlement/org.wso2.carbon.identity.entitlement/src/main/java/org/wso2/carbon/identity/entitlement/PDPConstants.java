@@ -247,6 +247,12 @@ public class PDPConstants {
 
     public static final String ATTRIBUTE_CACHING_INTERVAL = "PDP.AttributeCaching.CachingInterval";
 
+    public static final String ATTRIBUTE_FINDER_PARALLEL_LOOKUP = "PDP.AttributeFinder.ParallelLookup.Enable";
+
+    public static final String ATTRIBUTE_FINDER_TIMEOUT = "PDP.AttributeFinder.Timeout";
+
+    public static final String ATTRIBUTE_FINDER_THREAD_POOL_SIZE = "PDP.AttributeFinder.ThreadPoolSize";
+
     public static final String RESOURCE_CACHING = "PDP.ResourceCaching.Enable";
 
     public static final String RESOURCE_CACHING_INTERVAL = "PDP.DecisionCaching.CachingInterval";
@@ -259,6 +265,12 @@ public class PDPConstants {
 
     public static final String MULTIPLE_DECISION_PROFILE_ENABLE = "PDP.Multiple.Decision.Profile.Enable";
 
+    public static final String MULTIPLE_DECISION_THREAD_POOL_SIZE = "PDP.Multiple.Decision.ThreadPoolSize";
+
+    public static final String MULTIPLE_DECISION_MAX_REQUESTS = "PDP.Multiple.Decision.MaxRequests";
+
+    public static final String MULTIPLE_DECISION_TIMEOUT = "PDP.Multiple.Decision.Timeout";
+
     public static final String FILESYSTEM_POLICY_PATH = "PAP.Policy.Add.Start.Policy.File.Path";
 
     public static final String START_UP_POLICY_ADDING = "PAP.Policy.Add.Start.Enable";
@@ -277,6 +289,10 @@ public class PDPConstants {
 
     public static final String POLICY_CACHING_INTERVAL = "PDP.PolicyCaching.CachingInterval";
 
+    public static final String POLICY_TARGET_INDEX_ENABLE = "PDP.Policy.TargetIndex.Enable";
+
+    public static final String POLICY_TARGET_INDEX_ATTRIBUTES = "PDP.Policy.TargetIndex.Attributes";
+
     public static final String XACML_JSON_SHORT_FORM_ENABLED = "JSON.Shorten.Form.Enabled";
 
     public static final String USER_CATEGORY = "http://wso2.org/identity/user";
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decision cache entry. Holds the decision together with the policies it was derived from, the PIP attributes
+ * consulted while evaluating it and the time the evaluation started.
+ */
+public class CachedDecision implements Serializable {
+
+    private static final long serialVersionUID = -2715408203447416953L;
+
+    private final Object decision;
+    private final long createdTime;
+    private final HashSet<String> policyIds;
+    private final HashSet<String> attributeIds;
+
+    public CachedDecision(Object decision, DecisionTrace trace) {
+
+        this.decision = decision;
+        this.createdTime = trace.getStartTime();
+        this.policyIds = new HashSet<>(trace.getPolicyIds());
+        this.attributeIds = new HashSet<>(trace.getAttributeIds());
+    }
+
+    public Object getDecision() {
+
+        return decision;
+    }
+
+    public long getCreatedTime() {
+
+        return createdTime;
+    }
+
+    public Set<String> getPolicyIds() {
+
+        return policyIds;
+    }
+
+    public Set<String> getAttributeIds() {
+
+        return attributeIds;
+    }
+}
@@ -82,6 +82,17 @@ public class DecisionCache extends EntitlementBaseCache<IdentityCacheKey, Object
         return null;
     }
 
+    /**
+     * Removes the decision of the given key from the cache.
+     *
+     * @param key
+     */
+    public void clearCacheEntry(String key) {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        clearCacheEntry(new IdentityCacheKey(tenantId, key));
+    }
+
     /**
      * Clear all decision cache
      */
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.carbon.identity.entitlement.policy.collection.PolicyTargetIndex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps track of the policy changes applied to the PDP of a tenant, so cached decisions can be invalidated
+ * selectively instead of clearing the whole decision cache.
+ * <p>
+ * A cached decision is stale if one of the policies it was derived from was updated, deleted or re-ordered after
+ * the decision was evaluated, or if a policy created or updated afterwards may apply to the request of the
+ * decision. Staleness is checked when the decision is read, which also covers decisions cached by other nodes in
+ * the distributed decision cache, as each node applies the policy changes it receives.
+ * <p>
+ * Changes are only kept as long as a decision could stay in the cache. If too many changes are tracked, the
+ * caller is expected to clear the decision cache and reset this invalidator.
+ */
+public class DecisionCacheInvalidator {
+
+    private static final Log log = LogFactory.getLog(DecisionCacheInvalidator.class);
+
+    private static final int MAX_TRACKED_CHANGES = 1000;
+    /**
+     * Decisions may be cached by other nodes, therefore times are compared allowing for a small clock difference.
+     */
+    private static final long CLOCK_SKEW_MILLIS = 1000;
+
+    private final long retentionMillis;
+    private final PolicyTargetIndex targetMatcher;
+    private final Map<String, Long> changedPolicies = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<AddedPolicy> addedPolicies = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param cachingInterval decision caching interval in seconds
+     * @param targetMatcher   used to check whether an added policy may apply to a cached request
+     */
+    public DecisionCacheInvalidator(int cachingInterval, PolicyTargetIndex targetMatcher) {
+
+        this.retentionMillis = cachingInterval > 0 ? cachingInterval * 1000L + CLOCK_SKEW_MILLIS : -1;
+        this.targetMatcher = targetMatcher;
+    }
+
+    /**
+     * Records that the given policy was updated, deleted or re-ordered. Decisions derived from it are stale.
+     *
+     * @param policyId policy id
+     */
+    public void policyChanged(String policyId) {
+
+        changedPolicies.put(policyId, System.currentTimeMillis());
+        purge();
+    }
+
+    /**
+     * Records that the given policy was created or updated. Decisions of requests that may match its target are
+     * stale.
+     *
+     * @param policy policy
+     */
+    public void policyAdded(AbstractPolicy policy) {
+
+        addedPolicies.add(new AddedPolicy(policy, System.currentTimeMillis()));
+        purge();
+    }
+
+    /**
+     * @return false if too many changes are tracked and the decision cache should be cleared instead
+     */
+    public boolean isTracking() {
+
+        return changedPolicies.size() + addedPolicies.size() <= MAX_TRACKED_CHANGES;
+    }
+
+    /**
+     * Drops all the tracked changes. Used once the decision cache is cleared.
+     */
+    public void reset() {
+
+        changedPolicies.clear();
+        addedPolicies.clear();
+    }
+
+    /**
+     * Checks whether the cached decision was invalidated by a policy change.
+     *
+     * @param decision   cached decision
+     * @param requestCtx request the decision is looked up for, null if not available
+     * @return true if the decision must not be used
+     */
+    public boolean isStale(CachedDecision decision, AbstractRequestCtx requestCtx) {
+
+        long createdTime = decision.getCreatedTime() - CLOCK_SKEW_MILLIS;
+        for (String policyId : decision.getPolicyIds()) {
+            Long changedTime = changedPolicies.get(policyId);
+            if (changedTime != null && changedTime >= createdTime) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cached decision is invalidated by the change of policy : " + policyId);
+                }
+                return true;
+            }
+        }
+
+        PolicyTargetIndex.RequestKeys requestKeys = null;
+        boolean requestKeysResolved = false;
+        for (AddedPolicy addedPolicy : addedPolicies) {
+            if (addedPolicy.addedTime < createdTime) {
+                continue;
+            }
+            if (!requestKeysResolved) {
+                requestKeys = targetMatcher.getRequestKeys(requestCtx);
+                requestKeysResolved = true;
+            }
+            if (targetMatcher.isCandidate(addedPolicy.policy, requestKeys)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cached decision is invalidated by the policy : " + addedPolicy.policy.getId());
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void purge() {
+
+        if (retentionMillis <= 0) {
+            return;
+        }
+        long expiryTime = System.currentTimeMillis() - retentionMillis;
+        changedPolicies.values().removeIf(changedTime -> changedTime < expiryTime);
+        addedPolicies.removeIf(addedPolicy -> addedPolicy.addedTime < expiryTime);
+    }
+
+    private static class AddedPolicy {
+
+        private final AbstractPolicy policy;
+        private final long addedTime;
+
+        private AddedPolicy(AbstractPolicy policy, long addedTime) {
+
+            this.policy = policy;
+            this.addedTime = addedTime;
+        }
+    }
+}
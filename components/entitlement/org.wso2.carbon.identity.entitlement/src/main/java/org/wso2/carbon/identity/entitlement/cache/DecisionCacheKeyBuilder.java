@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.wso2.balana.attr.AttributeValue;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.Attribute;
+import org.wso2.balana.ctx.xacml3.RequestCtx;
+import org.wso2.balana.xacml3.Attributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Builds compact keys for the decision caches.
+ * <p>
+ * XACML 3.0 requests are reduced to a canonical form made of the sorted category, attribute id, data type, issuer
+ * and value tuples of the request, so requests that only differ in formatting or in the order of the attributes
+ * share a cache entry. The canonical form is hashed into a fixed size digest, which keeps the keys small
+ * irrespective of the size of the request. Requests which can not be canonicalized safely, such as requests with
+ * <code>Content</code>, <code>MultiRequests</code> or <code>RequestDefaults</code> elements, fall back to a digest
+ * of the raw request.
+ * <p>
+ * Each key is prefixed with the form of the cached response, so a decision cached as a <code>String</code> is never
+ * returned where a <code>ResponseCtx</code> is expected and vice versa.
+ */
+public class DecisionCacheKeyBuilder {
+
+    public static final String XML_RESPONSE = "xml";
+    public static final String CONTEXT_RESPONSE = "ctx";
+    public static final String SIMPLE_RESPONSE = "simple";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final char FIELD_SEPARATOR = ':';
+
+    private DecisionCacheKeyBuilder() {
+
+    }
+
+    /**
+     * Builds the cache key for a XACML request.
+     *
+     * @param responseType form of the cached response
+     * @param requestCtx   parsed request, may be null if the request could not be parsed
+     * @param xacmlRequest request as received, used when the parsed request can not be canonicalized
+     * @return cache key
+     */
+    public static String getCacheKey(String responseType, AbstractRequestCtx requestCtx, String xacmlRequest) {
+
+        return getCacheKey(responseType, requestCtx, () -> xacmlRequest);
+    }
+
+    /**
+     * Builds the cache key for a XACML request, encoding the request only if it can not be canonicalized.
+     *
+     * @param responseType form of the cached response
+     * @param requestCtx   parsed request, may be null if the request could not be parsed
+     * @param xacmlRequest supplies the request as received, used when the parsed request can not be canonicalized
+     * @return cache key
+     */
+    public static String getCacheKey(String responseType, AbstractRequestCtx requestCtx,
+                                     Supplier<String> xacmlRequest) {
+
+        String canonicalRequest = null;
+        if (requestCtx instanceof RequestCtx) {
+            canonicalRequest = canonicalize((RequestCtx) requestCtx);
+        }
+        if (canonicalRequest == null) {
+            canonicalRequest = "raw" + FIELD_SEPARATOR + xacmlRequest.get();
+        }
+        return responseType + FIELD_SEPARATOR + digest(canonicalRequest);
+    }
+
+    /**
+     * Builds the cache key for a request made of single subject, resource, action and environment values.
+     *
+     * @param subject     subject
+     * @param resource    resource
+     * @param action      action
+     * @param environment environment
+     * @return cache key
+     */
+    public static String getCacheKey(String subject, String resource, String action, String environment) {
+
+        StringBuilder builder = new StringBuilder();
+        appendField(builder, subject);
+        appendField(builder, resource);
+        appendField(builder, action);
+        appendField(builder, environment);
+        return SIMPLE_RESPONSE + FIELD_SEPARATOR + digest(builder.toString());
+    }
+
+    private static String canonicalize(RequestCtx requestCtx) {
+
+        if (requestCtx.getMultiRequests() != null || requestCtx.getDefaults() != null ||
+                requestCtx.getAttributesSet() == null) {
+            return null;
+        }
+
+        List<String> categories = new ArrayList<>();
+        for (Attributes attributes : requestCtx.getAttributesSet()) {
+            if (attributes.getContent() != null || attributes.getCategory() == null) {
+                return null;
+            }
+            List<String> attributeList = new ArrayList<>();
+            if (attributes.getAttributes() != null) {
+                for (Attribute attribute : attributes.getAttributes()) {
+                    attributeList.add(canonicalize(attribute));
+                }
+            }
+            Collections.sort(attributeList);
+
+            StringBuilder builder = new StringBuilder();
+            appendField(builder, attributes.getCategory().toString());
+            appendField(builder, attributes.getId());
+            for (String attribute : attributeList) {
+                appendField(builder, attribute);
+            }
+            categories.add(builder.toString());
+        }
+        Collections.sort(categories);
+
+        StringBuilder builder = new StringBuilder();
+        appendField(builder, String.valueOf(requestCtx.getXacmlVersion()));
+        appendField(builder, String.valueOf(requestCtx.isReturnPolicyIdList()));
+        appendField(builder, String.valueOf(requestCtx.isCombinedDecision()));
+        for (String category : categories) {
+            appendField(builder, category);
+        }
+        return builder.toString();
+    }
+
+    private static String canonicalize(Attribute attribute) {
+
+        List<String> values = new ArrayList<>();
+        if (attribute.getValues() != null) {
+            for (AttributeValue value : attribute.getValues()) {
+                values.add(value.encode());
+            }
+        }
+        Collections.sort(values);
+
+        StringBuilder builder = new StringBuilder();
+        appendField(builder, attribute.getId() != null ? attribute.getId().toString() : null);
+        appendField(builder, attribute.getType() != null ? attribute.getType().toString() : null);
+        appendField(builder, attribute.getIssuer());
+        appendField(builder, String.valueOf(attribute.isIncludeInResult()));
+        for (String value : values) {
+            appendField(builder, value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends a length prefixed field, so the concatenation of the fields can not be ambiguous.
+     */
+    private static void appendField(StringBuilder builder, String value) {
+
+        if (value == null) {
+            builder.append('-');
+            return;
+        }
+        builder.append(value.length()).append(FIELD_SEPARATOR).append(value);
+    }
+
+    private static String digest(String value) {
+
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            byte[] hash = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java platform, therefore this should not happen.
+            throw new IllegalStateException("Error while building the decision cache key", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the policies and the PIP attributes a decision depends on, while the decision is evaluated in the
+ * current thread. The policy finder and the attribute finder record into the trace of the thread, and the
+ * collected ids are stored with the cached decision, so it can be invalidated selectively.
+ */
+public class DecisionTrace {
+
+    private static final ThreadLocal<DecisionTrace> currentTrace = new ThreadLocal<>();
+
+    private final long startTime;
+    private final Set<String> policyIds = new HashSet<>();
+    private final Set<String> attributeIds = new HashSet<>();
+
+    private DecisionTrace() {
+
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts a trace for the current thread.
+     *
+     * @return the started trace
+     */
+    public static DecisionTrace start() {
+
+        DecisionTrace trace = new DecisionTrace();
+        currentTrace.set(trace);
+        return trace;
+    }
+
+    /**
+     * Records that the decision being evaluated in the current thread depends on the given policy.
+     *
+     * @param policyId policy id
+     */
+    public static void recordPolicy(String policyId) {
+
+        DecisionTrace trace = currentTrace.get();
+        if (trace != null && policyId != null) {
+            trace.policyIds.add(policyId);
+        }
+    }
+
+    /**
+     * Records that the decision being evaluated in the current thread consulted the given PIP attribute.
+     *
+     * @param attributeId attribute id
+     */
+    public static void recordAttribute(String attributeId) {
+
+        DecisionTrace trace = currentTrace.get();
+        if (trace != null && attributeId != null) {
+            trace.attributeIds.add(attributeId);
+        }
+    }
+
+    /**
+     * Stops recording into this trace.
+     */
+    public void end() {
+
+        if (currentTrace.get() == this) {
+            currentTrace.remove();
+        }
+    }
+
+    public long getStartTime() {
+
+        return startTime;
+    }
+
+    public Set<String> getPolicyIds() {
+
+        return Collections.unmodifiableSet(policyIds);
+    }
+
+    public Set<String> getAttributeIds() {
+
+        return Collections.unmodifiableSet(attributeIds);
+    }
+}
@@ -43,11 +43,13 @@ public class SimpleDecisionCache extends EntitlementBaseCache<IdentityCacheKey,
 
         int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
         IdentityCacheKey cacheKey = new IdentityCacheKey(tenantId, key);
-        Object entry = getValueFromCache(cacheKey);
-        if (entry != null) {
-            return (String) entry;
-        }
-        return null;
+        return getValueFromCache(cacheKey);
+    }
+
+    public void clearCacheEntry(String key) {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        clearCacheEntry(new IdentityCacheKey(tenantId, key));
     }
 
     public void clearCache() {
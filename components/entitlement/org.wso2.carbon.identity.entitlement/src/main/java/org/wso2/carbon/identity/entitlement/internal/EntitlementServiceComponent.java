@@ -42,6 +42,8 @@ import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.dto.PolicyDTO;
 import org.wso2.carbon.identity.entitlement.listener.CacheClearingUserOperationListener;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyStore;
+import org.wso2.carbon.identity.entitlement.pdp.MultiDecisionEvaluator;
+import org.wso2.carbon.identity.entitlement.pip.CarbonAttributeFinder;
 import org.wso2.carbon.identity.entitlement.thrift.EntitlementService;
 import org.wso2.carbon.identity.entitlement.thrift.ThriftConfigConstants;
 import org.wso2.carbon.identity.entitlement.thrift.ThriftEntitlementServiceImpl;
@@ -352,6 +354,8 @@ public class EntitlementServiceComponent {
      */
     @Deactivate
     protected void deactivate(ComponentContext ctxt) {
+        MultiDecisionEvaluator.shutdown();
+        CarbonAttributeFinder.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("Identity Entitlement bundle is deactivated");
         }
@@ -303,7 +303,7 @@ public class CacheClearingUserOperationListener extends AbstractIdentityUserOper
         CarbonAttributeFinder finder = EntitlementEngine.getInstance().getCarbonAttributeFinder();
         if (finder != null) {
             finder.clearAttributeCache();
-            //Decision cache is cleared within clearAttributeCache.
+            //Decisions depending on PIP attributes are invalidated within clearAttributeCache.
         } else {
             // Return if no finders are found
             return;
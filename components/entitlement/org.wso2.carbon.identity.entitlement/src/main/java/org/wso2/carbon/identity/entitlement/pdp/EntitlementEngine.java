@@ -23,6 +23,7 @@ import com.google.common.cache.LoadingCache;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Element;
+import org.wso2.balana.AbstractPolicy;
 import org.wso2.balana.Balana;
 import org.wso2.balana.PDP;
 import org.wso2.balana.PDPConfig;
@@ -45,17 +46,24 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.entitlement.EntitlementException;
 import org.wso2.carbon.identity.entitlement.EntitlementUtil;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.cache.CachedDecision;
 import org.wso2.carbon.identity.entitlement.cache.DecisionCache;
+import org.wso2.carbon.identity.entitlement.cache.DecisionCacheInvalidator;
+import org.wso2.carbon.identity.entitlement.cache.DecisionCacheKeyBuilder;
+import org.wso2.carbon.identity.entitlement.cache.DecisionTrace;
 import org.wso2.carbon.identity.entitlement.cache.PolicyCache;
+import org.wso2.carbon.identity.entitlement.cache.PolicyStatus;
 import org.wso2.carbon.identity.entitlement.cache.SimpleDecisionCache;
 import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyFinder;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyStore;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyStoreReader;
+import org.wso2.carbon.identity.entitlement.pip.AttributeResolutionContext;
 import org.wso2.carbon.identity.entitlement.pip.CarbonAttributeFinder;
 import org.wso2.carbon.identity.entitlement.pip.CarbonResourceFinder;
 import org.wso2.carbon.identity.entitlement.pip.PIPExtension;
 import org.wso2.carbon.identity.entitlement.policy.PolicyRequestBuilder;
+import org.wso2.carbon.identity.entitlement.policy.collection.PolicyTargetIndex;
 import org.wso2.carbon.identity.entitlement.policy.finder.CarbonPolicyFinder;
 import org.wso2.carbon.identity.entitlement.policy.search.PolicySearch;
 import org.wso2.carbon.utils.CarbonUtils;
@@ -66,6 +74,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +82,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -100,6 +110,14 @@ public class EntitlementEngine {
 
     private SimpleDecisionCache simpleDecisionCache = null;
 
+    private DecisionCacheInvalidator decisionCacheInvalidator = null;
+
+    /**
+     * Decision cache entry holding the last time the PIP attribute cache was cleared. Decision cache keys are
+     * digests, so this key can not clash with them.
+     */
+    private static final String ATTRIBUTE_INVALIDATION_KEY = "attribute-invalidation";
+
     private static final Log log = LogFactory.getLog(EntitlementEngine.class);
 
     public PolicyCache getPolicyCache() {
@@ -109,6 +127,39 @@ public class EntitlementEngine {
     public void clearDecisionCache() {
         this.decisionCache.clear();
         this.simpleDecisionCache.clear();
+        this.decisionCacheInvalidator.reset();
+    }
+
+    /**
+     * Invalidates the cached decisions that depend on the given policy. Used when a policy change is applied to
+     * the policy finder of this node.
+     *
+     * @param policyId     id of the updated, deleted or re-ordered policy
+     * @param addedPolicy  new content of the policy if it was created or updated, else null
+     */
+    public void invalidateDecisions(String policyId, AbstractPolicy addedPolicy) {
+
+        decisionCacheInvalidator.policyChanged(policyId);
+        if (addedPolicy != null) {
+            decisionCacheInvalidator.policyAdded(addedPolicy);
+        }
+        if (!decisionCacheInvalidator.isTracking()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Too many policy changes to track. Clearing the decision cache.");
+            }
+            clearDecisionCache();
+        }
+    }
+
+    /**
+     * Invalidates the cached decisions that consulted PIP attributes. Decisions evaluated only with the attributes
+     * in the request are kept.
+     */
+    public void invalidateAttributeDependentDecisions() {
+
+        Long invalidatedTime = System.currentTimeMillis();
+        decisionCache.addToCache(ATTRIBUTE_INVALIDATION_KEY, invalidatedTime);
+        simpleDecisionCache.addToCache(ATTRIBUTE_INVALIDATION_KEY, invalidatedTime);
     }
 
     /**
@@ -237,6 +288,8 @@ public class EntitlementEngine {
         //init caches
         decisionCache = new DecisionCache(pdpDecisionCachingInterval);
         simpleDecisionCache = new SimpleDecisionCache(pdpDecisionCachingInterval);
+        decisionCacheInvalidator = new DecisionCacheInvalidator(pdpDecisionCachingInterval,
+                new PolicyTargetIndex(PolicyTargetIndex.getIndexedAttributes(properties)));
         this.policyCache = new PolicyCache(pdpPolicyCachingInterval);
 
         // policy search
@@ -318,32 +371,35 @@ public class EntitlementEngine {
 
         String xacmlResponse;
 
-        if ((xacmlResponse = (String) getFromCache(xacmlRequest, false)) != null) {
+        Map<PIPExtension, Properties> extensions = EntitlementServiceComponent.getEntitlementConfig()
+                .getExtensions();
+        AbstractRequestCtx requestCtx = getRequestCtx(xacmlRequest, extensions);
+        String cacheKey = DecisionCacheKeyBuilder.getCacheKey(DecisionCacheKeyBuilder.XML_RESPONSE, requestCtx,
+                xacmlRequest);
+
+        if ((xacmlResponse = (String) getFromCache(cacheKey, requestCtx, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
             return xacmlResponse;
         }
 
-        Map<PIPExtension, Properties> extensions = EntitlementServiceComponent.getEntitlementConfig()
-                .getExtensions();
-
-        if (extensions != null && !extensions.isEmpty()) {
-            PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
-            Element xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
-            AbstractRequestCtx requestCtx = RequestCtxFactory.getFactory().
-                    getRequestCtx(xacmlRequestElement);
-            Set<PIPExtension> pipExtensions = extensions.keySet();
-            for (PIPExtension pipExtension : pipExtensions) {
-                pipExtension.update(requestCtx);
+        DecisionTrace trace = DecisionTrace.start();
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.attachIfAbsent();
+        try {
+            if (requestCtx != null) {
+                updateRequestCtx(requestCtx, extensions);
+                ResponseCtx responseCtx = pdp.evaluate(requestCtx);
+                xacmlResponse = responseCtx.encode();
+            } else {
+                xacmlResponse = pdp.evaluate(xacmlRequest);
             }
-            ResponseCtx responseCtx = pdp.evaluate(requestCtx);
-            xacmlResponse = responseCtx.encode();
-        } else {
-            xacmlResponse = pdp.evaluate(xacmlRequest);
+        } finally {
+            trace.end();
+            AttributeResolutionContext.attach(resolutionContext);
         }
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, trace);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -377,7 +433,13 @@ public class EntitlementEngine {
         String xacmlResponse;
         ResponseCtx responseCtx;
 
-        if ((xacmlResponse = (String) getFromCache(xacmlRequest, false)) != null) {
+        Map<PIPExtension, Properties> extensions = EntitlementServiceComponent.getEntitlementConfig()
+                .getExtensions();
+        AbstractRequestCtx requestCtx = getRequestCtx(xacmlRequest, extensions);
+        String cacheKey = DecisionCacheKeyBuilder.getCacheKey(DecisionCacheKeyBuilder.XML_RESPONSE, requestCtx,
+                xacmlRequest);
+
+        if ((xacmlResponse = (String) getFromCache(cacheKey, requestCtx, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
@@ -391,26 +453,23 @@ public class EntitlementEngine {
 
         }
 
-        Map<PIPExtension, Properties> extensions = EntitlementServiceComponent.getEntitlementConfig()
-                .getExtensions();
-
-        if (extensions != null && !extensions.isEmpty()) {
-            PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
-            Element xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
-            AbstractRequestCtx requestCtx = RequestCtxFactory.getFactory().
-                    getRequestCtx(xacmlRequestElement);
-            Set<PIPExtension> pipExtensions = extensions.keySet();
-            for (PIPExtension pipExtension : pipExtensions) {
-                pipExtension.update(requestCtx);
+        DecisionTrace trace = DecisionTrace.start();
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.attachIfAbsent();
+        try {
+            if (requestCtx != null) {
+                updateRequestCtx(requestCtx, extensions);
+                responseCtx = pdp.evaluate(requestCtx);
+            } else {
+                responseCtx = pdp.evaluateReturnResponseCtx(xacmlRequest);
             }
-            responseCtx = pdp.evaluate(requestCtx);
-        } else {
-            responseCtx = pdp.evaluateReturnResponseCtx(xacmlRequest);
+        } finally {
+            trace.end();
+            AttributeResolutionContext.attach(resolutionContext);
         }
 
         xacmlResponse = responseCtx.encode();
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, trace);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -428,7 +487,12 @@ public class EntitlementEngine {
      * @return ResponseCtx  Balana Object model for response
      */
     public ResponseCtx evaluateByContext(AbstractRequestCtx requestCtx) {
-        return pdp.evaluate(requestCtx);
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.attachIfAbsent();
+        try {
+            return pdp.evaluate(requestCtx);
+        } finally {
+            AttributeResolutionContext.attach(resolutionContext);
+        }
     }
 
     /**
@@ -440,22 +504,47 @@ public class EntitlementEngine {
      */
     public ResponseCtx evaluate(AbstractRequestCtx requestCtx, String xacmlRequest) {
 
+        return evaluate(requestCtx, () -> xacmlRequest);
+    }
+
+    /**
+     * Evaluates the given XACML request and returns the Response. The request is only encoded if the decision cache
+     * can not build the cache key from the parsed request, or the request is logged.
+     *
+     * @param requestCtx   Balana Object model for request
+     * @param xacmlRequest supplies the XACML request as a String
+     * @return ResponseCtx  Balana Object model for response
+     */
+    ResponseCtx evaluate(AbstractRequestCtx requestCtx, Supplier<String> xacmlRequest) {
+
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_REQUEST)) {
-            log.debug("XACML Request : " + xacmlRequest);
+            log.debug("XACML Request : " + xacmlRequest.get());
         }
 
         ResponseCtx xacmlResponse;
+        String cacheKey = null;
+        if (pdpDecisionCacheEnable) {
+            cacheKey = DecisionCacheKeyBuilder.getCacheKey(DecisionCacheKeyBuilder.CONTEXT_RESPONSE, requestCtx,
+                    xacmlRequest);
+        }
 
-        if ((xacmlResponse = (ResponseCtx) getFromCache(xacmlRequest, false)) != null) {
+        if ((xacmlResponse = (ResponseCtx) getFromCache(cacheKey, requestCtx, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
             return xacmlResponse;
         }
 
-        xacmlResponse = pdp.evaluate(requestCtx);
+        DecisionTrace trace = DecisionTrace.start();
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.attachIfAbsent();
+        try {
+            xacmlResponse = pdp.evaluate(requestCtx);
+        } finally {
+            trace.end();
+            AttributeResolutionContext.attach(resolutionContext);
+        }
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, trace);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -463,6 +552,23 @@ public class EntitlementEngine {
         return xacmlResponse;
     }
 
+    /**
+     * Evaluates the given XACML requests in parallel and returns their Responses. Requests with a
+     * <code>MultiRequests</code> element are split into the individual requests they reference.
+     *
+     * @param requestCtxs Balana Object model for requests
+     * @return ResponseCtxs Balana Object model for responses, in the order of the individual requests
+     * @throws EntitlementException if the requests are invalid or exceed the allowed number of requests
+     */
+    public List<ResponseCtx> evaluate(List<AbstractRequestCtx> requestCtxs) throws EntitlementException {
+
+        List<AbstractRequestCtx> individualRequestCtxs = new ArrayList<AbstractRequestCtx>();
+        for (AbstractRequestCtx requestCtx : requestCtxs) {
+            individualRequestCtxs.addAll(MultiDecisionEvaluator.split(requestCtx));
+        }
+        return MultiDecisionEvaluator.evaluate(this, individualRequestCtxs);
+    }
+
     /**
      * Evaluates the given XACML request and returns the Response that the EntitlementEngine will
      * hand back to the PEP. Here PEP does not need construct the XACML request before sending it to the
@@ -484,10 +590,9 @@ public class EntitlementEngine {
             environmentValue = environment[0];
         }
         String response;
-        String request = (subject != null ? subject : "") + (resource != null ? resource : "") +
-                (action != null ? action : "") + (environmentValue != null ? environmentValue : "");
+        String cacheKey = DecisionCacheKeyBuilder.getCacheKey(subject, resource, action, environmentValue);
 
-        if ((response = (String) getFromCache(request, true)) != null) {
+        if ((response = (String) getFromCache(cacheKey, null, true)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_REQUEST)) {
                 log.debug("XACML Request : " + EntitlementUtil.
                         createSimpleXACMLRequest(subject, resource, action, environmentValue));
@@ -504,9 +609,16 @@ public class EntitlementEngine {
             log.debug("XACML Request : " + requestAsString);
         }
 
-        response = pdp.evaluate(requestAsString);
+        DecisionTrace trace = DecisionTrace.start();
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.attachIfAbsent();
+        try {
+            response = pdp.evaluate(requestAsString);
+        } finally {
+            trace.end();
+            AttributeResolutionContext.attach(resolutionContext);
+        }
 
-        addToCache(request, response, true);
+        addToCache(cacheKey, response, true, trace);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + response);
@@ -556,15 +668,15 @@ public class EntitlementEngine {
     /**
      * get entry from decision caching
      *
-     * @param request     XACML request as String
+     * @param cacheKey    cache key built by <code>DecisionCacheKeyBuilder</code>
+     * @param requestCtx  parsed request, null if not available
      * @param simpleCache whether using simple cache or not
      * @return XACML response as String
      */
-    private Object getFromCache(String request, boolean simpleCache) {
+    private Object getFromCache(String cacheKey, AbstractRequestCtx requestCtx, boolean simpleCache) {
 
         if (pdpDecisionCacheEnable) {
 
-            String tenantRequest = tenantId + "+" + request;
             Object decision;
 
 
@@ -579,15 +691,37 @@ public class EntitlementEngine {
                 if (log.isDebugEnabled()) {
                     log.debug("Policy Cache is invalidated. Clearing the decision cache.");
                 }
-                decisionCache.clear();
-                simpleDecisionCache.clear();
+                clearDecisionCache();
+                return null;
+            }
+
+            // Policy changes received by this node are applied by the policy finder, when the next request is
+            // evaluated. Until then cached decisions can not be validated against those changes.
+            Collection<PolicyStatus> invalidatedPolicies = policyCache.getInvalidatedPolicies();
+            if (invalidatedPolicies != null && !invalidatedPolicies.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Policy changes are pending. Decision is not read from the cache.");
+                }
                 return null;
             }
 
             if (simpleCache) {
-                decision = simpleDecisionCache.getFromCache(tenantRequest);
+                decision = simpleDecisionCache.getFromCache(cacheKey);
             } else {
-                decision = decisionCache.getFromCache(tenantRequest);
+                decision = decisionCache.getFromCache(cacheKey);
+            }
+
+            if (decision instanceof CachedDecision) {
+                CachedDecision cachedDecision = (CachedDecision) decision;
+                if (isStale(cachedDecision, requestCtx, simpleCache)) {
+                    if (simpleCache) {
+                        simpleDecisionCache.clearCacheEntry(cacheKey);
+                    } else {
+                        decisionCache.clearCacheEntry(cacheKey);
+                    }
+                    return null;
+                }
+                return cachedDecision.getDecision();
             }
             return decision;
         }
@@ -601,17 +735,18 @@ public class EntitlementEngine {
     /**
      * put entry in to cache
      *
-     * @param request     XACML request as String
+     * @param cacheKey    cache key built by <code>DecisionCacheKeyBuilder</code>
      * @param response    XACML response as String
      * @param simpleCache whether using simple cache or not
+     * @param trace       policies and attributes the response depends on
      */
-    private void addToCache(String request, Object response, boolean simpleCache) {
+    private void addToCache(String cacheKey, Object response, boolean simpleCache, DecisionTrace trace) {
         if (pdpDecisionCacheEnable) {
-            String tenantRequest = tenantId + "+" + request;
+            CachedDecision cachedDecision = new CachedDecision(response, trace);
             if (simpleCache) {
-                simpleDecisionCache.addToCache(tenantRequest, response);
+                simpleDecisionCache.addToCache(cacheKey, cachedDecision);
             } else {
-                decisionCache.addToCache(tenantRequest, response);
+                decisionCache.addToCache(cacheKey, cachedDecision);
             }
         } else {
             if (log.isDebugEnabled()) {
@@ -620,6 +755,63 @@ public class EntitlementEngine {
         }
     }
 
+    private boolean isStale(CachedDecision cachedDecision, AbstractRequestCtx requestCtx, boolean simpleCache) {
+
+        if (decisionCacheInvalidator.isStale(cachedDecision, requestCtx)) {
+            return true;
+        }
+        if (!cachedDecision.getAttributeIds().isEmpty()) {
+            Object invalidatedTime = simpleCache ? simpleDecisionCache.getFromCache(ATTRIBUTE_INVALIDATION_KEY) :
+                    decisionCache.getFromCache(ATTRIBUTE_INVALIDATION_KEY);
+            if (invalidatedTime instanceof Long && (Long) invalidatedTime >= cachedDecision.getCreatedTime()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cached decision is invalidated as the PIP attribute cache is cleared.");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the XACML request once, so the same object model is used to build the decision cache key and to
+     * evaluate the request. If the request can not be parsed, null is returned and the request is left to the PDP,
+     * which responds with the relevant status. When PIP extensions are registered the parsing error is thrown, as
+     * the extensions need the parsed request.
+     *
+     * @param xacmlRequest XACML request as String
+     * @param extensions   registered PIP extensions
+     * @return Balana object model of the request or null
+     * @throws EntitlementException if the request can not be parsed and PIP extensions are registered
+     * @throws ParsingException     if the request can not be parsed and PIP extensions are registered
+     */
+    private AbstractRequestCtx getRequestCtx(String xacmlRequest, Map<PIPExtension, Properties> extensions)
+            throws EntitlementException, ParsingException {
+
+        try {
+            Element xacmlRequestElement = new PolicyRequestBuilder().getXacmlRequest(xacmlRequest);
+            return RequestCtxFactory.getFactory().getRequestCtx(xacmlRequestElement);
+        } catch (EntitlementException | ParsingException e) {
+            if (extensions != null && !extensions.isEmpty()) {
+                throw e;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Error while parsing the XACML request. Request is evaluated without parsing.", e);
+            }
+            return null;
+        }
+    }
+
+    private void updateRequestCtx(AbstractRequestCtx requestCtx, Map<PIPExtension, Properties> extensions) {
+
+        if (extensions != null && !extensions.isEmpty()) {
+            Set<PIPExtension> pipExtensions = extensions.keySet();
+            for (PIPExtension pipExtension : pipExtensions) {
+                pipExtension.update(requestCtx);
+            }
+        }
+    }
+
     /**
      * Helper method to init engine
      */
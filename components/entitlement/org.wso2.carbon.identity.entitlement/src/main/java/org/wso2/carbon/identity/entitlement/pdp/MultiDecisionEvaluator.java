@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pdp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.AbstractResult;
+import org.wso2.balana.ctx.ResponseCtx;
+import org.wso2.balana.ctx.Status;
+import org.wso2.balana.ctx.xacml3.RequestCtx;
+import org.wso2.balana.ctx.xacml3.Result;
+import org.wso2.balana.xacml3.Attributes;
+import org.wso2.balana.xacml3.AttributesReference;
+import org.wso2.balana.xacml3.RequestReference;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
+import org.wso2.carbon.identity.entitlement.pip.AttributeResolutionContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates the requests of a multiple decision request in parallel.
+ * <p>
+ * The requests are evaluated on a bounded thread pool shared by all tenants. If the pool is saturated, the requests
+ * are evaluated in the calling thread, which throttles the callers instead of queueing without limit. All the
+ * requests of a batch share an <code>{@link AttributeResolutionContext}</code>, so an attribute of a request repeated
+ * in the batch is only resolved once through the PIP attribute finders. Requests not evaluated within
+ * <code>PDP.Multiple.Decision.Timeout</code> are cancelled and answered with an indeterminate decision.
+ */
+public class MultiDecisionEvaluator {
+
+    private static final Log log = LogFactory.getLog(MultiDecisionEvaluator.class);
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 10;
+    private static final int DEFAULT_MAX_REQUESTS = 100;
+    private static final int DEFAULT_TIMEOUT = 30000;
+    private static final int QUEUE_SIZE_PER_THREAD = 10;
+
+    private static final Object lock = new Object();
+    private static volatile ExecutorService executor;
+
+    private MultiDecisionEvaluator() {
+
+    }
+
+    /**
+     * Splits a XACML 3.0 request with a <code>MultiRequests</code> element into the individual requests it
+     * references. Other requests are returned as they are.
+     *
+     * @param requestCtx request
+     * @return individual requests
+     * @throws EntitlementException if the request references undefined attributes categories
+     */
+    public static List<AbstractRequestCtx> split(AbstractRequestCtx requestCtx) throws EntitlementException {
+
+        if (!(requestCtx instanceof RequestCtx) || ((RequestCtx) requestCtx).getMultiRequests() == null ||
+                ((RequestCtx) requestCtx).isCombinedDecision()) {
+            return Collections.singletonList(requestCtx);
+        }
+
+        RequestCtx multiRequestCtx = (RequestCtx) requestCtx;
+        Map<String, Attributes> attributesById = new HashMap<>();
+        for (Attributes attributes : multiRequestCtx.getAttributesSet()) {
+            if (attributes.getId() != null) {
+                attributesById.put(attributes.getId(), attributes);
+            }
+        }
+
+        List<AbstractRequestCtx> requestCtxs = new ArrayList<>();
+        for (RequestReference requestReference : multiRequestCtx.getMultiRequests().getRequestReferences()) {
+            Set<Attributes> attributesSet = new HashSet<>();
+            if (requestReference.getReferences() != null) {
+                for (AttributesReference attributesReference : requestReference.getReferences()) {
+                    Attributes attributes = attributesById.get(attributesReference.getId());
+                    if (attributes == null) {
+                        throw new EntitlementException("Invalid multiple decision request. Attributes : " +
+                                attributesReference.getId() + " is not defined");
+                    }
+                    attributesSet.add(attributes);
+                }
+            }
+            requestCtxs.add(new RequestCtx(null, attributesSet, multiRequestCtx.isReturnPolicyIdList(), false,
+                    null, multiRequestCtx.getDefaults()));
+        }
+        return requestCtxs;
+    }
+
+    /**
+     * Evaluates the given requests in parallel.
+     *
+     * @param entitlementEngine engine of the tenant
+     * @param requestCtxs       requests
+     * @return responses, in the order of the requests
+     * @throws EntitlementException if there are too many requests or the evaluation is interrupted
+     */
+    static List<ResponseCtx> evaluate(EntitlementEngine entitlementEngine, List<AbstractRequestCtx> requestCtxs)
+            throws EntitlementException {
+
+        int maxRequests = getIntProperty(PDPConstants.MULTIPLE_DECISION_MAX_REQUESTS, DEFAULT_MAX_REQUESTS);
+        if (requestCtxs.size() > maxRequests) {
+            throw new EntitlementException("Multiple decision request contains " + requestCtxs.size() +
+                    " requests, which exceeds the maximum of " + maxRequests);
+        }
+
+        AttributeResolutionContext resolutionContext = new AttributeResolutionContext();
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        int tenantId = carbonContext.getTenantId();
+        String tenantDomain = carbonContext.getTenantDomain();
+        String username = carbonContext.getUsername();
+
+        List<ResponseCtx> responses = new ArrayList<>(requestCtxs.size());
+        if (requestCtxs.size() == 1) {
+            responses.add(evaluate(entitlementEngine, requestCtxs.get(0), resolutionContext));
+            return responses;
+        }
+
+        List<Future<ResponseCtx>> futures = new ArrayList<>(requestCtxs.size());
+        try {
+            for (AbstractRequestCtx requestCtx : requestCtxs) {
+                futures.add(getExecutor().submit(() -> {
+                    PrivilegedCarbonContext.startTenantFlow();
+                    try {
+                        PrivilegedCarbonContext context = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                        context.setTenantId(tenantId);
+                        context.setTenantDomain(tenantDomain);
+                        context.setUsername(username);
+                        return evaluate(entitlementEngine, requestCtx, resolutionContext);
+                    } finally {
+                        PrivilegedCarbonContext.endTenantFlow();
+                    }
+                }));
+            }
+
+            // the whole batch shares one deadline, and the requests not evaluated by then are abandoned
+            int timeout = getIntProperty(PDPConstants.MULTIPLE_DECISION_TIMEOUT, DEFAULT_TIMEOUT);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            for (Future<ResponseCtx> future : futures) {
+                try {
+                    responses.add(future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    log.error("Error while evaluating a request of the multiple decision request", e.getCause());
+                    responses.add(getIndeterminateResponse(e.getCause()));
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    log.warn("A request of the multiple decision request was not evaluated within " + timeout +
+                            "ms");
+                    responses.add(getIndeterminateResponse(new EntitlementException(
+                            "Request was not evaluated within " + timeout + "ms")));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<ResponseCtx> future : futures) {
+                future.cancel(true);
+            }
+            throw new EntitlementException("Evaluation of the multiple decision request was interrupted", e);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Evaluated " + requestCtxs.size() + " requests, resolving " + resolutionContext.size() +
+                    " attributes through the PIP attribute finders");
+        }
+        return responses;
+    }
+
+    /**
+     * Stops the thread pool evaluating the multiple decision requests.
+     */
+    public static void shutdown() {
+
+        synchronized (lock) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+
+    private static ResponseCtx evaluate(EntitlementEngine entitlementEngine, AbstractRequestCtx requestCtx,
+                                        AttributeResolutionContext resolutionContext) {
+
+        AttributeResolutionContext previous = AttributeResolutionContext.attach(resolutionContext);
+        try {
+            // the request is encoded only if the decision cache or the debug log needs it
+            return entitlementEngine.evaluate(requestCtx, () -> encode(requestCtx));
+        } finally {
+            AttributeResolutionContext.attach(previous);
+        }
+    }
+
+    private static String encode(AbstractRequestCtx requestCtx) {
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        requestCtx.encode(stream);
+        try {
+            return stream.toString("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is available in every Java platform, therefore this should not happen.
+            return stream.toString();
+        }
+    }
+
+    private static ResponseCtx getIndeterminateResponse(Throwable cause) {
+
+        List<String> codes = new ArrayList<>();
+        codes.add(Status.STATUS_PROCESSING_ERROR);
+        Status status = new Status(codes, cause != null ? cause.getMessage() : null);
+        return new ResponseCtx(new Result(AbstractResult.DECISION_INDETERMINATE, status, null, null, null));
+    }
+
+    private static ExecutorService getExecutor() {
+
+        if (executor == null) {
+            synchronized (lock) {
+                if (executor == null) {
+                    int poolSize = getIntProperty(PDPConstants.MULTIPLE_DECISION_THREAD_POOL_SIZE,
+                            DEFAULT_THREAD_POOL_SIZE);
+                    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(poolSize * QUEUE_SIZE_PER_THREAD),
+                            new EvaluatorThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+
+        Properties properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
+        String value = properties.getProperty(name);
+        if (value != null) {
+            try {
+                int intValue = Integer.parseInt(value.trim());
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException e) {
+                // fall back to the default value
+            }
+            log.warn("Invalid value for " + name + ". Using default value " + defaultValue);
+        }
+        return defaultValue;
+    }
+
+    private static class EvaluatorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "multi-decision-evaluator-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pip;
+
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Holds the attribute values resolved through the PIP attribute finders while a request, or a group of requests
+ * such as the requests of a multiple decision request, is evaluated. The context is attached to each thread
+ * evaluating the requests, and <code>CarbonAttributeFinder</code> resolves each attribute once per context even if
+ * the requests are evaluated concurrently.
+ */
+public class AttributeResolutionContext {
+
+    private static final ThreadLocal<AttributeResolutionContext> currentContext = new ThreadLocal<>();
+
+    private final ConcurrentMap<String, CompletableFuture<Set<String>>> values = new ConcurrentHashMap<>();
+
+    private final Map<EvaluationCtx, String> encodedContexts =
+            Collections.synchronizedMap(new IdentityHashMap<EvaluationCtx, String>());
+
+    /**
+     * Attaches the given context to the current thread.
+     *
+     * @param context context to attach, null to detach the current context
+     * @return context previously attached to the current thread, to be restored once done
+     */
+    public static AttributeResolutionContext attach(AttributeResolutionContext context) {
+
+        AttributeResolutionContext previous = currentContext.get();
+        if (context == null) {
+            currentContext.remove();
+        } else {
+            currentContext.set(context);
+        }
+        return previous;
+    }
+
+    /**
+     * Attaches a new context to the current thread, unless a context is already attached.
+     *
+     * @return context previously attached to the current thread, to be restored once done
+     */
+    public static AttributeResolutionContext attachIfAbsent() {
+
+        AttributeResolutionContext previous = currentContext.get();
+        if (previous == null) {
+            currentContext.set(new AttributeResolutionContext());
+        }
+        return previous;
+    }
+
+    /**
+     * @return context attached to the current thread, null if there is none
+     */
+    public static AttributeResolutionContext getCurrent() {
+
+        return currentContext.get();
+    }
+
+    /**
+     * Returns the attribute values of the given key, resolving them with the given loader if they were not resolved
+     * in this context yet. Concurrent lookups of the same key wait for the first one instead of resolving the
+     * values again. Failures are not kept, so a later lookup retries.
+     *
+     * @param key     key of the attribute values
+     * @param loader  resolves the attribute values
+     * @param timeout time in milliseconds to wait for a concurrent lookup of the same key, 0 or less to wait
+     *                without a limit
+     * @return attribute values
+     * @throws Exception if the loader fails, or the concurrent lookup does not complete in time
+     */
+    public Set<String> resolve(String key, Callable<Set<String>> loader, long timeout) throws Exception {
+
+        CompletableFuture<Set<String>> future = new CompletableFuture<>();
+        CompletableFuture<Set<String>> existing = values.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return timeout > 0 ? existing.get(timeout, TimeUnit.MILLISECONDS) : existing.get();
+            } catch (TimeoutException e) {
+                throw new EntitlementException("Attribute lookup did not complete within " + timeout + "ms");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            Set<String> attributeValues = loader.call();
+            future.complete(attributeValues);
+            return attributeValues;
+        } catch (Exception e) {
+            values.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            values.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the encoded form of the given evaluation context, encoding it with the given encoder only the first
+     * time it is seen in this context. The attribute lookups of an evaluation share the same evaluation context, so
+     * the request is encoded once per evaluation instead of once per attribute.
+     *
+     * @param evaluationCtx evaluation context to encode
+     * @param encoder       encodes the evaluation context
+     * @return encoded evaluation context
+     * @throws Exception if the encoder fails
+     */
+    public String getEncodedContext(EvaluationCtx evaluationCtx, Callable<String> encoder) throws Exception {
+
+        String encoded = encodedContexts.get(evaluationCtx);
+        if (encoded == null) {
+            // encoded outside the lock, a concurrent lookup may encode the same context but keeps the first result
+            encoded = encoder.call();
+            String existing = encodedContexts.putIfAbsent(evaluationCtx, encoded);
+            if (existing != null) {
+                encoded = existing;
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * @return number of attributes resolved in this context
+     */
+    public int size() {
+
+        return values.size();
+    }
+}
@@ -31,8 +31,11 @@ import org.wso2.balana.ctx.EvaluationCtx;
 import org.wso2.balana.ctx.Status;
 import org.wso2.balana.finder.AttributeFinderModule;
 import org.wso2.balana.xacml3.Attributes;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
 import org.wso2.carbon.identity.entitlement.EntitlementUtil;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.cache.DecisionTrace;
 import org.wso2.carbon.identity.entitlement.cache.PIPAttributeCache;
 import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 import org.wso2.carbon.identity.entitlement.pdp.EntitlementEngine;
@@ -44,12 +47,22 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * CarbonAttributeFinder registers with sun-xacml engine as an AttributeFinderModule and delegate
@@ -62,7 +75,13 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
 
     private Map<String, List<PIPAttributeFinder>> attrFinders = new HashMap<String, List<PIPAttributeFinder>>();
     private static final Log log = LogFactory.getLog(CarbonAttributeFinder.class);
+    private static final int DEFAULT_LOOKUP_THREAD_POOL_SIZE = 10;
+    private static volatile ExecutorService lookupExecutor;
     private PIPAttributeCache attributeFinderCache = null;
+    private boolean parallelLookupEnabled;
+    private long lookupTimeout;
+    private ConcurrentMap<String, PIPLatencyHistogram> latencyHistograms =
+            new ConcurrentHashMap<String, PIPLatencyHistogram>();
     protected int tenantId;
 
     public CarbonAttributeFinder(int tenantId) {
@@ -90,6 +109,16 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
             }
             attributeFinderCache = new PIPAttributeCache(attributeCachingInterval);
         }
+        parallelLookupEnabled = Boolean.parseBoolean(
+                properties.getProperty(PDPConstants.ATTRIBUTE_FINDER_PARALLEL_LOOKUP));
+        String timeout = properties.getProperty(PDPConstants.ATTRIBUTE_FINDER_TIMEOUT);
+        if (timeout != null) {
+            try {
+                lookupTimeout = Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + PDPConstants.ATTRIBUTE_FINDER_TIMEOUT + ". Lookups are not timed out");
+            }
+        }
         // clear decision cache
         if (designators != null && !designators.isEmpty()) {
             Set<PIPAttributeFinder> pipAttributeFinders = designators.keySet();
@@ -160,45 +189,22 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
             }
         }
 
-        try {
-
-            for (Iterator iterator = finders.iterator(); iterator.hasNext(); ) {
-                PIPAttributeFinder pipAttributeFinder = (PIPAttributeFinder) iterator.next();
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format(
-                            "Finding attributes with the PIP attribute handler %1$s",
-                            pipAttributeFinder.getClass()));
-                }
+        DecisionTrace.recordAttribute(attributeId.toString());
 
-                Set<String> attrs = null;
-                String key = null;
-
-                if (attributeFinderCache != null && !pipAttributeFinder.overrideDefaultCache()) {
-
-                    key = "[" + attributeType.toString() + "][" + attributeId.toString() + "][" + category.toString() +
-                            "][" + encodeContext(context) + "]";
-
-                    if (issuer != null) {
-                        key += "[" + issuer + "]";
-                    }
-
-                    if (key != null) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Retrieving attributes from cache, tenantId: " + tenantId + ", key: " + key);
-                        }
-                        attrs = attributeFinderCache.getFromCache(tenantId, key);
-                    }
-                }
+        try {
 
-                if (attrs == null) {
-                    attrs = pipAttributeFinder.getAttributeValues(attributeType, attributeId, category,
-                                                                  issuer, context);
-                    if (attributeFinderCache != null && key != null
-                        && !pipAttributeFinder.overrideDefaultCache()) {
-                        attributeFinderCache.addToCache(tenantId, key, attrs);
-                    }
+            List<Set<String>> attributeValues = new ArrayList<Set<String>>();
+            if (finders.size() > 1 && parallelLookupEnabled) {
+                attributeValues.addAll(getAttributeValuesInParallel(finders, attributeType, attributeId, category,
+                                                                    issuer, context));
+            } else {
+                for (PIPAttributeFinder pipAttributeFinder : finders) {
+                    attributeValues.add(getAttributeValues(pipAttributeFinder, attributeType, attributeId, category,
+                                                           issuer, context));
                 }
+            }
 
+            for (Set<String> attrs : attributeValues) {
                 if (attrs != null) {
                     for (Iterator iterAttr = attrs.iterator(); iterAttr.hasNext(); ) {
                         final String attr = (String) iterAttr.next();
@@ -244,6 +250,221 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
         return new EvaluationResult(new BagAttribute(attributeType, attrBag));
     }
 
+    /**
+     * Retrieves the attribute values from the given PIP attribute finder, using the attribute cache and the
+     * attribute resolution context of the current evaluation when available.
+     */
+    private Set<String> getAttributeValues(PIPAttributeFinder pipAttributeFinder, URI attributeType,
+                                           URI attributeId, URI category, String issuer, EvaluationCtx context)
+            throws Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format(
+                    "Finding attributes with the PIP attribute handler %1$s",
+                    pipAttributeFinder.getClass()));
+        }
+
+        Set<String> attrs = null;
+        String key = null;
+        String encodedContext = null;
+
+        if (attributeFinderCache != null && !pipAttributeFinder.overrideDefaultCache()) {
+
+            encodedContext = getEncodedContext(context);
+            key = "[" + attributeType.toString() + "][" + attributeId.toString() + "][" + category.toString() +
+                    "][" + encodedContext + "]";
+
+            if (issuer != null) {
+                key += "[" + issuer + "]";
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Retrieving attributes from cache, tenantId: " + tenantId + ", key: " + key);
+            }
+            attrs = attributeFinderCache.getFromCache(tenantId, key);
+        }
+
+        if (attrs == null) {
+            AttributeResolutionContext resolutionContext = AttributeResolutionContext.getCurrent();
+            if (resolutionContext != null) {
+                if (encodedContext == null) {
+                    encodedContext = getEncodedContext(context);
+                }
+                // repeated lookups of the same request, within an evaluation or across the requests evaluated
+                // together, share the resolved values
+                attrs = resolutionContext.resolve(
+                        getResolutionKey(pipAttributeFinder, attributeType, attributeId, category, issuer,
+                                         encodedContext),
+                        () -> lookup(pipAttributeFinder, attributeType, attributeId, category, issuer, context),
+                        lookupTimeout);
+            } else {
+                attrs = lookup(pipAttributeFinder, attributeType, attributeId, category, issuer, context);
+            }
+            if (attributeFinderCache != null && key != null) {
+                attributeFinderCache.addToCache(tenantId, key, attrs);
+            }
+        }
+        return attrs;
+    }
+
+    /**
+     * Retrieves the attribute values from the given PIP attribute finders in parallel. Each finder is given the
+     * configured timeout, after which the lookup is abandoned and fails.
+     */
+    private List<Set<String>> getAttributeValuesInParallel(List<PIPAttributeFinder> finders, URI attributeType,
+                                                           URI attributeId, URI category, String issuer,
+                                                           EvaluationCtx context) throws Exception {
+
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.getCurrent();
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        int currentTenantId = carbonContext.getTenantId();
+        String tenantDomain = carbonContext.getTenantDomain();
+        String username = carbonContext.getUsername();
+
+        List<Future<Set<String>>> futures = new ArrayList<Future<Set<String>>>();
+        for (PIPAttributeFinder pipAttributeFinder : finders) {
+            futures.add(getLookupExecutor().submit(() -> {
+                PrivilegedCarbonContext.startTenantFlow();
+                AttributeResolutionContext previous = AttributeResolutionContext.attach(resolutionContext);
+                try {
+                    PrivilegedCarbonContext threadContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                    threadContext.setTenantId(currentTenantId);
+                    threadContext.setTenantDomain(tenantDomain);
+                    threadContext.setUsername(username);
+                    return getAttributeValues(pipAttributeFinder, attributeType, attributeId, category, issuer,
+                                              context);
+                } finally {
+                    AttributeResolutionContext.attach(previous);
+                    PrivilegedCarbonContext.endTenantFlow();
+                }
+            }));
+        }
+
+        List<Set<String>> attributeValues = new ArrayList<Set<String>>();
+        // the finders run in parallel, so they share one deadline
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lookupTimeout);
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Set<String>> future = futures.get(i);
+                try {
+                    attributeValues.add(lookupTimeout > 0 ?
+                                        future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) :
+                                        future.get());
+                } catch (TimeoutException e) {
+                    // interrupt the hung lookup, so that it gives its pool thread back
+                    future.cancel(true);
+                    String moduleName = getModuleName(finders.get(i));
+                    throw new EntitlementException("PIP attribute finder " + moduleName + " did not return the " +
+                                                   "attribute " + attributeId + " within " + lookupTimeout + "ms");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            for (Future<Set<String>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return attributeValues;
+    }
+
+    /**
+     * Retrieves the attribute values from the given PIP attribute finder, recording the latency of the lookup.
+     */
+    private Set<String> lookup(PIPAttributeFinder pipAttributeFinder, URI attributeType, URI attributeId,
+                               URI category, String issuer, EvaluationCtx context) throws Exception {
+
+        PIPLatencyHistogram histogram = getLatencyHistogram(getModuleName(pipAttributeFinder));
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            Set<String> attrs = pipAttributeFinder.getAttributeValues(attributeType, attributeId, category, issuer,
+                                                                      context);
+            success = true;
+            return attrs;
+        } finally {
+            histogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), success);
+        }
+    }
+
+    private PIPLatencyHistogram getLatencyHistogram(String moduleName) {
+
+        PIPLatencyHistogram histogram = latencyHistograms.get(moduleName);
+        if (histogram == null) {
+            histogram = new PIPLatencyHistogram(moduleName);
+            PIPLatencyHistogram existing = latencyHistograms.putIfAbsent(moduleName, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+
+    private String getModuleName(PIPAttributeFinder pipAttributeFinder) {
+
+        String moduleName = pipAttributeFinder.getModuleName();
+        return moduleName != null ? moduleName : pipAttributeFinder.getClass().getName();
+    }
+
+    /**
+     * Returns the latency histograms of the attribute lookups of the PIP attribute finders, keyed by their module
+     * names. Lookups answered by the attribute cache or by the attribute resolution context are not counted.
+     *
+     * @return latency histograms
+     */
+    public Map<String, PIPLatencyHistogram> getLatencyHistograms() {
+
+        return Collections.unmodifiableMap(latencyHistograms);
+    }
+
+    /**
+     * Stops the thread pool of the parallel attribute lookups.
+     */
+    public static void shutdown() {
+
+        synchronized (CarbonAttributeFinder.class) {
+            if (lookupExecutor != null) {
+                lookupExecutor.shutdownNow();
+                lookupExecutor = null;
+            }
+        }
+    }
+
+    private static ExecutorService getLookupExecutor() {
+
+        if (lookupExecutor == null) {
+            synchronized (CarbonAttributeFinder.class) {
+                if (lookupExecutor == null) {
+                    int poolSize = DEFAULT_LOOKUP_THREAD_POOL_SIZE;
+                    String poolSizeValue = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties()
+                            .getProperty(PDPConstants.ATTRIBUTE_FINDER_THREAD_POOL_SIZE);
+                    if (poolSizeValue != null) {
+                        try {
+                            poolSize = Math.max(1, Integer.parseInt(poolSizeValue.trim()));
+                        } catch (NumberFormatException e) {
+                            log.warn("Invalid value for " + PDPConstants.ATTRIBUTE_FINDER_THREAD_POOL_SIZE +
+                                     ". Using default value " + poolSize);
+                        }
+                    }
+                    // when saturated the lookups run in the evaluating thread instead of queueing without limit
+                    lookupExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<Runnable>(poolSize * 10), runnable -> {
+                                Thread thread = new Thread(runnable, "pip-attribute-lookup");
+                                thread.setDaemon(true);
+                                return thread;
+                            }, new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+            }
+        }
+        return lookupExecutor;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -290,9 +511,47 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
     public void clearAttributeCache() {
         if (attributeFinderCache != null) {
             attributeFinderCache.clearCache();
-            // clear decision cache
-            EntitlementEngine.getInstance().clearDecisionCache();
+            // invalidate the cached decisions which consulted PIP attributes
+            EntitlementEngine.getInstance().invalidateAttributeDependentDecisions();
+        }
+    }
+
+    /**
+     * Builds the key of the attribute values in the attribute resolution context. A PIP attribute finder may use any
+     * attribute of the request to resolve the values, therefore the key holds the whole request context, as the key
+     * of the attribute cache does. Only identical requests share the resolved values.
+     *
+     * @param pipAttributeFinder PIP attribute finder resolving the values
+     * @param attributeType      attribute data type
+     * @param attributeId        attribute id
+     * @param category           attribute category
+     * @param issuer             attribute issuer
+     * @param encodedContext     encoded request context
+     * @return key of the attribute values
+     */
+    private String getResolutionKey(PIPAttributeFinder pipAttributeFinder, URI attributeType, URI attributeId,
+                                    URI category, String issuer, String encodedContext) {
+
+        return "[" + pipAttributeFinder.getClass().getName() + "@" + System.identityHashCode(pipAttributeFinder) +
+                "][" + attributeType + "][" + attributeId + "][" + category + "][" + issuer + "][" +
+                encodedContext + "]";
+    }
+
+    /**
+     * Encodes the given evaluation context, once per evaluation when an attribute resolution context is attached to
+     * the current thread.
+     *
+     * @param evaluationCtx EvaluationCtx
+     * @return encoded evaluation context
+     * @throws Exception if the evaluation context can not be encoded
+     */
+    private String getEncodedContext(EvaluationCtx evaluationCtx) throws Exception {
+
+        AttributeResolutionContext resolutionContext = AttributeResolutionContext.getCurrent();
+        if (resolutionContext == null) {
+            return encodeContext(evaluationCtx);
         }
+        return resolutionContext.getEncodedContext(evaluationCtx, () -> encodeContext(evaluationCtx));
     }
 
     /**
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pip;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram of the attribute lookups of a PIP attribute finder. Lookups are counted in fixed buckets, so
+ * recording is lock free and the histogram does not grow with the number of lookups.
+ */
+public class PIPLatencyHistogram {
+
+    /**
+     * Upper bounds of the buckets in milliseconds. The last bucket counts the lookups slower than the last bound.
+     */
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final String moduleName;
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public PIPLatencyHistogram(String moduleName) {
+
+        this.moduleName = moduleName;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a lookup.
+     *
+     * @param millis  time taken by the lookup in milliseconds
+     * @param success whether the lookup returned the attribute values
+     */
+    public void record(long millis, boolean success) {
+
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalMillis.add(millis);
+        if (!success) {
+            failures.increment();
+        }
+        long max = maxMillis.get();
+        while (millis > max && !maxMillis.compareAndSet(max, millis)) {
+            max = maxMillis.get();
+        }
+    }
+
+    public String getModuleName() {
+
+        return moduleName;
+    }
+
+    /**
+     * @return upper bounds of the buckets in milliseconds, excluding the last unbounded bucket
+     */
+    public long[] getBucketBounds() {
+
+        return BUCKET_BOUNDS.clone();
+    }
+
+    /**
+     * @return lookups counted in each bucket, the last element being the lookups slower than the last bound
+     */
+    public long[] getBucketCounts() {
+
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getCount() {
+
+        return count.sum();
+    }
+
+    public long getFailureCount() {
+
+        return failures.sum();
+    }
+
+    public long getMaxMillis() {
+
+        return maxMillis.get();
+    }
+
+    public double getMeanMillis() {
+
+        long lookups = count.sum();
+        return lookups == 0 ? 0 : (double) totalMillis.sum() / lookups;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder(moduleName).append(" : count=").append(getCount())
+                .append(", failures=").append(getFailureCount()).append(", mean=")
+                .append(String.format("%.2f", getMeanMillis())).append("ms, max=").append(getMaxMillis())
+                .append("ms, buckets=[");
+        long[] counts = getBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(i < BUCKET_BOUNDS.length ? "<=" + BUCKET_BOUNDS[i] + "ms" : ">" +
+                    BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] + "ms").append(':').append(counts[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -33,8 +33,8 @@ import org.wso2.balana.ctx.EvaluationCtx;
 import org.wso2.balana.ctx.Status;
 import org.wso2.balana.xacml2.Target;
 import org.wso2.balana.xacml2.TargetSection;
+import org.wso2.carbon.identity.entitlement.EntitlementBoundedCache;
 import org.wso2.carbon.identity.entitlement.EntitlementException;
-import org.wso2.carbon.identity.entitlement.EntitlementLRUCache;
 
 import java.io.Serializable;
 import java.net.URI;
@@ -42,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
@@ -63,7 +64,7 @@ public class DefaultPolicyCollection implements PolicyCollection {
                 XACMLConstants.XACML_VERSION_2_0));
     }
     // the actual collection of policies
-    private LinkedHashMap<String, TreeSet<AbstractPolicy>> policies;
+    private Map<String, TreeSet<AbstractPolicy>> policies;
     // the single instance of the comparator we'll use for managing versions
     private VersionComparator versionComparator = new VersionComparator();
     // the optional combining algorithm used when wrapping multiple policies
@@ -82,7 +83,7 @@ public class DefaultPolicyCollection implements PolicyCollection {
      * @param maxInMemoryPolicies maximum no of policies that keeps in memory
      */
     public DefaultPolicyCollection(PolicyCombiningAlgorithm combiningAlg, int maxInMemoryPolicies) {
-        policies = new EntitlementLRUCache<String, TreeSet<AbstractPolicy>>(maxInMemoryPolicies);
+        policies = new EntitlementBoundedCache<String, TreeSet<AbstractPolicy>>(maxInMemoryPolicies);
         this.maxInMemoryPolicies = maxInMemoryPolicies;
         this.combiningAlg = combiningAlg;
     }
@@ -141,11 +142,11 @@ public class DefaultPolicyCollection implements PolicyCollection {
      * @return
      */
     public boolean addPolicy(AbstractPolicy policy, String identifier) {
-        if (policies.containsKey(identifier)) {
+        TreeSet<AbstractPolicy> existingSet = policies.get(identifier);
+        if (existingSet != null) {
             // this identifier is already is use, so see if this version is
             // already in the set
-            TreeSet<AbstractPolicy> set = policies.get(identifier);
-            return set.add(policy);
+            return existingSet.add(policy);
         } else {
             // this identifier isn't already being used, so create a new
             // set in the map for it, and add the policy
@@ -228,8 +229,9 @@ public class DefaultPolicyCollection implements PolicyCollection {
      * @return AbstractPolicy
      */
     public AbstractPolicy getPolicy(URI policyId) {
-        if (policies.containsKey(policyId.toString())) {
-            return policies.get(policyId.toString()).first();
+        TreeSet<AbstractPolicy> set = policies.get(policyId.toString());
+        if (set != null) {
+            return set.first();
         }
         return null;
     }
@@ -241,8 +243,9 @@ public class DefaultPolicyCollection implements PolicyCollection {
      * @return AbstractPolicy
      */
     public AbstractPolicy getPolicy(String policyId) {
-        if (policies.containsKey(policyId)) {
-            return policies.get(policyId).first();
+        TreeSet<AbstractPolicy> set = policies.get(policyId);
+        if (set != null) {
+            return set.first();
         }
         return null;
     }
@@ -250,9 +253,9 @@ public class DefaultPolicyCollection implements PolicyCollection {
     /**
      * get All policies
      *
-     * @return LinkedHashMap of policies
+     * @return Map of policies
      */
-    public LinkedHashMap<String, TreeSet<AbstractPolicy>> getPolicies() {
+    public Map<String, TreeSet<AbstractPolicy>> getPolicies() {
         return policies;
     }
 
@@ -398,13 +401,29 @@ public class DefaultPolicyCollection implements PolicyCollection {
     public boolean deletePolicy(String policyId) {
         return false;
     }
-@Override
+    /**
+     * Returns a snapshot of the in memory policies, as the policies are kept in a bounded concurrent cache. The
+     * only caller, <code>CarbonPolicyFinder</code>, reads the returned map. Use {@link #setPolicyMap(LinkedHashMap)}
+     * to replace the policies.
+     *
+     * @return snapshot of the in memory policies
+     */
+    @Override
     public LinkedHashMap getPolicyMap() {
-        return this.policies;
+        if (this.policies instanceof LinkedHashMap) {
+            return (LinkedHashMap) this.policies;
+        }
+        return new LinkedHashMap<String, TreeSet<AbstractPolicy>>(this.policies);
     }
 
     @Override
     public void setPolicyMap(LinkedHashMap policyMap) {
-        this.policies = policyMap ;
+        if (this.policies instanceof EntitlementBoundedCache) {
+            // keep the bound of the in memory policies
+            this.policies.clear();
+            this.policies.putAll(policyMap);
+        } else {
+            this.policies = policyMap;
+        }
     }
 }
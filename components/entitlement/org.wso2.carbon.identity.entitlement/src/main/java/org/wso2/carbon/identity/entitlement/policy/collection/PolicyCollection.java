@@ -87,6 +87,14 @@ public interface PolicyCollection {
 
 
     public boolean deletePolicy(String policyId);
+
+    /**
+     * Returns the policies of the collection. Implementations backed by a concurrent or bounded map return a
+     * snapshot, therefore changes to the returned map are not reflected in the collection and
+     * {@link #setPolicyMap(LinkedHashMap)} must be used to replace the policies.
+     *
+     * @return policies of the collection
+     */
     public LinkedHashMap getPolicyMap() ;
     public void setPolicyMap(LinkedHashMap policyMap) ;
 
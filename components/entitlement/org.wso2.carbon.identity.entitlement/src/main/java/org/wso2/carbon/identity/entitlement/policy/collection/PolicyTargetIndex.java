@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.collection;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.AbstractTarget;
+import org.wso2.balana.TargetMatch;
+import org.wso2.balana.XACMLConstants;
+import org.wso2.balana.attr.AbstractDesignator;
+import org.wso2.balana.attr.AttributeValue;
+import org.wso2.balana.cond.Evaluatable;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.Attribute;
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.balana.xacml3.AllOfSelection;
+import org.wso2.balana.xacml3.AnyOfSelection;
+import org.wso2.balana.xacml3.Attributes;
+import org.wso2.balana.xacml3.Target;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index over the <code>Target</code> of the policies held by a policy collection. It is used to narrow down
+ * the policies that need to be matched against a request, instead of calling <code>match()</code> on every
+ * loaded policy.
+ * <p>
+ * For a XACML 3.0 target, one <code>AnyOf</code> element is selected where each <code>AllOf</code> contains a
+ * <code>string-equal</code> match on one of the indexed attributes (resource-id, action-id and subject-id by
+ * default). The policy can only be applicable when one of those category/attribute/value combinations is present
+ * in the request. If the request does not carry the attribute at all, the policy is still returned as a candidate
+ * as the value may be resolved later through a PIP. Policies whose target can not be indexed this way, including
+ * XACML 2.0 policies and policies without a target, are kept in a wildcard bucket which is always matched.
+ * <p>
+ * The returned candidates are always ordered by the order the policies were added to the index, so the combining
+ * algorithm sees them in the same order as with a full scan.
+ */
+public class PolicyTargetIndex {
+
+    private static final Log log = LogFactory.getLog(PolicyTargetIndex.class);
+
+    private static final String STRING_EQUAL_FUNCTION = "urn:oasis:names:tc:xacml:1.0:function:string-equal";
+    private static final String KEY_SEPARATOR = "|";
+
+    private final Set<String> indexedAttributes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<URI, IndexEntry> entries = new HashMap<>();
+    private final Map<String, Set<URI>> valueIndex = new HashMap<>();
+    private final Map<String, Set<URI>> attributeIndex = new HashMap<>();
+    private final Set<URI> wildcardPolicies = new HashSet<>();
+    private long sequence;
+
+    /**
+     * Reads the attribute ids to be indexed from the entitlement engine properties. Resource-id, action-id and
+     * subject-id are indexed if nothing is configured.
+     *
+     * @param properties entitlement engine properties
+     * @return attribute ids to be indexed
+     */
+    public static List<String> getIndexedAttributes(Properties properties) {
+
+        String attributes = properties != null ?
+                properties.getProperty(PDPConstants.POLICY_TARGET_INDEX_ATTRIBUTES) : null;
+        if (attributes == null || attributes.trim().isEmpty()) {
+            return Arrays.asList(PDPConstants.RESOURCE_ID_DEFAULT, PDPConstants.ACTION_ID_DEFAULT,
+                    PDPConstants.SUBJECT_ID_DEFAULT);
+        }
+        List<String> indexedAttributes = new ArrayList<>();
+        for (String attribute : attributes.split(",")) {
+            if (!attribute.trim().isEmpty()) {
+                indexedAttributes.add(attribute.trim());
+            }
+        }
+        return indexedAttributes;
+    }
+
+    /**
+     * @param indexedAttributes attribute ids whose values are used as index keys
+     */
+    public PolicyTargetIndex(Collection<String> indexedAttributes) {
+
+        this.indexedAttributes = Collections.unmodifiableSet(new HashSet<>(indexedAttributes));
+    }
+
+    /**
+     * Adds the policy to the index. If a policy with the same id is already indexed, its keys are replaced while
+     * its position is kept, which is in line with how a <code>LinkedHashMap</code> treats a re-inserted key.
+     *
+     * @param policyId policy id
+     * @param policy   policy
+     */
+    public void addPolicy(URI policyId, AbstractPolicy policy) {
+
+        lock.writeLock().lock();
+        try {
+            IndexEntry existing = entries.get(policyId);
+            long order = existing != null ? existing.order : sequence++;
+            if (existing != null) {
+                unindex(policyId, existing);
+            }
+            IndexEntry entry = buildEntry(policy, order);
+            entries.put(policyId, entry);
+            if (entry.wildcard) {
+                wildcardPolicies.add(policyId);
+            } else {
+                for (String valueKey : entry.valueKeys) {
+                    valueIndex.computeIfAbsent(valueKey, k -> new HashSet<>()).add(policyId);
+                }
+                for (String attributeKey : entry.attributeKeys) {
+                    attributeIndex.computeIfAbsent(attributeKey, k -> new HashSet<>()).add(policyId);
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Policy " + policyId + " is added to the target index " +
+                        (entry.wildcard ? "as a wildcard policy" : "with keys " + entry.valueKeys));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the policy from the index.
+     *
+     * @param policyId policy id
+     * @return true if the policy was indexed
+     */
+    public boolean removePolicy(URI policyId) {
+
+        lock.writeLock().lock();
+        try {
+            IndexEntry entry = entries.remove(policyId);
+            if (entry == null) {
+                return false;
+            }
+            unindex(policyId, entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops all the index entries and re-indexes the given policies in their iteration order.
+     *
+     * @param policies policies keyed by the policy id
+     */
+    public void rebuild(Map<URI, AbstractPolicy> policies) {
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            valueIndex.clear();
+            attributeIndex.clear();
+            wildcardPolicies.clear();
+            sequence = 0;
+            for (Map.Entry<URI, AbstractPolicy> entry : policies.entrySet()) {
+                addPolicy(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the policies that may be applicable to the given request, in the order they were added.
+     *
+     * @param context evaluation context of the request
+     * @return candidate policies
+     */
+    public List<AbstractPolicy> getCandidatePolicies(EvaluationCtx context) {
+
+        lock.readLock().lock();
+        try {
+            Collection<URI> candidateIds;
+            RequestKeys requestKeys = context.getXacmlVersion() == XACMLConstants.XACML_VERSION_3_0 ?
+                    getRequestKeys(context.getRequestCtx()) : null;
+            if (requestKeys == null) {
+                candidateIds = entries.keySet();
+            } else {
+                Set<URI> matched = new HashSet<>(wildcardPolicies);
+                for (String valueKey : requestKeys.valueKeys) {
+                    Set<URI> policyIds = valueIndex.get(valueKey);
+                    if (policyIds != null) {
+                        matched.addAll(policyIds);
+                    }
+                }
+                for (Map.Entry<String, Set<URI>> entry : attributeIndex.entrySet()) {
+                    if (!requestKeys.attributeKeys.contains(entry.getKey())) {
+                        matched.addAll(entry.getValue());
+                    }
+                }
+                candidateIds = matched;
+            }
+
+            List<IndexEntry> candidates = new ArrayList<>(candidateIds.size());
+            for (URI policyId : candidateIds) {
+                candidates.add(entries.get(policyId));
+            }
+            candidates.sort(Comparator.comparingLong(entry -> entry.order));
+
+            List<AbstractPolicy> policies = new ArrayList<>(candidates.size());
+            for (IndexEntry entry : candidates) {
+                policies.add(entry.policy);
+            }
+            return policies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the given policy may be applicable to a request, without adding the policy to the index.
+     *
+     * @param policy      policy
+     * @param requestKeys index keys of the request, null if those are not known
+     * @return false only if the target of the policy can not match the request
+     */
+    public boolean isCandidate(AbstractPolicy policy, RequestKeys requestKeys) {
+
+        if (requestKeys == null) {
+            return true;
+        }
+        IndexEntry entry = buildEntry(policy, 0);
+        if (entry.wildcard) {
+            return true;
+        }
+        for (String valueKey : entry.valueKeys) {
+            if (requestKeys.valueKeys.contains(valueKey)) {
+                return true;
+            }
+        }
+        for (String attributeKey : entry.attributeKeys) {
+            if (!requestKeys.attributeKeys.contains(attributeKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the index keys of a XACML 3.0 request.
+     *
+     * @param requestCtx request
+     * @return index keys of the request, or null if the request can not be used with the index
+     */
+    public RequestKeys getRequestKeys(AbstractRequestCtx requestCtx) {
+
+        if (requestCtx == null || requestCtx.getAttributesSet() == null ||
+                requestCtx.getXacmlVersion() != XACMLConstants.XACML_VERSION_3_0) {
+            return null;
+        }
+        RequestKeys requestKeys = new RequestKeys();
+        for (Attributes attributes : requestCtx.getAttributesSet()) {
+            if (attributes.getCategory() == null || attributes.getAttributes() == null) {
+                continue;
+            }
+            String category = attributes.getCategory().toString();
+            for (Attribute attribute : attributes.getAttributes()) {
+                if (attribute.getId() == null || !indexedAttributes.contains(attribute.getId().toString())) {
+                    continue;
+                }
+                String attributeKey = category + KEY_SEPARATOR + attribute.getId().toString();
+                requestKeys.attributeKeys.add(attributeKey);
+                if (attribute.getValues() != null) {
+                    for (AttributeValue value : attribute.getValues()) {
+                        requestKeys.valueKeys.add(attributeKey + KEY_SEPARATOR + value.encode());
+                    }
+                }
+            }
+        }
+        return requestKeys;
+    }
+
+    /**
+     * @return number of policies in the index
+     */
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(URI policyId, IndexEntry entry) {
+
+        wildcardPolicies.remove(policyId);
+        removeFromIndex(valueIndex, entry.valueKeys, policyId);
+        removeFromIndex(attributeIndex, entry.attributeKeys, policyId);
+    }
+
+    private static void removeFromIndex(Map<String, Set<URI>> index, Set<String> keys, URI policyId) {
+
+        for (String key : keys) {
+            Set<URI> policyIds = index.get(key);
+            if (policyIds != null) {
+                policyIds.remove(policyId);
+                if (policyIds.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    private IndexEntry buildEntry(AbstractPolicy policy, long order) {
+
+        IndexEntry entry = new IndexEntry(policy, order);
+        AbstractTarget target = policy.getTarget();
+        if (!(target instanceof Target) || ((Target) target).getAnyOfSelections() == null) {
+            entry.wildcard = true;
+            return entry;
+        }
+
+        for (AnyOfSelection anyOf : ((Target) target).getAnyOfSelections()) {
+            Set<String> valueKeys = getIndexKeys(anyOf);
+            if (valueKeys != null) {
+                entry.valueKeys = valueKeys;
+                for (String valueKey : valueKeys) {
+                    // value keys are of the form category|attribute|value and the attribute key is the prefix
+                    int separator = valueKey.indexOf(KEY_SEPARATOR, valueKey.indexOf(KEY_SEPARATOR) + 1);
+                    entry.attributeKeys.add(valueKey.substring(0, separator));
+                }
+                return entry;
+            }
+        }
+        entry.wildcard = true;
+        return entry;
+    }
+
+    /**
+     * Returns one index key per <code>AllOf</code> of the given <code>AnyOf</code>, or null if any of the
+     * <code>AllOf</code> elements does not have an indexable match.
+     */
+    private Set<String> getIndexKeys(AnyOfSelection anyOf) {
+
+        List<AllOfSelection> allOfSelections = anyOf.getAllOfSelections();
+        if (allOfSelections == null || allOfSelections.isEmpty()) {
+            return null;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (AllOfSelection allOf : allOfSelections) {
+            String key = null;
+            if (allOf.getMatches() != null) {
+                for (TargetMatch match : allOf.getMatches()) {
+                    key = getIndexKey(match);
+                    if (key != null) {
+                        break;
+                    }
+                }
+            }
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private String getIndexKey(TargetMatch match) {
+
+        if (match.getMatchFunction() == null || match.getMatchValue() == null ||
+                !STRING_EQUAL_FUNCTION.equals(match.getMatchFunction().getIdentifier().toString())) {
+            return null;
+        }
+        Evaluatable evaluatable = match.getMatchEvaluatable();
+        if (!(evaluatable instanceof AbstractDesignator)) {
+            return null;
+        }
+        AbstractDesignator designator = (AbstractDesignator) evaluatable;
+        if (designator.getCategory() == null || designator.getId() == null ||
+                !indexedAttributes.contains(designator.getId().toString())) {
+            return null;
+        }
+        return designator.getCategory().toString() + KEY_SEPARATOR + designator.getId().toString() +
+                KEY_SEPARATOR + match.getMatchValue().encode();
+    }
+
+    /**
+     * Index keys of a request. Value keys are the category, attribute id and value combinations of the indexed
+     * attributes in the request, and attribute keys are the category and attribute id combinations.
+     */
+    public static class RequestKeys {
+
+        private final Set<String> valueKeys = new HashSet<>();
+        private final Set<String> attributeKeys = new HashSet<>();
+    }
+
+    private static class IndexEntry {
+
+        private final AbstractPolicy policy;
+        private final long order;
+        private boolean wildcard;
+        private Set<String> valueKeys = Collections.emptySet();
+        private final Set<String> attributeKeys = new HashSet<>();
+
+        private IndexEntry(AbstractPolicy policy, long order) {
+
+            this.policy = policy;
+            this.order = order;
+        }
+    }
+}
@@ -29,12 +29,14 @@ import org.wso2.balana.VersionConstraints;
 import org.wso2.balana.combine.PolicyCombiningAlgorithm;
 import org.wso2.balana.ctx.EvaluationCtx;
 import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -59,6 +61,23 @@ public class SimplePolicyCollection implements PolicyCollection {
      * the optional policy id used when wrapping multiple policies
      */
     private URI parentId;
+    /**
+     * index over the policy targets, used to narrow down the policies matched against a request.
+     * null if the target index is disabled
+     */
+    private PolicyTargetIndex targetIndex;
+
+    public SimplePolicyCollection() {
+
+        Properties properties = null;
+        if (EntitlementServiceComponent.getEntitlementConfig() != null) {
+            properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
+        }
+        if (properties != null && Boolean.parseBoolean(properties.getProperty(PDPConstants
+                .POLICY_TARGET_INDEX_ENABLE))) {
+            targetIndex = new PolicyTargetIndex(PolicyTargetIndex.getIndexedAttributes(properties));
+        }
+    }
 
     @Override
     public void init(Properties properties) throws Exception {
@@ -79,9 +98,17 @@ public class SimplePolicyCollection implements PolicyCollection {
         // setup a list of matching policies
         ArrayList<AbstractPolicy> list = new ArrayList<AbstractPolicy>();
 
-        for (Map.Entry<URI, AbstractPolicy> entry : policyCollection.entrySet()) {
+        Collection<AbstractPolicy> candidates;
+        if (targetIndex != null) {
+            candidates = targetIndex.getCandidatePolicies(context);
+            if (log.isDebugEnabled()) {
+                log.debug(candidates.size() + " candidate XACML policies found out of " + targetIndex.size());
+            }
+        } else {
+            candidates = policyCollection.values();
+        }
 
-            AbstractPolicy policy = entry.getValue();
+        for (AbstractPolicy policy : candidates) {
 
             // see if we match
             MatchResult match = policy.match(context);
@@ -155,6 +182,9 @@ public class SimplePolicyCollection implements PolicyCollection {
     }
 
     private synchronized boolean addPolicy(URI identifier, AbstractPolicy policy) {
+        if (targetIndex != null) {
+            targetIndex.addPolicy(identifier, policy);
+        }
         return policyCollection.put(identifier, policy) != null;
     }
 
@@ -166,7 +196,11 @@ public class SimplePolicyCollection implements PolicyCollection {
     @Override
     public boolean deletePolicy(String policyId) {
         try {
-            return this.policyCollection.remove(new URI(policyId)) != null;
+            URI policyURI = new URI(policyId);
+            if (targetIndex != null) {
+                targetIndex.removePolicy(policyURI);
+            }
+            return this.policyCollection.remove(policyURI) != null;
         } catch (URISyntaxException ex) {
             return false;
         }
@@ -180,5 +214,9 @@ public class SimplePolicyCollection implements PolicyCollection {
     @Override
     public void setPolicyMap(LinkedHashMap policyMap) {
         this.policyCollection = policyMap;
+        if (targetIndex != null) {
+            targetIndex.rebuild(this.policyCollection);
+        }
     }
+
 }
@@ -45,8 +45,8 @@ public abstract class AbstractPolicyFinderModule implements PolicyFinderModule {
      * This method must be called by the module when its policies are updated
      */
     public static void invalidateCache(String policyId, String action) {
+        // cached decisions depending on the policy are invalidated once the policy finder applies the change
         EntitlementEngine.getInstance().getPolicyCache().invalidateCache(policyId, action);
-        EntitlementEngine.getInstance().clearDecisionCache();
         EntitlementEngine.getInstance().getPolicySearch().getPolicySearchCache().invalidateCache();
     }
 
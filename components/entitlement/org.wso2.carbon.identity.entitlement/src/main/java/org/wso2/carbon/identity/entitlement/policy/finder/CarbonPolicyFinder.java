@@ -32,9 +32,11 @@ import org.wso2.balana.ctx.Status;
 import org.wso2.balana.finder.PolicyFinder;
 import org.wso2.balana.finder.PolicyFinderResult;
 import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.entitlement.EntitlementBoundedCache;
 import org.wso2.carbon.identity.entitlement.EntitlementException;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.PolicyOrderComparator;
+import org.wso2.carbon.identity.entitlement.cache.DecisionTrace;
 import org.wso2.carbon.identity.entitlement.cache.PolicyStatus;
 import org.wso2.carbon.identity.entitlement.common.EntitlementConstants;
 import org.wso2.carbon.identity.entitlement.dto.PolicyDTO;
@@ -76,7 +78,7 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
      * this is a flag to keep whether init it has finished or not.
      */
     private volatile boolean initFinish;
-    private LinkedHashMap<URI, AbstractPolicy> policyReferenceCache = null;
+    private Map<URI, AbstractPolicy> policyReferenceCache = null;
     private int maxReferenceCacheEntries = PDPConstants.MAX_NO_OF_IN_MEMORY_POLICIES;
 
 
@@ -107,15 +109,8 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
             }
         }
 
-        policyReferenceCache = new LinkedHashMap<URI, AbstractPolicy>() {
-
-            @Override
-            protected boolean removeEldestEntry(Map.Entry eldest) {
-                // oldest entry of the cache would be removed when max cache size become, i.e 50
-                return size() > maxReferenceCacheEntries;
-            }
-
-        };
+        // referenced policies are looked up concurrently while evaluating requests
+        policyReferenceCache = new EntitlementBoundedCache<URI, AbstractPolicy>(maxReferenceCacheEntries);
 
         PolicyCombiningAlgorithm policyCombiningAlgorithm = null;
         // get registered finder modules
@@ -237,22 +232,28 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
                 if (policies.size() > 0) {
                     synchronized (policies) {
                         boolean isReorder = false;
+                        boolean clearDecisionCache = false;
                         policyReferenceCache.clear();
-                        EntitlementEngine.getInstance().clearDecisionCache();
+                        EntitlementEngine entitlementEngine = EntitlementEngine.getInstance();
                         for (PolicyStatus policyStatus : policies) {
 
                             if (EntitlementConstants.PolicyPublish.ACTION_DELETE
                                     .equals(policyStatus.getPolicyAction())) {
                                 policyCollection.deletePolicy(policyStatus.getPolicyId());
                                 policyCollectionOrder.remove(new PolicyDTO(policyStatus.getPolicyId()));
+                                entitlementEngine.invalidateDecisions(policyStatus.getPolicyId(), null);
                             } else if (EntitlementConstants.PolicyPublish.ACTION_UPDATE
                                     .equals(policyStatus.getPolicyAction())) {
                                 AbstractPolicy abstractPolicy = loadPolicy(policyStatus.getPolicyId());
                                 policyCollection.addPolicy(abstractPolicy);
+                                entitlementEngine.invalidateDecisions(policyStatus.getPolicyId(), abstractPolicy);
+                                clearDecisionCache |= abstractPolicy == null;
                             } else if (EntitlementConstants.PolicyPublish.ACTION_CREATE
                                     .equals(policyStatus.getPolicyAction())) {
                                 AbstractPolicy abstractPolicy = loadPolicy(policyStatus.getPolicyId());
                                 policyCollection.addPolicy(abstractPolicy);
+                                entitlementEngine.invalidateDecisions(policyStatus.getPolicyId(), abstractPolicy);
+                                clearDecisionCache |= abstractPolicy == null;
                                 isReorder = true;
                             } else if (EntitlementConstants.PolicyPublish.ACTION_ORDER
                                     .equals(policyStatus.getPolicyAction())) {
@@ -265,9 +266,16 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
                                         isReorder = true;
                                     }
                                 }
+                                entitlementEngine.invalidateDecisions(policyStatus.getPolicyId(), null);
+                            } else {
+                                // the impact of other actions on cached decisions is not known.
+                                clearDecisionCache = true;
                             }
 
                         }
+                        if (clearDecisionCache) {
+                            entitlementEngine.clearDecisionCache();
+                        }
                         if (isReorder) {
                             orderPolicyCache();
                         }
@@ -284,6 +292,7 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
             if (policy == null) {
                 return new PolicyFinderResult();
             } else {
+                recordDecisionDependency(policy);
                 return new PolicyFinderResult(policy);
             }
         } catch (EntitlementException e) {
@@ -295,6 +304,26 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
     }
 
 
+    /**
+     * Records the policies the current decision is derived from. When more than one policy is applicable, the
+     * effective policy is a policy set wrapping them, therefore its direct children are recorded as well.
+     *
+     * @param policy effective policy
+     */
+    private void recordDecisionDependency(AbstractPolicy policy) {
+
+        if (policy.getId() != null) {
+            DecisionTrace.recordPolicy(policy.getId().toString());
+        }
+        if (policy.getChildren() != null) {
+            for (Object child : policy.getChildren()) {
+                if (child instanceof AbstractPolicy && ((AbstractPolicy) child).getId() != null) {
+                    DecisionTrace.recordPolicy(((AbstractPolicy) child).getId().toString());
+                }
+            }
+        }
+    }
+
     private AbstractPolicy loadPolicy(String policyId) {
         if (this.finderModules != null) {
             for (PolicyFinderModule finderModule : this.finderModules) {
@@ -345,6 +374,7 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
         }
 
         if (policy != null) {
+            DecisionTrace.recordPolicy(idReference.toString());
             // we found a valid version, so see if it's the right kind,
             // and if it is then we return it
             if (type == PolicyReference.POLICY_REFERENCE) {
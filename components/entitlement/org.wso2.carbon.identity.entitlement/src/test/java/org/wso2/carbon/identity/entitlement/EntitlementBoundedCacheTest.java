@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EntitlementBoundedCacheTest {
+
+    private static final int MAX_ENTRIES = 100;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20000;
+
+    @Test
+    public void testEvictsBeyondBound() {
+
+        EntitlementBoundedCache<Integer, Integer> cache = new EntitlementBoundedCache<>(MAX_ENTRIES);
+        for (int i = 0; i < MAX_ENTRIES * 10; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= MAX_ENTRIES, "Cache size " + cache.size() + " exceeds the bound");
+        assertEquals(cache.stats().evictionCount(), MAX_ENTRIES * 10 - cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccessKeepsBound() throws Exception {
+
+        EntitlementBoundedCache<Integer, Integer> cache = new EntitlementBoundedCache<>(MAX_ENTRIES);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        int key = random.nextInt(MAX_ENTRIES * 10);
+                        switch (random.nextInt(4)) {
+                            case 0:
+                                cache.put(key, key);
+                                break;
+                            case 1:
+                                cache.remove(key);
+                                break;
+                            case 2:
+                                cache.putIfAbsent(key, key);
+                                break;
+                            default:
+                                Integer value = cache.get(key);
+                                if (value != null && value != key) {
+                                    throw new AssertionError("Value " + value + " is cached for key " + key);
+                                }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // fails the test with the error of the worker, if any
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= MAX_ENTRIES, "Cache size " + cache.size() + " exceeds the bound");
+        int iterated = 0;
+        for (Integer key : cache.keySet()) {
+            assertEquals(cache.get(key), key);
+            iterated++;
+        }
+        assertEquals(iterated, cache.size());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.Policy;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.RequestCtxFactory;
+import org.wso2.carbon.identity.entitlement.policy.collection.PolicyTargetIndex;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class DecisionCacheInvalidatorTest {
+
+    private static final String RESOURCE_ID = "urn:oasis:names:tc:xacml:1.0:resource:resource-id";
+    private static final String RESOURCE_CATEGORY = "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
+
+    private DecisionCacheInvalidator invalidator;
+
+    @BeforeMethod
+    public void setUp() {
+
+        invalidator = new DecisionCacheInvalidator(60, new PolicyTargetIndex(
+                PolicyTargetIndex.getIndexedAttributes(null)));
+    }
+
+    @Test
+    public void testPolicyChangeEvictsOnlyDependentDecisions() {
+
+        CachedDecision decisionOfPolicyA = cacheDecision("Permit", "policyA");
+        CachedDecision decisionOfPolicyB = cacheDecision("Deny", "policyB");
+        CachedDecision decisionOfBoth = cacheDecision("Permit", "policyA", "policyB");
+
+        invalidator.policyChanged("policyA");
+
+        assertTrue(invalidator.isStale(decisionOfPolicyA, null));
+        assertTrue(invalidator.isStale(decisionOfBoth, null));
+        assertFalse(invalidator.isStale(decisionOfPolicyB, null));
+    }
+
+    @Test
+    public void testAddedPolicyEvictsOnlyDecisionsOfMatchingRequests() throws Exception {
+
+        CachedDecision decisionOfFoo = cacheDecision("NotApplicable");
+        CachedDecision decisionOfBar = cacheDecision("NotApplicable");
+
+        invalidator.policyAdded(buildPolicy("policyC", "foo"));
+
+        assertTrue(invalidator.isStale(decisionOfFoo, buildRequest("foo")));
+        assertFalse(invalidator.isStale(decisionOfBar, buildRequest("bar")));
+        // Without the request, the added policy may apply to any decision.
+        assertTrue(invalidator.isStale(decisionOfBar, null));
+    }
+
+    @Test
+    public void testResetDropsTrackedChanges() {
+
+        CachedDecision decision = cacheDecision("Permit", "policyA");
+        invalidator.policyChanged("policyA");
+        assertTrue(invalidator.isTracking());
+
+        invalidator.reset();
+
+        assertFalse(invalidator.isStale(decision, null));
+    }
+
+    private CachedDecision cacheDecision(Object decision, String... policyIds) {
+
+        DecisionTrace trace = DecisionTrace.start();
+        try {
+            for (String policyId : policyIds) {
+                DecisionTrace.recordPolicy(policyId);
+            }
+            return new CachedDecision(decision, trace);
+        } finally {
+            trace.end();
+        }
+    }
+
+    private AbstractPolicy buildPolicy(String policyId, String resource) throws Exception {
+
+        String policy = "<Policy xmlns=\"urn:oasis:names:tc:xacml:3.0:core:schema:wd-17\" PolicyId=\"" + policyId +
+                "\" RuleCombiningAlgId=\"urn:oasis:names:tc:xacml:3.0:rule-combining-algorithm:deny-overrides\" " +
+                "Version=\"1.0\"><Target><AnyOf><AllOf>" +
+                "<Match MatchId=\"urn:oasis:names:tc:xacml:1.0:function:string-equal\">" +
+                "<AttributeValue DataType=\"http://www.w3.org/2001/XMLSchema#string\">" + resource +
+                "</AttributeValue>" +
+                "<AttributeDesignator AttributeId=\"" + RESOURCE_ID + "\" Category=\"" + RESOURCE_CATEGORY +
+                "\" DataType=\"http://www.w3.org/2001/XMLSchema#string\" MustBePresent=\"true\"/>" +
+                "</Match></AllOf></AnyOf></Target>" +
+                "<Rule Effect=\"Permit\" RuleId=\"permit\"/></Policy>";
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(
+                new ByteArrayInputStream(policy.getBytes(StandardCharsets.UTF_8)));
+        return Policy.getInstance(document.getDocumentElement());
+    }
+
+    private AbstractRequestCtx buildRequest(String resource) throws Exception {
+
+        String request = "<Request xmlns=\"urn:oasis:names:tc:xacml:3.0:core:schema:wd-17\" " +
+                "CombinedDecision=\"false\" ReturnPolicyIdList=\"false\">" +
+                "<Attributes Category=\"" + RESOURCE_CATEGORY + "\">" +
+                "<Attribute AttributeId=\"" + RESOURCE_ID + "\" IncludeInResult=\"false\">" +
+                "<AttributeValue DataType=\"http://www.w3.org/2001/XMLSchema#string\">" + resource +
+                "</AttributeValue></Attribute></Attributes></Request>";
+        return RequestCtxFactory.getFactory().getRequestCtx(request);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pip;
+
+import org.testng.annotations.Test;
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class AttributeResolutionContextTest {
+
+    @Test
+    public void testResolveOncePerKey() throws Exception {
+
+        AttributeResolutionContext context = new AttributeResolutionContext();
+        AtomicInteger lookups = new AtomicInteger();
+
+        context.resolve("key1", () -> Collections.singleton("value" + lookups.incrementAndGet()), 0);
+        Set<String> values = context.resolve("key1", () -> Collections.singleton("value" +
+                lookups.incrementAndGet()), 0);
+
+        assertEquals(values, Collections.singleton("value1"));
+        assertEquals(lookups.get(), 1);
+        assertEquals(context.size(), 1);
+    }
+
+    @Test
+    public void testWaitForConcurrentLookupIsBounded() throws Exception {
+
+        AttributeResolutionContext context = new AttributeResolutionContext();
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Set<String>> hungLookup = executor.submit(() -> context.resolve("key1", () -> {
+                lookupStarted.countDown();
+                release.await();
+                return Collections.singleton("value1");
+            }, 0));
+            assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+
+            try {
+                context.resolve("key1", () -> Collections.singleton("value2"), 100);
+                fail("Expected: " + EntitlementException.class.getName());
+            } catch (EntitlementException e) {
+                // the waiter gives up while the first lookup is still running
+            }
+
+            release.countDown();
+            assertEquals(hungLookup.get(5, TimeUnit.SECONDS), Collections.singleton("value1"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedLookupIsRetried() throws Exception {
+
+        AttributeResolutionContext context = new AttributeResolutionContext();
+        try {
+            context.resolve("key1", () -> {
+                throw new EntitlementException("PIP is not available");
+            }, 0);
+            fail("Expected: " + EntitlementException.class.getName());
+        } catch (EntitlementException e) {
+            // expected
+        }
+
+        assertEquals(context.resolve("key1", () -> Collections.singleton("value1"), 0),
+                Collections.singleton("value1"));
+    }
+
+    @Test
+    public void testEncodeContextOncePerEvaluation() throws Exception {
+
+        AttributeResolutionContext context = new AttributeResolutionContext();
+        EvaluationCtx evaluationCtx1 = newEvaluationCtx();
+        EvaluationCtx evaluationCtx2 = newEvaluationCtx();
+        AtomicInteger encodings = new AtomicInteger();
+
+        String encoded1 = context.getEncodedContext(evaluationCtx1, () -> "context" + encodings.incrementAndGet());
+        assertEquals(context.getEncodedContext(evaluationCtx1, () -> "context" + encodings.incrementAndGet()),
+                encoded1);
+        assertEquals(encodings.get(), 1);
+
+        String encoded2 = context.getEncodedContext(evaluationCtx2, () -> "context" + encodings.incrementAndGet());
+        assertNotEquals(encoded2, encoded1);
+        assertEquals(encodings.get(), 2);
+    }
+
+    private EvaluationCtx newEvaluationCtx() {
+
+        return (EvaluationCtx) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EvaluationCtx.class}, (proxy, method, args) -> {
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return null;
+                });
+    }
+}
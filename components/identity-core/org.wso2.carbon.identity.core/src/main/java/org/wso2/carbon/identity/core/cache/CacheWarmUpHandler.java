@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import org.wso2.carbon.identity.base.IdentityException;
+
+import java.util.List;
+
+/**
+ * Loads entries into a cache when the server starts, before the requests which would otherwise load them arrive.
+ * <p>
+ * Handlers are registered as OSGi services. The entries of a handler are the keys it records with
+ * {@link CacheWarmUpService#recordAccess(String, String, String)}, ordered by how often they were accessed during the
+ * previous run of the server.
+ */
+public interface CacheWarmUpHandler {
+
+    /**
+     * @return unique name of the handler, used to record and look up its entries
+     */
+    String getName();
+
+    /**
+     * Loads the entries of a tenant into the cache. This is called within a tenant flow of the tenant.
+     *
+     * @param tenantDomain tenant domain
+     * @param entries      most accessed entries of the tenant, most accessed first. Empty if the handler did not
+     *                     record any entry for the tenant.
+     * @throws IdentityException if the entries cannot be loaded
+     */
+    void warmUp(String tenantDomain, List<String> entries) throws IdentityException;
+}
@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.util.IdentityCoreConstants;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Warms up the caches of the most accessed tenants when the server starts.
+ * <p>
+ * While the server runs, the cache backed DAOs record the entries they serve with
+ * {@link #recordAccess(String, String, String)}. The access counts are written to a snapshot file periodically, so
+ * that they survive a crash, and when the server shuts down. On the next start, and before the server accepts requests, the {@link CacheWarmUpHandler}s
+ * load the most accessed entries of the most accessed tenants of the snapshot, using a bounded number of threads.
+ * Access counts of the snapshot are halved and carried over to the next snapshot, so that entries which are no longer
+ * accessed fade out. Warm up is disabled unless <code>CacheWarmUp.Enable</code> is set in identity.xml.
+ */
+public class CacheWarmUpService {
+
+    private static final Log log = LogFactory.getLog(CacheWarmUpService.class);
+
+    private static final String FIELD_SEPARATOR = "\t";
+    // Number of entries tracked for each handler of a tenant, as a multiple of the number of entries warmed up.
+    private static final int TRACKED_ENTRY_FACTOR = 10;
+
+    private static volatile CacheWarmUpService instance;
+
+    private final boolean enabled;
+    private final int tenantCount;
+    private final int entryCountPerTenant;
+    private final int poolSize;
+    private final long timeout;
+    private final long persistInterval;
+    private final Path snapshotFile;
+    private ScheduledExecutorService persister;
+
+    // Tenant domain -> handler name -> entry -> access count.
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, LongAdder>>> accessCounts =
+            new ConcurrentHashMap<>();
+
+    CacheWarmUpService(boolean enabled, int tenantCount, int entryCountPerTenant, int poolSize, long timeout,
+                       long persistInterval, Path snapshotFile) {
+
+        this.enabled = enabled;
+        this.tenantCount = tenantCount;
+        this.entryCountPerTenant = entryCountPerTenant;
+        this.poolSize = poolSize;
+        this.timeout = timeout;
+        this.persistInterval = persistInterval;
+        this.snapshotFile = snapshotFile;
+    }
+
+    public static CacheWarmUpService getInstance() {
+
+        if (instance == null) {
+            synchronized (CacheWarmUpService.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(
+                            IdentityUtil.getProperty(IdentityCoreConstants.CacheWarmUp.ENABLE));
+                    instance = new CacheWarmUpService(enabled,
+                            getIntProperty(IdentityCoreConstants.CacheWarmUp.TENANT_COUNT,
+                                    IdentityCoreConstants.CacheWarmUp.DEFAULT_TENANT_COUNT),
+                            getIntProperty(IdentityCoreConstants.CacheWarmUp.ENTRY_COUNT_PER_TENANT,
+                                    IdentityCoreConstants.CacheWarmUp.DEFAULT_ENTRY_COUNT_PER_TENANT),
+                            getIntProperty(IdentityCoreConstants.CacheWarmUp.POOL_SIZE,
+                                    IdentityCoreConstants.CacheWarmUp.DEFAULT_POOL_SIZE),
+                            getIntProperty(IdentityCoreConstants.CacheWarmUp.TIMEOUT,
+                                    IdentityCoreConstants.CacheWarmUp.DEFAULT_TIMEOUT),
+                            getIntProperty(IdentityCoreConstants.CacheWarmUp.PERSIST_INTERVAL,
+                                    IdentityCoreConstants.CacheWarmUp.DEFAULT_PERSIST_INTERVAL),
+                            enabled ? getSnapshotFile() : null);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return whether access counts are recorded and caches are warmed up
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Records an access to a cache entry. This is a no-op if warm up is disabled.
+     *
+     * @param handlerName  name of the handler which can load the entry
+     * @param tenantDomain tenant domain of the entry
+     * @param entry        key of the entry, as understood by the handler
+     */
+    public void recordAccess(String handlerName, String tenantDomain, String entry) {
+
+        if (!enabled || handlerName == null || StringUtils.isBlank(tenantDomain) || StringUtils.isBlank(entry)) {
+            return;
+        }
+        ConcurrentMap<String, LongAdder> entryCounts = getEntryCounts(tenantDomain, handlerName);
+        LongAdder count = entryCounts.get(entry);
+        if (count == null) {
+            if (entryCounts.size() >= entryCountPerTenant * TRACKED_ENTRY_FACTOR) {
+                // Bound the memory used by tenants with many entries. The most accessed entries are usually the
+                // first ones to be accessed after a restart.
+                return;
+            }
+            count = entryCounts.computeIfAbsent(entry, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Warms up the caches of the most accessed tenants of the snapshot, waiting at most the configured timeout. This
+     * is a no-op if warm up is disabled.
+     *
+     * @param handlers handlers loading the caches
+     */
+    public void warmUp(List<CacheWarmUpHandler> handlers) {
+
+        if (!enabled) {
+            return;
+        }
+        Map<String, Map<String, Map<String, Long>>> snapshot = readSnapshot();
+        carryOver(snapshot);
+        if (snapshot.isEmpty() || handlers.isEmpty()) {
+            log.info("Skipping cache warm up as there are no recorded cache accesses or no cache warm up handlers.");
+            return;
+        }
+
+        List<String> tenantDomains = getMostAccessed(snapshot.entrySet().stream().collect(Collectors.toMap(
+                Map.Entry::getKey, tenant -> tenant.getValue().values().stream()
+                        .flatMap(entries -> entries.values().stream()).mapToLong(Long::longValue).sum())),
+                tenantCount);
+        List<CacheWarmUpHandler> warmUpHandlers = new ArrayList<>(handlers);
+        int taskCount = tenantDomains.size() * warmUpHandlers.size();
+        AtomicInteger completedCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+
+        log.info("Warming up the caches of " + tenantDomains.size() + " tenants with " + warmUpHandlers.size() +
+                " handlers.");
+        long start = System.currentTimeMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(poolSize, taskCount)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        for (String tenantDomain : tenantDomains) {
+            Map<String, Map<String, Long>> tenantCounts = snapshot.get(tenantDomain);
+            for (CacheWarmUpHandler handler : warmUpHandlers) {
+                List<String> entries = getMostAccessed(tenantCounts.getOrDefault(handler.getName(),
+                        new HashMap<>()), entryCountPerTenant);
+                executor.execute(() -> {
+                    if (!warmUp(handler, tenantDomain, entries)) {
+                        failedCount.incrementAndGet();
+                    }
+                    logProgress(completedCount.incrementAndGet(), taskCount);
+                });
+            }
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                log.warn("Cache warm up did not complete within " + timeout + " seconds. Continuing the server " +
+                        "startup with " + (taskCount - completedCount.get()) + " of " + taskCount +
+                        " warm up tasks not completed.");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the cache warm up to complete.");
+        }
+        log.info("Cache warm up of " + tenantDomains.size() + " tenants took " + (System.currentTimeMillis() - start) +
+                " ms. Completed tasks : " + completedCount.get() + ", failed tasks : " + failedCount.get() +
+                ", total tasks : " + taskCount);
+    }
+
+    /**
+     * Starts writing the recorded access counts to the snapshot file at the configured interval. This is a no-op if
+     * warm up is disabled, the interval is not positive or the access counts are already being written.
+     */
+    public synchronized void startPersisting() {
+
+        if (!enabled || persistInterval <= 0 || persister != null) {
+            return;
+        }
+        persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persister.scheduleWithFixedDelay(this::persistAccessCounts, persistInterval, persistInterval,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops writing the access counts periodically and writes them a last time.
+     */
+    public void shutdown() {
+
+        synchronized (this) {
+            if (persister != null) {
+                // Let a running write complete, the last write below waits for it.
+                persister.shutdown();
+                persister = null;
+            }
+        }
+        persistAccessCounts();
+    }
+
+    /**
+     * Writes the recorded access counts to the snapshot file, replacing the previous snapshot. This is a no-op if
+     * warm up is disabled or no access was recorded.
+     */
+    public synchronized void persistAccessCounts() {
+
+        if (!enabled || accessCounts.isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // Write to a temporary file first, so that a failure does not leave a partially written snapshot.
+            Path tempFile = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+            int lineCount = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, ConcurrentMap<String, ConcurrentMap<String, LongAdder>>> tenant :
+                        accessCounts.entrySet()) {
+                    for (Map.Entry<String, ConcurrentMap<String, LongAdder>> handler : tenant.getValue().entrySet()) {
+                        for (Map.Entry<String, LongAdder> entry : handler.getValue().entrySet()) {
+                            if (isWritable(tenant.getKey()) && isWritable(handler.getKey()) &&
+                                    isWritable(entry.getKey())) {
+                                writer.write(tenant.getKey() + FIELD_SEPARATOR + handler.getKey() +
+                                        FIELD_SEPARATOR + entry.getKey() + FIELD_SEPARATOR + entry.getValue().sum());
+                                writer.newLine();
+                                lineCount++;
+                            }
+                        }
+                    }
+                }
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (log.isDebugEnabled()) {
+                log.debug("Wrote " + lineCount + " cache access counts to " + snapshotFile);
+            }
+        } catch (IOException e) {
+            log.error("Error while writing the cache access counts to " + snapshotFile, e);
+        }
+    }
+
+    private boolean warmUp(CacheWarmUpHandler handler, String tenantDomain, List<String> entries) {
+
+        long start = System.currentTimeMillis();
+        int tenantId;
+        try {
+            tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+            // Tenants are loaded lazily, on their first request. Load the tenant before starting its flow.
+            IdentityTenantUtil.initializeRegistry(tenantId);
+        } catch (IdentityException | RuntimeException e) {
+            log.warn("Error while loading the tenant : " + tenantDomain + " to warm up the cache of the handler : " +
+                    handler.getName(), e);
+            return false;
+        }
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantDomain(tenantDomain);
+            carbonContext.setTenantId(tenantId);
+            handler.warmUp(tenantDomain, entries);
+            if (log.isDebugEnabled()) {
+                log.debug("Warmed up " + entries.size() + " entries of the handler : " + handler.getName() +
+                        " for the tenant : " + tenantDomain + " in " + (System.currentTimeMillis() - start) + " ms.");
+            }
+            return true;
+        } catch (IdentityException | RuntimeException e) {
+            log.warn("Error while warming up the cache of the handler : " + handler.getName() + " for the tenant : " +
+                    tenantDomain, e);
+            return false;
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void logProgress(int completedCount, int taskCount) {
+
+        // Log at every 10% of the tasks.
+        if (completedCount == taskCount || completedCount * 10 / taskCount != (completedCount - 1) * 10 / taskCount) {
+            log.info("Cache warm up progress : " + completedCount + " of " + taskCount + " tasks completed.");
+        }
+    }
+
+    private Map<String, Map<String, Map<String, Long>>> readSnapshot() {
+
+        Map<String, Map<String, Map<String, Long>>> snapshot = new HashMap<>();
+        if (!Files.isRegularFile(snapshotFile)) {
+            if (log.isDebugEnabled()) {
+                log.debug("No cache access counts found at " + snapshotFile);
+            }
+            return snapshot;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(FIELD_SEPARATOR);
+                if (fields.length != 4) {
+                    continue;
+                }
+                try {
+                    snapshot.computeIfAbsent(fields[0], tenant -> new HashMap<>())
+                            .computeIfAbsent(fields[1], handler -> new HashMap<>())
+                            .merge(fields[2], Long.parseLong(fields[3]), Long::sum);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid cache access count : " + line + " in " + snapshotFile);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error while reading the cache access counts from " + snapshotFile, e);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Halves the access counts of the snapshot and adds them to the recorded access counts.
+     */
+    private void carryOver(Map<String, Map<String, Map<String, Long>>> snapshot) {
+
+        for (Map.Entry<String, Map<String, Map<String, Long>>> tenant : snapshot.entrySet()) {
+            for (Map.Entry<String, Map<String, Long>> handler : tenant.getValue().entrySet()) {
+                ConcurrentMap<String, LongAdder> entryCounts = null;
+                for (String entry : getMostAccessed(handler.getValue(), entryCountPerTenant)) {
+                    long count = handler.getValue().get(entry) / 2;
+                    if (count > 0) {
+                        if (entryCounts == null) {
+                            entryCounts = getEntryCounts(tenant.getKey(), handler.getKey());
+                        }
+                        entryCounts.computeIfAbsent(entry, key -> new LongAdder()).add(count);
+                    }
+                }
+            }
+        }
+    }
+
+    private ConcurrentMap<String, LongAdder> getEntryCounts(String tenantDomain, String handlerName) {
+
+        ConcurrentMap<String, ConcurrentMap<String, LongAdder>> tenantCounts = accessCounts.get(tenantDomain);
+        if (tenantCounts == null) {
+            tenantCounts = accessCounts.computeIfAbsent(tenantDomain, key -> new ConcurrentHashMap<>());
+        }
+        ConcurrentMap<String, LongAdder> entryCounts = tenantCounts.get(handlerName);
+        if (entryCounts == null) {
+            entryCounts = tenantCounts.computeIfAbsent(handlerName, key -> new ConcurrentHashMap<>());
+        }
+        return entryCounts;
+    }
+
+    private static List<String> getMostAccessed(Map<String, Long> counts, int limit) {
+
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isWritable(String field) {
+
+        return !StringUtils.containsAny(field, FIELD_SEPARATOR + "\r\n");
+    }
+
+    private static int getIntProperty(String key, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(key);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value: " + value + " for " + key + ". Using the default value: " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static Path getSnapshotFile() {
+
+        String snapshotFile = IdentityUtil.getProperty(IdentityCoreConstants.CacheWarmUp.SNAPSHOT_FILE);
+        if (StringUtils.isNotBlank(snapshotFile)) {
+            return Paths.get(snapshotFile.trim());
+        }
+        return Paths.get(CarbonUtils.getCarbonHome(), IdentityCoreConstants.CacheWarmUp.DEFAULT_SNAPSHOT_FILE);
+    }
+}
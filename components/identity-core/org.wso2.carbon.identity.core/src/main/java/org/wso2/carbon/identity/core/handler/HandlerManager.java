@@ -23,19 +23,38 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.core.bean.context.MessageContext;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.Collections.sort;
 
 /**
  * HandlerManager class can be used to get the correct handlers just before execute it either
  * list or first priority one
+ * <p>
+ * Handler chains are sorted and filtered once per set of handlers and message context class, and cached until
+ * {@link #invalidateHandlerChains()} is called. Priority and enablement of handlers come from the event listener
+ * configuration, so the cache is invalidated when the configuration is reloaded. A chain is identified by its handler
+ * instances, hence a list with an added or removed handler is sorted again; bundles which keep handler lists should
+ * still invalidate the cache when a handler service is bound or unbound, to drop the stale chains.
+ * <p>
+ * Handlers which override {@link AbstractIdentityHandler#getPriority()} or {@link AbstractIdentityHandler#isEnabled()},
+ * and message handlers which override {@link AbstractIdentityMessageHandler#getPriority(MessageContext)} or
+ * {@link AbstractIdentityMessageHandler#isEnabled(MessageContext)}, may decide per call, hence chains containing them
+ * are sorted on each call.
  */
 public class HandlerManager {
 
+    private static final int MAX_CACHED_HANDLER_CHAINS = 256;
+
     private static Log log = LogFactory.getLog(AbstractIdentityMessageHandler.class);
     private static HandlerManager handlerManager = new HandlerManager();
 
+    private final ConcurrentMap<HandlerChainKey, HandlerChain<?>> handlerChains = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Boolean> contextIndependentHandlers = new ConcurrentHashMap<>();
+
     private HandlerManager(){
 
     }
@@ -47,6 +66,18 @@ public class HandlerManager {
         return HandlerManager.handlerManager ;
     }
 
+    /**
+     * Clears the cached handler chains. Has to be called when a handler is added to or removed from a handler list,
+     * or when the priority or enablement of a handler changes.
+     */
+    public void invalidateHandlerChains() {
+
+        handlerChains.clear();
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated the cached handler chains.");
+        }
+    }
+
     /**
      * Get the first priority handler after sort and filter the enabled handlers.
      *
@@ -62,22 +93,12 @@ public class HandlerManager {
         if(identityHandlers == null || identityHandlers.isEmpty()){
             return null ;
         }
-        T identityHandler = null;
 
-        sort(identityHandlers, new HandlerComparator());
+        HandlerChain<T> handlerChain = getHandlerChain(identityHandlers);
+        List<T> handlers = isEnableHandlersOnly ? handlerChain.getEnabledHandlers() : handlerChain.getHandlers();
+        T identityHandler = handlers.isEmpty() ? null : handlers.get(0);
 
-        for (T identityHandlerTmp : identityHandlers) {
-            if (isEnableHandlersOnly) {
-                if (identityHandlerTmp.isEnabled()) {
-                    identityHandler = identityHandlerTmp;
-                    break;
-                }
-            } else {
-                identityHandler = identityHandlerTmp;
-                break;
-            }
-        }
-        if(log.isDebugEnabled()){
+        if(log.isDebugEnabled() && identityHandler != null){
             log.debug("Get first priority handler : " + identityHandler.getName() + "(" +
                     identityHandler.getClass().getName() + ")");
         }
@@ -99,17 +120,8 @@ public class HandlerManager {
         if(identityHandlers == null || identityHandlers.isEmpty()){
             return new ArrayList<T>()  ;
         }
-        List<T> identityHandlersList = identityHandlers;
-        sort(identityHandlersList, new HandlerComparator());
-        if (isEnableHandlersOnly) {
-            identityHandlersList = new ArrayList<>();
-            for (IdentityHandler identityHandler : identityHandlers) {
-                if (identityHandler.isEnabled()) {
-                    identityHandlersList.add((T)identityHandler);
-                }
-            }
-        }
-        return identityHandlersList;
+        HandlerChain<T> handlerChain = getHandlerChain(identityHandlers);
+        return new ArrayList<>(isEnableHandlersOnly ? handlerChain.getEnabledHandlers() : handlerChain.getHandlers());
     }
 
     /**
@@ -130,24 +142,15 @@ public class HandlerManager {
         }
         T1 identityMessageHandler = null;
 
-        sort(identityMessageHandlers, new MessageHandlerComparator(messageContext));
-
-        for (T1 identityHandlerTmp : identityMessageHandlers) {
-            if (isEnableHandlersOnly) {
-                if (identityHandlerTmp.isEnabled(messageContext)) {
-                    if (identityHandlerTmp.canHandle(messageContext)) {
-                        identityMessageHandler = identityHandlerTmp;
-                        break;
-                    }
-                }
-            } else {
-                if (identityHandlerTmp.canHandle(messageContext)) {
-                    identityMessageHandler = identityHandlerTmp;
-                    break;
-                }
+        HandlerChain<T1> handlerChain = getHandlerChain(identityMessageHandlers, messageContext);
+        List<T1> handlers = isEnableHandlersOnly ? handlerChain.getEnabledHandlers() : handlerChain.getHandlers();
+        for (T1 identityHandlerTmp : handlers) {
+            if (identityHandlerTmp.canHandle(messageContext)) {
+                identityMessageHandler = identityHandlerTmp;
+                break;
             }
         }
-        if(log.isDebugEnabled()){
+        if(log.isDebugEnabled() && identityMessageHandler != null){
             log.debug("Get first priority handler : " + identityMessageHandler.getName() + "(" +
                     identityMessageHandler.getClass().getName() + ")");
         }
@@ -172,18 +175,194 @@ public class HandlerManager {
         if(identityMessageHandlers == null || identityMessageHandlers.isEmpty()){
             return new ArrayList<T1>()  ;
         }
-        List<T1> identityMessageHandlerList = identityMessageHandlers;
-        sort(identityMessageHandlerList, new MessageHandlerComparator(messageContext));
-        if (isEnableHandlersOnly) {
-            identityMessageHandlerList = new ArrayList<>();
-            for (T1 identityMessageHandler : identityMessageHandlers) {
-                if (identityMessageHandler.isEnabled(messageContext)) {
-                    identityMessageHandlerList.add(identityMessageHandler);
+        HandlerChain<T1> handlerChain = getHandlerChain(identityMessageHandlers, messageContext);
+        return new ArrayList<>(isEnableHandlersOnly ? handlerChain.getEnabledHandlers() : handlerChain.getHandlers());
+    }
+
+    private <T extends IdentityHandler> HandlerChain<T> getHandlerChain(List<T> identityHandlers) {
+
+        Object[] handlers = identityHandlers.toArray();
+        boolean cacheable = isContextIndependent(handlers);
+
+        HandlerChainKey key = null;
+        if (cacheable) {
+            key = new HandlerChainKey(handlers, null);
+            HandlerChain<T> handlerChain = (HandlerChain<T>) handlerChains.get(key);
+            if (handlerChain != null) {
+                return handlerChain;
+            }
+        }
+
+        List<T> sortedHandlers = new ArrayList<>(identityHandlers);
+        sort(sortedHandlers, new HandlerComparator());
+        List<T> enabledHandlers = new ArrayList<>();
+        for (T identityHandler : sortedHandlers) {
+            if (identityHandler.isEnabled()) {
+                enabledHandlers.add(identityHandler);
+            }
+        }
+        HandlerChain<T> handlerChain = new HandlerChain<>(sortedHandlers, enabledHandlers);
+        if (cacheable) {
+            cacheHandlerChain(key, handlerChain);
+        }
+        return handlerChain;
+    }
+
+    private <T extends IdentityMessageHandler> HandlerChain<T> getHandlerChain(List<T> identityMessageHandlers,
+                                                                                MessageContext messageContext) {
+
+        Object[] handlers = identityMessageHandlers.toArray();
+        boolean cacheable = isContextIndependent(handlers);
+
+        HandlerChainKey key = null;
+        if (cacheable) {
+            key = new HandlerChainKey(handlers, messageContext != null ? messageContext.getClass() :
+                    MessageContext.class);
+            HandlerChain<T> handlerChain = (HandlerChain<T>) handlerChains.get(key);
+            if (handlerChain != null) {
+                return handlerChain;
+            }
+        }
+
+        List<T> sortedHandlers = new ArrayList<>(identityMessageHandlers);
+        sort(sortedHandlers, new MessageHandlerComparator(messageContext));
+        List<T> enabledHandlers = new ArrayList<>();
+        for (T identityMessageHandler : sortedHandlers) {
+            if (identityMessageHandler.isEnabled(messageContext)) {
+                enabledHandlers.add(identityMessageHandler);
+            }
+        }
+        HandlerChain<T> handlerChain = new HandlerChain<>(sortedHandlers, enabledHandlers);
+        if (cacheable) {
+            cacheHandlerChain(key, handlerChain);
+        }
+        return handlerChain;
+    }
+
+    private void cacheHandlerChain(HandlerChainKey key, HandlerChain<?> handlerChain) {
+
+        if (handlerChains.size() >= MAX_CACHED_HANDLER_CHAINS) {
+            // Handler lists which are rebuilt on each call would otherwise grow the cache without a bound.
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum number of cached handler chains reached. Clearing the cached handler chains.");
+            }
+            handlerChains.clear();
+        }
+        handlerChains.put(key, handlerChain);
+    }
+
+    private boolean isContextIndependent(Object[] handlers) {
+
+        for (Object handler : handlers) {
+            if (!isContextIndependent(handler.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handlers which take the priority and enablement from the event listener configuration sort the same way for
+     * every call.
+     */
+    private boolean isContextIndependent(Class<?> handlerClass) {
+
+        Boolean contextIndependent = contextIndependentHandlers.get(handlerClass);
+        if (contextIndependent == null) {
+            try {
+                if (IdentityMessageHandler.class.isAssignableFrom(handlerClass)) {
+                    contextIndependent = isConfigured(handlerClass, AbstractIdentityMessageHandler.class,
+                            MessageContext.class);
+                } else {
+                    contextIndependent = isConfigured(handlerClass, AbstractIdentityHandler.class);
                 }
+            } catch (NoSuchMethodException e) {
+                contextIndependent = false;
             }
+            contextIndependentHandlers.put(handlerClass, contextIndependent);
         }
-        return identityMessageHandlerList;
+        return contextIndependent;
     }
 
+    private static boolean isConfigured(Class<?> handlerClass, Class<?> configuredHandlerClass,
+                                        Class<?>... parameterTypes) throws NoSuchMethodException {
+
+        return handlerClass.getMethod("getPriority", parameterTypes).getDeclaringClass() == configuredHandlerClass &&
+                handlerClass.getMethod("isEnabled", parameterTypes).getDeclaringClass() == configuredHandlerClass;
+    }
 
+    /**
+     * Identifies a handler chain by its handler instances, in the order of the given list, and the message context
+     * class.
+     */
+    private static final class HandlerChainKey {
+
+        private final Object[] handlers;
+        private final Class<?> contextClass;
+        private final int hashCode;
+
+        private HandlerChainKey(Object[] handlers, Class<?> contextClass) {
+
+            this.handlers = handlers;
+            this.contextClass = contextClass;
+            int hash = contextClass != null ? contextClass.hashCode() : 0;
+            for (Object handler : handlers) {
+                hash = 31 * hash + System.identityHashCode(handler);
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HandlerChainKey)) {
+                return false;
+            }
+            HandlerChainKey that = (HandlerChainKey) o;
+            if (hashCode != that.hashCode || contextClass != that.contextClass ||
+                    handlers.length != that.handlers.length) {
+                return false;
+            }
+            for (int i = 0; i < handlers.length; i++) {
+                if (handlers[i] != that.handlers[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hashCode;
+        }
+    }
+
+    /**
+     * Sorted handlers of a chain, and the enabled ones among them.
+     */
+    private static final class HandlerChain<T> {
+
+        private final List<T> handlers;
+        private final List<T> enabledHandlers;
+
+        private HandlerChain(List<T> handlers, List<T> enabledHandlers) {
+
+            this.handlers = Collections.unmodifiableList(handlers);
+            this.enabledHandlers = Collections.unmodifiableList(enabledHandlers);
+        }
+
+        private List<T> getHandlers() {
+
+            return handlers;
+        }
+
+        private List<T> getEnabledHandlers() {
+
+            return enabledHandlers;
+        }
+    }
 }
@@ -29,11 +29,14 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.base.api.ServerConfigurationService;
+import org.wso2.carbon.core.ServerStartupObserver;
 import org.wso2.carbon.core.util.KeyStoreManager;
 import org.wso2.carbon.identity.base.IdentityConstants;
 import org.wso2.carbon.identity.core.KeyProviderService;
 import org.wso2.carbon.identity.core.KeyStoreManagerExtension;
 import org.wso2.carbon.identity.core.ServiceURLBuilderFactory;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpService;
 import org.wso2.carbon.identity.core.migrate.MigrationClient;
 import org.wso2.carbon.identity.core.migrate.MigrationClientException;
 import org.wso2.carbon.identity.core.persistence.JDBCPersistenceManager;
@@ -49,6 +52,9 @@ import org.wso2.carbon.registry.core.service.TenantRegistryLoader;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 @Component(
         name = "identity.core.component",
         immediate = true
@@ -61,6 +67,7 @@ public class IdentityCoreServiceComponent {
     private static BundleContext bundleContext = null;
     private static ConfigurationContextService configurationContextService = null;
     private static ServiceURLBuilderFactory serviceURLBuilderFactory = new ServiceURLBuilderFactory();
+    private static List<CacheWarmUpHandler> cacheWarmUpHandlers = new CopyOnWriteArrayList<>();
     private ServiceRegistration<KeyProviderService> defaultKeystoreManagerServiceRef;
     private DefaultKeystoreManagerExtension defaultKeystoreManagerExtension = new DefaultKeystoreManagerExtension();
     private DefaultKeyProviderService defaultKeyProviderService;
@@ -176,6 +183,10 @@ public class IdentityCoreServiceComponent {
 
             defaultKeystoreManagerServiceRef = ctxt.getBundleContext().registerService(KeyProviderService.class,
                     defaultKeyProviderService, null);
+
+            // Warm up the caches before the server starts accepting requests.
+            ctxt.getBundleContext().registerService(ServerStartupObserver.class.getName(),
+                    new CacheWarmUpStartupObserver(), null);
         } catch (MigrationClientException e) {
             // Throwing migration client exception to wait till migration client implementation bundle starts if
             // -Dmigrate option is used.
@@ -190,6 +201,7 @@ public class IdentityCoreServiceComponent {
      */
     @Deactivate
     protected void deactivate(ComponentContext ctxt) {
+        CacheWarmUpService.getInstance().shutdown();
         defaultKeystoreManagerServiceRef.unregister();
         IdentityTenantUtil.setBundleContext(null);
         if (log.isDebugEnabled()) {
@@ -347,4 +359,29 @@ public class IdentityCoreServiceComponent {
 
         return serviceURLBuilderFactory;
     }
+
+    @Reference(
+            name = "cache.warmup.handler",
+            service = CacheWarmUpHandler.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unsetCacheWarmUpHandler"
+    )
+    protected void setCacheWarmUpHandler(CacheWarmUpHandler cacheWarmUpHandler) {
+
+        cacheWarmUpHandlers.add(cacheWarmUpHandler);
+        if (log.isDebugEnabled()) {
+            log.debug("CacheWarmUpHandler : " + cacheWarmUpHandler.getName() + " is registered.");
+        }
+    }
+
+    protected void unsetCacheWarmUpHandler(CacheWarmUpHandler cacheWarmUpHandler) {
+
+        cacheWarmUpHandlers.remove(cacheWarmUpHandler);
+    }
+
+    public static List<CacheWarmUpHandler> getCacheWarmUpHandlers() {
+
+        return cacheWarmUpHandlers;
+    }
 }
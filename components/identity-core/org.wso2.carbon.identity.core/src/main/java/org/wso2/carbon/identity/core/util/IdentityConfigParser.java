@@ -60,6 +60,9 @@ public class IdentityConfigParser {
     private static Map<String, LegacyFeatureConfig> legacyFeatureConfigurationHolder = new HashMap<>();
     public final static String IS_DISTRIBUTED_CACHE = "isDistributed";
     public static final String IS_TEMPORARY = "isTemporary";
+    public static final String NEAR_CACHE = "nearCache";
+    public static final String NEAR_CACHE_CAPACITY = "nearCacheCapacity";
+    public static final String NEAR_CACHE_TIMEOUT = "nearCacheTimeout";
     private static final String SERVICE_PROVIDER_CACHE = "ServiceProviderCache";
     private static final String SERVICE_PROVIDER_AUTH_KEY_CACHE = "ServiceProvideCache.InboundAuth";
     private static final String SERVICE_PROVIDER_ID_CACHE = "ServiceProviderCache.ID";
@@ -306,6 +309,21 @@ public class IdentityConfigParser {
                                 identityCacheConfig.setTemporary(Boolean.parseBoolean(isTemporaryCache));
                             }
 
+                            String isNearCache = cache.getAttributeValue(new QName(NEAR_CACHE));
+                            if (StringUtils.isNotBlank(isNearCache)) {
+                                identityCacheConfig.setNearCacheEnabled(Boolean.parseBoolean(isNearCache));
+                            }
+
+                            String nearCacheCapacity = cache.getAttributeValue(new QName(NEAR_CACHE_CAPACITY));
+                            if (StringUtils.isNotBlank(nearCacheCapacity)) {
+                                identityCacheConfig.setNearCacheCapacity(Integer.parseInt(nearCacheCapacity));
+                            }
+
+                            String nearCacheTimeout = cache.getAttributeValue(new QName(NEAR_CACHE_TIMEOUT));
+                            if (StringUtils.isNotBlank(nearCacheTimeout)) {
+                                identityCacheConfig.setNearCacheTimeout(Integer.parseInt(nearCacheTimeout));
+                            }
+
                             // Add the config to container
                             identityCacheConfigurationHolder.put(identityCacheConfigKey, identityCacheConfig);
                         }
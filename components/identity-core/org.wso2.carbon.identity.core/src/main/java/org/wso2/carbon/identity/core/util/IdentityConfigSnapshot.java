@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable view of the identity.xml configuration, with the placeholders of the values resolved and the values
+ * parsed into numbers, booleans and durations once, when the snapshot is created. Reading a value does not allocate.
+ * <p>
+ * A value whose placeholders cannot be resolved when the snapshot is created, for example because the transports
+ * or the port system properties are not available yet, is resolved on each read instead.
+ */
+public final class IdentityConfigSnapshot {
+
+    private static final Log log = LogFactory.getLog(IdentityConfigSnapshot.class);
+    private static final String PLACEHOLDER_PREFIX = "${";
+    private static final String[] DURATION_SUFFIXES = {"ms", "s", "m", "h", "d"};
+    private static final TimeUnit[] DURATION_UNITS = {TimeUnit.MILLISECONDS, TimeUnit.SECONDS, TimeUnit.MINUTES,
+            TimeUnit.HOURS, TimeUnit.DAYS};
+
+    private final Map<String, Object> source;
+    private final Map<String, Entry> entries;
+
+    IdentityConfigSnapshot(Map<String, Object> source) {
+
+        this.source = source;
+        Map<String, Entry> entries = new HashMap<>(source.size() * 2);
+        for (Map.Entry<String, Object> property : source.entrySet()) {
+            if (property.getValue() != null) {
+                entries.put(property.getKey(), createEntry(property.getKey(), property.getValue()));
+            }
+        }
+        this.entries = entries;
+    }
+
+    /**
+     * @param key Property name, as in {@link IdentityUtil#getProperty(String)}.
+     * @return Resolved value of the property, the first value if it has many, or null if it is not configured.
+     */
+    public String getString(String key) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return entry.resolved ? entry.value : IdentityUtil.fillURLPlaceholders(entry.value);
+    }
+
+    /**
+     * @param key Property name.
+     * @return Resolved values of the property, or an empty list if it is not configured.
+     */
+    public List<String> getList(String key) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        if (entry.resolved) {
+            return entry.values;
+        }
+        List<String> values = new ArrayList<>(entry.values.size());
+        for (String value : entry.values) {
+            values.add(IdentityUtil.fillURLPlaceholders(value));
+        }
+        return values;
+    }
+
+    /**
+     * @param key          Property name.
+     * @param defaultValue Value to return if the property is not configured or is not a non negative integer.
+     * @return Integer value of the property.
+     */
+    public int getInt(String key, int defaultValue) {
+
+        long value = getLong(key, Long.MIN_VALUE);
+        if (value == Long.MIN_VALUE || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    /**
+     * @param key          Property name.
+     * @param defaultValue Value to return if the property is not configured or is not a non negative number, as
+     *                     per {@link StringUtils#isNumeric(String)}.
+     * @return Long value of the property.
+     */
+    public long getLong(String key, long defaultValue) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return defaultValue;
+        }
+        if (entry.resolved) {
+            return entry.numeric ? entry.longValue : defaultValue;
+        }
+        return parseLong(getString(key), defaultValue);
+    }
+
+    /**
+     * @param key          Property name.
+     * @param defaultValue Value to return if the property is not configured or is blank.
+     * @return Boolean value of the property, as per {@link Boolean#parseBoolean(String)}.
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+
+        String value = getString(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        Entry entry = entries.get(key);
+        return entry.resolved ? entry.booleanValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Reads a duration, configured either as a number in the given unit or as a number with one of the ms, s, m, h
+     * and d suffixes.
+     *
+     * @param key          Property name.
+     * @param unit         Unit of the returned duration, and of the configured value if it has no suffix.
+     * @param defaultValue Value to return if the property is not configured or is not a duration.
+     * @return Duration in the given unit.
+     */
+    public long getDuration(String key, TimeUnit unit, long defaultValue) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return defaultValue;
+        }
+        if (entry.resolved) {
+            if (entry.durationAmount < 0) {
+                return defaultValue;
+            }
+            return entry.durationUnit == null ? entry.durationAmount :
+                    unit.convert(entry.durationAmount, entry.durationUnit);
+        }
+        Entry resolvedEntry = new Entry(getString(key), Collections.<String>emptyList(), true);
+        return resolvedEntry.durationAmount < 0 ? defaultValue : resolvedEntry.durationUnit == null ?
+                resolvedEntry.durationAmount : unit.convert(resolvedEntry.durationAmount, resolvedEntry.durationUnit);
+    }
+
+    /**
+     * @return Configuration map this snapshot was created from.
+     */
+    Map<String, Object> getSource() {
+
+        return source;
+    }
+
+    private static Entry createEntry(String key, Object value) {
+
+        List<String> rawValues = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                rawValues.add(item instanceof String ? (String) item : String.valueOf(item));
+            }
+        } else {
+            rawValues.add(value instanceof String ? (String) value : String.valueOf(value));
+        }
+
+        try {
+            List<String> values = new ArrayList<>(rawValues.size());
+            for (String rawValue : rawValues) {
+                String resolvedValue = IdentityUtil.fillURLPlaceholders(rawValue);
+                if (StringUtils.contains(resolvedValue, PLACEHOLDER_PREFIX)) {
+                    // A placeholder whose value is not available yet is left as it is.
+                    return createUnresolvedEntry(key, rawValues, null);
+                }
+                values.add(resolvedValue);
+            }
+            return new Entry(values.isEmpty() ? null : values.get(0), Collections.unmodifiableList(values), true);
+        } catch (RuntimeException e) {
+            return createUnresolvedEntry(key, rawValues, e);
+        }
+    }
+
+    private static Entry createUnresolvedEntry(String key, List<String> rawValues, RuntimeException e) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Placeholders of property : " + key + " cannot be resolved yet. The property will be " +
+                    "resolved when it is read.", e);
+        }
+        return new Entry(rawValues.isEmpty() ? null : rawValues.get(0), Collections.unmodifiableList(rawValues),
+                false);
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+
+        return isLong(value) ? Long.parseLong(value) : defaultValue;
+    }
+
+    /**
+     * Whether the value is made of digits only and fits in a long. Signs and surrounding whitespace are not
+     * accepted, as with the {@link StringUtils#isNumeric(String)} check the numeric properties were read with.
+     */
+    private static boolean isLong(String value) {
+
+        return StringUtils.isNotEmpty(value) && value.length() <= 18 && StringUtils.isNumeric(value);
+    }
+
+    /**
+     * A property along with its parsed forms.
+     */
+    private static final class Entry {
+
+        private final String value;
+        private final List<String> values;
+        private final boolean resolved;
+        private final boolean numeric;
+        private final long longValue;
+        private final boolean booleanValue;
+        // Negative if the value is not a duration.
+        private final long durationAmount;
+        // Null if the value has no unit suffix.
+        private final TimeUnit durationUnit;
+
+        private Entry(String value, List<String> values, boolean resolved) {
+
+            this.value = value;
+            this.values = values;
+            this.resolved = resolved;
+            String trimmedValue = StringUtils.trimToEmpty(value);
+            this.numeric = isLong(value);
+            this.longValue = numeric ? Long.parseLong(value) : 0;
+            this.booleanValue = Boolean.parseBoolean(trimmedValue);
+
+            long amount = -1;
+            TimeUnit unit = null;
+            if (isLong(trimmedValue)) {
+                amount = Long.parseLong(trimmedValue);
+            } else {
+                String lowerCaseValue = trimmedValue.toLowerCase(Locale.ENGLISH);
+                for (int i = 0; i < DURATION_SUFFIXES.length; i++) {
+                    if (lowerCaseValue.endsWith(DURATION_SUFFIXES[i])) {
+                        String amountValue = lowerCaseValue.substring(0, lowerCaseValue.length() -
+                                DURATION_SUFFIXES[i].length()).trim();
+                        if (isLong(amountValue)) {
+                            amount = Long.parseLong(amountValue);
+                            unit = DURATION_UNITS[i];
+                        }
+                        break;
+                    }
+                }
+            }
+            this.durationAmount = amount;
+            this.durationUnit = unit;
+        }
+    }
+}
@@ -78,6 +78,27 @@ public class IdentityCoreConstants {
         public static final String NOT = "not";
     }
 
+    public static class CacheWarmUp {
+
+        public static final String ENABLE = "CacheWarmUp.Enable";
+        public static final String TENANT_COUNT = "CacheWarmUp.TenantCount";
+        public static final String ENTRY_COUNT_PER_TENANT = "CacheWarmUp.EntryCountPerTenant";
+        public static final String POOL_SIZE = "CacheWarmUp.PoolSize";
+        public static final String TIMEOUT = "CacheWarmUp.Timeout";
+        public static final String SNAPSHOT_FILE = "CacheWarmUp.SnapshotFile";
+        public static final String PERSIST_INTERVAL = "CacheWarmUp.PersistInterval";
+
+        public static final int DEFAULT_TENANT_COUNT = 10;
+        public static final int DEFAULT_ENTRY_COUNT_PER_TENANT = 100;
+        public static final int DEFAULT_POOL_SIZE = 4;
+        // Timeout in seconds.
+        public static final int DEFAULT_TIMEOUT = 120;
+        // Interval in seconds.
+        public static final int DEFAULT_PERSIST_INTERVAL = 300;
+        // Relative to the carbon home.
+        public static final String DEFAULT_SNAPSHOT_FILE = "repository/data/identity/cache-access-counts.txt";
+    }
+
     public static enum UserStoreState {
 
         ENABLED, DISABLED
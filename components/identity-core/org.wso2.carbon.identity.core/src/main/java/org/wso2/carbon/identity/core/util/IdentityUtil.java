@@ -18,6 +18,7 @@
 package org.wso2.carbon.identity.core.util;
 
 import com.ibm.wsdl.util.xml.DOM2Writer;
+import org.apache.axis2.clustering.ClusteringAgent;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections.MapUtils;
@@ -52,6 +53,7 @@ import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.UserStoreManager;
 import org.wso2.carbon.utils.CarbonUtils;
+import org.wso2.carbon.utils.ConfigurationContextService;
 import org.wso2.carbon.utils.NetworkUtils;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import sun.security.provider.X509Factory;
@@ -72,7 +74,6 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -113,6 +114,7 @@ public class IdentityUtil {
     private static final String ENABLE_EMAIL_USERNAME = "EnableEmailUserName";
     private static Log log = LogFactory.getLog(IdentityUtil.class);
     private static Map<String, Object> configuration = new HashMap<>();
+    private static volatile IdentityConfigSnapshot configSnapshot = new IdentityConfigSnapshot(configuration);
     private static Map<IdentityEventListenerConfigKey, IdentityEventListenerConfig> eventListenerConfiguration = new
             HashMap<>();
     private static Map<IdentityCacheConfigKey, IdentityCacheConfig> identityCacheConfigurationHolder = new HashMap<>();
@@ -166,22 +168,33 @@ public class IdentityUtil {
      */
     public static String getProperty(String key) {
 
-        Object value = configuration.get(key);
-        String strValue;
+        return getConfigSnapshot().getString(key);
+    }
 
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof List) {
-            value = ((List) value).get(0);
-        }
-        if (value instanceof String) {
-            strValue = (String) value;
-        } else {
-            strValue = String.valueOf(value);
+    /**
+     * Returns the resolved and parsed snapshot of the identity configuration. Prefer its typed getters over parsing
+     * the value of {@link #getProperty(String)} on each call.
+     *
+     * @return Configuration snapshot.
+     */
+    public static IdentityConfigSnapshot getConfigSnapshot() {
+
+        IdentityConfigSnapshot snapshot = configSnapshot;
+        if (snapshot.getSource() != configuration) {
+            // The configuration was replaced without going through populateProperties.
+            snapshot = new IdentityConfigSnapshot(configuration);
+            configSnapshot = snapshot;
         }
-        strValue = fillURLPlaceholders(strValue);
-        return strValue;
+        return snapshot;
+    }
+
+    /**
+     * Resolves the placeholders of the identity configuration again, and replaces the configuration snapshot with
+     * the result. Readers see either the previous or the new snapshot as a whole.
+     */
+    public static void reloadConfigSnapshot() {
+
+        configSnapshot = new IdentityConfigSnapshot(configuration);
     }
 
     public static IdentityEventListenerConfig readEventListenerProperty(String type, String name) {
@@ -284,11 +297,14 @@ public class IdentityUtil {
 
     public static void populateProperties() {
         configuration = IdentityConfigParser.getInstance().getConfiguration();
+        configSnapshot = new IdentityConfigSnapshot(configuration);
         eventListenerConfiguration = IdentityConfigParser.getInstance().getEventListenerConfiguration();
         identityCacheConfigurationHolder = IdentityConfigParser.getInstance().getIdentityCacheConfigurationHolder();
         identityCookiesConfigurationHolder = IdentityConfigParser.getIdentityCookieConfigurationHolder();
         legacyFeatureConfigurationHolder = IdentityConfigParser.getLegacyFeatureConfigurationHolder();
         reverseProxyConfigurationHolder = IdentityConfigParser.getInstance().getReverseProxyConfigurationHolder();
+        // Handler chains are sorted by the priorities of the previous event listener configuration.
+        HandlerManager.getInstance().invalidateHandlerChains();
     }
 
     public static String getPPIDDisplayValue(String value) throws Exception {
@@ -521,6 +537,21 @@ public class IdentityUtil {
         return IdentityCoreServiceComponent.getConfigurationContextService().getServerConfigContext().getServicePath();
     }
 
+    /**
+     * Get the clustering agent of the server.
+     *
+     * @return ClusteringAgent or null if clustering is not enabled
+     */
+    public static ClusteringAgent getClusteringAgent() {
+
+        ConfigurationContextService configurationContextService =
+                IdentityCoreServiceComponent.getConfigurationContextService();
+        if (configurationContextService == null || configurationContextService.getServerConfigContext() == null) {
+            return null;
+        }
+        return configurationContextService.getServerConfigContext().getAxisConfiguration().getClusteringAgent();
+    }
+
     /**
      * Create DocumentBuilderFactory with the XXE and XEE prevention measurements.
      *
@@ -701,57 +732,32 @@ public class IdentityUtil {
 
     public static long getCleanUpTimeout() {
 
-        String cleanUpTimeout = IdentityUtil.getProperty(IdentityConstants.ServerConfig.CLEAN_UP_TIMEOUT);
-        if (StringUtils.isBlank(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.CLEAN_UP_TIMEOUT_DEFAULT;
-        } else if (!StringUtils.isNumeric(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.CLEAN_UP_TIMEOUT_DEFAULT;
-        }
-        return Long.parseLong(cleanUpTimeout);
+        return getConfigSnapshot().getLong(IdentityConstants.ServerConfig.CLEAN_UP_TIMEOUT,
+                Long.parseLong(IdentityConstants.ServerConfig.CLEAN_UP_TIMEOUT_DEFAULT));
     }
 
     public static long getCleanUpPeriod(String tenantDomain) {
 
-        String cleanUpPeriod = IdentityUtil.getProperty(IdentityConstants.ServerConfig.CLEAN_UP_PERIOD);
-        if (StringUtils.isBlank(cleanUpPeriod)) {
-            cleanUpPeriod = IdentityConstants.ServerConfig.CLEAN_UP_PERIOD_DEFAULT;
-        } else if (!StringUtils.isNumeric(cleanUpPeriod)) {
-            cleanUpPeriod = IdentityConstants.ServerConfig.CLEAN_UP_PERIOD_DEFAULT;
-        }
-        return Long.parseLong(cleanUpPeriod);
+        return getConfigSnapshot().getLong(IdentityConstants.ServerConfig.CLEAN_UP_PERIOD,
+                Long.parseLong(IdentityConstants.ServerConfig.CLEAN_UP_PERIOD_DEFAULT));
     }
 
     public static long getOperationCleanUpTimeout() {
 
-        String cleanUpTimeout = IdentityUtil.getProperty(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_TIMEOUT);
-        if (StringUtils.isBlank(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_TIMEOUT_DEFAULT;
-        } else if (!StringUtils.isNumeric(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_TIMEOUT_DEFAULT;
-        }
-        return Long.parseLong(cleanUpTimeout);
+        return getConfigSnapshot().getLong(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_TIMEOUT,
+                Long.parseLong(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_TIMEOUT_DEFAULT));
     }
 
     public static long getTempDataCleanUpTimeout() {
 
-        String cleanUpTimeout = IdentityUtil.getProperty(IdentityConstants.ServerConfig.TEMP_DATA_CLEAN_UP_TIMEOUT);
-        if (StringUtils.isBlank(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.TEMP_DATA_CLEAN_UP_TIMEOUT_DEFAULT;
-        } else if (!StringUtils.isNumeric(cleanUpTimeout)) {
-            cleanUpTimeout = IdentityConstants.ServerConfig.TEMP_DATA_CLEAN_UP_TIMEOUT_DEFAULT;
-        }
-        return Long.parseLong(cleanUpTimeout);
+        return getConfigSnapshot().getLong(IdentityConstants.ServerConfig.TEMP_DATA_CLEAN_UP_TIMEOUT,
+                Long.parseLong(IdentityConstants.ServerConfig.TEMP_DATA_CLEAN_UP_TIMEOUT_DEFAULT));
     }
 
     public static long getOperationCleanUpPeriod(String tenantDomain) {
 
-        String cleanUpPeriod = IdentityUtil.getProperty(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_PERIOD);
-        if (StringUtils.isBlank(cleanUpPeriod)) {
-            cleanUpPeriod = IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_PERIOD_DEFAULT;
-        } else if (!StringUtils.isNumeric(cleanUpPeriod)) {
-            cleanUpPeriod = IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_PERIOD_DEFAULT;
-        }
-        return Long.parseLong(cleanUpPeriod);
+        return getConfigSnapshot().getLong(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_PERIOD,
+                Long.parseLong(IdentityConstants.ServerConfig.OPERATION_CLEAN_UP_PERIOD_DEFAULT));
     }
 
     public static String extractDomainFromName(String nameWithDomain) {
@@ -1083,11 +1089,8 @@ public class IdentityUtil {
      */
     public static int getClockSkewInSeconds() {
 
-        String clockSkewConfigValue = IdentityUtil.getProperty(IdentityConstants.ServerConfig.CLOCK_SKEW);
-        if (StringUtils.isBlank(clockSkewConfigValue) || !StringUtils.isNumeric(clockSkewConfigValue)) {
-            clockSkewConfigValue = IdentityConstants.ServerConfig.CLOCK_SKEW_DEFAULT;
-        }
-        return Integer.parseInt(clockSkewConfigValue);
+        return getConfigSnapshot().getInt(IdentityConstants.ServerConfig.CLOCK_SKEW,
+                Integer.parseInt(IdentityConstants.ServerConfig.CLOCK_SKEW_DEFAULT));
     }
 
     /**
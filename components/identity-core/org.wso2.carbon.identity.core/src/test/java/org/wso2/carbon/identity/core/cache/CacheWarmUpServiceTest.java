@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@PrepareForTest({PrivilegedCarbonContext.class, IdentityTenantUtil.class})
+public class CacheWarmUpServiceTest {
+
+    private static final String HANDLER_NAME = "TestHandler";
+    private static final String TENANT_A = "a.com";
+    private static final String TENANT_B = "b.com";
+
+    private Path snapshotDirectory;
+    private Path snapshotFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        mockStatic(PrivilegedCarbonContext.class);
+        when(PrivilegedCarbonContext.getThreadLocalCarbonContext()).thenReturn(mock(PrivilegedCarbonContext.class));
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(1);
+
+        snapshotDirectory = Files.createTempDirectory("cache-warmup");
+        snapshotFile = snapshotDirectory.resolve("data").resolve("cache-access-counts.txt");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(snapshotFile.getParent());
+        Files.deleteIfExists(snapshotDirectory);
+    }
+
+    @Test
+    public void testWarmUpMostAccessedEntries() {
+
+        CacheWarmUpService service = createService(true, 10);
+        recordAccesses(service, TENANT_A, "entry1", 3);
+        recordAccesses(service, TENANT_A, "entry2", 5);
+        recordAccesses(service, TENANT_B, "entry3", 1);
+        service.persistAccessCounts();
+        assertTrue(Files.isRegularFile(snapshotFile));
+
+        TestHandler handler = new TestHandler();
+        createService(true, 10).warmUp(Collections.singletonList(handler));
+
+        assertEquals(handler.warmedUpEntries.size(), 2);
+        assertEquals(handler.warmedUpEntries.get(TENANT_A), Arrays.asList("entry2", "entry1"));
+        assertEquals(handler.warmedUpEntries.get(TENANT_B), Collections.singletonList("entry3"));
+    }
+
+    @Test
+    public void testWarmUpMostAccessedTenants() {
+
+        CacheWarmUpService service = createService(true, 1);
+        recordAccesses(service, TENANT_A, "entry1", 2);
+        recordAccesses(service, TENANT_B, "entry2", 3);
+        service.persistAccessCounts();
+
+        TestHandler handler = new TestHandler();
+        createService(true, 1).warmUp(Collections.singletonList(handler));
+
+        assertEquals(handler.warmedUpEntries.keySet(), Collections.singleton(TENANT_B));
+    }
+
+    @Test
+    public void testFailingHandlerDoesNotStopWarmUp() {
+
+        CacheWarmUpService service = createService(true, 10);
+        recordAccesses(service, TENANT_A, "entry1", 1);
+        service.persistAccessCounts();
+
+        TestHandler handler = new TestHandler();
+        CacheWarmUpHandler failingHandler = new CacheWarmUpHandler() {
+
+            @Override
+            public String getName() {
+
+                return "FailingHandler";
+            }
+
+            @Override
+            public void warmUp(String tenantDomain, List<String> entries) throws IdentityException {
+
+                throw new IdentityException("Failed to warm up");
+            }
+        };
+        createService(true, 10).warmUp(Arrays.asList(failingHandler, handler));
+
+        assertEquals(handler.warmedUpEntries.get(TENANT_A), Collections.singletonList("entry1"));
+    }
+
+    @Test
+    public void testAccessCountsAreCarriedOver() throws Exception {
+
+        CacheWarmUpService service = createService(true, 10);
+        recordAccesses(service, TENANT_A, "entry1", 4);
+        recordAccesses(service, TENANT_A, "entry2", 1);
+        service.persistAccessCounts();
+
+        // Counts of the previous snapshot are halved, and entries which are no longer accessed are dropped.
+        CacheWarmUpService nextService = createService(true, 10);
+        nextService.warmUp(Collections.singletonList(new TestHandler()));
+        recordAccesses(nextService, TENANT_B, "entry3", 1);
+        nextService.persistAccessCounts();
+
+        List<String> lines = Files.readAllLines(snapshotFile, StandardCharsets.UTF_8);
+        assertEquals(lines.size(), 2);
+        assertTrue(lines.contains(TENANT_A + "\t" + HANDLER_NAME + "\tentry1\t2"));
+        assertTrue(lines.contains(TENANT_B + "\t" + HANDLER_NAME + "\tentry3\t1"));
+    }
+
+    @Test
+    public void testAccessCountsArePersistedPeriodically() throws Exception {
+
+        CacheWarmUpService service = createService(true, 10, 1);
+        recordAccesses(service, TENANT_A, "entry1", 1);
+        service.startPersisting();
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!Files.isRegularFile(snapshotFile) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(Files.isRegularFile(snapshotFile));
+        } finally {
+            service.shutdown();
+        }
+
+        List<String> lines = Files.readAllLines(snapshotFile, StandardCharsets.UTF_8);
+        assertEquals(lines, Collections.singletonList(TENANT_A + "\t" + HANDLER_NAME + "\tentry1\t1"));
+    }
+
+    @Test
+    public void testWarmUpLoadsTenant() throws Exception {
+
+        CacheWarmUpService service = createService(true, 10);
+        recordAccesses(service, TENANT_A, "entry1", 1);
+        service.persistAccessCounts();
+
+        createService(true, 10).warmUp(Collections.singletonList(new TestHandler()));
+
+        verifyStatic(IdentityTenantUtil.class);
+        IdentityTenantUtil.initializeRegistry(1);
+    }
+
+    @Test
+    public void testDisabled() {
+
+        CacheWarmUpService service = createService(false, 10);
+        recordAccesses(service, TENANT_A, "entry1", 1);
+        service.persistAccessCounts();
+        assertFalse(Files.exists(snapshotFile));
+
+        TestHandler handler = new TestHandler();
+        service.warmUp(Collections.singletonList(handler));
+        assertTrue(handler.warmedUpEntries.isEmpty());
+    }
+
+    private CacheWarmUpService createService(boolean enabled, int tenantCount) {
+
+        return createService(enabled, tenantCount, 0);
+    }
+
+    private CacheWarmUpService createService(boolean enabled, int tenantCount, long persistInterval) {
+
+        return new CacheWarmUpService(enabled, tenantCount, 10, 2, 10, persistInterval, snapshotFile);
+    }
+
+    private void recordAccesses(CacheWarmUpService service, String tenantDomain, String entry, int count) {
+
+        for (int i = 0; i < count; i++) {
+            service.recordAccess(HANDLER_NAME, tenantDomain, entry);
+        }
+    }
+
+    private static class TestHandler implements CacheWarmUpHandler {
+
+        private final Map<String, List<String>> warmedUpEntries = new ConcurrentHashMap<>();
+
+        @Override
+        public String getName() {
+
+            return HANDLER_NAME;
+        }
+
+        @Override
+        public void warmUp(String tenantDomain, List<String> entries) {
+
+            warmedUpEntries.put(tenantDomain, entries);
+        }
+    }
+}
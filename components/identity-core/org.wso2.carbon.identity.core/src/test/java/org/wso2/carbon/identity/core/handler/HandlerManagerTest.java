@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.handler;
+
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.core.model.IdentityEventListenerConfig;
+import org.wso2.carbon.identity.core.model.IdentityEventListenerConfigKey;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class HandlerManagerTest {
+
+    private HandlerManager handlerManager;
+    private Map<IdentityEventListenerConfigKey, IdentityEventListenerConfig> eventListenerConfiguration;
+
+    @BeforeMethod
+    public void setUp() {
+
+        handlerManager = HandlerManager.getInstance();
+        handlerManager.invalidateHandlerChains();
+        eventListenerConfiguration = new HashMap<>();
+        Whitebox.setInternalState(IdentityUtil.class, "eventListenerConfiguration", eventListenerConfiguration);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        handlerManager.invalidateHandlerChains();
+        Whitebox.setInternalState(IdentityUtil.class, "eventListenerConfiguration",
+                new HashMap<IdentityEventListenerConfigKey, IdentityEventListenerConfig>());
+    }
+
+    @Test
+    public void testSortHandlers() {
+
+        TestHandler handler1 = new TestHandler("handler1", 30, true);
+        TestHandler handler2 = new TestHandler("handler2", 10, false);
+        TestHandler handler3 = new TestHandler("handler3", 20, true);
+        List<TestHandler> handlers = Arrays.asList(handler1, handler2, handler3);
+
+        assertEquals(handlerManager.sortHandlers(handlers, false), Arrays.asList(handler2, handler3, handler1));
+        assertEquals(handlerManager.sortHandlers(handlers, true), Arrays.asList(handler3, handler1));
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, false), handler2);
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true), handler3);
+        // The given list is not reordered.
+        assertEquals(handlers, Arrays.asList(handler1, handler2, handler3));
+    }
+
+    @Test
+    public void testHandlerChainIsCached() {
+
+        ConfiguredHandler handler1 = new ConfiguredHandler();
+        ConfiguredHandlerTwo handler2 = new ConfiguredHandlerTwo();
+        List<ConfiguredHandler> handlers = Arrays.asList(handler1, handler2);
+        configureHandler(ConfiguredHandler.class, 10, true);
+        configureHandler(ConfiguredHandlerTwo.class, 20, true);
+
+        List<ConfiguredHandler> sortedHandlers = handlerManager.sortHandlers(handlers, true);
+        assertEquals(sortedHandlers, Arrays.asList(handler1, handler2));
+
+        configureHandler(ConfiguredHandler.class, 30, true);
+        assertEquals(handlerManager.sortHandlers(handlers, true), sortedHandlers,
+                "Handler chain should be served from the cache until it is invalidated.");
+
+        // A returned list does not affect the cached chain.
+        handlerManager.sortHandlers(handlers, true).clear();
+        assertEquals(handlerManager.sortHandlers(handlers, true), sortedHandlers);
+
+        handlerManager.invalidateHandlerChains();
+        assertEquals(handlerManager.sortHandlers(handlers, true), Arrays.asList(handler2, handler1));
+    }
+
+    @Test
+    public void testHandlerWithOwnPriorityIsSortedPerCall() {
+
+        AtomicInteger priorityReads = new AtomicInteger();
+        List<TestHandler> handlers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handlers.add(new TestHandler("handler" + i, 5 - i, true, priorityReads));
+        }
+
+        List<TestHandler> sortedHandlers = handlerManager.sortHandlers(handlers, true);
+        int priorityReadsOfSort = priorityReads.get();
+        assertEquals(handlerManager.sortHandlers(handlers, true), sortedHandlers);
+        assertEquals(priorityReads.get(), 2 * priorityReadsOfSort);
+    }
+
+    @Test
+    public void testAddedHandlerIsSorted() {
+
+        TestHandler handler1 = new TestHandler("handler1", 20, true);
+        TestHandler handler2 = new TestHandler("handler2", 10, true);
+        List<TestHandler> handlers = new ArrayList<>(Collections.singletonList(handler1));
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true), handler1);
+
+        handlers.add(handler2);
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true), handler2);
+
+        handlers.remove(handler2);
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true), handler1);
+    }
+
+    @Test
+    public void testMessageHandlerConfigReload() {
+
+        ConfiguredMessageHandler handler1 = new ConfiguredMessageHandler();
+        ConfiguredMessageHandlerTwo handler2 = new ConfiguredMessageHandlerTwo();
+        List<IdentityMessageHandler> handlers = Arrays.asList(handler1, handler2);
+        TestMessageContext messageContext = new TestMessageContext();
+
+        configureHandler(ConfiguredMessageHandler.class, 10, true);
+        configureHandler(ConfiguredMessageHandlerTwo.class, 20, true);
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, messageContext), handler1);
+
+        configureHandler(ConfiguredMessageHandler.class, 10, false);
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, messageContext), handler1,
+                "Handler chain should be served from the cache until it is invalidated.");
+
+        handlerManager.invalidateHandlerChains();
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, messageContext), handler2);
+        assertEquals(handlerManager.sortHandlers(handlers, false, messageContext), Arrays.asList(handler1, handler2));
+    }
+
+    @Test
+    public void testContextDependentMessageHandlerIsSortedPerCall() {
+
+        ContextDependentMessageHandler handler1 = new ContextDependentMessageHandler();
+        ConfiguredMessageHandler handler2 = new ConfiguredMessageHandler();
+        List<IdentityMessageHandler> handlers = Arrays.asList(handler1, handler2);
+        TestMessageContext messageContext = new TestMessageContext();
+        configureHandler(ConfiguredMessageHandler.class, 50, true);
+
+        handler1.priority = 10;
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, messageContext), handler1);
+        handler1.priority = 100;
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, messageContext), handler2);
+    }
+
+    @Test
+    public void testCanHandleIsCheckedPerCall() {
+
+        ContextDependentMessageHandler handler = new ContextDependentMessageHandler();
+        List<IdentityMessageHandler> handlers = Collections.<IdentityMessageHandler>singletonList(handler);
+
+        handler.canHandle = false;
+        assertNull(handlerManager.getFirstPriorityHandler(handlers, true, new TestMessageContext()));
+        handler.canHandle = true;
+        assertSame(handlerManager.getFirstPriorityHandler(handlers, true, new TestMessageContext()), handler);
+    }
+
+    private void configureHandler(Class<?> handlerClass, int order, boolean enabled) {
+
+        Class<?> configuredHandlerClass = AbstractIdentityMessageHandler.class.isAssignableFrom(handlerClass) ?
+                AbstractIdentityMessageHandler.class : AbstractIdentityHandler.class;
+        IdentityEventListenerConfigKey key = new IdentityEventListenerConfigKey(configuredHandlerClass.getName(),
+                handlerClass.getName());
+        eventListenerConfiguration.put(key, new IdentityEventListenerConfig(String.valueOf(enabled), order, key,
+                null));
+    }
+
+    private static class TestHandler extends AbstractIdentityHandler {
+
+        private final String name;
+        private final int priority;
+        private final boolean enabled;
+        private final AtomicInteger priorityReads;
+
+        private TestHandler(String name, int priority, boolean enabled) {
+
+            this(name, priority, enabled, new AtomicInteger());
+        }
+
+        private TestHandler(String name, int priority, boolean enabled, AtomicInteger priorityReads) {
+
+            this.name = name;
+            this.priority = priority;
+            this.enabled = enabled;
+            this.priorityReads = priorityReads;
+        }
+
+        @Override
+        public String getName() {
+
+            return name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+
+            return enabled;
+        }
+
+        @Override
+        public int getPriority() {
+
+            priorityReads.incrementAndGet();
+            return priority;
+        }
+
+        @Override
+        public String toString() {
+
+            return name;
+        }
+    }
+
+    private static class ConfiguredHandler extends AbstractIdentityHandler {
+
+    }
+
+    private static class ConfiguredHandlerTwo extends ConfiguredHandler {
+
+    }
+
+    private static class ConfiguredMessageHandler extends AbstractIdentityMessageHandler {
+
+        @Override
+        public boolean canHandle(MessageContext messageContext) {
+
+            return true;
+        }
+    }
+
+    private static class ConfiguredMessageHandlerTwo extends ConfiguredMessageHandler {
+
+    }
+
+    private static class ContextDependentMessageHandler extends AbstractIdentityMessageHandler {
+
+        private int priority;
+        private boolean canHandle = true;
+
+        @Override
+        public int getPriority(MessageContext messageContext) {
+
+            return priority;
+        }
+
+        @Override
+        public boolean canHandle(MessageContext messageContext) {
+
+            return canHandle;
+        }
+    }
+
+    private static class TestMessageContext extends MessageContext<String, String> {
+
+    }
+}
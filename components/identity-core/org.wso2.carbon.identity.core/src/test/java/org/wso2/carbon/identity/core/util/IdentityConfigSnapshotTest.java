@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.util;
+
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class IdentityConfigSnapshotTest {
+
+    private static final String SYSTEM_PROPERTY = "identity.config.snapshot.test";
+
+    private Map<String, Object> configuration;
+
+    @BeforeMethod
+    public void setUp() {
+
+        System.setProperty(SYSTEM_PROPERTY, "resolved");
+        configuration = new HashMap<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        System.clearProperty(SYSTEM_PROPERTY);
+    }
+
+    @Test
+    public void testGetString() {
+
+        configuration.put("string", "value");
+        configuration.put("placeholder", "${" + SYSTEM_PROPERTY + "}/path");
+        configuration.put("int", 5);
+        configuration.put("list", Arrays.asList("one", "${" + SYSTEM_PROPERTY + "}"));
+        IdentityConfigSnapshot snapshot = new IdentityConfigSnapshot(configuration);
+
+        assertEquals(snapshot.getString("string"), "value");
+        assertEquals(snapshot.getString("placeholder"), "resolved/path");
+        assertEquals(snapshot.getString("int"), "5");
+        assertEquals(snapshot.getString("list"), "one");
+        assertEquals(snapshot.getList("list"), Arrays.asList("one", "resolved"));
+        assertEquals(snapshot.getList("string"), Collections.singletonList("value"));
+        assertNull(snapshot.getString("missing"));
+        assertTrue(snapshot.getList("missing").isEmpty());
+    }
+
+    @Test
+    public void testUnresolvedPlaceholderIsResolvedOnRead() {
+
+        System.clearProperty(SYSTEM_PROPERTY);
+        configuration.put("placeholder", "${" + SYSTEM_PROPERTY + "}/path");
+        configuration.put("number", "${" + SYSTEM_PROPERTY + "}");
+        IdentityConfigSnapshot snapshot = new IdentityConfigSnapshot(configuration);
+        assertEquals(snapshot.getString("placeholder"), "${" + SYSTEM_PROPERTY + "}/path");
+        assertEquals(snapshot.getLong("number", 7L), 7L);
+
+        System.setProperty(SYSTEM_PROPERTY, "10");
+        assertEquals(snapshot.getString("placeholder"), "10/path");
+        assertEquals(snapshot.getList("placeholder"), Collections.singletonList("10/path"));
+        assertEquals(snapshot.getLong("number", 7L), 10L);
+    }
+
+    @DataProvider
+    public Object[][] getNumberData() {
+
+        return new Object[][]{
+                {"1000", 1000, 1000L},
+                {" 42 ", 7, 7L},
+                {"-1", 7, 7L},
+                {"+1", 7, 7L},
+                {"", 7, 7L},
+                {"NotANumber", 7, 7L},
+                {"10000000000", 7, 10000000000L},
+                {null, 7, 7L},
+        };
+    }
+
+    @Test(dataProvider = "getNumberData")
+    public void testGetNumber(String value, int expectedInt, long expectedLong) {
+
+        configuration.put("number", value);
+        IdentityConfigSnapshot snapshot = new IdentityConfigSnapshot(configuration);
+
+        assertEquals(snapshot.getInt("number", 7), expectedInt);
+        assertEquals(snapshot.getLong("number", 7L), expectedLong);
+    }
+
+    @Test
+    public void testGetBoolean() {
+
+        configuration.put("true", "true");
+        configuration.put("upperCase", "TRUE");
+        configuration.put("false", "false");
+        configuration.put("blank", " ");
+        configuration.put("invalid", "yes");
+        IdentityConfigSnapshot snapshot = new IdentityConfigSnapshot(configuration);
+
+        assertTrue(snapshot.getBoolean("true", false));
+        assertTrue(snapshot.getBoolean("upperCase", false));
+        assertFalse(snapshot.getBoolean("false", true));
+        assertTrue(snapshot.getBoolean("blank", true));
+        assertFalse(snapshot.getBoolean("invalid", true));
+        assertTrue(snapshot.getBoolean("missing", true));
+    }
+
+    @DataProvider
+    public Object[][] getDurationData() {
+
+        return new Object[][]{
+                {"30", TimeUnit.SECONDS, 30L},
+                {"1500ms", TimeUnit.MILLISECONDS, 1500L},
+                {"2s", TimeUnit.MILLISECONDS, 2000L},
+                {"5m", TimeUnit.SECONDS, 300L},
+                {"1h", TimeUnit.MINUTES, 60L},
+                {"2d", TimeUnit.HOURS, 48L},
+                {"5 M", TimeUnit.SECONDS, 300L},
+                {"5w", TimeUnit.SECONDS, -1L},
+                {"ms", TimeUnit.SECONDS, -1L},
+                {"", TimeUnit.SECONDS, -1L},
+        };
+    }
+
+    @Test(dataProvider = "getDurationData")
+    public void testGetDuration(String value, TimeUnit unit, long expected) {
+
+        configuration.put("duration", value);
+        IdentityConfigSnapshot snapshot = new IdentityConfigSnapshot(configuration);
+
+        assertEquals(snapshot.getDuration("duration", unit, -1L), expected);
+    }
+
+    @Test
+    public void testSnapshotIsReplacedWithConfiguration() {
+
+        configuration.put("key", "first");
+        Whitebox.setInternalState(IdentityUtil.class, "configuration", configuration);
+        IdentityConfigSnapshot snapshot = IdentityUtil.getConfigSnapshot();
+        assertEquals(IdentityUtil.getProperty("key"), "first");
+        assertSame(IdentityUtil.getConfigSnapshot(), snapshot);
+
+        Map<String, Object> newConfiguration = new HashMap<>();
+        newConfiguration.put("key", "second");
+        Whitebox.setInternalState(IdentityUtil.class, "configuration", newConfiguration);
+        assertEquals(IdentityUtil.getProperty("key"), "second");
+
+        IdentityUtil.reloadConfigSnapshot();
+        assertNotSame(IdentityUtil.getConfigSnapshot(), snapshot);
+        assertEquals(IdentityUtil.getProperty("key"), "second");
+    }
+}
@@ -33,7 +33,11 @@ import java.util.concurrent.LinkedBlockingDeque;
 /**
  * This has a queue inside. All publishers add events to this queue and this event distribution task is responsible
  * for distributing these events to Notification sending modules
+ *
+ * @deprecated Events are distributed through {@link org.wso2.carbon.identity.event.bus.PartitionedEventBus}, which
+ * keeps the order of the events of a user, bounds the queues and drains them on shutdown.
  */
+@Deprecated
 public class EventDistributionTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(EventDistributionTask.class);
@@ -41,7 +45,7 @@ public class EventDistributionTask implements Runnable {
     /**
      * Queue used to add events by publishers.
      */
-    private BlockingDeque<Event> eventQueue;
+    private BlockingDeque<QueuedEvent> eventQueue;
     /**
      * Registered message sending modules.
      */
@@ -59,12 +63,27 @@ public class EventDistributionTask implements Runnable {
      */
     public EventDistributionTask(List<AbstractEventHandler> notificationSendingModules, int threadPoolSize) {
         this.notificationSendingModules = notificationSendingModules;
-        this.eventQueue = new LinkedBlockingDeque<Event>();
+        this.eventQueue = new LinkedBlockingDeque<QueuedEvent>();
         IdentityEventServiceDataHolder.getInstance().setThreadPool(Executors.newFixedThreadPool(threadPoolSize));
     }
 
+    /**
+     * Queue an event to be distributed to all the registered modules.
+     *
+     * @param publisherEvent Event to be distributed
+     */
     public void addEventToQueue(Event publisherEvent) {
-        this.eventQueue.add(publisherEvent);
+        this.eventQueue.add(new QueuedEvent(publisherEvent, null));
+    }
+
+    /**
+     * Queue an event to be distributed only to the given modules, which are already resolved as subscribers of it.
+     *
+     * @param publisherEvent Event to be distributed
+     * @param modules        Modules subscribed to the event
+     */
+    public void addEventToQueue(Event publisherEvent, List<AbstractEventHandler> modules) {
+        this.eventQueue.add(new QueuedEvent(publisherEvent, modules));
     }
 
     @Override
@@ -73,9 +92,12 @@ public class EventDistributionTask implements Runnable {
         // Run forever until stop the bundle. Will stop in eventQueue.take()
         while (running) {
             try {
-                final Event event = eventQueue.take();
+                QueuedEvent queuedEvent = eventQueue.take();
+                final Event event = queuedEvent.event;
+                List<AbstractEventHandler> modules = queuedEvent.modules != null ? queuedEvent.modules :
+                        notificationSendingModules;
                 IdentityEventMessageContext eventContext = new IdentityEventMessageContext(event);
-                for (final AbstractEventHandler module : notificationSendingModules) {
+                for (final AbstractEventHandler module : modules) {
                     // If the module is subscribed to the event, module will be executed.
                     if (module.isEnabled(eventContext)) {
                         // Create a runnable and submit to the thread pool for sending message.
@@ -106,4 +128,18 @@ public class EventDistributionTask implements Runnable {
     public void shutdown() {
         this.running = false;
     }
+
+    /**
+     * An event in the queue, along with the modules it is distributed to. Null modules mean all the registered ones.
+     */
+    private static class QueuedEvent {
+
+        private final Event event;
+        private final List<AbstractEventHandler> modules;
+
+        private QueuedEvent(Event event, List<AbstractEventHandler> modules) {
+            this.event = event;
+            this.modules = modules;
+        }
+    }
 }
@@ -18,12 +18,16 @@
 
 package org.wso2.carbon.identity.event;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
 import org.wso2.carbon.identity.event.bean.Subscription;
+import org.wso2.carbon.identity.event.bus.EventBusConfig;
+import org.wso2.carbon.identity.event.bus.OverflowPolicy;
+import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.securevault.SecretResolver;
 import org.wso2.securevault.SecretResolverFactory;
 import org.wso2.securevault.commons.MiscellaneousUtil;
@@ -33,10 +37,13 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 
@@ -50,6 +57,7 @@ import java.util.Properties;
 public class IdentityEventConfigBuilder {
 
     private static final Log log = LogFactory.getLog(IdentityEventConfigBuilder.class);
+    private static final int DEFAULT_THREAD_POOL_SIZE = 10;
     /**
      * All properties configured in msg-mgt.properties file
      */
@@ -62,6 +70,10 @@ public class IdentityEventConfigBuilder {
      * Thread pool size for message sending task
      */
     private String threadPoolSize;
+    /**
+     * Configuration of the event bus of the asynchronous handlers
+     */
+    private EventBusConfig eventBusConfig;
 
     private static IdentityEventConfigBuilder notificationMgtConfigBuilder = new IdentityEventConfigBuilder();
 
@@ -78,6 +90,7 @@ public class IdentityEventConfigBuilder {
         }
 
         setThreadPoolSize();
+        setEventBusConfig();
         resolveSecrets();
         moduleConfiguration = new HashMap<>();
         build();
@@ -95,7 +108,77 @@ public class IdentityEventConfigBuilder {
      * Sets the thread pool size read from configurations
      */
     private void setThreadPoolSize() {
-        threadPoolSize = (String) notificationMgtConfigProperties.remove("threadPool.size");
+        threadPoolSize = (String) notificationMgtConfigProperties.remove(IdentityEventConstants.PropertyConfig
+                .THREAD_POOL_SIZE);
+    }
+
+    /**
+     * Sets the event bus configuration read from configurations. There is a partition per thread of the thread pool,
+     * unless the partition count is configured.
+     */
+    private void setEventBusConfig() {
+
+        int partitionCount = getIntProperty(IdentityEventConstants.PropertyConfig.EVENT_BUS_PARTITION_COUNT,
+                parsePositiveInt(IdentityEventConstants.PropertyConfig.THREAD_POOL_SIZE, threadPoolSize,
+                        DEFAULT_THREAD_POOL_SIZE));
+        int queueCapacity = getIntProperty(IdentityEventConstants.PropertyConfig.EVENT_BUS_QUEUE_CAPACITY,
+                EventBusConfig.DEFAULT_QUEUE_CAPACITY);
+        int drainTimeout = getIntProperty(IdentityEventConstants.PropertyConfig.EVENT_BUS_DRAIN_TIMEOUT,
+                EventBusConfig.DEFAULT_DRAIN_TIMEOUT);
+
+        OverflowPolicy overflowPolicy = EventBusConfig.DEFAULT_OVERFLOW_POLICY;
+        String overflowPolicyValue = (String) notificationMgtConfigProperties.remove(IdentityEventConstants
+                .PropertyConfig.EVENT_BUS_OVERFLOW_POLICY);
+        if (StringUtils.isNotBlank(overflowPolicyValue)) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(overflowPolicyValue.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid event bus overflow policy : " + overflowPolicyValue + ". Using the default " +
+                        "policy : " + overflowPolicy);
+            }
+        }
+
+        // Events are journaled only when they are spilled.
+        Path journalDirectory = null;
+        String journalDirectoryValue = (String) notificationMgtConfigProperties.remove(IdentityEventConstants
+                .PropertyConfig.EVENT_BUS_JOURNAL_DIRECTORY);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            if (StringUtils.isNotBlank(journalDirectoryValue)) {
+                journalDirectory = Paths.get(journalDirectoryValue.trim());
+            } else if (CarbonUtils.getCarbonHome() != null) {
+                journalDirectory = Paths.get(CarbonUtils.getCarbonHome(), IdentityEventConstants.PropertyConfig
+                        .DEFAULT_EVENT_BUS_JOURNAL_DIRECTORY);
+            } else {
+                log.warn("Event bus journal directory is not available. Using the default overflow policy : " +
+                        EventBusConfig.DEFAULT_OVERFLOW_POLICY);
+                overflowPolicy = EventBusConfig.DEFAULT_OVERFLOW_POLICY;
+            }
+        }
+
+        eventBusConfig = new EventBusConfig(partitionCount, queueCapacity, overflowPolicy, journalDirectory,
+                drainTimeout);
+    }
+
+    private int getIntProperty(String key, int defaultValue) {
+
+        return parsePositiveInt(key, (String) notificationMgtConfigProperties.remove(key), defaultValue);
+    }
+
+    private int parsePositiveInt(String key, String value, int defaultValue) {
+
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall back to the default value.
+        }
+        log.warn("Invalid value : " + value + " for " + key + ". Using the default value : " + defaultValue);
+        return defaultValue;
     }
 
     /**
@@ -222,6 +305,10 @@ public class IdentityEventConfigBuilder {
         return threadPoolSize;
     }
 
+    public EventBusConfig getEventBusConfig() {
+        return eventBusConfig;
+    }
+
     /**
      * There can be sensitive information like passwords in configuration file. If they are encrypted using secure
      * vault, this method will resolve them and replace with original values.
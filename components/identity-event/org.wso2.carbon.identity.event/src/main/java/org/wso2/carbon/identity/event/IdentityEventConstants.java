@@ -42,6 +42,14 @@ public class IdentityEventConstants {
         public static final String ALREADY_WRITTEN_PROPERTY_KEY = "AlreadyWritten";
         public static final String ALREADY_WRITTEN_PROPERTY_VALUE = "true";
 
+        public static final String THREAD_POOL_SIZE = "threadPool.size";
+        public static final String EVENT_BUS_PARTITION_COUNT = "eventBus.partitionCount";
+        public static final String EVENT_BUS_QUEUE_CAPACITY = "eventBus.queueCapacity";
+        public static final String EVENT_BUS_OVERFLOW_POLICY = "eventBus.overflowPolicy";
+        public static final String EVENT_BUS_JOURNAL_DIRECTORY = "eventBus.journalDirectory";
+        public static final String EVENT_BUS_DRAIN_TIMEOUT = "eventBus.drainTimeout";
+        // Relative to the carbon home.
+        public static final String DEFAULT_EVENT_BUS_JOURNAL_DIRECTORY = "repository/data/identity/event-journal";
     }
 
     public class Event {
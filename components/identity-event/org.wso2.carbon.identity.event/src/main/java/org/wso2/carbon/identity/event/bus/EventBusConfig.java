@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the {@link PartitionedEventBus}.
+ */
+public class EventBusConfig {
+
+    // Unbounded, so that publishers are never blocked, as with the previous event distribution task.
+    public static final int DEFAULT_QUEUE_CAPACITY = Integer.MAX_VALUE;
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+    // Drain timeout in seconds.
+    public static final int DEFAULT_DRAIN_TIMEOUT = 30;
+
+    private final int partitionCount;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Path journalDirectory;
+    private final int drainTimeout;
+
+    /**
+     * @param partitionCount   Number of partitions, each of which is served by a single thread.
+     * @param queueCapacity    Maximum number of events queued in a partition.
+     * @param overflowPolicy   What to do with an event when the queue of its partition is full.
+     * @param journalDirectory Directory of the journal files, which is used only by the SPILL overflow policy.
+     * @param drainTimeout     Time in seconds to wait for the queued events to be handled on shutdown.
+     */
+    public EventBusConfig(int partitionCount, int queueCapacity, OverflowPolicy overflowPolicy, Path journalDirectory,
+                          int drainTimeout) {
+
+        if (partitionCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Partition count and queue capacity should be positive.");
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && journalDirectory == null) {
+            throw new IllegalArgumentException("A journal directory is required for the SPILL overflow policy.");
+        }
+        this.partitionCount = partitionCount;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.journalDirectory = journalDirectory;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Configuration with an unbounded queue, and without journaling.
+     *
+     * @param partitionCount Number of partitions.
+     */
+    public EventBusConfig(int partitionCount) {
+
+        this(partitionCount, DEFAULT_QUEUE_CAPACITY, DEFAULT_OVERFLOW_POLICY, null, DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    public int getPartitionCount() {
+
+        return partitionCount;
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+
+        return overflowPolicy;
+    }
+
+    public Path getJournalDirectory() {
+
+        return journalDirectory;
+    }
+
+    public int getDrainTimeout() {
+
+        return drainTimeout;
+    }
+}
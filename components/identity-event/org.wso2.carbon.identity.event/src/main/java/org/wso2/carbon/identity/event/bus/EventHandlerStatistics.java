@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single handler of the {@link PartitionedEventBus}. The handling time covers the execution of the
+ * handler, and the queue time covers the wait of the event in the partition queue before it.
+ */
+public class EventHandlerStatistics {
+
+    private final String handlerName;
+    private final LongAdder handledCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder totalHandlingTime = new LongAdder();
+    private final LongAccumulator maxHandlingTime = new LongAccumulator(Long::max, 0L);
+    private final LongAdder totalQueueTime = new LongAdder();
+
+    EventHandlerStatistics(String handlerName) {
+
+        this.handlerName = handlerName;
+    }
+
+    void record(long queueTimeNanos, long handlingTimeNanos, boolean failed) {
+
+        handledCount.increment();
+        if (failed) {
+            failedCount.increment();
+        }
+        totalQueueTime.add(queueTimeNanos);
+        totalHandlingTime.add(handlingTimeNanos);
+        maxHandlingTime.accumulate(handlingTimeNanos);
+    }
+
+    public String getHandlerName() {
+
+        return handlerName;
+    }
+
+    /**
+     * @return Number of events handled, including the failed ones.
+     */
+    public long getHandledCount() {
+
+        return handledCount.sum();
+    }
+
+    /**
+     * @return Number of events the handler failed on.
+     */
+    public long getFailedCount() {
+
+        return failedCount.sum();
+    }
+
+    /**
+     * @return Total handling time in nanoseconds.
+     */
+    public long getTotalHandlingTimeNanos() {
+
+        return totalHandlingTime.sum();
+    }
+
+    /**
+     * @return Maximum handling time in nanoseconds.
+     */
+    public long getMaxHandlingTimeNanos() {
+
+        return maxHandlingTime.get();
+    }
+
+    /**
+     * @return Average handling time in nanoseconds.
+     */
+    public long getAverageHandlingTimeNanos() {
+
+        long count = getHandledCount();
+        return count == 0 ? 0 : getTotalHandlingTimeNanos() / count;
+    }
+
+    /**
+     * @return Average time in nanoseconds the events waited in the queue before reaching the handler.
+     */
+    public long getAverageQueueTimeNanos() {
+
+        long count = getHandledCount();
+        return count == 0 ? 0 : totalQueueTime.sum() / count;
+    }
+
+    @Override
+    public String toString() {
+
+        return "EventHandlerStatistics{handlerName=" + handlerName + ", handledCount=" + getHandledCount() +
+                ", failedCount=" + getFailedCount() + ", averageHandlingTimeNanos=" + getAverageHandlingTimeNanos() +
+                ", maxHandlingTimeNanos=" + getMaxHandlingTimeNanos() + ", averageQueueTimeNanos=" +
+                getAverageQueueTimeNanos() + "}";
+    }
+}
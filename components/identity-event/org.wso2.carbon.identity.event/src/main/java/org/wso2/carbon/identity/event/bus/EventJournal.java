@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.event.Event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append only file of the events spilled by a partition of the {@link PartitionedEventBus}. Events are read back in
+ * the order they were written, and the file is truncated once all of them are read.
+ * <p>
+ * Only the events of which the properties are strings, boxed primitives, string arrays, and lists, sets and maps of
+ * them are journaled, so that a journaled event is handled with all of its properties. Events which carry
+ * credentials are never journaled. The events are read back only with those types, and any other class in a record
+ * discards the record.
+ */
+final class EventJournal {
+
+    private static final Log log = LogFactory.getLog(EventJournal.class);
+
+    private static final Set<String> SENSITIVE_PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            IdentityEventConstants.EventProperty.CREDENTIAL, IdentityEventConstants.EventProperty.OLD_CREDENTIAL,
+            IdentityEventConstants.EventProperty.TEMPORARY_PASSWORD)));
+    private static final Set<Class<?>> VALUE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class)));
+    // Classes of the journaled properties, along with the super classes they are serialized with.
+    private static final Set<String> ALLOWED_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            String.class.getName(), Boolean.class.getName(), Character.class.getName(), Byte.class.getName(),
+            Short.class.getName(), Integer.class.getName(), Long.class.getName(), Float.class.getName(),
+            Double.class.getName(), Number.class.getName(), String[].class.getName(), ArrayList.class.getName(),
+            HashSet.class.getName(), HashMap.class.getName())));
+    private static final Object NOT_JOURNALABLE = new Object();
+
+    private final Path file;
+    private final FileChannel channel;
+    private long readPosition;
+    private long writePosition;
+
+    EventJournal(Path file) throws IOException {
+
+        this.file = file;
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // Events left over by the previous run are read first.
+        this.writePosition = channel.size();
+    }
+
+    synchronized boolean isEmpty() {
+
+        return readPosition >= writePosition;
+    }
+
+    /**
+     * Appends an event to the journal, unless it carries credentials or properties of other types than the ones
+     * which are journaled.
+     *
+     * @param event        Event.
+     * @param handlerNames Names of the handlers the event is dispatched to.
+     * @return False if the event cannot be journaled.
+     * @throws IOException If the event cannot be written.
+     */
+    synchronized boolean append(Event event, List<String> handlerNames) throws IOException {
+
+        HashMap<String, Object> properties = toJournalProperties(event);
+        if (properties == null) {
+            return false;
+        }
+        byte[] record = encode(event.getEventName(), handlerNames, properties);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+        buffer.putInt(record.length).put(record).flip();
+        while (buffer.hasRemaining()) {
+            writePosition += channel.write(buffer, writePosition);
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next events of the journal. The journal is truncated once all the events are read.
+     *
+     * @param maxEntries Maximum number of events to read.
+     * @return Events read, or an empty list if the journal is empty.
+     * @throws IOException If the journal cannot be read.
+     */
+    synchronized List<Entry> read(int maxEntries) throws IOException {
+
+        List<Entry> entries = new ArrayList<>();
+        while (entries.size() < maxEntries && readPosition < writePosition) {
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+            readFully(lengthBuffer, readPosition);
+            int length = lengthBuffer.getInt(0);
+            if (length < 0 || readPosition + Integer.BYTES + length > writePosition) {
+                // A record which was partially written when the server stopped.
+                log.warn("Discarding an incomplete event record at the end of the journal : " + file);
+                readPosition = writePosition;
+                break;
+            }
+            ByteBuffer recordBuffer = ByteBuffer.allocate(length);
+            readFully(recordBuffer, readPosition + Integer.BYTES);
+            readPosition += Integer.BYTES + length;
+            try {
+                entries.add(decode(recordBuffer.array()));
+            } catch (IOException | ClassNotFoundException e) {
+                log.error("Discarding an event record of the journal : " + file + " which cannot be read.", e);
+            }
+        }
+        if (readPosition >= writePosition) {
+            channel.truncate(0);
+            readPosition = 0;
+            writePosition = 0;
+        }
+        return entries;
+    }
+
+    synchronized void close() {
+
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error while closing the event journal : " + file, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the event journal : " + file);
+            }
+        }
+    }
+
+    /**
+     * Copies the properties of an event into the types which are journaled.
+     *
+     * @param event Event.
+     * @return Properties of the event, or null if the event cannot be journaled.
+     */
+    private static HashMap<String, Object> toJournalProperties(Event event) {
+
+        HashMap<String, Object> properties = new HashMap<>();
+        if (event.getEventProperties() == null) {
+            return properties;
+        }
+        for (Map.Entry<String, Object> property : event.getEventProperties().entrySet()) {
+            if (SENSITIVE_PROPERTIES.contains(property.getKey())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Event : " + event.getEventName() + " carries credentials and is not journaled.");
+                }
+                return null;
+            }
+            Object value = toJournalValue(property.getValue());
+            if (value == NOT_JOURNALABLE) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Property : " + property.getKey() + " of event : " + event.getEventName() +
+                            " cannot be journaled.");
+                }
+                return null;
+            }
+            properties.put(property.getKey(), value);
+        }
+        return properties;
+    }
+
+    private static Object toJournalValue(Object value) {
+
+        if (value == null || VALUE_TYPES.contains(value.getClass())) {
+            return value;
+        }
+        if (value instanceof String[]) {
+            return ((String[]) value).clone();
+        }
+        if (value instanceof Map) {
+            HashMap<Object, Object> map = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object key = toJournalValue(entry.getKey());
+                Object entryValue = toJournalValue(entry.getValue());
+                if (key == NOT_JOURNALABLE || entryValue == NOT_JOURNALABLE) {
+                    return NOT_JOURNALABLE;
+                }
+                map.put(key, entryValue);
+            }
+            return map;
+        }
+        if (value instanceof List || value instanceof Set) {
+            Collection<Object> collection = value instanceof List ? new ArrayList<>() : new HashSet<>();
+            for (Object element : (Collection<?>) value) {
+                Object elementValue = toJournalValue(element);
+                if (elementValue == NOT_JOURNALABLE) {
+                    return NOT_JOURNALABLE;
+                }
+                collection.add(elementValue);
+            }
+            return collection;
+        }
+        return NOT_JOURNALABLE;
+    }
+
+    private static byte[] encode(String eventName, List<String> handlerNames, HashMap<String, Object> properties)
+            throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(eventName);
+            out.writeInt(handlerNames.size());
+            for (String handlerName : handlerNames) {
+                out.writeUTF(handlerName);
+            }
+            try (ObjectOutputStream propertiesOut = new ObjectOutputStream(out)) {
+                propertiesOut.writeObject(properties);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Entry decode(byte[] record) throws IOException, ClassNotFoundException {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String eventName = in.readUTF();
+            int handlerCount = in.readInt();
+            List<String> handlerNames = new ArrayList<>(handlerCount);
+            for (int i = 0; i < handlerCount; i++) {
+                handlerNames.add(in.readUTF());
+            }
+            try (ObjectInputStream propertiesIn = new JournalObjectInputStream(in)) {
+                Object properties = propertiesIn.readObject();
+                if (!(properties instanceof HashMap)) {
+                    throw new InvalidClassException("Unexpected properties of event : " + eventName);
+                }
+                return new Entry(new Event(eventName, (Map<String, Object>) properties), handlerNames);
+            }
+        }
+    }
+
+    /**
+     * Reads only the classes which are journaled. They are resolved by the bootstrap class loader, since they are
+     * all classes of the JDK.
+     */
+    private static final class JournalObjectInputStream extends ObjectInputStream {
+
+        private JournalObjectInputStream(InputStream in) throws IOException {
+
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in the event journal.");
+            }
+            return Class.forName(desc.getName(), false, null);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+
+            throw new InvalidClassException("Proxy classes are not allowed in the event journal.");
+        }
+    }
+
+    /**
+     * An event read from the journal, along with the names of the handlers it is dispatched to.
+     */
+    static final class Entry {
+
+        private final Event event;
+        private final List<String> handlerNames;
+
+        private Entry(Event event, List<String> handlerNames) {
+
+            this.event = event;
+            this.handlerNames = handlerNames;
+        }
+
+        Event getEvent() {
+
+            return event;
+        }
+
+        List<String> getHandlerNames() {
+
+            return handlerNames;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+/**
+ * What the event bus does with an event when the queue of its partition is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait until the partition has room for the event. This slows down the publishers to the pace of the handlers.
+     */
+    BLOCK,
+
+    /**
+     * Discard the oldest queued event of the partition to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Write the event to the journal file of the partition. Journaled events are dispatched, in order, once the queue
+     * of the partition is empty, and survive a server restart.
+     */
+    SPILL
+}
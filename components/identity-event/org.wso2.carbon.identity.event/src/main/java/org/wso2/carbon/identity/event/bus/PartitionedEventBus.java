@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Dispatches events to asynchronous handlers through a fixed set of partitions. Each partition has a queue, which is
+ * unbounded unless a capacity is configured, and a single thread, and an event is assigned to a partition by the user
+ * and tenant it belongs to. Hence the events of a user are handled in the order they were published.
+ * <p>
+ * When the queue of a partition is full, the event is handled as per the configured {@link OverflowPolicy}. On
+ * shutdown, the queued events are handled until the drain timeout. With the {@link OverflowPolicy#SPILL} policy, the
+ * events left after it are written to the journal, and they are handled once {@link #startReplay()} is called on the
+ * next start. Events which cannot be journaled, such as the ones carrying credentials, are handled in the publishing
+ * thread instead of being spilled.
+ */
+public class PartitionedEventBus {
+
+    private static final Log log = LogFactory.getLog(PartitionedEventBus.class);
+
+    private static final String THREAD_NAME_PREFIX = "identity-event-bus-";
+    private static final long POLL_INTERVAL = 500;
+    private static final int JOURNAL_READ_BATCH_SIZE = 100;
+    private static final String JOURNAL_FILE_PREFIX = "partition-";
+    private static final String JOURNAL_FILE_SUFFIX = ".journal";
+
+    private final EventBusConfig config;
+    private final Function<String, AbstractEventHandler> handlerResolver;
+    private final Partition[] partitions;
+    private final ConcurrentMap<String, EventHandlerStatistics> handlerStatistics = new ConcurrentHashMap<>();
+    private final LongAdder droppedEventCount = new LongAdder();
+    private final LongAdder spilledEventCount = new LongAdder();
+    private volatile boolean stopping;
+    private volatile boolean replayStarted;
+
+    /**
+     * @param config          Configuration of the bus.
+     * @param handlerResolver Resolves a handler by its name, for the events read from the journal.
+     */
+    public PartitionedEventBus(EventBusConfig config, Function<String, AbstractEventHandler> handlerResolver) {
+
+        this.config = config;
+        this.handlerResolver = handlerResolver;
+        this.partitions = new Partition[config.getPartitionCount()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i);
+        }
+    }
+
+    /**
+     * Starts the threads of the partitions.
+     */
+    public void start() {
+
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Started the event bus with " + partitions.length + " partitions, queue capacity : " +
+                    config.getQueueCapacity() + " and overflow policy : " + config.getOverflowPolicy());
+        }
+    }
+
+    /**
+     * Starts handling the events in the journal, which include the ones left by the previous run. This has to be
+     * called once the handlers of those events are registered, since a journaled event is dispatched only to the
+     * handlers which can be resolved by name. Until then, the events which are spilled are kept in the journal.
+     */
+    public void startReplay() {
+
+        replayStarted = true;
+    }
+
+    /**
+     * Publishes an event to be handled asynchronously by the given handlers. Once the bus is stopping, the handlers
+     * are invoked in the calling thread.
+     *
+     * @param event    Event.
+     * @param handlers Handlers of the event, in the order they should be invoked.
+     */
+    public void publish(Event event, List<AbstractEventHandler> handlers) {
+
+        BusEvent busEvent = new BusEvent(event, handlers, System.nanoTime());
+        if (stopping) {
+            dispatch(busEvent);
+            return;
+        }
+        partitions[getPartitionIndex(event)].publish(busEvent);
+    }
+
+    /**
+     * Stops accepting events, and waits until the queued events are handled or the drain timeout elapses. Events
+     * which are left are written to the journal, if the {@link OverflowPolicy#SPILL} policy is configured.
+     *
+     * @return True if all the queued events were handled.
+     */
+    public boolean shutdown() {
+
+        stopping = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getDrainTimeout());
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        boolean drained = true;
+        for (Partition partition : partitions) {
+            List<BusEvent> remaining = new ArrayList<>();
+            partition.queue.drainTo(remaining);
+            // Interrupt a handler which is still running, once its partition has no events left to take.
+            partition.thread.interrupt();
+            if (!remaining.isEmpty()) {
+                drained = false;
+                partition.saveRemaining(remaining);
+            }
+            if (partition.journal != null) {
+                partition.journal.close();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @return Statistics of each handler, keyed by handler name.
+     */
+    public Map<String, EventHandlerStatistics> getHandlerStatistics() {
+
+        return Collections.unmodifiableMap(handlerStatistics);
+    }
+
+    /**
+     * @return Number of events queued in each partition.
+     */
+    public int[] getQueueDepths() {
+
+        int[] queueDepths = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            queueDepths[i] = partitions[i].queue.size();
+        }
+        return queueDepths;
+    }
+
+    /**
+     * @return Number of events discarded as per the {@link OverflowPolicy#DROP_OLDEST} policy.
+     */
+    public long getDroppedEventCount() {
+
+        return droppedEventCount.sum();
+    }
+
+    /**
+     * @return Number of events written to the journal.
+     */
+    public long getSpilledEventCount() {
+
+        return spilledEventCount.sum();
+    }
+
+    private int getPartitionIndex(Event event) {
+
+        Map<String, Object> properties = event.getEventProperties();
+        Object tenantDomain = null;
+        Object userName = null;
+        if (properties != null) {
+            tenantDomain = properties.get(IdentityEventConstants.EventProperty.TENANT_DOMAIN);
+            userName = properties.get(IdentityEventConstants.EventProperty.USER_NAME);
+        }
+        String partitionKey;
+        if (tenantDomain != null || userName != null) {
+            partitionKey = tenantDomain + "/" + userName;
+        } else {
+            // Events which do not belong to a user are spread by their name.
+            partitionKey = StringUtils.defaultString(event.getEventName());
+        }
+        return (partitionKey.hashCode() & Integer.MAX_VALUE) % partitions.length;
+    }
+
+    private void dispatch(BusEvent busEvent) {
+
+        Event event = busEvent.event;
+        IdentityEventMessageContext eventContext = new IdentityEventMessageContext(event);
+        for (AbstractEventHandler handler : busEvent.handlers) {
+            if (!handler.isEnabled(eventContext)) {
+                continue;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Executing " + handler.getName() + " on event " + event.getEventName());
+            }
+            long startTime = System.nanoTime();
+            boolean failed = true;
+            try {
+                handler.handleEvent(event);
+                failed = false;
+            } catch (IdentityEventException | RuntimeException e) {
+                log.error("Error while invoking event handler " + handler.getName() + " on event " +
+                        event.getEventName(), e);
+            } finally {
+                long endTime = System.nanoTime();
+                getHandlerStatistics(handler.getName()).record(startTime - busEvent.publishedTime,
+                        endTime - startTime, failed);
+            }
+        }
+    }
+
+    private EventHandlerStatistics getHandlerStatistics(String handlerName) {
+
+        EventHandlerStatistics statistics = handlerStatistics.get(handlerName);
+        if (statistics == null) {
+            statistics = handlerStatistics.computeIfAbsent(handlerName, EventHandlerStatistics::new);
+        }
+        return statistics;
+    }
+
+    private static List<String> getHandlerNames(List<AbstractEventHandler> handlers) {
+
+        List<String> handlerNames = new ArrayList<>(handlers.size());
+        for (AbstractEventHandler handler : handlers) {
+            handlerNames.add(handler.getName());
+        }
+        return handlerNames;
+    }
+
+    /**
+     * A partition of the bus, with its queue, journal and thread.
+     */
+    private final class Partition implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<BusEvent> queue;
+        private final EventJournal journal;
+        private final Thread thread;
+
+        private Partition(int index) {
+
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(config.getQueueCapacity());
+            this.journal = createJournal(index);
+            this.thread = new Thread(this, THREAD_NAME_PREFIX + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void publish(BusEvent busEvent) {
+
+            if (Thread.currentThread() == thread) {
+                // An event published by a handler of this partition. Waiting for room would block the partition.
+                if (!queue.offer(busEvent)) {
+                    dispatch(busEvent);
+                }
+                return;
+            }
+
+            switch (config.getOverflowPolicy()) {
+                case DROP_OLDEST:
+                    while (!queue.offer(busEvent)) {
+                        BusEvent droppedEvent = queue.poll();
+                        if (droppedEvent != null) {
+                            droppedEventCount.increment();
+                            log.warn("Event queue of partition : " + index + " is full. Dropped event : " +
+                                    droppedEvent.event.getEventName());
+                        }
+                    }
+                    break;
+                case SPILL:
+                    // Once events are spilled, the following events are spilled too to keep the order.
+                    synchronized (journal) {
+                        if (journal.isEmpty() && queue.offer(busEvent)) {
+                            return;
+                        }
+                        spill(busEvent);
+                    }
+                    break;
+                default:
+                    try {
+                        queue.put(busEvent);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dispatch(busEvent);
+                    }
+            }
+        }
+
+        @Override
+        public void run() {
+
+            while (true) {
+                try {
+                    BusEvent busEvent = queue.poll();
+                    if (busEvent == null) {
+                        if (stopping) {
+                            // Journaled events are left for the next start.
+                            break;
+                        }
+                        if (journal != null && replayStarted && !journal.isEmpty()) {
+                            replayJournal();
+                            continue;
+                        }
+                        busEvent = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                        if (busEvent == null) {
+                            continue;
+                        }
+                    }
+                    dispatch(busEvent);
+                } catch (InterruptedException e) {
+                    if (stopping) {
+                        break;
+                    }
+                } catch (RuntimeException e) {
+                    // Keep the partition alive.
+                    log.error("Error while dispatching an event of partition : " + index, e);
+                }
+            }
+        }
+
+        private void replayJournal() {
+
+            List<EventJournal.Entry> entries;
+            try {
+                entries = journal.read(JOURNAL_READ_BATCH_SIZE);
+            } catch (IOException e) {
+                log.error("Error while reading the event journal of partition : " + index, e);
+                return;
+            }
+            for (EventJournal.Entry entry : entries) {
+                List<AbstractEventHandler> handlers = new ArrayList<>(entry.getHandlerNames().size());
+                for (String handlerName : entry.getHandlerNames()) {
+                    AbstractEventHandler handler = handlerResolver.apply(handlerName);
+                    if (handler != null) {
+                        handlers.add(handler);
+                    } else {
+                        log.warn("Handler : " + handlerName + " of journaled event : " +
+                                entry.getEvent().getEventName() + " is not registered. Skipping the handler.");
+                    }
+                }
+                dispatch(new BusEvent(entry.getEvent(), handlers, System.nanoTime()));
+            }
+        }
+
+        private void spill(BusEvent busEvent) {
+
+            try {
+                if (!journal.append(busEvent.event, getHandlerNames(busEvent.handlers))) {
+                    // Handling the event in the publishing thread holds back the publisher as the queue would.
+                    dispatch(busEvent);
+                    return;
+                }
+                spilledEventCount.increment();
+            } catch (IOException | RuntimeException e) {
+                log.error("Error while writing event : " + busEvent.event.getEventName() + " to the journal of " +
+                        "partition : " + index + ". Dispatching it in the publishing thread.", e);
+                dispatch(busEvent);
+            }
+        }
+
+        private void saveRemaining(List<BusEvent> remaining) {
+
+            if (journal == null) {
+                log.error(remaining.size() + " events of partition : " + index + " were not handled within the " +
+                        "drain timeout and are discarded, since event journaling is not configured.");
+                return;
+            }
+            synchronized (journal) {
+                for (BusEvent busEvent : remaining) {
+                    try {
+                        if (!journal.append(busEvent.event, getHandlerNames(busEvent.handlers))) {
+                            log.error("Event : " + busEvent.event.getEventName() + " of partition : " + index +
+                                    " cannot be journaled and is discarded.");
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Error while writing event : " + busEvent.event.getEventName() +
+                                " to the journal of partition : " + index + ". The event is discarded.", e);
+                    }
+                }
+            }
+            log.warn(remaining.size() + " events of partition : " + index + " were not handled within the drain " +
+                    "timeout. They are journaled to be handled on the next start.");
+        }
+
+        private EventJournal createJournal(int index) {
+
+            if (config.getOverflowPolicy() != OverflowPolicy.SPILL) {
+                return null;
+            }
+            try {
+                return new EventJournal(config.getJournalDirectory().resolve(JOURNAL_FILE_PREFIX + index +
+                        JOURNAL_FILE_SUFFIX));
+            } catch (IOException e) {
+                throw new IllegalStateException("Error while creating the event journal of partition : " + index, e);
+            }
+        }
+    }
+
+    /**
+     * An event along with its handlers and the time it was published.
+     */
+    private static final class BusEvent {
+
+        private final Event event;
+        private final List<AbstractEventHandler> handlers;
+        private final long publishedTime;
+
+        private BusEvent(Event event, List<AbstractEventHandler> handlers, long publishedTime) {
+
+            this.event = event;
+            this.handlers = handlers;
+            this.publishedTime = publishedTime;
+        }
+    }
+}
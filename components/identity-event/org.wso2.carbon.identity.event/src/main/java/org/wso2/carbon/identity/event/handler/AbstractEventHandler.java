@@ -31,6 +31,8 @@ import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
 import org.wso2.carbon.identity.event.bean.Subscription;
 import org.wso2.carbon.identity.event.event.Event;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -64,6 +66,24 @@ public abstract class AbstractEventHandler extends AbstractIdentityMessageHandle
         return false;
     }
 
+    /**
+     * Returns the names of the events this handler is subscribed to in identity-event.properties. These are the events
+     * accepted by {@link #canHandle(MessageContext)}, unless a handler overrides it.
+     *
+     * @return Subscribed event names, or an empty set if the handler is not configured.
+     */
+    public Set<String> getSubscribedEventNames() {
+
+        if (configs == null || configs.getSubscriptions() == null) {
+            return Collections.emptySet();
+        }
+        Set<String> eventNames = new LinkedHashSet<>();
+        for (Subscription subscription : configs.getSubscriptions()) {
+            eventNames.add(subscription.getSubscriptionName());
+        }
+        return eventNames;
+    }
+
     /**
      * Each event has its own subscriptions (configure in identity-event.properties) and it is possible to define
      * multiple properties for each subscription per event under the given module.
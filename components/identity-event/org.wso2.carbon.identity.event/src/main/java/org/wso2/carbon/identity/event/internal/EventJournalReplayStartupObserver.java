@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.internal;
+
+import org.wso2.carbon.core.ServerStartupObserver;
+import org.wso2.carbon.identity.event.services.IdentityEventService;
+import org.wso2.carbon.identity.event.services.IdentityEventServiceImpl;
+
+/**
+ * Starts handling the events journaled by the event bus once the server has started, so that the event handlers
+ * they are dispatched to are registered.
+ */
+public class EventJournalReplayStartupObserver implements ServerStartupObserver {
+
+    @Override
+    public void completingServerStartup() {
+
+        // Handlers may still be registering until the server startup is completed.
+    }
+
+    @Override
+    public void completedServerStartup() {
+
+        IdentityEventService eventService = IdentityEventServiceDataHolder.getInstance().getEventMgtService();
+        if (eventService instanceof IdentityEventServiceImpl) {
+            ((IdentityEventServiceImpl) eventService).startReplay();
+        }
+    }
+}
@@ -21,7 +21,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.carbon.core.ServerStartupObserver;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.handler.HandlerManager;
 import org.wso2.carbon.identity.core.handler.MessageHandlerComparator;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
 import org.wso2.carbon.identity.event.IdentityEventException;
@@ -59,8 +61,12 @@ public class IdentityEventServiceComponent {
     @Activate
     protected void activate(ComponentContext context) {
         try {
-            IdentityEventServiceDataHolder.getInstance().setEventMgtService(new IdentityEventServiceImpl(eventHandlerList, Integer.parseInt(IdentityEventConfigBuilder.getInstance().getThreadPoolSize())));
+            IdentityEventServiceDataHolder.getInstance().setEventMgtService(new IdentityEventServiceImpl(eventHandlerList,
+                    IdentityEventConfigBuilder.getInstance().getEventBusConfig()));
             context.getBundleContext().registerService(IdentityEventService.class.getName(), IdentityEventServiceDataHolder.getInstance().getEventMgtService(), null);
+            // Journaled events are handled once the server has started, by which time the handlers are registered.
+            context.getBundleContext().registerService(ServerStartupObserver.class.getName(),
+                    new EventJournalReplayStartupObserver(), null);
         } catch (IdentityEventException e) {
             log.error("Error while initiating IdentityMgtService.");
         }
@@ -71,6 +77,11 @@ public class IdentityEventServiceComponent {
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
+        IdentityEventService eventService = IdentityEventServiceDataHolder.getInstance().getEventMgtService();
+        if (eventService instanceof IdentityEventServiceImpl) {
+            // Handle the queued events before the handlers go away.
+            ((IdentityEventServiceImpl) eventService).shutdown();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Identity Management bundle is de-activated");
         }
@@ -89,12 +100,29 @@ public class IdentityEventServiceComponent {
         } catch (IdentityEventException | IdentityRuntimeException e) {
             log.warn("Properties for " + handlerName + " is not configured. This event handler will not be activated");
         }
-        eventHandlerList.add(eventHandler);
-        MessageHandlerComparator messageHandlerComparator = new MessageHandlerComparator(null);
-        Collections.sort(eventHandlerList, messageHandlerComparator);
+        synchronized (eventHandlerList) {
+            eventHandlerList.add(eventHandler);
+            MessageHandlerComparator messageHandlerComparator = new MessageHandlerComparator(null);
+            Collections.sort(eventHandlerList, messageHandlerComparator);
+        }
+        HandlerManager.getInstance().invalidateHandlerChains();
+        refreshEventRoutes();
     }
 
     protected void unRegisterEventHandler(AbstractEventHandler eventHandler) {
+        synchronized (eventHandlerList) {
+            eventHandlerList.remove(eventHandler);
+        }
+        HandlerManager.getInstance().invalidateHandlerChains();
+        refreshEventRoutes();
+    }
+
+    private static void refreshEventRoutes() {
+        // Handlers registered before the activation are routed when the service is created.
+        IdentityEventService eventService = IdentityEventServiceDataHolder.getInstance().getEventMgtService();
+        if (eventService instanceof IdentityEventServiceImpl) {
+            ((IdentityEventServiceImpl) eventService).refreshEventRoutes();
+        }
     }
 
     @Reference(
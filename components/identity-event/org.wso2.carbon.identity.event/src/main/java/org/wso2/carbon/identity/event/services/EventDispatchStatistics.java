@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.services;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatch counters of a single event type. The dispatch time covers routing the event, running the synchronous
+ * handlers and queueing the event for the asynchronous handlers.
+ */
+public class EventDispatchStatistics {
+
+    private final String eventName;
+    private final LongAdder dispatchCount = new LongAdder();
+    private final LongAdder failedDispatchCount = new LongAdder();
+    private final LongAdder asyncDispatchCount = new LongAdder();
+    private final LongAdder totalDispatchTime = new LongAdder();
+    private final LongAccumulator maxDispatchTime = new LongAccumulator(Long::max, 0L);
+
+    EventDispatchStatistics(String eventName) {
+
+        this.eventName = eventName;
+    }
+
+    void record(long dispatchTimeNanos, boolean async, boolean failed) {
+
+        dispatchCount.increment();
+        if (async) {
+            asyncDispatchCount.increment();
+        }
+        if (failed) {
+            failedDispatchCount.increment();
+        }
+        totalDispatchTime.add(dispatchTimeNanos);
+        maxDispatchTime.accumulate(dispatchTimeNanos);
+    }
+
+    public String getEventName() {
+
+        return eventName;
+    }
+
+    /**
+     * @return Number of times the event was dispatched.
+     */
+    public long getDispatchCount() {
+
+        return dispatchCount.sum();
+    }
+
+    /**
+     * @return Number of dispatches in which a synchronous handler failed.
+     */
+    public long getFailedDispatchCount() {
+
+        return failedDispatchCount.sum();
+    }
+
+    /**
+     * @return Number of dispatches which queued the event for asynchronous handlers.
+     */
+    public long getAsyncDispatchCount() {
+
+        return asyncDispatchCount.sum();
+    }
+
+    /**
+     * @return Total dispatch time in nanoseconds.
+     */
+    public long getTotalDispatchTimeNanos() {
+
+        return totalDispatchTime.sum();
+    }
+
+    /**
+     * @return Maximum dispatch time in nanoseconds.
+     */
+    public long getMaxDispatchTimeNanos() {
+
+        return maxDispatchTime.get();
+    }
+
+    /**
+     * @return Average dispatch time in nanoseconds.
+     */
+    public long getAverageDispatchTimeNanos() {
+
+        long count = getDispatchCount();
+        return count == 0 ? 0 : getTotalDispatchTimeNanos() / count;
+    }
+
+    @Override
+    public String toString() {
+
+        return "EventDispatchStatistics{eventName=" + eventName + ", dispatchCount=" + getDispatchCount() +
+                ", failedDispatchCount=" + getFailedDispatchCount() + ", asyncDispatchCount=" +
+                getAsyncDispatchCount() + ", averageDispatchTimeNanos=" + getAverageDispatchTimeNanos() +
+                ", maxDispatchTimeNanos=" + getMaxDispatchTimeNanos() + "}";
+    }
+}
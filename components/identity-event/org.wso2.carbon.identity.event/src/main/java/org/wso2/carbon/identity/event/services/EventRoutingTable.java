@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.services;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable mapping of event names to the handlers subscribed to them, in handler priority order.
+ * <p>
+ * Subscriptions and the sync/async association of a handler come from identity-event.properties, so they are resolved
+ * once when the table is built. Handlers which override {@link AbstractEventHandler#canHandle(MessageContext)} or
+ * {@link AbstractEventHandler#isAssociationAsync(String)} may decide per event, and are kept in every route to be
+ * evaluated at dispatch time.
+ */
+final class EventRoutingTable {
+
+    private static final Log log = LogFactory.getLog(EventRoutingTable.class);
+
+    private final Map<String, EventRoute> routes;
+    private final EventRoute defaultRoute;
+
+    EventRoutingTable(List<AbstractEventHandler> handlers) {
+
+        List<RoutedHandler> dynamicHandlers = new ArrayList<>();
+        // Subscribed event names of each handler, or null for handlers which decide per event.
+        List<Set<String>> subscriptions = new ArrayList<>(handlers.size());
+        Set<String> eventNames = new LinkedHashSet<>();
+        for (AbstractEventHandler handler : handlers) {
+            if (isOverridden(handler, "canHandle", MessageContext.class)) {
+                dynamicHandlers.add(new RoutedHandler(handler, true, null));
+                subscriptions.add(null);
+            } else {
+                Set<String> subscribedEventNames = handler.getSubscribedEventNames();
+                subscriptions.add(subscribedEventNames);
+                eventNames.addAll(subscribedEventNames);
+            }
+        }
+
+        Map<String, EventRoute> routes = new HashMap<>();
+        for (String eventName : eventNames) {
+            List<RoutedHandler> routedHandlers = new ArrayList<>();
+            for (int i = 0; i < handlers.size(); i++) {
+                AbstractEventHandler handler = handlers.get(i);
+                if (subscriptions.get(i) == null) {
+                    routedHandlers.add(new RoutedHandler(handler, true, null));
+                } else if (subscriptions.get(i).contains(eventName)) {
+                    routedHandlers.add(new RoutedHandler(handler, false, resolveAsync(handler, eventName)));
+                }
+            }
+            routes.put(eventName, new EventRoute(routedHandlers));
+        }
+        this.routes = Collections.unmodifiableMap(routes);
+        this.defaultRoute = new EventRoute(dynamicHandlers);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Built event routing table with " + routes.size() + " event routes and " +
+                    dynamicHandlers.size() + " dynamically routed handlers.");
+        }
+    }
+
+    /**
+     * Returns the route of the given event. Events without subscriptions are routed only to the handlers which decide
+     * per event.
+     *
+     * @param eventName Event name.
+     * @return Route of the event.
+     */
+    EventRoute getRoute(String eventName) {
+
+        EventRoute route = routes.get(eventName);
+        return route != null ? route : defaultRoute;
+    }
+
+    private static Boolean resolveAsync(AbstractEventHandler handler, String eventName) {
+
+        if (isOverridden(handler, "isAssociationAsync", String.class)) {
+            return null;
+        }
+        try {
+            return handler.isAssociationAsync(eventName);
+        } catch (IdentityEventException e) {
+            // Resolve it at dispatch time, so that the failure surfaces to the publisher as before.
+            log.warn("Error while resolving the association of handler : " + handler.getName() + " for event : " +
+                    eventName, e);
+            return null;
+        }
+    }
+
+    private static boolean isOverridden(AbstractEventHandler handler, String methodName, Class<?>... parameterTypes) {
+
+        try {
+            return handler.getClass().getMethod(methodName, parameterTypes).getDeclaringClass() !=
+                    AbstractEventHandler.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Handlers of a single event, in priority order.
+     */
+    static final class EventRoute {
+
+        private final List<RoutedHandler> handlers;
+
+        private EventRoute(List<RoutedHandler> handlers) {
+
+            this.handlers = Collections.unmodifiableList(handlers);
+        }
+
+        List<RoutedHandler> getHandlers() {
+
+            return handlers;
+        }
+    }
+
+    /**
+     * A handler of a route, along with what is already known about it for the event of the route.
+     */
+    static final class RoutedHandler {
+
+        private final AbstractEventHandler handler;
+        private final boolean checkCanHandle;
+        private final Boolean async;
+
+        private RoutedHandler(AbstractEventHandler handler, boolean checkCanHandle, Boolean async) {
+
+            this.handler = handler;
+            this.checkCanHandle = checkCanHandle;
+            this.async = async;
+        }
+
+        AbstractEventHandler getHandler() {
+
+            return handler;
+        }
+
+        /**
+         * @return Whether {@link AbstractEventHandler#canHandle(MessageContext)} has to be checked per event.
+         */
+        boolean isCheckCanHandle() {
+
+            return checkCanHandle;
+        }
+
+        /**
+         * @param eventName Event name.
+         * @return Whether the handler is invoked asynchronously for the event.
+         * @throws IdentityEventException If the association of the handler cannot be resolved.
+         */
+        boolean isAsync(String eventName) throws IdentityEventException {
+
+            return async != null ? async : handler.isAssociationAsync(eventName);
+        }
+    }
+}
@@ -21,41 +21,154 @@ package org.wso2.carbon.identity.event.services;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import org.wso2.carbon.identity.event.EventDistributionTask;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
+import org.wso2.carbon.identity.event.bus.EventBusConfig;
+import org.wso2.carbon.identity.event.bus.PartitionedEventBus;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
-import org.wso2.carbon.identity.event.internal.IdentityEventServiceComponent;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class IdentityEventServiceImpl implements IdentityEventService {
 
     private static final Log log = LogFactory.getLog(IdentityEventServiceImpl.class);
-    private EventDistributionTask eventDistributionTask;
+    private final PartitionedEventBus eventBus;
+    private final List<AbstractEventHandler> handlerList;
+    private volatile EventRoutingTable routingTable;
+    private final ConcurrentMap<String, EventDispatchStatistics> dispatchStatistics = new ConcurrentHashMap<>();
 
     public IdentityEventServiceImpl(List<AbstractEventHandler> handlerList, int threadPoolSize) {
-        this.eventDistributionTask = new EventDistributionTask(handlerList, threadPoolSize);
+        this(handlerList, new EventBusConfig(threadPoolSize));
+    }
+
+    public IdentityEventServiceImpl(List<AbstractEventHandler> handlerList, EventBusConfig eventBusConfig) {
+        this.handlerList = handlerList;
+        refreshEventRoutes();
+        this.eventBus = new PartitionedEventBus(eventBusConfig, this::getHandler);
         if (log.isDebugEnabled()) {
-            log.debug("Starting event distribution task from Notification Management component");
+            log.debug("Starting the event bus of the identity event service");
         }
-        new Thread(eventDistributionTask).start();
+        eventBus.start();
     }
+
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
 
-        List<AbstractEventHandler> eventHandlerList = IdentityEventServiceComponent.eventHandlerList;
-        IdentityEventMessageContext eventContext = new IdentityEventMessageContext(event);
-        for (final AbstractEventHandler handler : eventHandlerList) {
-
-            if (handler.canHandle(eventContext)) {
-                if (handler.isAssociationAsync(event.getEventName())) {
-                    eventDistributionTask.addEventToQueue(event);
+        long startTime = System.nanoTime();
+        String eventName = event.getEventName();
+        IdentityEventMessageContext eventContext = null;
+        List<AbstractEventHandler> asyncHandlers = null;
+        boolean failed = true;
+        try {
+            for (EventRoutingTable.RoutedHandler routedHandler : routingTable.getRoute(eventName).getHandlers()) {
+                AbstractEventHandler handler = routedHandler.getHandler();
+                if (routedHandler.isCheckCanHandle()) {
+                    if (eventContext == null) {
+                        eventContext = new IdentityEventMessageContext(event);
+                    }
+                    if (!handler.canHandle(eventContext)) {
+                        continue;
+                    }
+                }
+                if (routedHandler.isAsync(eventName)) {
+                    if (asyncHandlers == null) {
+                        asyncHandlers = new ArrayList<>();
+                    }
+                    asyncHandlers.add(handler);
                 } else {
                     handler.handleEvent(event);
                 }
             }
+            failed = false;
+        } finally {
+            // Queue the event once for all the asynchronous handlers reached, even if a synchronous handler failed.
+            if (asyncHandlers != null) {
+                eventBus.publish(event, asyncHandlers);
+            }
+            if (eventName != null) {
+                getDispatchStatistics(eventName).record(System.nanoTime() - startTime, asyncHandlers != null,
+                        failed);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the event routing table from the handler list. This has to be called whenever a handler is registered
+     * or unregistered.
+     */
+    public void refreshEventRoutes() {
+
+        List<AbstractEventHandler> handlers;
+        synchronized (handlerList) {
+            handlers = new ArrayList<>(handlerList);
+        }
+        routingTable = new EventRoutingTable(handlers);
+    }
+
+    /**
+     * Starts handling the journaled events of the event bus. This has to be called once the event handlers are
+     * registered, since the journaled events are dispatched to the handlers registered by the time they are read.
+     */
+    public void startReplay() {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Starting to handle the journaled events of the identity event service");
+        }
+        eventBus.startReplay();
+    }
+
+    /**
+     * Stops the event bus, after handling the queued events within the drain timeout.
+     */
+    public void shutdown() {
+
+        if (!eventBus.shutdown()) {
+            log.warn("Event bus was stopped before handling all the queued events.");
+        }
+    }
+
+    /**
+     * @return Event bus of the asynchronous handlers, which exposes its queue depths and handler statistics.
+     */
+    public PartitionedEventBus getEventBus() {
+
+        return eventBus;
+    }
+
+    /**
+     * Returns the dispatch statistics of each event type handled so far.
+     *
+     * @return Dispatch statistics keyed by event name.
+     */
+    public Map<String, EventDispatchStatistics> getDispatchStatistics() {
+
+        return Collections.unmodifiableMap(dispatchStatistics);
+    }
+
+    private AbstractEventHandler getHandler(String handlerName) {
+
+        synchronized (handlerList) {
+            for (AbstractEventHandler handler : handlerList) {
+                if (handlerName.equals(handler.getName())) {
+                    return handler;
+                }
+            }
+        }
+        return null;
+    }
+
+    private EventDispatchStatistics getDispatchStatistics(String eventName) {
+
+        EventDispatchStatistics statistics = dispatchStatistics.get(eventName);
+        if (statistics == null) {
+            statistics = dispatchStatistics.computeIfAbsent(eventName, EventDispatchStatistics::new);
         }
+        return statistics;
     }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.testutil.IdentityBaseTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EventJournalTest extends IdentityBaseTest {
+
+    private static final List<String> HANDLER_NAMES = Collections.singletonList("TestHandler");
+
+    private Path journalDirectory;
+    private Path journalFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        journalDirectory = Files.createTempDirectory("event-journal");
+        journalFile = journalDirectory.resolve("test.journal");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(journalDirectory);
+    }
+
+    @Test
+    public void testEventIsJournaledWithItsProperties() throws Exception {
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(IdentityEventConstants.EventProperty.USER_NAME, "user1");
+        properties.put("count", 5);
+        properties.put("roles", Arrays.asList("admin", "everyone"));
+        properties.put("claims", Collections.singletonMap("http://wso2.org/claims/country", "LK"));
+        properties.put("groups", new String[]{"group1"});
+
+        EventJournal journal = new EventJournal(journalFile);
+        Assert.assertTrue(journal.append(new Event("TEST_EVENT", properties), HANDLER_NAMES));
+        List<EventJournal.Entry> entries = journal.read(10);
+        journal.close();
+
+        Assert.assertEquals(entries.size(), 1);
+        Event event = entries.get(0).getEvent();
+        Assert.assertEquals(event.getEventName(), "TEST_EVENT");
+        Assert.assertEquals(entries.get(0).getHandlerNames(), HANDLER_NAMES);
+        Assert.assertEquals(event.getEventProperties().get(IdentityEventConstants.EventProperty.USER_NAME), "user1");
+        Assert.assertEquals(event.getEventProperties().get("count"), 5);
+        Assert.assertEquals(event.getEventProperties().get("roles"), properties.get("roles"));
+        Assert.assertEquals(event.getEventProperties().get("claims"), properties.get("claims"));
+        Assert.assertEquals((String[]) event.getEventProperties().get("groups"), new String[]{"group1"});
+    }
+
+    @Test
+    public void testEventWithCredentialIsNotJournaled() throws Exception {
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(IdentityEventConstants.EventProperty.USER_NAME, "user1");
+        properties.put(IdentityEventConstants.EventProperty.CREDENTIAL, "password");
+
+        EventJournal journal = new EventJournal(journalFile);
+        Assert.assertFalse(journal.append(new Event("TEST_EVENT", properties), HANDLER_NAMES));
+        Assert.assertTrue(journal.isEmpty());
+        journal.close();
+        Assert.assertEquals(Files.size(journalFile), 0);
+    }
+
+    @Test
+    public void testEventWithOtherPropertyTypeIsNotJournaled() throws Exception {
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(IdentityEventConstants.EventProperty.USER_NAME, "user1");
+        properties.put("time", new Date());
+
+        EventJournal journal = new EventJournal(journalFile);
+        Assert.assertFalse(journal.append(new Event("TEST_EVENT", properties), HANDLER_NAMES));
+        Assert.assertTrue(journal.isEmpty());
+        journal.close();
+    }
+
+    @Test
+    public void testRecordWithOtherClassIsDiscarded() throws Exception {
+
+        HashMap<String, Object> properties = new HashMap<>();
+        properties.put("time", new Date());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("TEST_EVENT");
+            out.writeInt(0);
+            try (ObjectOutputStream propertiesOut = new ObjectOutputStream(out)) {
+                propertiesOut.writeObject(properties);
+            }
+        }
+        byte[] record = bytes.toByteArray();
+        Files.write(journalFile, ByteBuffer.allocate(Integer.BYTES + record.length).putInt(record.length)
+                .put(record).array());
+
+        EventJournal journal = new EventJournal(journalFile);
+        Assert.assertFalse(journal.isEmpty());
+        Assert.assertTrue(journal.read(10).isEmpty());
+        Assert.assertTrue(journal.isEmpty());
+        journal.close();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.bus;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.testutil.IdentityBaseTest;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PartitionedEventBusTest extends IdentityBaseTest {
+
+    private static final String HANDLER_NAME = "TestHandler";
+
+    private Path journalDirectory;
+    private TestEventHandler handler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        journalDirectory = Files.createTempDirectory("event-journal");
+        handler = new TestEventHandler();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        File[] files = journalDirectory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(journalDirectory);
+    }
+
+    @Test
+    public void testEventsOfUserAreHandledInOrder() {
+
+        PartitionedEventBus eventBus = createEventBus(4, 100, OverflowPolicy.BLOCK);
+        eventBus.start();
+        for (int i = 0; i < 50; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+            eventBus.publish(createEvent("user2", i), Collections.singletonList(handler));
+        }
+        Assert.assertTrue(eventBus.shutdown());
+
+        Assert.assertEquals(handler.getSequence("user1"), createSequence(50));
+        Assert.assertEquals(handler.getSequence("user2"), createSequence(50));
+        EventHandlerStatistics statistics = eventBus.getHandlerStatistics().get(HANDLER_NAME);
+        Assert.assertEquals(statistics.getHandledCount(), 100);
+        Assert.assertEquals(statistics.getFailedCount(), 0);
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+
+        PartitionedEventBus eventBus = createEventBus(1, 2, OverflowPolicy.DROP_OLDEST);
+        eventBus.start();
+        handler.block();
+        eventBus.publish(createEvent("user1", 0), Collections.singletonList(handler));
+        Assert.assertTrue(handler.awaitBlocked());
+        for (int i = 1; i < 6; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+        }
+        Assert.assertEquals(eventBus.getDroppedEventCount(), 3);
+        Assert.assertEquals(eventBus.getQueueDepths()[0], 2);
+
+        handler.unblock();
+        Assert.assertTrue(eventBus.shutdown());
+        Assert.assertEquals(handler.getSequence("user1"), createSequenceOf(0, 4, 5));
+    }
+
+    @Test
+    public void testSpillToJournal() throws Exception {
+
+        PartitionedEventBus eventBus = createEventBus(1, 2, OverflowPolicy.SPILL);
+        eventBus.start();
+        eventBus.startReplay();
+        handler.block();
+        eventBus.publish(createEvent("user1", 0), Collections.singletonList(handler));
+        Assert.assertTrue(handler.awaitBlocked());
+        for (int i = 1; i < 6; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+        }
+        Assert.assertEquals(eventBus.getSpilledEventCount(), 3);
+
+        handler.unblock();
+        waitUntilHandled(6);
+        Assert.assertTrue(eventBus.shutdown());
+        Assert.assertEquals(handler.getSequence("user1"), createSequence(6));
+    }
+
+    @Test
+    public void testEventsLeftOnShutdownAreJournaled() throws Exception {
+
+        PartitionedEventBus eventBus = new PartitionedEventBus(new EventBusConfig(1, 10, OverflowPolicy.SPILL,
+                journalDirectory, 1), name -> handler);
+        eventBus.start();
+        handler.block();
+        eventBus.publish(createEvent("user1", 0), Collections.singletonList(handler));
+        Assert.assertTrue(handler.awaitBlocked());
+        for (int i = 1; i < 4; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+        }
+        Assert.assertFalse(eventBus.shutdown());
+        handler.unblock();
+        waitUntilHandled(1);
+
+        // The journaled events are handled only once the replay is started on the next start.
+        PartitionedEventBus nextEventBus = createEventBus(1, 10, OverflowPolicy.SPILL);
+        nextEventBus.start();
+        Thread.sleep(1000);
+        Assert.assertEquals(handler.getHandledCount(), 1);
+        nextEventBus.startReplay();
+        waitUntilHandled(4);
+        Assert.assertTrue(nextEventBus.shutdown());
+        Assert.assertEquals(handler.getSequence("user1"), createSequence(4));
+    }
+
+    @Test
+    public void testEventsAreNotJournaledWithoutSpill() throws Exception {
+
+        PartitionedEventBus eventBus = new PartitionedEventBus(new EventBusConfig(1, 10, OverflowPolicy.BLOCK,
+                journalDirectory, 1), name -> handler);
+        eventBus.start();
+        handler.block();
+        eventBus.publish(createEvent("user1", 0), Collections.singletonList(handler));
+        Assert.assertTrue(handler.awaitBlocked());
+        for (int i = 1; i < 4; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+        }
+        Assert.assertFalse(eventBus.shutdown());
+        handler.unblock();
+
+        File[] files = journalDirectory.toFile().listFiles();
+        Assert.assertTrue(files == null || files.length == 0);
+    }
+
+    @Test
+    public void testEventsAreNotBlockedByDefault() throws Exception {
+
+        PartitionedEventBus eventBus = new PartitionedEventBus(new EventBusConfig(1), name -> handler);
+        eventBus.start();
+        handler.block();
+        eventBus.publish(createEvent("user1", 0), Collections.singletonList(handler));
+        Assert.assertTrue(handler.awaitBlocked());
+        for (int i = 1; i < 20000; i++) {
+            eventBus.publish(createEvent("user1", i), Collections.singletonList(handler));
+        }
+        Assert.assertEquals(eventBus.getQueueDepths()[0], 19999);
+
+        handler.unblock();
+        Assert.assertTrue(eventBus.shutdown());
+        Assert.assertEquals(handler.getSequence("user1"), createSequence(20000));
+    }
+
+    private PartitionedEventBus createEventBus(int partitionCount, int queueCapacity, OverflowPolicy overflowPolicy) {
+
+        return new PartitionedEventBus(new EventBusConfig(partitionCount, queueCapacity, overflowPolicy,
+                journalDirectory, 10), name -> HANDLER_NAME.equals(name) ? handler : null);
+    }
+
+    private Event createEvent(String userName, int sequence) {
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(IdentityEventConstants.EventProperty.USER_NAME, userName);
+        properties.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, "carbon.super");
+        properties.put("sequence", sequence);
+        return new Event("TEST_EVENT", properties);
+    }
+
+    private void waitUntilHandled(int count) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (handler.getHandledCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static List<Integer> createSequence(int count) {
+
+        List<Integer> sequence = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sequence.add(i);
+        }
+        return sequence;
+    }
+
+    private static List<Integer> createSequenceOf(Integer... values) {
+
+        List<Integer> sequence = new ArrayList<>();
+        Collections.addAll(sequence, values);
+        return sequence;
+    }
+
+    private static class TestEventHandler extends AbstractEventHandler {
+
+        private final Map<String, List<Integer>> sequences = new HashMap<>();
+        private volatile CountDownLatch blockedLatch;
+        private volatile CountDownLatch releaseLatch;
+        private int handledCount;
+
+        @Override
+        public String getName() {
+
+            return HANDLER_NAME;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+
+            CountDownLatch latch = releaseLatch;
+            if (latch != null) {
+                blockedLatch.countDown();
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                String userName = (String) event.getEventProperties().get(IdentityEventConstants.EventProperty
+                        .USER_NAME);
+                sequences.computeIfAbsent(userName, key -> new ArrayList<>())
+                        .add((Integer) event.getEventProperties().get("sequence"));
+                handledCount++;
+            }
+        }
+
+        void block() {
+
+            blockedLatch = new CountDownLatch(1);
+            releaseLatch = new CountDownLatch(1);
+        }
+
+        boolean awaitBlocked() throws InterruptedException {
+
+            return blockedLatch.await(10, TimeUnit.SECONDS);
+        }
+
+        void unblock() {
+
+            CountDownLatch latch = releaseLatch;
+            releaseLatch = null;
+            latch.countDown();
+        }
+
+        synchronized List<Integer> getSequence(String userName) {
+
+            return new ArrayList<>(sequences.get(userName));
+        }
+
+        synchronized int getHandledCount() {
+
+            return handledCount;
+        }
+    }
+}
@@ -22,6 +22,8 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.core.bean.context.MessageContext;
 import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
+import org.wso2.carbon.identity.event.bean.Subscription;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.event.internal.IdentityEventServiceComponent;
@@ -29,6 +31,9 @@ import org.wso2.carbon.identity.testutil.IdentityBaseTest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.any;
@@ -67,4 +72,88 @@ public class IdentityEventServiceImplTest extends IdentityBaseTest {
 
         Mockito.verify(abstractEventHandler).canHandle(any(MessageContext.class));
     }
+
+    @Test
+    public void testHandleEventRoutesBySubscription() throws Exception {
+
+        CountDownLatch asyncLatch = new CountDownLatch(1);
+        TestEventHandler syncHandler = new TestEventHandler("SyncHandler", "eventA", false, null);
+        TestEventHandler asyncHandler = new TestEventHandler("AsyncHandler", "eventA", true, asyncLatch);
+        TestEventHandler otherHandler = new TestEventHandler("OtherHandler", "eventB", false, null);
+
+        List<AbstractEventHandler> handlers = new ArrayList<>();
+        handlers.add(syncHandler);
+        handlers.add(asyncHandler);
+        handlers.add(otherHandler);
+        IdentityEventServiceImpl identityEventService = new IdentityEventServiceImpl(handlers, 1);
+
+        identityEventService.handleEvent(new Event("eventA"));
+        identityEventService.handleEvent(new Event("eventA"));
+        identityEventService.handleEvent(new Event("unknownEvent"));
+
+        Assert.assertEquals(syncHandler.handledCount, 2);
+        Assert.assertEquals(otherHandler.handledCount, 0);
+        Assert.assertTrue(asyncLatch.await(10, TimeUnit.SECONDS), "Asynchronous handler was not invoked");
+
+        EventDispatchStatistics statistics = identityEventService.getDispatchStatistics().get("eventA");
+        Assert.assertEquals(statistics.getDispatchCount(), 2);
+        Assert.assertEquals(statistics.getAsyncDispatchCount(), 2);
+        Assert.assertEquals(statistics.getFailedDispatchCount(), 0);
+        Assert.assertEquals(identityEventService.getDispatchStatistics().get("unknownEvent").getDispatchCount(), 1);
+    }
+
+    @Test
+    public void testRefreshEventRoutes() throws Exception {
+
+        TestEventHandler handler = new TestEventHandler("Handler", "eventA", false, null);
+        List<AbstractEventHandler> handlers = new ArrayList<>();
+        IdentityEventServiceImpl identityEventService = new IdentityEventServiceImpl(handlers, 1);
+
+        identityEventService.handleEvent(new Event("eventA"));
+        Assert.assertEquals(handler.handledCount, 0);
+
+        handlers.add(handler);
+        identityEventService.refreshEventRoutes();
+        identityEventService.handleEvent(new Event("eventA"));
+        Assert.assertEquals(handler.handledCount, 1);
+
+        handlers.remove(handler);
+        identityEventService.refreshEventRoutes();
+        identityEventService.handleEvent(new Event("eventA"));
+        Assert.assertEquals(handler.handledCount, 1);
+    }
+
+    private static class TestEventHandler extends AbstractEventHandler {
+
+        private final String name;
+        private final CountDownLatch asyncLatch;
+        private volatile int handledCount;
+
+        TestEventHandler(String name, String eventName, boolean async, CountDownLatch asyncLatch) {
+
+            this.name = name;
+            this.asyncLatch = asyncLatch;
+            Properties subscriptionProperties = new Properties();
+            subscriptionProperties.setProperty(name + ".subscription." + eventName + ".operationAsync",
+                    String.valueOf(async));
+            List<Subscription> subscriptions = new ArrayList<>();
+            subscriptions.add(new Subscription(eventName, subscriptionProperties));
+            init(new ModuleConfiguration(new Properties(), subscriptions));
+        }
+
+        @Override
+        public String getName() {
+
+            return name;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+
+            handledCount++;
+            if (asyncLatch != null) {
+                asyncLatch.countDown();
+            }
+        }
+    }
 }
@@ -1309,16 +1309,8 @@ public class IdentityProviderManager implements IdpManager {
     public List<IdentityProvider> getEnabledIdPs(String tenantDomain)
             throws IdentityProviderManagementException {
 
-        List<IdentityProvider> enabledIdentityProviders = new ArrayList<IdentityProvider>();
-        List<IdentityProvider> identityProviers = getIdPs(tenantDomain);
-
-        for (IdentityProvider idp : identityProviers) {
-            if (idp.isEnable()) {
-                enabledIdentityProviders.add(idp);
-            }
-        }
-        return enabledIdentityProviders;
-
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        return dao.getEnabledIdPs(tenantId, tenantDomain);
     }
 
     /**
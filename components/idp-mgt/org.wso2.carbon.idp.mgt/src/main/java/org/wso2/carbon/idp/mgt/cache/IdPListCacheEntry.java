@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.idp.mgt.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.application.common.cache.CacheEntry;
+import org.wso2.carbon.identity.application.common.model.IdentityProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Identity Provider listing of a tenant, along with the enabled Identity Providers and the Identity Provider names
+ * by home realm identifier. The lists are unmodifiable.
+ */
+public class IdPListCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 2717431580146530436L;
+
+    private final List<IdentityProvider> identityProviders;
+    private final List<IdentityProvider> enabledIdentityProviders;
+    private final Map<String, String> idPNamesByHomeRealmId;
+
+    public IdPListCacheEntry(List<IdentityProvider> identityProviders) {
+
+        List<IdentityProvider> enabledIdentityProviders = new ArrayList<>();
+        Map<String, String> idPNamesByHomeRealmId = new HashMap<>();
+        for (IdentityProvider identityProvider : identityProviders) {
+            if (identityProvider.isEnable()) {
+                enabledIdentityProviders.add(identityProvider);
+            }
+            if (StringUtils.isNotEmpty(identityProvider.getHomeRealmId())) {
+                // Keep the first match, as the DB lookup by home realm identifier does.
+                idPNamesByHomeRealmId.putIfAbsent(identityProvider.getHomeRealmId(),
+                        identityProvider.getIdentityProviderName());
+            }
+        }
+        this.identityProviders = Collections.unmodifiableList(new ArrayList<>(identityProviders));
+        this.enabledIdentityProviders = Collections.unmodifiableList(enabledIdentityProviders);
+        this.idPNamesByHomeRealmId = Collections.unmodifiableMap(idPNamesByHomeRealmId);
+    }
+
+    public List<IdentityProvider> getIdentityProviders() {
+        return identityProviders;
+    }
+
+    public List<IdentityProvider> getEnabledIdentityProviders() {
+        return enabledIdentityProviders;
+    }
+
+    /**
+     * @param homeRealmId Home realm identifier.
+     * @return Name of the Identity Provider with the given home realm identifier, or null if the listing does not
+     * contain one.
+     */
+    public String getIdPNameByHomeRealmId(String homeRealmId) {
+        return idPNamesByHomeRealmId.get(homeRealmId);
+    }
+}
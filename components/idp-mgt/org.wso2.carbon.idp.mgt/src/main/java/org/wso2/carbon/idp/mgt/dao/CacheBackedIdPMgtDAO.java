@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.application.common.model.IdentityProviderProperty;
 import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpService;
 import org.wso2.carbon.identity.core.model.ExpressionNode;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementClientException;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
@@ -37,14 +38,20 @@ import org.wso2.carbon.idp.mgt.cache.IdPCacheByName;
 import org.wso2.carbon.idp.mgt.cache.IdPCacheByResourceId;
 import org.wso2.carbon.idp.mgt.cache.IdPCacheEntry;
 import org.wso2.carbon.idp.mgt.cache.IdPHomeRealmIdCacheKey;
+import org.wso2.carbon.idp.mgt.cache.IdPListCacheByTenant;
+import org.wso2.carbon.idp.mgt.cache.IdPListCacheEntry;
+import org.wso2.carbon.idp.mgt.cache.IdPListCacheKey;
 import org.wso2.carbon.idp.mgt.cache.IdPMetadataPropertyCacheKey;
 import org.wso2.carbon.idp.mgt.cache.IdPNameCacheKey;
 import org.wso2.carbon.idp.mgt.cache.IdPResourceIdCacheKey;
+import org.wso2.carbon.idp.mgt.internal.IdentityProviderCacheWarmUpHandler;
 import org.wso2.carbon.idp.mgt.model.ConnectedAppsResult;
 import org.wso2.carbon.idp.mgt.util.IdPManagementConstants;
 import org.wso2.carbon.idp.mgt.util.IdPManagementUtil;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CacheBackedIdPMgtDAO {
@@ -58,6 +65,7 @@ public class CacheBackedIdPMgtDAO {
     private IdPCacheByAuthProperty idPCacheByAuthProperty = null;
     private IdPCacheByResourceId idPCacheByResourceId = null;
     private IdPCacheByMetadataProperty idPCacheByMetadataProperty = null;
+    private IdPListCacheByTenant idPListCacheByTenant = null;
 
     /**
      * @param idPMgtDAO
@@ -69,6 +77,7 @@ public class CacheBackedIdPMgtDAO {
         idPCacheByAuthProperty = IdPCacheByAuthProperty.getInstance();
         idPCacheByResourceId = IdPCacheByResourceId.getInstance();
         idPCacheByMetadataProperty = IdPCacheByMetadataProperty.getInstance();
+        idPListCacheByTenant = IdPListCacheByTenant.getInstance();
     }
 
     /**
@@ -81,7 +90,69 @@ public class CacheBackedIdPMgtDAO {
     public List<IdentityProvider> getIdPs(Connection dbConnection, int tenantId,
                                           String tenantDomain) throws IdentityProviderManagementException {
 
-        return idPMgtDAO.getIdPs(dbConnection, tenantId, tenantDomain);
+        if (dbConnection != null) {
+            // The caller reads within its own transaction.
+            return idPMgtDAO.getIdPs(dbConnection, tenantId, tenantDomain);
+        }
+        return new ArrayList<>(getIdPListCacheEntry(tenantId, tenantDomain).getIdentityProviders());
+    }
+
+    /**
+     * Returns the enabled Identity Providers of the tenant, from the cached Identity Provider listing.
+     *
+     * @param tenantId     Tenant ID.
+     * @param tenantDomain Tenant domain.
+     * @return Enabled Identity Providers.
+     * @throws IdentityProviderManagementException Error when getting the Identity Providers.
+     */
+    public List<IdentityProvider> getEnabledIdPs(int tenantId, String tenantDomain)
+            throws IdentityProviderManagementException {
+
+        return new ArrayList<>(getIdPListCacheEntry(tenantId, tenantDomain).getEnabledIdentityProviders());
+    }
+
+    private IdPListCacheEntry getIdPListCacheEntry(int tenantId, String tenantDomain)
+            throws IdentityProviderManagementException {
+
+        IdPListCacheKey cacheKey = new IdPListCacheKey(tenantDomain);
+        IdPListCacheEntry entry = idPListCacheByTenant.getValueFromCache(cacheKey);
+        if (entry != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cache entry found for Identity Provider listing of tenant domain: " + tenantDomain);
+            }
+            return entry;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Cache entry not found for Identity Provider listing of tenant domain: " + tenantDomain +
+                    ". Fetching entry from DB");
+        }
+        entry = new IdPListCacheEntry(idPMgtDAO.getIdPs(null, tenantId, tenantDomain));
+        idPListCacheByTenant.addToCache(cacheKey, entry);
+        return entry;
+    }
+
+    /**
+     * Clears the cached Identity Provider listing of the tenant. Shared Identity Providers of the super tenant are
+     * listed in every tenant, hence all listings are cleared for them.
+     *
+     * @param idPName      Name of the added, updated or deleted Identity Provider, or null.
+     * @param tenantDomain Tenant domain of the Identity Provider.
+     */
+    public void clearIdPListCache(String idPName, String tenantDomain) {
+
+        if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equalsIgnoreCase(tenantDomain) &&
+                (idPName == null || idPName.startsWith(IdPManagementConstants.SHARED_IDP_PREFIX))) {
+            if (log.isDebugEnabled()) {
+                log.debug("Removing Identity Provider listings of all tenants from cache.");
+            }
+            idPListCacheByTenant.clear();
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Removing Identity Provider listing of tenant domain: " + tenantDomain + " from cache.");
+        }
+        idPListCacheByTenant.clearCacheEntry(new IdPListCacheKey(tenantDomain));
     }
 
     /**
@@ -177,6 +248,8 @@ public class CacheBackedIdPMgtDAO {
             log.debug("Cache entry found for Identity Provider " + idPName);
             IdentityProvider identityProvider = entry.getIdentityProvider();
             IdPManagementUtil.removeRandomPasswords(identityProvider, false);
+            CacheWarmUpService.getInstance().recordAccess(IdentityProviderCacheWarmUpHandler.NAME, tenantDomain,
+                    idPName);
             return identityProvider;
         } else {
             log.debug("Cache entry not found for Identity Provider " + idPName
@@ -187,6 +260,8 @@ public class CacheBackedIdPMgtDAO {
                                                                    tenantId, tenantDomain);
 
         if (identityProvider != null) {
+            CacheWarmUpService.getInstance().recordAccess(IdentityProviderCacheWarmUpHandler.NAME, tenantDomain,
+                    idPName);
             log.debug("Entry fetched from DB for Identity Provider " + idPName + ". Updating cache");
             idPCacheByName.addToCache(cacheKey, new IdPCacheEntry(identityProvider));
             if (identityProvider.getHomeRealmId() != null) {
@@ -396,7 +471,18 @@ public class CacheBackedIdPMgtDAO {
                     + ". Fetching entry from DB");
         }
 
-        IdentityProvider identityProvider = idPMgtDAO.getIdPByRealmId(realmId, tenantId, tenantDomain);
+        IdentityProvider identityProvider = null;
+        IdPListCacheEntry listCacheEntry = idPListCacheByTenant.getValueFromCache(new IdPListCacheKey(tenantDomain));
+        if (listCacheEntry != null) {
+            String idPName = listCacheEntry.getIdPNameByHomeRealmId(realmId);
+            if (idPName != null) {
+                // Resolved by name, through the name cache.
+                identityProvider = getIdPByName(null, idPName, tenantId, tenantDomain);
+            }
+        }
+        if (identityProvider == null) {
+            identityProvider = idPMgtDAO.getIdPByRealmId(realmId, tenantId, tenantDomain);
+        }
 
         if (identityProvider != null) {
             log.debug("Entry fetched from DB for Identity Provider with Home Realm ID " + realmId
@@ -424,7 +510,9 @@ public class CacheBackedIdPMgtDAO {
     public String addIdP(IdentityProvider identityProvider, int tenantId, String
             tenantDomain) throws IdentityProviderManagementException {
 
-        return idPMgtDAO.addIdPWithResourceId(identityProvider, tenantId);
+        String resourceId = idPMgtDAO.addIdPWithResourceId(identityProvider, tenantId);
+        clearIdPListCache(identityProvider.getIdentityProviderName(), tenantDomain);
+        return resourceId;
     }
 
     /**
@@ -446,6 +534,8 @@ public class CacheBackedIdPMgtDAO {
                 tenantId, tenantDomain);
         idPMgtDAO.updateIdPWithResourceId(currentIdentityProvider.getResourceId(),
                 newIdentityProvider, currentIdentityProvider, tenantId);
+        // The listing may have been loaded again before the update was committed.
+        clearIdPListCache(currentIdentityProvider.getIdentityProviderName(), tenantDomain);
     }
 
     /**
@@ -483,6 +573,8 @@ public class CacheBackedIdPMgtDAO {
     public void deleteIdPs(int tenantId) throws IdentityProviderManagementException {
 
         idPMgtDAO.deleteIdPs(tenantId);
+        // Only the tenant ID is known here.
+        idPListCacheByTenant.clear();
         if (log.isDebugEnabled()) {
             log.debug(String.format("All Identity Providers of tenant:%d are deleted", tenantId));
         }
@@ -605,6 +697,7 @@ public class CacheBackedIdPMgtDAO {
     public void clearIdpCache(String idPName, String resourceId, int tenantId, String tenantDomain) throws
             IdentityProviderManagementException {
 
+        clearIdPListCache(idPName, tenantDomain);
 
         // clearing cache entries related to the IDP.
         IdentityProvider identityProvider;
@@ -36,6 +36,7 @@ import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
 import org.wso2.carbon.identity.core.ConnectorConfig;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
@@ -235,6 +236,7 @@ public class IdPManagementServiceComponent {
                 addSuperTenantIdp();
             }
             bundleCtx.registerService(IdpManager.class, IdentityProviderManager.getInstance(), null);
+            bundleCtx.registerService(CacheWarmUpHandler.class, new IdentityProviderCacheWarmUpHandler(), null);
 
             buildFileBasedIdPList();
             cleanUpRemovedIdps();
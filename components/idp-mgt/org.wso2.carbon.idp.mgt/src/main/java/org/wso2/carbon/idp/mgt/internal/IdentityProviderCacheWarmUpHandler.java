@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.idp.mgt.internal;
+
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.cache.CacheWarmUpHandler;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.idp.mgt.dao.CacheBackedIdPMgtDAO;
+import org.wso2.carbon.idp.mgt.dao.IdPManagementDAO;
+
+import java.util.List;
+
+/**
+ * Loads the most accessed identity providers of a tenant into the identity provider caches. The entries are the
+ * names of the identity providers, as recorded by the cache backed identity provider DAO.
+ */
+public class IdentityProviderCacheWarmUpHandler implements CacheWarmUpHandler {
+
+    public static final String NAME = "IdentityProvider";
+
+    private final CacheBackedIdPMgtDAO dao = new CacheBackedIdPMgtDAO(new IdPManagementDAO());
+
+    @Override
+    public String getName() {
+
+        return NAME;
+    }
+
+    @Override
+    public void warmUp(String tenantDomain, List<String> entries) throws IdentityException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        for (String idPName : entries) {
+            // The cache backed DAO adds the loaded identity provider to the caches.
+            dao.getIdPByName(null, idPName, tenantId, tenantDomain);
+        }
+    }
+}
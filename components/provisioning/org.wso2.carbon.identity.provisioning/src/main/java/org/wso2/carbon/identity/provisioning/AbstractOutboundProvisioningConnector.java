@@ -27,6 +27,7 @@ import org.wso2.carbon.identity.application.common.model.Property;
 import org.wso2.carbon.user.core.UserCoreConstants;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +57,41 @@ public abstract class AbstractOutboundProvisioningConnector implements Serializa
     public abstract ProvisionedIdentifier provision(ProvisioningEntity provisioningEntity)
             throws IdentityProvisioningException;
 
+    /**
+     * Override to return true if the connector provisions a list of entities more efficiently than one entity at a
+     * time, e.g. with a single bulk request to the identity provider. Non blocking operations of such connectors are
+     * grouped and delivered with {@link #provisionBatch(List)}.
+     *
+     * @return Whether the connector supports batch provisioning.
+     */
+    public boolean isBatchProvisioningSupported() {
+        return false;
+    }
+
+    /**
+     * Provisions a list of entities. The default implementation provisions them one at a time, and reports the
+     * failure of an entity in its result instead of failing the rest of the batch. A failure of the whole batch,
+     * such as a failed bulk request, is thrown, and all of its entities are then retried one at a time with
+     * {@link #provision(ProvisioningEntity)}. Otherwise only the entities with a failed result are retried.
+     *
+     * @param provisioningEntities entities to provision
+     * @return result of each entity, in the order of the given entities
+     * @throws IdentityProvisioningException
+     */
+    public List<BatchProvisioningResult> provisionBatch(List<ProvisioningEntity> provisioningEntities)
+            throws IdentityProvisioningException {
+
+        List<BatchProvisioningResult> results = new ArrayList<>(provisioningEntities.size());
+        for (ProvisioningEntity provisioningEntity : provisioningEntities) {
+            try {
+                results.add(BatchProvisioningResult.success(provision(provisioningEntity)));
+            } catch (IdentityProvisioningException | RuntimeException e) {
+                results.add(BatchProvisioningResult.failure(e));
+            }
+        }
+        return results;
+    }
+
     /**
      * override only if needed - if claims are controlled by the identity provider, this will return
      * null. If it is connector specific this must return the corresponding claim dialect.
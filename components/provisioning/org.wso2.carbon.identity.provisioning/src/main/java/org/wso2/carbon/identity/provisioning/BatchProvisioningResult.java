@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+/**
+ * Outcome of provisioning a single entity of a batch, with
+ * {@link AbstractOutboundProvisioningConnector#provisionBatch(java.util.List)}. Only the entities which failed are
+ * provisioned again.
+ */
+public class BatchProvisioningResult {
+
+    private final ProvisionedIdentifier provisionedIdentifier;
+    private final Exception error;
+
+    private BatchProvisioningResult(ProvisionedIdentifier provisionedIdentifier, Exception error) {
+
+        this.provisionedIdentifier = provisionedIdentifier;
+        this.error = error;
+    }
+
+    /**
+     * @param provisionedIdentifier Identifier returned by the connector, if any.
+     * @return Result of an entity which was provisioned.
+     */
+    public static BatchProvisioningResult success(ProvisionedIdentifier provisionedIdentifier) {
+
+        return new BatchProvisioningResult(provisionedIdentifier, null);
+    }
+
+    /**
+     * @param error Reason of the failure.
+     * @return Result of an entity which was not provisioned.
+     */
+    public static BatchProvisioningResult failure(Exception error) {
+
+        return new BatchProvisioningResult(null, error);
+    }
+
+    /**
+     * @return Whether the entity was provisioned.
+     */
+    public boolean isSuccess() {
+
+        return error == null;
+    }
+
+    /**
+     * @return Identifier returned by the connector, null if it returned none or the entity was not provisioned.
+     */
+    public ProvisionedIdentifier getProvisionedIdentifier() {
+
+        return provisionedIdentifier;
+    }
+
+    /**
+     * @return Reason of the failure, null if the entity was provisioned.
+     */
+    public Exception getError() {
+
+        return error;
+    }
+}
@@ -71,6 +71,22 @@ public class IdentityProvisioningConstants {
                                                                                     "AND APP.TENANT_ID = PC.TENANT_ID" +
                                                                                     " AND APP.TENANT_ID = ?";
 
+        public static final String ADD_OUTBOX_ENTRY_SQL = "INSERT INTO IDP_PROVISIONING_OUTBOX (ID, TENANT_ID, " +
+                "IDP_NAME, CONNECTOR_TYPE, PROVISIONING_ENTITY, ATTEMPT_COUNT, NEXT_ATTEMPT_TIME, TIME_CREATED) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        public static final String DELETE_OUTBOX_ENTRY_SQL = "DELETE FROM IDP_PROVISIONING_OUTBOX WHERE ID = ?";
+
+        public static final String UPDATE_OUTBOX_ENTRY_SQL = "UPDATE IDP_PROVISIONING_OUTBOX SET ATTEMPT_COUNT = ?, " +
+                "NEXT_ATTEMPT_TIME = ? WHERE ID = ?";
+
+        public static final String CLAIM_OUTBOX_ENTRY_SQL = "UPDATE IDP_PROVISIONING_OUTBOX SET " +
+                "NEXT_ATTEMPT_TIME = ? WHERE ID = ? AND NEXT_ATTEMPT_TIME = ?";
+
+        public static final String GET_DUE_OUTBOX_ENTRIES_SQL = "SELECT ID, TENANT_ID, IDP_NAME, CONNECTOR_TYPE, " +
+                "PROVISIONING_ENTITY, ATTEMPT_COUNT, NEXT_ATTEMPT_TIME FROM IDP_PROVISIONING_OUTBOX WHERE " +
+                "NEXT_ATTEMPT_TIME <= ? ORDER BY NEXT_ATTEMPT_TIME";
+
         private SQLQueries(){}
     }
 
@@ -92,4 +108,41 @@ public class IdentityProvisioningConstants {
 
         private PropertyConfig(){}
     }
+
+    /**
+     * identity.xml properties of the outbound provisioning executor. Backoff, poll interval and lease time are in
+     * seconds.
+     */
+    public static class ExecutorConfig {
+
+        public static final String POOL_SIZE = "OutboundProvisioning.Executor.PoolSize";
+        public static final String QUEUE_CAPACITY = "OutboundProvisioning.Executor.QueueCapacity";
+        public static final String MAX_CONCURRENCY_PER_IDP = "OutboundProvisioning.Executor.MaxConcurrencyPerIdP";
+        public static final String RETRY_MAX_ATTEMPTS = "OutboundProvisioning.Retry.MaxAttempts";
+        public static final String RETRY_INITIAL_BACKOFF = "OutboundProvisioning.Retry.InitialBackoff";
+        public static final String RETRY_MAX_BACKOFF = "OutboundProvisioning.Retry.MaxBackoff";
+        public static final String OUTBOX_ENABLE = "OutboundProvisioning.Outbox.Enable";
+        public static final String OUTBOX_POLL_INTERVAL = "OutboundProvisioning.Outbox.PollInterval";
+        public static final String OUTBOX_LEASE_TIME = "OutboundProvisioning.Outbox.LeaseTime";
+        public static final String OUTBOX_BATCH_SIZE = "OutboundProvisioning.Outbox.BatchSize";
+        public static final String BATCH_ENABLE = "OutboundProvisioning.Batch.Enable";
+        public static final String BATCH_SIZE = "OutboundProvisioning.Batch.Size";
+        public static final String BATCH_MAX_WAIT_TIME = "OutboundProvisioning.Batch.MaxWaitTime";
+
+        public static final int DEFAULT_POOL_SIZE = 10;
+        public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+        public static final int DEFAULT_MAX_CONCURRENCY_PER_IDP = 4;
+        public static final int DEFAULT_RETRY_MAX_ATTEMPTS = 5;
+        public static final int DEFAULT_RETRY_INITIAL_BACKOFF = 5;
+        public static final int DEFAULT_RETRY_MAX_BACKOFF = 300;
+        public static final int DEFAULT_OUTBOX_POLL_INTERVAL = 30;
+        public static final int DEFAULT_OUTBOX_LEASE_TIME = 300;
+        public static final int DEFAULT_OUTBOX_BATCH_SIZE = 100;
+        public static final int DEFAULT_BATCH_SIZE = 100;
+        public static final int DEFAULT_BATCH_MAX_WAIT_TIME = 1000;
+
+        private ExecutorConfig() {
+
+        }
+    }
 }
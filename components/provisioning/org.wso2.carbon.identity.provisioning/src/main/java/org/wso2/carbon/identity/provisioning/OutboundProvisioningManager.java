@@ -20,7 +20,6 @@ package org.wso2.carbon.identity.provisioning;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.ListUtils;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -66,9 +65,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -117,7 +114,9 @@ public class OutboundProvisioningManager {
     }
 
     /**
-     * TODO: Need to cache the output from this method.
+     * Resolves the provisioning connectors of a service provider, along with their identity providers. The result is
+     * cached per service provider and tenant, and is cleared when the service provider or one of its provisioning
+     * identity providers is updated, or when a connector factory is added or removed.
      *
      * @return
      * @throws UserStoreException
@@ -149,9 +148,11 @@ public class OutboundProvisioningManager {
             carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
             carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
 
-            // reading from the cache
-            if (serviceProvider != null && tenantDomain != null) {
-                key = new ServiceProviderProvisioningConnectorCacheKey(serviceProvider.getApplicationName(), tenantDomain);
+            // reading from the cache. the entries are keyed by the tenant of the service provider, as the
+            // management listeners clear them.
+            if (serviceProvider != null && tenantDomainName != null) {
+                key = new ServiceProviderProvisioningConnectorCacheKey(serviceProvider.getApplicationName(),
+                        tenantDomainName);
 
                 entry = ServiceProviderProvisioningConnectorCache.getInstance().getValueFromCache(key);
 
@@ -239,6 +240,8 @@ public class OutboundProvisioningManager {
                             proConfig
                                     .setProvisioningConnectorEntry(new SimpleEntry<>(
                                             connectorType, connector));
+                            proConfig.setIdentityProvider(IdentityProviderManager.getInstance()
+                                    .getIdPByName(fIdP.getIdentityProviderName(), tenantDomainName));
                             proConfig.setBlocking(defaultConnector.isBlocking());
                             proConfig.setPolicyEnabled(defaultConnector.isRulesEnabled());
                             connectors.put(fIdP.getIdentityProviderName(), proConfig);
@@ -404,18 +407,11 @@ public class OutboundProvisioningManager {
 
             // get all the provisioning connectors associated with local service provider for
             // out-bound provisioning.
-            // TODO: stop loading connectors all the time.
             Map<String, RuntimeProvisioningConfig> connectors = getOutboundProvisioningConnectors(
                     serviceProvider, tenantDomainName);
 
             ProvisioningEntity outboundProEntity;
 
-            ExecutorService executors = null;
-
-            if (MapUtils.isNotEmpty(connectors)) {
-                executors = Executors.newFixedThreadPool(connectors.size());
-            }
-
             for (Iterator<Entry<String, RuntimeProvisioningConfig>> iterator = connectors
                     .entrySet().iterator(); iterator.hasNext(); ) {
 
@@ -428,8 +424,11 @@ public class OutboundProvisioningManager {
                 String connectorType = connectorEntry.getKey();
                 String idPName = entry.getKey();
 
-                IdentityProvider provisioningIdp = IdentityProviderManager.getInstance()
-                        .getIdPByName(idPName, tenantDomainName);
+                // resolved along with the connector, unless the cache entry predates it.
+                IdentityProvider provisioningIdp = entry.getValue().getIdentityProvider();
+                if (provisioningIdp == null) {
+                    provisioningIdp = IdentityProviderManager.getInstance().getIdPByName(idPName, tenantDomainName);
+                }
 
                 if (provisioningIdp == null) {
                     // this is an exception if we cannot find the provisioning identity provider
@@ -521,12 +520,12 @@ public class OutboundProvisioningManager {
 
                         outboundProEntity = new ProvisioningEntity(ProvisioningEntityType.USER,
                                                                    user, ProvisioningOperation.POST, mappedUserClaims);
-                        Callable<Boolean> proThread = new ProvisioningThread(outboundProEntity,
+                        ProvisioningThread proThread = new ProvisioningThread(outboundProEntity,
                                                                              tenantDomainName, connector, connectorType, idPName, dao);
                         outboundProEntity.setIdentifier(provisionedIdentifier);
                         outboundProEntity.setJitProvisioning(jitProvisioning);
                         boolean isBlocking = entry.getValue().isBlocking();
-                        executeOutboundProvisioning(provisioningEntity, executors, connectorType, idPName, proThread, isBlocking);
+                        executeOutboundProvisioning(provisioningEntity, connectorType, idPName, proThread, isBlocking);
 
                     }
 
@@ -544,12 +543,12 @@ public class OutboundProvisioningManager {
 
                             outboundProEntity = new ProvisioningEntity(ProvisioningEntityType.USER,
                                                                        user, ProvisioningOperation.DELETE, mappedUserClaims);
-                            Callable<Boolean> proThread = new ProvisioningThread(outboundProEntity,
+                            ProvisioningThread proThread = new ProvisioningThread(outboundProEntity,
                                                                                  tenantDomainName, connector, connectorType, idPName, dao);
                             outboundProEntity.setIdentifier(provisionedUserIdentifier);
                             outboundProEntity.setJitProvisioning(jitProvisioning);
                             boolean isBlocking = entry.getValue().isBlocking();
-                            executeOutboundProvisioning(provisioningEntity, executors, connectorType, idPName, proThread, isBlocking);
+                            executeOutboundProvisioning(provisioningEntity, connectorType, idPName, proThread, isBlocking);
                         }
                     }
 
@@ -569,7 +568,7 @@ public class OutboundProvisioningManager {
                     outboundProEntity = new ProvisioningEntity(provisioningEntity.getEntityType(),
                                                                provisioningEntity.getEntityName(), provisioningOp, mapppedClaims);
 
-                    Callable<Boolean> proThread = new ProvisioningThread(outboundProEntity,
+                    ProvisioningThread proThread = new ProvisioningThread(outboundProEntity,
                                                                          tenantDomainName, connector, connectorType,
                                                                          idPName, dao);
                     outboundProEntity.setIdentifier(provisionedIdentifier);
@@ -585,43 +584,77 @@ public class OutboundProvisioningManager {
                                                                                              connectorType);
                     }
                     if (isAllowed) {
-                        executeOutboundProvisioning(provisioningEntity, executors, connectorType, idPName, proThread, isBlocking);
+                        executeOutboundProvisioning(provisioningEntity, connectorType, idPName, proThread, isBlocking);
                     }
                 }
             }
 
-            if (executors != null) {
-                executors.shutdown();
-            }
-
         } catch (CarbonException | IdentityApplicationManagementException | IdentityProviderManagementException | UserStoreException e) {
             throw new IdentityProvisioningException("Error occurred while checking for user " +
                                                     "provisioning", e);
         }
     }
 
-    private void executeOutboundProvisioning(ProvisioningEntity provisioningEntity, ExecutorService executors,
-                                             String connectorType,
-                                             String idPName, Callable<Boolean> proThread, boolean isBlocking)
+    private void executeOutboundProvisioning(ProvisioningEntity provisioningEntity, String connectorType,
+                                             String idPName, ProvisioningThread proThread, boolean isBlocking)
             throws IdentityProvisioningException {
         if (!isBlocking) {
-            executors.submit(proThread);
+            if (!ProvisioningBatcher.getInstance().offer(proThread)) {
+                ProvisioningExecutor.getInstance().submit(proThread);
+            }
         } else {
             try {
 
                 boolean success = proThread.call();
                 if (!success) {
-                    if (executors != null) {
-                        executors.shutdown();
-                    }
                     throw new IdentityProvisioningException
                             (generateMessageOnFailureProvisioningOperation(idPName,
                                                                            connectorType, provisioningEntity));
                     //DO Rollback
                 }
             } catch (Exception e) { //call() of Callable interface throws this exception
-                handleException(idPName, connectorType, provisioningEntity, executors, e);
+                handleException(idPName, connectorType, provisioningEntity, null, e);
+            }
+        }
+    }
+
+    /**
+     * Builds the provisioning operation of an entity to the given provisioning connector of an identity provider.
+     * Used to replay the operations persisted in the outbound provisioning outbox.
+     *
+     * @param provisioningEntity Outbound provisioning entity.
+     * @param tenantDomainName   Tenant domain of the identity provider.
+     * @param idPName            Name of the identity provider.
+     * @param connectorType      Type of the provisioning connector.
+     * @return Provisioning operation.
+     * @throws IdentityProvisioningException If the connector is no longer available.
+     */
+    ProvisioningThread getProvisioningThread(ProvisioningEntity provisioningEntity, String tenantDomainName,
+                                             String idPName, String connectorType)
+            throws IdentityProvisioningException {
+
+        try {
+            IdentityProvider identityProvider = IdentityProviderManager.getInstance()
+                    .getEnabledIdPByName(idPName, tenantDomainName);
+            if (identityProvider == null || identityProvider.getDefaultProvisioningConnectorConfig() == null ||
+                    !connectorType.equals(identityProvider.getDefaultProvisioningConnectorConfig().getName())) {
+                throw new IdentityProvisioningException("Provisioning connector : " + connectorType + " of idp : " +
+                        idPName + " is not available in tenant : " + tenantDomainName);
+            }
+            boolean enableJitProvisioning = identityProvider.getJustInTimeProvisioningConfig() != null &&
+                    identityProvider.getJustInTimeProvisioningConfig().isProvisioningEnabled();
+            AbstractOutboundProvisioningConnector connector = getOutboundProvisioningConnector(identityProvider,
+                    IdentityProvisionServiceComponent.getConnectorFactories(), tenantDomainName,
+                    enableJitProvisioning);
+            if (connector == null) {
+                throw new IdentityProvisioningException("Provisioning connector : " + connectorType + " of idp : " +
+                        idPName + " is not enabled in tenant : " + tenantDomainName);
             }
+            return new ProvisioningThread(provisioningEntity, tenantDomainName, connector, connectorType, idPName,
+                    dao);
+        } catch (IdentityProviderManagementException e) {
+            throw new IdentityProvisioningException("Error while loading the provisioning connector : " +
+                    connectorType + " of idp : " + idPName, e);
         }
     }
 
@@ -963,7 +996,7 @@ public class OutboundProvisioningManager {
      * @param idPName
      * @param connectorType
      * @param provisioningEntity
-     * @param executors
+     * @param executors no longer used, as non blocking operations run on the {@link ProvisioningExecutor}
      * @param e
      */
     protected void handleException(String idPName, String connectorType, ProvisioningEntity provisioningEntity,
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Provisions the operations of a single connector of an identity provider in one
+ * {@link AbstractOutboundProvisioningConnector#provisionBatch(List)} call. The result tells which of the operations
+ * were delivered and recorded, so that only the others are retried.
+ */
+public class ProvisioningBatchThread implements Callable<boolean[]> {
+
+    private static final Log log = LogFactory.getLog(ProvisioningBatchThread.class);
+
+    private final List<ProvisioningThread> provisioningThreads;
+
+    /**
+     * @param provisioningThreads Operations of the same tenant, identity provider and connector.
+     */
+    public ProvisioningBatchThread(List<ProvisioningThread> provisioningThreads) {
+
+        this.provisioningThreads = provisioningThreads;
+    }
+
+    @Override
+    public boolean[] call() throws IdentityProvisioningException {
+
+        ProvisioningThread firstThread = provisioningThreads.get(0);
+        String tenantDomainName = firstThread.getTenantDomainName();
+        List<ProvisioningEntity> provisioningEntities = new ArrayList<>(provisioningThreads.size());
+        for (ProvisioningThread provisioningThread : provisioningThreads) {
+            provisioningEntities.add(provisioningThread.getProvisioningEntity());
+        }
+
+        boolean[] delivered = new boolean[provisioningThreads.size()];
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomainName);
+            PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                    .setTenantId(ProvisioningThread.getTenantIdFromDomain(tenantDomainName));
+
+            List<BatchProvisioningResult> results = firstThread.getConnector().provisionBatch(provisioningEntities);
+            if (results == null || results.size() != provisioningEntities.size()) {
+                throw new IdentityProvisioningException("Connector : " + firstThread.getConnectorType() +
+                        " returned " + (results == null ? 0 : results.size()) + " results for a batch of " +
+                        provisioningEntities.size() + " entities.");
+            }
+
+            for (int i = 0; i < provisioningThreads.size(); i++) {
+                ProvisioningThread provisioningThread = provisioningThreads.get(i);
+                BatchProvisioningResult result = results.get(i);
+                if (result == null || !result.isSuccess()) {
+                    log.error("Provisioning for Entity " + provisioningThread.getProvisioningEntity().getEntityName() +
+                            " For operation = " + provisioningThread.getProvisioningEntity().getOperation() +
+                            " failed in the batch.", result == null ? null : result.getError());
+                    continue;
+                }
+                try {
+                    provisioningThread.storeProvisioningResult(result.getProvisionedIdentifier());
+                    delivered[i] = true;
+                } catch (Exception e) {
+                    log.error("Error while storing the provisioning result of entity : " +
+                            provisioningThread.getProvisioningEntity().getEntityName() + " for operation = " +
+                            provisioningThread.getProvisioningEntity().getOperation(), e);
+                }
+            }
+        } catch (Exception e) {
+            String errMsg = "Batch provisioning of " + provisioningEntities.size() + " entities to idp : " +
+                    firstThread.getIdPName() + " with connector : " + firstThread.getConnectorType();
+            log.error(errMsg, e);
+            throw new IdentityProvisioningException(errMsg, e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.ExecutorConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups the non blocking operations of connectors which support batch provisioning, so that a bulk import does not
+ * make a remote call per entity. Operations are grouped per tenant, identity provider and connector, and a group is
+ * handed over to the {@link ProvisioningExecutor} once it reaches the batch size, or once its first operation waited
+ * for the maximum wait time.
+ * <p>
+ * An operation is persisted in the outbox, if it is enabled, as soon as it is added to a batch. A batch which is due
+ * while the lane of its identity provider is full is handed over again after the maximum wait time, so that the timer
+ * never runs provisioning work. Batching is disabled unless it is enabled in the configuration.
+ */
+public class ProvisioningBatcher {
+
+    private static final Log log = LogFactory.getLog(ProvisioningBatcher.class);
+
+    private static volatile ProvisioningBatcher instance;
+
+    private final ProvisioningExecutor provisioningExecutor;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxWaitTimeMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+    /**
+     * @param provisioningExecutor Executor to deliver the batches on.
+     * @param enabled              Whether operations are batched.
+     * @param batchSize            Maximum number of operations in a batch.
+     * @param maxWaitTimeMillis    Maximum time an operation waits for its batch to fill up.
+     */
+    ProvisioningBatcher(ProvisioningExecutor provisioningExecutor, boolean enabled, int batchSize,
+                        long maxWaitTimeMillis) {
+
+        this.provisioningExecutor = provisioningExecutor;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OutboundProvisioningBatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ProvisioningBatcher getInstance() {
+
+        if (instance == null) {
+            synchronized (ProvisioningBatcher.class) {
+                if (instance == null) {
+                    String enable = IdentityUtil.getProperty(ExecutorConfig.BATCH_ENABLE);
+                    instance = new ProvisioningBatcher(ProvisioningExecutor.getInstance(),
+                            StringUtils.isNotBlank(enable) && Boolean.parseBoolean(enable.trim()),
+                            ProvisioningExecutor.getPositiveProperty(ExecutorConfig.BATCH_SIZE,
+                                    ExecutorConfig.DEFAULT_BATCH_SIZE),
+                            ProvisioningExecutor.getPositiveProperty(ExecutorConfig.BATCH_MAX_WAIT_TIME,
+                                    ExecutorConfig.DEFAULT_BATCH_MAX_WAIT_TIME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts down the batcher of the bundle, if one is created, so that a new one is created along with a new
+     * executor when the bundle is activated again.
+     */
+    public static void shutdownInstance() {
+
+        ProvisioningBatcher batcher;
+        synchronized (ProvisioningBatcher.class) {
+            batcher = instance;
+            instance = null;
+        }
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    /**
+     * Adds a non blocking provisioning operation to the batch of its connector.
+     *
+     * @param provisioningThread Provisioning operation.
+     * @return false if the connector does not support batch provisioning, in which case the operation has to be
+     * submitted on its own.
+     */
+    public boolean offer(ProvisioningThread provisioningThread) {
+
+        if (!enabled || batchSize < 2 || provisioningThread.getConnector() == null ||
+                !provisioningThread.getConnector().isBatchProvisioningSupported()) {
+            return false;
+        }
+
+        String key = provisioningThread.getTenantDomainName() + ":" + provisioningThread.getIdPName() + ":" +
+                provisioningThread.getConnectorType();
+        // Persist the operation before it waits in the batch, so that it is replayed if the node goes down.
+        ProvisioningExecutor.ProvisioningTask task = provisioningExecutor.createTask(provisioningThread);
+        while (true) {
+            Batch batch = batches.computeIfAbsent(key, k -> new Batch(k));
+            List<ProvisioningExecutor.ProvisioningTask> fullBatch;
+            synchronized (batch) {
+                if (batch.closed) {
+                    // Flushed in the meantime. Start a new batch.
+                    continue;
+                }
+                batch.tasks.add(task);
+                if (batch.tasks.size() < batchSize) {
+                    if (batch.tasks.size() == 1) {
+                        scheduleFlush(batch);
+                    }
+                    return true;
+                }
+                fullBatch = batch.close();
+            }
+            // A full batch is handed over by the publisher, which runs it when the lane is full.
+            provisioningExecutor.dispatchBatch(fullBatch, true);
+            return true;
+        }
+    }
+
+    /**
+     * Hands over the pending batches to the executor, and stops the batching timer.
+     */
+    public void shutdown() {
+
+        // Pending flushes and hand overs are run right away, and they run on this thread once the timer is stopped.
+        for (Runnable pendingTask : scheduler.shutdownNow()) {
+            pendingTask.run();
+        }
+        for (Batch batch : batches.values()) {
+            flush(batch);
+        }
+    }
+
+    private void scheduleFlush(Batch batch) {
+
+        try {
+            scheduler.schedule(() -> flush(batch), maxWaitTimeMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Batcher is shut down. Flushing the batch of " + batch.key + " right away.");
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+
+        List<ProvisioningExecutor.ProvisioningTask> tasks;
+        synchronized (batch) {
+            if (batch.closed) {
+                return;
+            }
+            tasks = batch.close();
+        }
+        handOver(tasks);
+    }
+
+    private void handOver(List<ProvisioningExecutor.ProvisioningTask> tasks) {
+
+        if (!scheduler.isShutdown()) {
+            if (provisioningExecutor.dispatchBatch(tasks, false)) {
+                return;
+            }
+            try {
+                scheduler.schedule(() -> handOver(tasks), maxWaitTimeMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shut down in the meantime.
+            }
+        }
+        provisioningExecutor.dispatchBatch(tasks, true);
+    }
+
+    /**
+     * Pending operations of a single connector. A batch is closed once it is handed over to the executor.
+     */
+    private final class Batch {
+
+        private final String key;
+        private final List<ProvisioningExecutor.ProvisioningTask> tasks = new ArrayList<>();
+        private boolean closed;
+
+        Batch(String key) {
+
+            this.key = key;
+        }
+
+        private List<ProvisioningExecutor.ProvisioningTask> close() {
+
+            closed = true;
+            batches.remove(key, this);
+            return tasks;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery counters of the provisioning connector of an identity provider, as run by the
+ * {@link ProvisioningExecutor}.
+ */
+public class ProvisioningConnectorStatistics {
+
+    private final String tenantDomain;
+    private final String idPName;
+    private final String connectorType;
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder discardedCount = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final LongAccumulator maxLatency = new LongAccumulator(Long::max, 0L);
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    ProvisioningConnectorStatistics(String tenantDomain, String idPName, String connectorType) {
+
+        this.tenantDomain = tenantDomain;
+        this.idPName = idPName;
+        this.connectorType = connectorType;
+    }
+
+    void recordSubmission() {
+
+        submittedCount.increment();
+        backlog.incrementAndGet();
+    }
+
+    void recordCompletion(long latencyNanos, boolean success) {
+
+        backlog.decrementAndGet();
+        if (success) {
+            successCount.increment();
+        } else {
+            failureCount.increment();
+        }
+        totalLatency.add(latencyNanos);
+        maxLatency.accumulate(latencyNanos);
+    }
+
+    void recordRetry() {
+
+        retryCount.increment();
+    }
+
+    void recordDiscard() {
+
+        discardedCount.increment();
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getIdPName() {
+
+        return idPName;
+    }
+
+    public String getConnectorType() {
+
+        return connectorType;
+    }
+
+    /**
+     * @return Number of provisioning operations submitted, including retries.
+     */
+    public long getSubmittedCount() {
+
+        return submittedCount.sum();
+    }
+
+    /**
+     * @return Number of provisioning operations delivered.
+     */
+    public long getSuccessCount() {
+
+        return successCount.sum();
+    }
+
+    /**
+     * @return Number of failed delivery attempts.
+     */
+    public long getFailureCount() {
+
+        return failureCount.sum();
+    }
+
+    /**
+     * @return Number of delivery attempts scheduled for retry.
+     */
+    public long getRetryCount() {
+
+        return retryCount.sum();
+    }
+
+    /**
+     * @return Number of provisioning operations given up on after the maximum number of attempts.
+     */
+    public long getDiscardedCount() {
+
+        return discardedCount.sum();
+    }
+
+    /**
+     * @return Number of provisioning operations queued or running on this node.
+     */
+    public int getBacklog() {
+
+        return backlog.get();
+    }
+
+    /**
+     * @return Number of delivered provisioning operations per second, over the time spent delivering them.
+     */
+    public double getThroughput() {
+
+        long totalLatencyNanos = totalLatency.sum();
+        return totalLatencyNanos == 0 ? 0 : getSuccessCount() * 1_000_000_000.0 / totalLatencyNanos;
+    }
+
+    /**
+     * @return Average delivery latency in nanoseconds.
+     */
+    public long getAverageLatencyNanos() {
+
+        long count = getSuccessCount() + getFailureCount();
+        return count == 0 ? 0 : totalLatency.sum() / count;
+    }
+
+    /**
+     * @return Maximum delivery latency in nanoseconds.
+     */
+    public long getMaxLatencyNanos() {
+
+        return maxLatency.get();
+    }
+
+    @Override
+    public String toString() {
+
+        return "ProvisioningConnectorStatistics{tenantDomain=" + tenantDomain + ", idPName=" + idPName +
+                ", connectorType=" + connectorType + ", submittedCount=" + getSubmittedCount() + ", successCount=" +
+                getSuccessCount() + ", failureCount=" + getFailureCount() + ", retryCount=" + getRetryCount() +
+                ", discardedCount=" + getDiscardedCount() + ", backlog=" + getBacklog() +
+                ", averageLatencyNanos=" + getAverageLatencyNanos() + ", maxLatencyNanos=" + getMaxLatencyNanos() +
+                "}";
+    }
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.base.IdentityException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.ExecutorConfig;
+import org.wso2.carbon.identity.provisioning.dao.ProvisioningOutboxDAO;
+import org.wso2.carbon.identity.provisioning.dao.ProvisioningOutboxEntry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs non blocking outbound provisioning operations on a bounded thread pool shared by all the tenants.
+ * <p>
+ * Operations of an identity provider are queued in a lane of their own, and at most the configured number of them run
+ * at a time, so that a slow identity provider cannot occupy the whole pool. When a lane or the pool is full, the
+ * operation runs on the publishing thread, which slows the publisher down instead of dropping the operation. A batch
+ * of operations, as grouped by the {@link ProvisioningBatcher}, takes a single slot of the lane. A batch handed over by
+ * the timer of the batcher never runs on the timer thread; it is refused when the lane is full, and waits in the lane
+ * when the pool is full.
+ * <p>
+ * Failed operations are retried with an exponential backoff. When the outbox is enabled, each operation is persisted
+ * before it is run and removed once it is delivered, and the retries are driven by a relay which replays the due
+ * entries of the outbox. Operations which were not delivered before a restart are therefore replayed, at least once,
+ * after the restart.
+ */
+public class ProvisioningExecutor {
+
+    private static final Log log = LogFactory.getLog(ProvisioningExecutor.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final long DRAIN_RETRY_DELAY_MILLIS = 100;
+
+    private static volatile ProvisioningExecutor instance;
+
+    private final int laneCapacity;
+    private final int maxConcurrencyPerIdP;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ProvisioningOutboxDAO outboxDAO;
+    private final long pollIntervalMillis;
+    private final long leaseTimeMillis;
+    private final int outboxBatchSize;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, IdPLane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ProvisioningConnectorStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * @param poolSize             Number of provisioning threads.
+     * @param queueCapacity        Number of operations the pool and each identity provider lane may queue.
+     * @param maxConcurrencyPerIdP Maximum number of operations of an identity provider which may run at a time.
+     * @param maxAttempts          Number of attempts after which an operation is given up.
+     * @param initialBackoffMillis Delay before the first retry.
+     * @param maxBackoffMillis     Upper bound of the delay between retries.
+     * @param outboxDAO            Outbox to persist the operations in, or null to keep them in memory only.
+     * @param pollIntervalMillis   Interval in which the outbox is polled for due entries.
+     * @param leaseTimeMillis      Time an operation may take before its outbox entry is replayed.
+     * @param outboxBatchSize      Maximum number of outbox entries replayed in a poll.
+     */
+    ProvisioningExecutor(int poolSize, int queueCapacity, int maxConcurrencyPerIdP, int maxAttempts,
+                         long initialBackoffMillis, long maxBackoffMillis, ProvisioningOutboxDAO outboxDAO,
+                         long pollIntervalMillis, long leaseTimeMillis, int outboxBatchSize) {
+
+        this.laneCapacity = queueCapacity;
+        this.maxConcurrencyPerIdP = maxConcurrencyPerIdP;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.outboxDAO = outboxDAO;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.leaseTimeMillis = leaseTimeMillis;
+        this.outboxBatchSize = outboxBatchSize;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ProvisioningThreadFactory("OutboundProvisioning"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ProvisioningThreadFactory("OutboundProvisioningRetry"));
+    }
+
+    public static ProvisioningExecutor getInstance() {
+
+        if (instance == null) {
+            synchronized (ProvisioningExecutor.class) {
+                if (instance == null) {
+                    ProvisioningOutboxDAO outboxDAO = Boolean.parseBoolean(
+                            IdentityUtil.getProperty(ExecutorConfig.OUTBOX_ENABLE)) ? new ProvisioningOutboxDAO() :
+                            null;
+                    instance = new ProvisioningExecutor(
+                            getPositiveProperty(ExecutorConfig.POOL_SIZE, ExecutorConfig.DEFAULT_POOL_SIZE),
+                            getPositiveProperty(ExecutorConfig.QUEUE_CAPACITY, ExecutorConfig.DEFAULT_QUEUE_CAPACITY),
+                            getPositiveProperty(ExecutorConfig.MAX_CONCURRENCY_PER_IDP,
+                                    ExecutorConfig.DEFAULT_MAX_CONCURRENCY_PER_IDP),
+                            getPositiveProperty(ExecutorConfig.RETRY_MAX_ATTEMPTS,
+                                    ExecutorConfig.DEFAULT_RETRY_MAX_ATTEMPTS),
+                            TimeUnit.SECONDS.toMillis(getPositiveProperty(ExecutorConfig.RETRY_INITIAL_BACKOFF,
+                                    ExecutorConfig.DEFAULT_RETRY_INITIAL_BACKOFF)),
+                            TimeUnit.SECONDS.toMillis(getPositiveProperty(ExecutorConfig.RETRY_MAX_BACKOFF,
+                                    ExecutorConfig.DEFAULT_RETRY_MAX_BACKOFF)),
+                            outboxDAO,
+                            TimeUnit.SECONDS.toMillis(getPositiveProperty(ExecutorConfig.OUTBOX_POLL_INTERVAL,
+                                    ExecutorConfig.DEFAULT_OUTBOX_POLL_INTERVAL)),
+                            TimeUnit.SECONDS.toMillis(getPositiveProperty(ExecutorConfig.OUTBOX_LEASE_TIME,
+                                    ExecutorConfig.DEFAULT_OUTBOX_LEASE_TIME)),
+                            getPositiveProperty(ExecutorConfig.OUTBOX_BATCH_SIZE,
+                                    ExecutorConfig.DEFAULT_OUTBOX_BATCH_SIZE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts down the executor of the bundle, if one is created, so that a new one is created when the bundle is
+     * activated again.
+     */
+    public static void shutdownInstance() {
+
+        ProvisioningExecutor executor;
+        synchronized (ProvisioningExecutor.class) {
+            executor = instance;
+            instance = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts replaying the outbox, if it is enabled. Entries left over from a previous run become due once their
+     * lease expires.
+     */
+    public void start() {
+
+        if (outboxDAO == null) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::replayOutbox, pollIntervalMillis, pollIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug("Started the outbound provisioning outbox relay with a poll interval of " +
+                    pollIntervalMillis + " ms.");
+        }
+    }
+
+    /**
+     * Stops accepting retries and waits for the running operations to complete. Undelivered operations remain in the
+     * outbox, if it is enabled.
+     */
+    public void shutdown() {
+
+        scheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Outbound provisioning operations did not complete within " + SHUTDOWN_TIMEOUT_SECONDS +
+                        " seconds of the shutdown.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submits a non blocking provisioning operation.
+     *
+     * @param provisioningThread Provisioning operation.
+     */
+    public void submit(ProvisioningThread provisioningThread) {
+
+        dispatch(new ProvisioningTask(provisioningThread, addOutboxEntry(provisioningThread), 0));
+    }
+
+    /**
+     * Submits non blocking provisioning operations of the same tenant, identity provider and connector, to be
+     * delivered in a single {@link AbstractOutboundProvisioningConnector#provisionBatch(List)} call. The operations
+     * which are not delivered by the batch are retried one at a time.
+     *
+     * @param provisioningThreads Provisioning operations.
+     */
+    public void submitBatch(List<ProvisioningThread> provisioningThreads) {
+
+        if (provisioningThreads.isEmpty()) {
+            return;
+        }
+        List<ProvisioningTask> tasks = new ArrayList<>(provisioningThreads.size());
+        for (ProvisioningThread provisioningThread : provisioningThreads) {
+            tasks.add(createTask(provisioningThread));
+        }
+        dispatchBatch(tasks, true);
+    }
+
+    /**
+     * Creates the first attempt of a provisioning operation, persisting it in the outbox, if it is enabled.
+     *
+     * @param provisioningThread Provisioning operation.
+     * @return Provisioning task.
+     */
+    ProvisioningTask createTask(ProvisioningThread provisioningThread) {
+
+        return new ProvisioningTask(provisioningThread, addOutboxEntry(provisioningThread), 0);
+    }
+
+    /**
+     * Hands over a batch of tasks of the same tenant, identity provider and connector to the lane of the identity
+     * provider.
+     *
+     * @param tasks       Tasks of the batch.
+     * @param runOnCaller Whether the batch may run on the calling thread when the lane or the pool is full.
+     * @return false if the lane is full and the batch may not run on the calling thread.
+     */
+    boolean dispatchBatch(List<ProvisioningTask> tasks, boolean runOnCaller) {
+
+        if (tasks.isEmpty()) {
+            return true;
+        }
+        ProvisioningThread firstThread = tasks.get(0).provisioningThread;
+        if (!getLane(firstThread).submit(() -> runBatch(tasks), runOnCaller)) {
+            return false;
+        }
+        ProvisioningConnectorStatistics connectorStatistics = getStatistics(firstThread);
+        for (int i = 0; i < tasks.size(); i++) {
+            connectorStatistics.recordSubmission();
+        }
+        return true;
+    }
+
+    /**
+     * @return Delivery statistics of the provisioning connectors which ran on this executor.
+     */
+    public Collection<ProvisioningConnectorStatistics> getConnectorStatistics() {
+
+        return Collections.unmodifiableCollection(statistics.values());
+    }
+
+    void dispatch(ProvisioningTask task) {
+
+        getStatistics(task.provisioningThread).recordSubmission();
+        getLane(task.provisioningThread).submit(() -> run(task), true);
+    }
+
+    /**
+     * Replays the due entries of the outbox. An entry is claimed before it is replayed, by pushing its next attempt
+     * time past the lease, so that an entry is replayed by a single node of a cluster.
+     */
+    void replayOutbox() {
+
+        long now = System.currentTimeMillis();
+        List<ProvisioningOutboxEntry> entries;
+        try {
+            entries = outboxDAO.getDueEntries(now, outboxBatchSize);
+        } catch (IdentityProvisioningException e) {
+            log.error("Error while reading the due entries of the outbound provisioning outbox.", e);
+            return;
+        }
+
+        for (ProvisioningOutboxEntry entry : entries) {
+            try {
+                if (!outboxDAO.claimEntry(entry, now + leaseTimeMillis)) {
+                    continue;
+                }
+                dispatch(new ProvisioningTask(getProvisioningThread(entry), entry.getId(), entry.getAttemptCount()));
+            } catch (IdentityProvisioningException | RuntimeException e) {
+                log.error("Error while replaying the provisioning of entity : " +
+                        entry.getProvisioningEntity().getEntityName() + " to idp : " + entry.getIdPName() + ".", e);
+                rescheduleOutboxEntry(entry.getId(), entry.getAttemptCount() + 1);
+            }
+        }
+    }
+
+    /**
+     * Resolves the connector of an outbox entry in the flow of its tenant, loading the tenant if it is not loaded
+     * yet, since the relay does not run in the flow of a request.
+     */
+    private ProvisioningThread getProvisioningThread(ProvisioningOutboxEntry entry)
+            throws IdentityProvisioningException {
+
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(entry.getTenantId());
+        try {
+            IdentityTenantUtil.initializeRegistry(entry.getTenantId());
+        } catch (IdentityException e) {
+            throw new IdentityProvisioningException("Error while loading the tenant : " + tenantDomain, e);
+        }
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(entry.getTenantId());
+            carbonContext.setTenantDomain(tenantDomain);
+            return OutboundProvisioningManager.getInstance().getProvisioningThread(entry.getProvisioningEntity(),
+                    tenantDomain, entry.getIdPName(), entry.getConnectorType());
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    long getBackoffMillis(int attemptCount) {
+
+        int exponent = Math.min(attemptCount - 1, 30);
+        long backoff = initialBackoffMillis << exponent;
+        return backoff <= 0 || backoff > maxBackoffMillis ? maxBackoffMillis : backoff;
+    }
+
+    private void run(ProvisioningTask task) {
+
+        ProvisioningThread provisioningThread = task.provisioningThread;
+        boolean success = false;
+        long startTime = System.nanoTime();
+        try {
+            success = Boolean.TRUE.equals(provisioningThread.call());
+        } catch (Exception e) {
+            // The provisioning thread logs the failure.
+            if (log.isDebugEnabled()) {
+                log.debug("Attempt " + (task.attemptCount + 1) + " to provision entity : " +
+                        provisioningThread.getProvisioningEntity().getEntityName() + " to idp : " +
+                        provisioningThread.getIdPName() + " failed.", e);
+            }
+        }
+        complete(task, System.nanoTime() - startTime, success);
+    }
+
+    private void runBatch(List<ProvisioningTask> tasks) {
+
+        List<ProvisioningThread> provisioningThreads = new ArrayList<>(tasks.size());
+        for (ProvisioningTask task : tasks) {
+            provisioningThreads.add(task.provisioningThread);
+        }
+        boolean[] delivered = null;
+        long startTime = System.nanoTime();
+        try {
+            delivered = new ProvisioningBatchThread(provisioningThreads).call();
+        } catch (Exception e) {
+            // The batch provisioning thread logs the failure.
+            if (log.isDebugEnabled()) {
+                log.debug("Batch provisioning of " + tasks.size() + " entities to idp : " +
+                        provisioningThreads.get(0).getIdPName() + " failed.", e);
+            }
+        }
+        // Each operation is accounted with the latency of the call which delivered it.
+        long latency = System.nanoTime() - startTime;
+        for (int i = 0; i < tasks.size(); i++) {
+            complete(tasks.get(i), latency, delivered != null && delivered[i]);
+        }
+    }
+
+    private void complete(ProvisioningTask task, long latencyNanos, boolean success) {
+
+        ProvisioningThread provisioningThread = task.provisioningThread;
+        ProvisioningConnectorStatistics connectorStatistics = getStatistics(provisioningThread);
+        connectorStatistics.recordCompletion(latencyNanos, success);
+
+        if (success) {
+            if (task.outboxEntryId != null) {
+                deleteOutboxEntry(task.outboxEntryId);
+            }
+            return;
+        }
+
+        int attemptCount = task.attemptCount + 1;
+        if (attemptCount >= maxAttempts) {
+            connectorStatistics.recordDiscard();
+            log.error("Giving up the provisioning of entity : " +
+                    provisioningThread.getProvisioningEntity().getEntityName() + " to idp : " +
+                    provisioningThread.getIdPName() + " after " + attemptCount + " attempts.");
+            if (task.outboxEntryId != null) {
+                rescheduleOutboxEntry(task.outboxEntryId, attemptCount);
+            }
+            return;
+        }
+
+        connectorStatistics.recordRetry();
+        if (task.outboxEntryId != null) {
+            // The relay replays the entry once the backoff elapses.
+            rescheduleOutboxEntry(task.outboxEntryId, attemptCount);
+            return;
+        }
+        try {
+            scheduler.schedule(() -> dispatch(new ProvisioningTask(provisioningThread, null, attemptCount)),
+                    getBackoffMillis(attemptCount), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Provisioning of entity : " + provisioningThread.getProvisioningEntity().getEntityName() +
+                    " to idp : " + provisioningThread.getIdPName() + " is not retried as the executor is shut down.");
+        }
+    }
+
+    /**
+     * Moves the next attempt of an outbox entry past the backoff of the given attempt. Entries which ran out of
+     * attempts are parked, and kept in the outbox for inspection.
+     */
+    private void rescheduleOutboxEntry(String id, int attemptCount) {
+
+        long nextAttemptTime = attemptCount >= maxAttempts ? Long.MAX_VALUE :
+                System.currentTimeMillis() + getBackoffMillis(attemptCount);
+        try {
+            outboxDAO.rescheduleEntry(id, attemptCount, nextAttemptTime);
+        } catch (IdentityProvisioningException e) {
+            log.error("Error while rescheduling the outbound provisioning outbox entry : " + id, e);
+        }
+    }
+
+    /**
+     * Persists a provisioning operation in the outbox, if it is enabled.
+     *
+     * @return Id of the outbox entry, or null if the operation is not persisted.
+     */
+    private String addOutboxEntry(ProvisioningThread provisioningThread) {
+
+        if (outboxDAO == null) {
+            return null;
+        }
+        String outboxEntryId = UUID.randomUUID().toString();
+        try {
+            // The entry becomes due only if the operation is not delivered within the lease.
+            outboxDAO.addEntry(new ProvisioningOutboxEntry(outboxEntryId,
+                    IdentityTenantUtil.getTenantId(provisioningThread.getTenantDomainName()),
+                    provisioningThread.getIdPName(), provisioningThread.getConnectorType(),
+                    provisioningThread.getProvisioningEntity(), 0, System.currentTimeMillis() + leaseTimeMillis));
+            return outboxEntryId;
+        } catch (IdentityProvisioningException e) {
+            log.error("Error while adding the provisioning of entity : " +
+                    provisioningThread.getProvisioningEntity().getEntityName() + " to idp : " +
+                    provisioningThread.getIdPName() + " to the outbox. It will not be replayed on a failure.", e);
+            return null;
+        }
+    }
+
+    private void deleteOutboxEntry(String id) {
+
+        try {
+            outboxDAO.deleteEntry(id);
+        } catch (IdentityProvisioningException e) {
+            // The entry is replayed once its lease expires, which is tolerated by the at least once delivery.
+            log.error("Error while deleting the delivered outbound provisioning outbox entry : " + id, e);
+        }
+    }
+
+    private IdPLane getLane(ProvisioningThread provisioningThread) {
+
+        return lanes.computeIfAbsent(provisioningThread.getTenantDomainName() + ":" + provisioningThread.getIdPName(),
+                key -> new IdPLane(provisioningThread.getIdPName()));
+    }
+
+    private ProvisioningConnectorStatistics getStatistics(ProvisioningThread provisioningThread) {
+
+        String tenantDomain = provisioningThread.getTenantDomainName();
+        String idPName = provisioningThread.getIdPName();
+        String connectorType = provisioningThread.getConnectorType();
+        return statistics.computeIfAbsent(tenantDomain + ":" + idPName + ":" + connectorType,
+                key -> new ProvisioningConnectorStatistics(tenantDomain, idPName, connectorType));
+    }
+
+    static int getPositiveProperty(String propertyName, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default value.
+        }
+        log.warn("Invalid value : " + value + " for " + propertyName + ". Using the default value : " + defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * A provisioning operation, along with the number of attempts already made to deliver it.
+     */
+    static final class ProvisioningTask {
+
+        private final ProvisioningThread provisioningThread;
+        private final String outboxEntryId;
+        private final int attemptCount;
+
+        ProvisioningTask(ProvisioningThread provisioningThread, String outboxEntryId, int attemptCount) {
+
+            this.provisioningThread = provisioningThread;
+            this.outboxEntryId = outboxEntryId;
+            this.attemptCount = attemptCount;
+        }
+    }
+
+    /**
+     * Pending work of an identity provider, and the number of them running on the pool. A unit of work is a single
+     * operation or a batch of operations.
+     */
+    private final class IdPLane {
+
+        private final String idPName;
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int running;
+
+        IdPLane(String idPName) {
+
+            this.idPName = idPName;
+        }
+
+        boolean submit(Runnable work, boolean runOnCaller) {
+
+            if (offer(work)) {
+                drain(runOnCaller);
+                return true;
+            }
+            if (!runOnCaller) {
+                return false;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Provisioning lane of idp : " + idPName + " is full. Running the provisioning on the " +
+                        "publishing thread.");
+            }
+            work.run();
+            return true;
+        }
+
+        private synchronized boolean offer(Runnable work) {
+
+            if (pending.size() >= laneCapacity) {
+                return false;
+            }
+            pending.add(work);
+            return true;
+        }
+
+        private void drain(boolean runOnCaller) {
+
+            Runnable work;
+            while ((work = next()) != null) {
+                Runnable nextWork = work;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            nextWork.run();
+                        } finally {
+                            release();
+                            drain(true);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The pool is full or shut down.
+                    if (!runOnCaller && scheduleDrain(nextWork)) {
+                        return;
+                    }
+                    try {
+                        nextWork.run();
+                    } finally {
+                        release();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Puts back work which the pool rejected, and tries to hand it over to the pool again after a while.
+         *
+         * @return false if the retry cannot be scheduled, since the executor is shut down.
+         */
+        private boolean scheduleDrain(Runnable work) {
+
+            synchronized (this) {
+                running--;
+                pending.addFirst(work);
+            }
+            try {
+                scheduler.schedule(() -> drain(false), DRAIN_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    if (!pending.remove(work)) {
+                        // Taken over by a drain in the meantime.
+                        return true;
+                    }
+                    running++;
+                }
+                return false;
+            }
+        }
+
+        private synchronized Runnable next() {
+
+            if (running >= maxConcurrencyPerIdP || pending.isEmpty()) {
+                return null;
+            }
+            running++;
+            return pending.poll();
+        }
+
+        private synchronized void release() {
+
+            running--;
+        }
+    }
+
+    private static class ProvisioningThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        ProvisioningThreadFactory(String namePrefix) {
+
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -67,32 +67,7 @@ public class ProvisioningThread implements Callable<Boolean> {
             // real provisioning happens now.
             provisionedIdentifier = connector.provision(provisioningEntity);
 
-            if (provisioningEntity.getOperation() == ProvisioningOperation.DELETE) {
-                deleteProvisionedEntityIdentifier(idPName, connectorType, provisioningEntity,
-                        tenantDomainName);
-            } else if (provisioningEntity.getOperation() == ProvisioningOperation.POST) {
-
-                if (provisionedIdentifier == null || provisionedIdentifier.getIdentifier() == null) {
-                    provisionedIdentifier = new ProvisionedIdentifier();
-                    provisionedIdentifier.setIdentifier(UUID.randomUUID().toString());
-                }
-
-                provisioningEntity.setIdentifier(provisionedIdentifier);
-
-                // store provisioned identifier for future reference.
-                storeProvisionedEntityIdentifier(idPName, connectorType, provisioningEntity,
-                        tenantDomainName);
-            } else if (provisioningEntity.getEntityType() == ProvisioningEntityType.GROUP &&
-                       provisioningEntity.getOperation() == ProvisioningOperation.PUT) {
-
-                String newGroupName = ProvisioningUtil.getAttributeValue(provisioningEntity,
-                                                                IdentityProvisioningConstants.NEW_GROUP_NAME_CLAIM_URI);
-                if(newGroupName != null){
-                    // update provisioned entity name for future reference. this is applicable for only
-                    // group name update
-                    dao.updateProvisionedEntityName(provisioningEntity);
-                }
-            }
+            storeProvisioningResult(provisionedIdentifier);
             success = true;
         } catch (Exception e) {
             String errMsg = " Provisioning for Entity " + provisioningEntity.getEntityName() +
@@ -113,6 +88,44 @@ public class ProvisioningThread implements Callable<Boolean> {
         return success;
     }
 
+    /**
+     * Keeps track of the entity provisioned to the connector, so that later operations on the entity can refer to it.
+     * Expects to run in the tenant flow of the entity.
+     *
+     * @param provisionedIdentifier Identifier returned by the connector, if any.
+     * @throws IdentityApplicationManagementException
+     */
+    void storeProvisioningResult(ProvisionedIdentifier provisionedIdentifier)
+            throws IdentityApplicationManagementException {
+
+        if (provisioningEntity.getOperation() == ProvisioningOperation.DELETE) {
+            deleteProvisionedEntityIdentifier(idPName, connectorType, provisioningEntity,
+                    tenantDomainName);
+        } else if (provisioningEntity.getOperation() == ProvisioningOperation.POST) {
+
+            if (provisionedIdentifier == null || provisionedIdentifier.getIdentifier() == null) {
+                provisionedIdentifier = new ProvisionedIdentifier();
+                provisionedIdentifier.setIdentifier(UUID.randomUUID().toString());
+            }
+
+            provisioningEntity.setIdentifier(provisionedIdentifier);
+
+            // store provisioned identifier for future reference.
+            storeProvisionedEntityIdentifier(idPName, connectorType, provisioningEntity,
+                    tenantDomainName);
+        } else if (provisioningEntity.getEntityType() == ProvisioningEntityType.GROUP &&
+                   provisioningEntity.getOperation() == ProvisioningOperation.PUT) {
+
+            String newGroupName = ProvisioningUtil.getAttributeValue(provisioningEntity,
+                                                            IdentityProvisioningConstants.NEW_GROUP_NAME_CLAIM_URI);
+            if(newGroupName != null){
+                // update provisioned entity name for future reference. this is applicable for only
+                // group name update
+                dao.updateProvisionedEntityName(provisioningEntity);
+            }
+        }
+    }
+
     /**
      * @param idpName
      * @param connectorType
@@ -154,7 +167,32 @@ public class ProvisioningThread implements Callable<Boolean> {
         }
     }
 
-    private int getTenantIdFromDomain(String tenantDomainName) throws IdentityProvisioningException {
+    ProvisioningEntity getProvisioningEntity() {
+
+        return provisioningEntity;
+    }
+
+    String getTenantDomainName() {
+
+        return tenantDomainName;
+    }
+
+    AbstractOutboundProvisioningConnector getConnector() {
+
+        return connector;
+    }
+
+    String getConnectorType() {
+
+        return connectorType;
+    }
+
+    String getIdPName() {
+
+        return idPName;
+    }
+
+    static int getTenantIdFromDomain(String tenantDomainName) throws IdentityProvisioningException {
 
         if (StringUtils.isBlank(tenantDomainName)) {
             throw new IdentityProvisioningException("Provided tenant domain is invalid");
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.core.util.CryptoException;
+import org.wso2.carbon.core.util.CryptoUtil;
+import org.wso2.carbon.identity.application.common.model.Claim;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.SQLQueries;
+import org.wso2.carbon.identity.provisioning.IdentityProvisioningException;
+import org.wso2.carbon.identity.provisioning.ProvisionedIdentifier;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+import org.wso2.carbon.identity.provisioning.ProvisioningEntityType;
+import org.wso2.carbon.identity.provisioning.ProvisioningOperation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DAO of the outbound provisioning outbox. Provisioning operations are stored before they are handed to the
+ * provisioning executor and removed once delivered, so that undelivered operations survive a restart.
+ * <p>
+ * The password claim of an entity is encrypted before the entity is stored, and the stored entities are read back
+ * only with the classes a provisioning entity is made of.
+ */
+public class ProvisioningOutboxDAO {
+
+    private static final Log log = LogFactory.getLog(ProvisioningOutboxDAO.class);
+
+    private static final Set<String> ALLOWED_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ProvisioningEntity.class.getName(), ProvisioningEntityType.class.getName(),
+            ProvisioningOperation.class.getName(), ProvisionedIdentifier.class.getName(),
+            ClaimMapping.class.getName(), Claim.class.getName(), Enum.class.getName(), String.class.getName(),
+            HashMap.class.getName(), ArrayList.class.getName())));
+
+    /**
+     * Add an entry to the outbox.
+     *
+     * @param entry Outbox entry.
+     * @throws IdentityProvisioningException If the entry cannot be stored.
+     */
+    public void addEntry(ProvisioningOutboxEntry entry) throws IdentityProvisioningException {
+
+        byte[] serializedEntity = serialize(toOutboxEntity(entry.getProvisioningEntity()));
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.ADD_OUTBOX_ENTRY_SQL)) {
+                prepStmt.setString(1, entry.getId());
+                prepStmt.setInt(2, entry.getTenantId());
+                prepStmt.setString(3, entry.getIdPName());
+                prepStmt.setString(4, entry.getConnectorType());
+                prepStmt.setBinaryStream(5, new ByteArrayInputStream(serializedEntity), serializedEntity.length);
+                prepStmt.setInt(6, entry.getAttemptCount());
+                prepStmt.setLong(7, entry.getNextAttemptTime());
+                prepStmt.setLong(8, System.currentTimeMillis());
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityProvisioningException("Error while adding the provisioning outbox entry of idp : "
+                    + entry.getIdPName(), e);
+        }
+    }
+
+    /**
+     * Remove an entry from the outbox.
+     *
+     * @param id Id of the entry.
+     * @throws IdentityProvisioningException If the entry cannot be removed.
+     */
+    public void deleteEntry(String id) throws IdentityProvisioningException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.DELETE_OUTBOX_ENTRY_SQL)) {
+                prepStmt.setString(1, id);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityProvisioningException("Error while deleting the provisioning outbox entry : " + id, e);
+        }
+    }
+
+    /**
+     * Record a failed delivery attempt of an entry.
+     *
+     * @param id              Id of the entry.
+     * @param attemptCount    Number of failed delivery attempts.
+     * @param nextAttemptTime Time in milliseconds after which the entry may be picked up again.
+     * @throws IdentityProvisioningException If the entry cannot be updated.
+     */
+    public void rescheduleEntry(String id, int attemptCount, long nextAttemptTime)
+            throws IdentityProvisioningException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.UPDATE_OUTBOX_ENTRY_SQL)) {
+                prepStmt.setInt(1, attemptCount);
+                prepStmt.setLong(2, nextAttemptTime);
+                prepStmt.setString(3, id);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityProvisioningException("Error while updating the provisioning outbox entry : " + id, e);
+        }
+    }
+
+    /**
+     * Claim an entry for delivery by moving its next attempt time forward. Only one of the nodes which read the same
+     * entry succeeds in claiming it.
+     *
+     * @param entry           Entry read from the outbox.
+     * @param nextAttemptTime Time in milliseconds after which the entry may be picked up again, if it is not
+     *                        delivered by then.
+     * @return {@code true} if the entry was claimed.
+     * @throws IdentityProvisioningException If the entry cannot be updated.
+     */
+    public boolean claimEntry(ProvisioningOutboxEntry entry, long nextAttemptTime)
+            throws IdentityProvisioningException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.CLAIM_OUTBOX_ENTRY_SQL)) {
+                prepStmt.setLong(1, nextAttemptTime);
+                prepStmt.setString(2, entry.getId());
+                prepStmt.setLong(3, entry.getNextAttemptTime());
+                boolean claimed = prepStmt.executeUpdate() == 1;
+                IdentityDatabaseUtil.commitTransaction(connection);
+                return claimed;
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityProvisioningException("Error while claiming the provisioning outbox entry : "
+                    + entry.getId(), e);
+        }
+    }
+
+    /**
+     * Get the entries which are due for delivery, oldest first. Entries which cannot be read back are parked, so
+     * that they are kept for inspection without holding back the entries behind them.
+     *
+     * @param time  Current time in milliseconds.
+     * @param limit Maximum number of entries to return.
+     * @return Due entries.
+     * @throws IdentityProvisioningException If the entries cannot be read.
+     */
+    public List<ProvisioningOutboxEntry> getDueEntries(long time, int limit) throws IdentityProvisioningException {
+
+        List<ProvisioningOutboxEntry> entries = new ArrayList<>();
+        Map<String, Integer> unreadableEntries = new HashMap<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.GET_DUE_OUTBOX_ENTRIES_SQL)) {
+            prepStmt.setLong(1, time);
+            prepStmt.setMaxRows(limit);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String id = resultSet.getString(1);
+                    ProvisioningEntity provisioningEntity;
+                    try {
+                        provisioningEntity = fromOutboxEntity(deserialize(resultSet.getBinaryStream(5)));
+                    } catch (IdentityProvisioningException e) {
+                        log.error("Error while reading the provisioning outbox entry : " + id, e);
+                        unreadableEntries.put(id, resultSet.getInt(6));
+                        continue;
+                    }
+                    entries.add(new ProvisioningOutboxEntry(id, resultSet.getInt(2), resultSet.getString(3),
+                            resultSet.getString(4), provisioningEntity, resultSet.getInt(6), resultSet.getLong(7)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityProvisioningException("Error while reading the provisioning outbox entries.", e);
+        }
+        // Park the unreadable entries once the entries are read, as they would otherwise stay at the head of the
+        // due entries and take up the batch on every read.
+        for (Map.Entry<String, Integer> unreadableEntry : unreadableEntries.entrySet()) {
+            try {
+                rescheduleEntry(unreadableEntry.getKey(), unreadableEntry.getValue(), Long.MAX_VALUE);
+            } catch (IdentityProvisioningException e) {
+                log.error("Error while parking the unreadable provisioning outbox entry : "
+                        + unreadableEntry.getKey(), e);
+            }
+        }
+        return entries;
+    }
+
+    private byte[] serialize(ProvisioningEntity provisioningEntity) throws IdentityProvisioningException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(provisioningEntity);
+        } catch (IOException e) {
+            throw new IdentityProvisioningException("Error while serializing the provisioning entity : "
+                    + provisioningEntity.getEntityName(), e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private ProvisioningEntity deserialize(InputStream inputStream) throws IdentityProvisioningException {
+
+        if (inputStream == null) {
+            throw new IdentityProvisioningException("Provisioning entity is not available.");
+        }
+        try (ObjectInputStream objectInputStream = new OutboxObjectInputStream(inputStream)) {
+            return (ProvisioningEntity) objectInputStream.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IdentityProvisioningException("Error while deserializing the provisioning entity.", e);
+        }
+    }
+
+    /**
+     * Copies an entity into the collections which are allowed to be read back, with its password claim encrypted.
+     */
+    private ProvisioningEntity toOutboxEntity(ProvisioningEntity provisioningEntity)
+            throws IdentityProvisioningException {
+
+        ProvisioningEntity outboxEntity = new ProvisioningEntity(provisioningEntity.getEntityType(),
+                provisioningEntity.getEntityName(), provisioningEntity.getOperation(),
+                copyAttributes(provisioningEntity.getAttributes(), true));
+        outboxEntity.setIdentifier(provisioningEntity.getIdentifier());
+        outboxEntity.setJitProvisioning(provisioningEntity.isJitProvisioning());
+        if (provisioningEntity.getInboundAttributes() != null) {
+            outboxEntity.setInboundAttributes(new HashMap<>(provisioningEntity.getInboundAttributes()));
+        }
+        return outboxEntity;
+    }
+
+    private ProvisioningEntity fromOutboxEntity(ProvisioningEntity outboxEntity)
+            throws IdentityProvisioningException {
+
+        ProvisioningEntity provisioningEntity = new ProvisioningEntity(outboxEntity.getEntityType(),
+                outboxEntity.getEntityName(), outboxEntity.getOperation(),
+                copyAttributes(outboxEntity.getAttributes(), false));
+        provisioningEntity.setIdentifier(outboxEntity.getIdentifier());
+        provisioningEntity.setJitProvisioning(outboxEntity.isJitProvisioning());
+        provisioningEntity.setInboundAttributes(outboxEntity.getInboundAttributes());
+        return provisioningEntity;
+    }
+
+    private Map<ClaimMapping, List<String>> copyAttributes(Map<ClaimMapping, List<String>> attributes,
+                                                           boolean encrypt) throws IdentityProvisioningException {
+
+        if (attributes == null) {
+            return null;
+        }
+        Map<ClaimMapping, List<String>> copiedAttributes = new HashMap<>();
+        for (Map.Entry<ClaimMapping, List<String>> attribute : attributes.entrySet()) {
+            List<String> values = null;
+            if (attribute.getValue() != null) {
+                values = new ArrayList<>(attribute.getValue().size());
+                boolean passwordClaim = isPasswordClaim(attribute.getKey());
+                for (String value : attribute.getValue()) {
+                    if (passwordClaim && value != null) {
+                        value = encrypt ? encrypt(value) : decrypt(value);
+                    }
+                    values.add(value);
+                }
+            }
+            copiedAttributes.put(attribute.getKey(), values);
+        }
+        return copiedAttributes;
+    }
+
+    private boolean isPasswordClaim(ClaimMapping claimMapping) {
+
+        return claimMapping != null && claimMapping.getLocalClaim() != null &&
+                IdentityProvisioningConstants.PASSWORD_CLAIM_URI.equals(claimMapping.getLocalClaim().getClaimUri());
+    }
+
+    private String encrypt(String value) throws IdentityProvisioningException {
+
+        try {
+            return CryptoUtil.getDefaultCryptoUtil().encryptAndBase64Encode(value.getBytes(StandardCharsets.UTF_8));
+        } catch (CryptoException e) {
+            throw new IdentityProvisioningException("Error while encrypting the password claim.", e);
+        }
+    }
+
+    private String decrypt(String value) throws IdentityProvisioningException {
+
+        try {
+            return new String(CryptoUtil.getDefaultCryptoUtil().base64DecodeAndDecrypt(value),
+                    StandardCharsets.UTF_8);
+        } catch (CryptoException e) {
+            throw new IdentityProvisioningException("Error while decrypting the password claim.", e);
+        }
+    }
+
+    /**
+     * Reads only the classes a provisioning entity is made of, resolved by the class loader of this bundle.
+     */
+    private static final class OutboxObjectInputStream extends ObjectInputStream {
+
+        private OutboxObjectInputStream(InputStream in) throws IOException {
+
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in the provisioning outbox.");
+            }
+            return Class.forName(desc.getName(), false, ProvisioningOutboxDAO.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+
+            throw new InvalidClassException("Proxy classes are not allowed in the provisioning outbox.");
+        }
+    }
+}
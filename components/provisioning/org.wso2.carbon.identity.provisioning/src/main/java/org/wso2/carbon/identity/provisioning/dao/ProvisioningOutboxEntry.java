@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning.dao;
+
+import org.wso2.carbon.identity.provisioning.ProvisioningEntity;
+
+/**
+ * A provisioning operation persisted in the outbound provisioning outbox, until it is delivered to the connector.
+ */
+public class ProvisioningOutboxEntry {
+
+    private final String id;
+    private final int tenantId;
+    private final String idPName;
+    private final String connectorType;
+    private final ProvisioningEntity provisioningEntity;
+    private final int attemptCount;
+    private final long nextAttemptTime;
+
+    public ProvisioningOutboxEntry(String id, int tenantId, String idPName, String connectorType,
+                                   ProvisioningEntity provisioningEntity, int attemptCount, long nextAttemptTime) {
+
+        this.id = id;
+        this.tenantId = tenantId;
+        this.idPName = idPName;
+        this.connectorType = connectorType;
+        this.provisioningEntity = provisioningEntity;
+        this.attemptCount = attemptCount;
+        this.nextAttemptTime = nextAttemptTime;
+    }
+
+    public String getId() {
+
+        return id;
+    }
+
+    public int getTenantId() {
+
+        return tenantId;
+    }
+
+    public String getIdPName() {
+
+        return idPName;
+    }
+
+    public String getConnectorType() {
+
+        return connectorType;
+    }
+
+    public ProvisioningEntity getProvisioningEntity() {
+
+        return provisioningEntity;
+    }
+
+    /**
+     * @return Number of failed delivery attempts.
+     */
+    public int getAttemptCount() {
+
+        return attemptCount;
+    }
+
+    /**
+     * @return Time in milliseconds after which the entry may be picked up for delivery.
+     */
+    public long getNextAttemptTime() {
+
+        return nextAttemptTime;
+    }
+}
@@ -30,6 +30,10 @@ import org.wso2.carbon.identity.application.common.model.ProvisioningConnectorCo
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtListener;
 import org.wso2.carbon.identity.entitlement.EntitlementService;
 import org.wso2.carbon.identity.provisioning.AbstractProvisioningConnectorFactory;
+import org.wso2.carbon.identity.provisioning.ProvisioningBatcher;
+import org.wso2.carbon.identity.provisioning.ProvisioningExecutor;
+import org.wso2.carbon.identity.provisioning.cache.ProvisioningConnectorCache;
+import org.wso2.carbon.identity.provisioning.cache.ServiceProviderProvisioningConnectorCache;
 import org.wso2.carbon.identity.provisioning.listener.DefaultInboundUserProvisioningListener;
 import org.wso2.carbon.identity.provisioning.listener.ProvisioningApplicationMgtListener;
 import org.wso2.carbon.identity.provisioning.listener.ProvisioningIdentityProviderMgtListener;
@@ -120,6 +124,7 @@ public class IdentityProvisionServiceComponent {
             if (log.isDebugEnabled()) {
                 log.debug("Identity Provider Management Event listener registered successfully");
             }
+            ProvisioningExecutor.getInstance().start();
             if (log.isDebugEnabled()) {
                 log.debug("Identity Provisioning framework bundle is activated");
             }
@@ -133,6 +138,8 @@ public class IdentityProvisionServiceComponent {
      */
     @Deactivate
     protected void deactivate(ComponentContext context) {
+        ProvisioningBatcher.shutdownInstance();
+        ProvisioningExecutor.shutdownInstance();
         if (log.isDebugEnabled()) {
             log.debug("Identity Provision bundle is de-activated");
         }
@@ -174,6 +181,7 @@ public class IdentityProvisionServiceComponent {
         Property[] property = new Property[connectorFactory.getConfigurationProperties().size()];
         provisioningConnectorConfig.setProvisioningProperties(connectorFactory.getConfigurationProperties().toArray(property));
         ProvisioningConnectorService.getInstance().addProvisioningConnectorConfigs(provisioningConnectorConfig);
+        clearConnectorCaches();
     }
 
     protected void unsetProvisioningConnectorFactory(AbstractProvisioningConnectorFactory connectorFactory) {
@@ -183,6 +191,17 @@ public class IdentityProvisionServiceComponent {
         if (log.isDebugEnabled()) {
             log.debug("Removed provisioning connector : " + connectorFactory.getConnectorType());
         }
+        clearConnectorCaches();
+    }
+
+    /**
+     * Service providers resolved while a connector factory was missing cache their connectors without it, and
+     * connectors of a removed factory must not be used anymore.
+     */
+    private static void clearConnectorCaches() {
+
+        ProvisioningConnectorCache.getInstance().clear();
+        ServiceProviderProvisioningConnectorCache.getInstance().clear();
     }
 
     /**
@@ -81,6 +81,37 @@ public class ProvisioningIdentityProviderMgtListener extends AbstractIdentityPro
         return true;
     }
 
+    /**
+     * Clears the connectors of the identity provider again once the update is stored, since a provisioning dispatched
+     * while the update was in progress may have cached the connectors of the previous configuration.
+     */
+    @Override
+    public boolean doPostUpdateIdP(String oldIdPName, IdentityProvider identityProvider, String tenantDomain) throws
+            IdentityProviderManagementException {
+
+        try {
+            destroyConnector(oldIdPName, tenantDomain);
+            if (identityProvider != null && identityProvider.getIdentityProviderName() != null &&
+                    !identityProvider.getIdentityProviderName().equals(oldIdPName)) {
+                destroyConnector(identityProvider.getIdentityProviderName(), tenantDomain);
+            }
+        } catch (IdentityProvisioningException e) {
+            throw new IdentityProviderManagementException("Error when provisioning IDP update", e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateIdPByResourceId(String resourceId, IdentityProvider oldIdentityProvider,
+                                               IdentityProvider newIdentityProvider, String tenantDomain)
+            throws IdentityProviderManagementException {
+
+        if (oldIdentityProvider == null) {
+            return true;
+        }
+        return doPostUpdateIdP(oldIdentityProvider.getIdentityProviderName(), newIdentityProvider, tenantDomain);
+    }
+
     /**
      * @param identityProviderName
      * @param tenantDomain
@@ -128,6 +128,43 @@ public class AbstractOutboundProvisioningConnectorTest {
                 "the password claim if the attribute map is empty.");
     }
 
+    @Test
+    public void testProvisionBatchReportsFailurePerEntity() throws Exception {
+
+        AbstractOutboundProvisioningConnector failingConnector = new AbstractOutboundProvisioningConnector() {
+
+            @Override
+            public void init(Property[] provisioningProperties) throws IdentityProvisioningException {
+
+            }
+
+            @Override
+            public ProvisionedIdentifier provision(ProvisioningEntity provisioningEntity)
+                    throws IdentityProvisioningException {
+
+                if ("user2".equals(provisioningEntity.getEntityName())) {
+                    throw new IdentityProvisioningException("Provisioning failed");
+                }
+                ProvisionedIdentifier provisionedIdentifier = new ProvisionedIdentifier();
+                provisionedIdentifier.setIdentifier(provisioningEntity.getEntityName());
+                return provisionedIdentifier;
+            }
+        };
+
+        List<BatchProvisioningResult> results = failingConnector.provisionBatch(Arrays.asList(
+                new ProvisioningEntity(ProvisioningEntityType.USER, "user1", ProvisioningOperation.POST, null),
+                new ProvisioningEntity(ProvisioningEntityType.USER, "user2", ProvisioningOperation.POST, null),
+                new ProvisioningEntity(ProvisioningEntityType.USER, "user3", ProvisioningOperation.POST, null)));
+
+        Assert.assertEquals(results.size(), 3);
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertEquals(results.get(0).getProvisionedIdentifier().getIdentifier(), "user1");
+        Assert.assertFalse(results.get(1).isSuccess(), "The failed entity should be reported in its result.");
+        Assert.assertTrue(results.get(1).getError() instanceof IdentityProvisioningException);
+        Assert.assertTrue(results.get(2).isSuccess(), "Entities after a failed entity should be provisioned.");
+        Assert.assertEquals(results.get(2).getProvisionedIdentifier().getIdentifier(), "user3");
+    }
+
     @Test
     public void testIsJitProvisioningEnabled() throws Exception {
 
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.IObjectFactory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.ObjectFactory;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.Property;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.provisioning.dao.ProvisioningOutboxDAO;
+import org.wso2.carbon.identity.provisioning.dao.ProvisioningOutboxEntry;
+import org.wso2.carbon.idp.mgt.util.IdPManagementUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.provisioning.ProvisioningEntityType.USER;
+import static org.wso2.carbon.identity.provisioning.ProvisioningOperation.PUT;
+
+/**
+ * Test class for ProvisioningBatcher test cases, against a stub connector.
+ */
+@PrepareForTest({IdPManagementUtil.class, IdentityTenantUtil.class})
+public class ProvisioningBatcherTest extends PowerMockTestCase {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String CONNECTOR_TYPE = "testConnectorType";
+    private static final String IDP_NAME = "testIdpName";
+
+    private ProvisioningExecutor executor;
+    private ProvisioningBatcher batcher;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        System.setProperty("carbon.home", "");
+        mockStatic(IdPManagementUtil.class);
+        when(IdPManagementUtil.getTenantIdOfDomain(TENANT_DOMAIN)).thenReturn(-1234);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(TENANT_DOMAIN)).thenReturn(-1234);
+        executor = new ProvisioningExecutor(2, 100, 2, 3, 1, 10, null, 30, 300, 100);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        batcher.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBatchBySize() throws Exception {
+
+        batcher = new ProvisioningBatcher(executor, true, 3, TimeUnit.SECONDS.toMillis(30));
+        StubConnector connector = new StubConnector(true, false);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(batcher.offer(createProvisioningThread(connector, "user" + i)));
+        }
+
+        waitFor(() -> connector.batchSizes.size() == 2);
+        assertEquals(connector.batchSizes, Arrays.asList(3, 3));
+        assertEquals(connector.singleCount.get(), 0);
+        waitFor(() -> getStatistics().getSuccessCount() == 6);
+    }
+
+    @Test
+    public void testBatchByMaxWaitTime() throws Exception {
+
+        batcher = new ProvisioningBatcher(executor, true, 100, 50);
+        StubConnector connector = new StubConnector(true, false);
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user1")));
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user2")));
+
+        waitFor(() -> connector.batchSizes.size() == 1);
+        assertEquals(connector.batchSizes, Collections.singletonList(2));
+        waitFor(() -> getStatistics().getSuccessCount() == 2);
+    }
+
+    @Test
+    public void testConnectorWithoutBatchSupport() {
+
+        batcher = new ProvisioningBatcher(executor, true, 3, 50);
+        assertFalse(batcher.offer(createProvisioningThread(new StubConnector(false, false), "user1")));
+    }
+
+    @Test
+    public void testBatchingDisabled() {
+
+        batcher = new ProvisioningBatcher(executor, false, 3, 50);
+        assertFalse(batcher.offer(createProvisioningThread(new StubConnector(true, false), "user1")));
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedPerEntity() throws Exception {
+
+        batcher = new ProvisioningBatcher(executor, true, 2, TimeUnit.SECONDS.toMillis(30));
+        StubConnector connector = new StubConnector(true, true);
+        batcher.offer(createProvisioningThread(connector, "user1"));
+        batcher.offer(createProvisioningThread(connector, "user2"));
+
+        waitFor(() -> getStatistics().getSuccessCount() == 2);
+        assertEquals(connector.singleCount.get(), 2);
+        assertEquals(getStatistics().getFailureCount(), 2);
+        assertEquals(getStatistics().getRetryCount(), 2);
+    }
+
+    @Test
+    public void testOnlyFailedEntitiesOfBatchAreRetried() throws Exception {
+
+        batcher = new ProvisioningBatcher(executor, true, 3, TimeUnit.SECONDS.toMillis(30));
+        StubConnector connector = new StubConnector(true, false);
+        connector.failOnce = "user2";
+        batcher.offer(createProvisioningThread(connector, "user1"));
+        batcher.offer(createProvisioningThread(connector, "user2"));
+        batcher.offer(createProvisioningThread(connector, "user3"));
+
+        waitFor(() -> getStatistics().getSuccessCount() == 3);
+        assertEquals(connector.batchSizes, Collections.singletonList(3));
+        assertEquals(connector.provisionedEntities, Arrays.asList("user1", "user3", "user2"));
+        assertEquals(getStatistics().getFailureCount(), 1);
+        assertEquals(getStatistics().getRetryCount(), 1);
+    }
+
+    @Test
+    public void testOperationIsPersistedWhenOffered() throws Exception {
+
+        ProvisioningOutboxDAO outboxDAO = mock(ProvisioningOutboxDAO.class);
+        executor.shutdown();
+        executor = new ProvisioningExecutor(2, 100, 2, 3, 1, 10, outboxDAO, 30, 300, 100);
+        batcher = new ProvisioningBatcher(executor, true, 100, TimeUnit.SECONDS.toMillis(30));
+        StubConnector connector = new StubConnector(true, false);
+
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user1")));
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user2")));
+        verify(outboxDAO, times(2)).addEntry(any(ProvisioningOutboxEntry.class));
+        assertTrue(connector.batchSizes.isEmpty());
+    }
+
+    @Test
+    public void testBatchIsNotRunOnTimerWhenLaneIsFull() throws Exception {
+
+        executor.shutdown();
+        executor = new ProvisioningExecutor(2, 1, 1, 3, 1, 10, null, 30, 300, 100);
+        batcher = new ProvisioningBatcher(executor, true, 100, 50);
+        StubConnector connector = new StubConnector(true, false);
+        connector.release = new CountDownLatch(1);
+
+        // One operation runs and another one waits, which fills the lane of the identity provider.
+        executor.submit(createProvisioningThread(connector, "user0"));
+        executor.submit(createProvisioningThread(connector, "user1"));
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user2")));
+        assertTrue(batcher.offer(createProvisioningThread(connector, "user3")));
+        Thread.sleep(300);
+        assertTrue(connector.batchThreads.isEmpty());
+
+        connector.release.countDown();
+        waitFor(() -> getStatistics().getSuccessCount() == 4);
+        assertEquals(connector.batchSizes, Collections.singletonList(2));
+        assertFalse(connector.batchThreads.contains("OutboundProvisioningBatcher"));
+    }
+
+    private ProvisioningThread createProvisioningThread(AbstractOutboundProvisioningConnector connector,
+                                                        String userName) {
+
+        return new ProvisioningThread(new ProvisioningEntity(USER, userName, PUT, null), TENANT_DOMAIN, connector,
+                CONNECTOR_TYPE, IDP_NAME, null);
+    }
+
+    private ProvisioningConnectorStatistics getStatistics() {
+
+        return executor.getConnectorStatistics().iterator().next();
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (executor.getConnectorStatistics().isEmpty() || !condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the provisioning batches.");
+            Thread.sleep(10);
+        }
+    }
+
+    @ObjectFactory
+    public IObjectFactory getObjectFactory() {
+
+        return new org.powermock.modules.testng.PowerMockObjectFactory();
+    }
+
+    private static class StubConnector extends AbstractOutboundProvisioningConnector {
+
+        private final boolean batchSupported;
+        private final boolean failBatch;
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger singleCount = new AtomicInteger();
+        private final List<String> batchThreads = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch release;
+        // Entity which fails the first time it is provisioned, with the default batch provisioning.
+        private volatile String failOnce;
+        private final List<String> provisionedEntities = Collections.synchronizedList(new ArrayList<>());
+
+        StubConnector(boolean batchSupported, boolean failBatch) {
+
+            this.batchSupported = batchSupported;
+            this.failBatch = failBatch;
+        }
+
+        @Override
+        public void init(Property[] provisioningProperties) {
+
+        }
+
+        @Override
+        public ProvisionedIdentifier provision(ProvisioningEntity provisioningEntity)
+                throws IdentityProvisioningException {
+
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (provisioningEntity.getEntityName().equals(failOnce)) {
+                failOnce = "";
+                throw new IdentityProvisioningException("Provisioning of " + provisioningEntity.getEntityName() +
+                        " failed");
+            }
+            singleCount.incrementAndGet();
+            provisionedEntities.add(provisioningEntity.getEntityName());
+            return new ProvisionedIdentifier();
+        }
+
+        @Override
+        public boolean isBatchProvisioningSupported() {
+
+            return batchSupported;
+        }
+
+        @Override
+        public List<BatchProvisioningResult> provisionBatch(List<ProvisioningEntity> provisioningEntities)
+                throws IdentityProvisioningException {
+
+            if (failBatch) {
+                throw new IdentityProvisioningException("Bulk request failed");
+            }
+            batchThreads.add(Thread.currentThread().getName());
+            batchSizes.add(provisioningEntities.size());
+            if (failOnce != null) {
+                return super.provisionBatch(provisioningEntities);
+            }
+            List<BatchProvisioningResult> results = new ArrayList<>();
+            for (int i = 0; i < provisioningEntities.size(); i++) {
+                results.add(BatchProvisioningResult.success(new ProvisionedIdentifier()));
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.provisioning.ProvisioningEntityType.USER;
+import static org.wso2.carbon.identity.provisioning.ProvisioningOperation.POST;
+
+/**
+ * Test class for ProvisioningExecutor test cases, with the outbox disabled.
+ */
+public class ProvisioningExecutorTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String CONNECTOR_TYPE = "testConnectorType";
+    private static final String IDP_NAME = "testIdpName";
+
+    private ProvisioningExecutor executor;
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrencyPerIdP() throws Exception {
+
+        executor = createExecutor(4, 2, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            executor.submit(new TestProvisioningThread(IDP_NAME, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                release.await(10, TimeUnit.SECONDS);
+                running.decrementAndGet();
+                return true;
+            }));
+        }
+        waitFor(() -> running.get() == 2);
+        release.countDown();
+
+        ProvisioningConnectorStatistics statistics = getStatistics();
+        waitFor(() -> statistics.getSuccessCount() == 10);
+        assertEquals(maxRunning.get(), 2);
+        assertEquals(statistics.getSubmittedCount(), 10);
+        assertEquals(statistics.getBacklog(), 0);
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+
+        executor = createExecutor(2, 2, 5);
+        AtomicInteger attempts = new AtomicInteger();
+        executor.submit(new TestProvisioningThread(IDP_NAME, () -> attempts.incrementAndGet() > 2));
+
+        ProvisioningConnectorStatistics statistics = getStatistics();
+        waitFor(() -> statistics.getSuccessCount() == 1);
+        assertEquals(attempts.get(), 3);
+        assertEquals(statistics.getFailureCount(), 2);
+        assertEquals(statistics.getRetryCount(), 2);
+        assertEquals(statistics.getDiscardedCount(), 0);
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() throws Exception {
+
+        executor = createExecutor(2, 2, 3);
+        AtomicInteger attempts = new AtomicInteger();
+        executor.submit(new TestProvisioningThread(IDP_NAME, () -> {
+            attempts.incrementAndGet();
+            throw new IdentityProvisioningException("Provisioning failed");
+        }));
+
+        ProvisioningConnectorStatistics statistics = getStatistics();
+        waitFor(() -> statistics.getDiscardedCount() == 1);
+        assertEquals(attempts.get(), 3);
+        assertEquals(statistics.getFailureCount(), 3);
+        assertEquals(statistics.getRetryCount(), 2);
+        assertEquals(statistics.getSuccessCount(), 0);
+    }
+
+    @Test
+    public void testBackoff() {
+
+        executor = new ProvisioningExecutor(1, 1, 1, 5, 5, 300, null, 30, 300, 100);
+        assertEquals(executor.getBackoffMillis(1), 5);
+        assertEquals(executor.getBackoffMillis(2), 10);
+        assertEquals(executor.getBackoffMillis(6), 160);
+        assertEquals(executor.getBackoffMillis(7), 300);
+        assertEquals(executor.getBackoffMillis(100), 300);
+    }
+
+    @Test
+    public void testInstanceIsRecreatedAfterShutdown() throws Exception {
+
+        ProvisioningExecutor instance = ProvisioningExecutor.getInstance();
+        assertSame(ProvisioningExecutor.getInstance(), instance);
+        ProvisioningExecutor.shutdownInstance();
+
+        executor = ProvisioningExecutor.getInstance();
+        assertNotSame(executor, instance);
+        CountDownLatch delivered = new CountDownLatch(1);
+        executor.submit(new TestProvisioningThread(IDP_NAME, () -> {
+            delivered.countDown();
+            return true;
+        }));
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        ProvisioningExecutor.shutdownInstance();
+    }
+
+    private ProvisioningExecutor createExecutor(int poolSize, int maxConcurrencyPerIdP, int maxAttempts) {
+
+        return new ProvisioningExecutor(poolSize, 100, maxConcurrencyPerIdP, maxAttempts, 1, 10, null, 30, 300, 100);
+    }
+
+    private ProvisioningConnectorStatistics getStatistics() throws Exception {
+
+        waitFor(() -> !executor.getConnectorStatistics().isEmpty());
+        ProvisioningConnectorStatistics statistics = executor.getConnectorStatistics().iterator().next();
+        assertEquals(statistics.getIdPName(), IDP_NAME);
+        assertEquals(statistics.getConnectorType(), CONNECTOR_TYPE);
+        return statistics;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the provisioning executor.");
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Delivery {
+
+        boolean deliver() throws Exception;
+    }
+
+    private static class TestProvisioningThread extends ProvisioningThread {
+
+        private final Delivery delivery;
+
+        TestProvisioningThread(String idPName, Delivery delivery) {
+
+            super(new ProvisioningEntity(USER, POST, null), TENANT_DOMAIN, null, CONNECTOR_TYPE, idPName, null);
+            this.delivery = delivery;
+        }
+
+        @Override
+        public Boolean call() throws IdentityProvisioningException {
+
+            try {
+                return delivery.deliver();
+            } catch (IdentityProvisioningException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IdentityProvisioningException("Provisioning failed", e);
+            }
+        }
+    }
+}
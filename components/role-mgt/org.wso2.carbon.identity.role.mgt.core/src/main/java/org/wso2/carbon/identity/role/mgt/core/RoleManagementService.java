@@ -111,6 +111,25 @@ public interface RoleManagementService {
      */
     List<UserBasicInfo> getUserListOfRole(String roleID, String tenantDomain) throws IdentityRoleManagementException;
 
+    /**
+     * Get a page of the users of the given role. Members are returned in a stable order, so that
+     * the pages of a listing do not overlap.
+     *
+     * @param roleID       Role ID.
+     * @param cursor       Cursor returned with the previous page, or null to get the first page.
+     * @param limit        Maximum number of users in the page.
+     * @param tenantDomain Tenant domain.
+     * @return Page of users.
+     * @throws IdentityRoleManagementException IdentityRoleManagementException.
+     * @throws NotImplementedException         If the method is not implemented.
+     */
+    default RoleMemberPage<UserBasicInfo> getUserListOfRole(String roleID, String cursor, Integer limit,
+                                                          String tenantDomain)
+            throws IdentityRoleManagementException, NotImplementedException {
+
+        throw new NotImplementedException("getUserListOfRole method with pagination is not implemented");
+    }
+
     /**
      * Update the list of users in the given role.
      *
@@ -134,6 +153,25 @@ public interface RoleManagementService {
      */
     List<GroupBasicInfo> getGroupListOfRole(String roleID, String tenantDomain) throws IdentityRoleManagementException;
 
+    /**
+     * Get a page of the groups of the given role. Members are returned in a stable order, so that
+     * the pages of a listing do not overlap.
+     *
+     * @param roleID       Role ID.
+     * @param cursor       Cursor returned with the previous page, or null to get the first page.
+     * @param limit        Maximum number of groups in the page.
+     * @param tenantDomain Tenant domain.
+     * @return Page of groups.
+     * @throws IdentityRoleManagementException IdentityRoleManagementException.
+     * @throws NotImplementedException         If the method is not implemented.
+     */
+    default RoleMemberPage<GroupBasicInfo> getGroupListOfRole(String roleID, String cursor, Integer limit,
+                                                          String tenantDomain)
+            throws IdentityRoleManagementException, NotImplementedException {
+
+        throw new NotImplementedException("getGroupListOfRole method with pagination is not implemented");
+    }
+
     /**
      * Update the list of groups in the given role.
      *
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.mgt.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of the members of a role, along with the cursor of the next page.
+ *
+ * @param <T> Member type.
+ */
+public class RoleMemberPage<T extends Entity> {
+
+    private final List<T> members;
+    private final String nextCursor;
+
+    public RoleMemberPage(List<T> members, String nextCursor) {
+
+        this.members = Collections.unmodifiableList(members);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the members of the page.
+     *
+     * @return members of the page.
+     */
+    public List<T> getMembers() {
+
+        return members;
+    }
+
+    /**
+     * Get the cursor to pass for the next page. A page may hold fewer members than the limit while more pages
+     * follow, as members of disabled user stores are skipped.
+     *
+     * @return cursor of the next page, or {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+}
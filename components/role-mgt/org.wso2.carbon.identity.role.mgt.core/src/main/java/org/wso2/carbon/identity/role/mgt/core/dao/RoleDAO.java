@@ -22,6 +22,7 @@ import org.wso2.carbon.identity.role.mgt.core.GroupBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.IdentityRoleManagementException;
 import org.wso2.carbon.identity.role.mgt.core.Role;
 import org.wso2.carbon.identity.role.mgt.core.RoleBasicInfo;
+import org.wso2.carbon.identity.role.mgt.core.RoleMemberPage;
 import org.wso2.carbon.identity.role.mgt.core.UserBasicInfo;
 
 import java.util.List;
@@ -135,6 +136,20 @@ public interface RoleDAO {
      */
     List<UserBasicInfo> getUserListOfRole(String roleID, String tenantDomain) throws IdentityRoleManagementException;
 
+    /**
+     * Get a page of the users of the given role. Members are returned in a stable order, so that
+     * the pages of a listing do not overlap.
+     *
+     * @param roleID       Role ID.
+     * @param cursor       Cursor returned with the previous page, or null to get the first page.
+     * @param limit        Maximum number of users in the page.
+     * @param tenantDomain Tenant domain.
+     * @return Page of users.
+     * @throws IdentityRoleManagementException IdentityRoleManagementException.
+     */
+    RoleMemberPage<UserBasicInfo> getUserListOfRole(String roleID, String cursor, Integer limit, String tenantDomain)
+            throws IdentityRoleManagementException;
+
     /**
      * Update the list of users in the given role.
      *
@@ -158,6 +173,20 @@ public interface RoleDAO {
      */
     List<GroupBasicInfo> getGroupListOfRole(String roleID, String tenantDomain) throws IdentityRoleManagementException;
 
+    /**
+     * Get a page of the groups of the given role. Members are returned in a stable order, so that
+     * the pages of a listing do not overlap.
+     *
+     * @param roleID       Role ID.
+     * @param cursor       Cursor returned with the previous page, or null to get the first page.
+     * @param limit        Maximum number of groups in the page.
+     * @param tenantDomain Tenant domain.
+     * @return Page of groups.
+     * @throws IdentityRoleManagementException IdentityRoleManagementException.
+     */
+    RoleMemberPage<GroupBasicInfo> getGroupListOfRole(String roleID, String cursor, Integer limit, String tenantDomain)
+            throws IdentityRoleManagementException;
+
     /**
      * Update the list of groups in the given role.
      *
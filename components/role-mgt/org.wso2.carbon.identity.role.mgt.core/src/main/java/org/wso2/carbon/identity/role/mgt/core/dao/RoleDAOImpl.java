@@ -37,6 +37,7 @@ import org.wso2.carbon.identity.role.mgt.core.Role;
 import org.wso2.carbon.identity.role.mgt.core.RoleBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.RoleConstants;
 import org.wso2.carbon.identity.role.mgt.core.RoleConstants.RoleTableColumns;
+import org.wso2.carbon.identity.role.mgt.core.RoleMemberPage;
 import org.wso2.carbon.identity.role.mgt.core.UserBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.internal.RoleManagementServiceComponentHolder;
 import org.wso2.carbon.identity.role.mgt.core.util.GroupIDResolver;
@@ -93,6 +94,12 @@ import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.DELETE_GROUP
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.DELETE_ROLE_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.DELETE_SCIM_ROLE_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.DELETE_USER_SQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_DB2;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_INFORMIX;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MSSQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MYSQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_ORACLE;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_GROUP_LIST_OF_ROLE_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLES_BY_TENANT_AND_ROLE_NAME_DB2;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLES_BY_TENANT_AND_ROLE_NAME_INFORMIX;
@@ -108,6 +115,12 @@ import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLES_BY
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLES_BY_TENANT_POSTGRESQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLE_ID_BY_NAME_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_ROLE_NAME_BY_ID_SQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_DB2;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_INFORMIX;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_MSSQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_MYSQL;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_ORACLE;
+import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.GET_USER_LIST_OF_ROLE_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.IS_ROLE_EXIST_SQL;
 import static org.wso2.carbon.identity.role.mgt.core.dao.SQLQueries.IS_ROLE_ID_EXIST_SQL;
@@ -1047,6 +1060,233 @@ public class RoleDAOImpl implements RoleDAO {
         return groupIDResolver.getIDsByNames(names, tenantDomain);
     }
 
+    @Override
+    public RoleMemberPage<UserBasicInfo> getUserListOfRole(String roleID, String cursor, Integer limit,
+                                                           String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        if (!isExistingRoleID(roleID, tenantDomain)) {
+            throw new IdentityRoleManagementClientException(ROLE_NOT_FOUND.getCode(),
+                    "Role id: " + roleID + " does not exist in the system.");
+        }
+        int position = validateCursor(cursor);
+        limit = validateLimit(limit);
+        if (limit == 0) {
+            return new RoleMemberPage<>(Collections.emptyList(), null);
+        }
+        String roleName = getRoleNameByID(roleID, tenantDomain);
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        try {
+            UserRealm userRealm = CarbonContext.getThreadLocalCarbonContext().getUserRealm();
+            if (UserCoreUtil.isEveryoneRole(roleName, userRealm.getRealmConfiguration())) {
+                // Members of the everyone role are not stored in the DB. Page through the user store instead, where
+                // the cursor is the number of users already returned.
+                List<org.wso2.carbon.user.core.common.User> users = ((AbstractUserStoreManager) userRealm
+                        .getUserStoreManager()).listUsersWithID(RoleConstants.WILDCARD_CHARACTER, limit,
+                        position + 1);
+                List<UserBasicInfo> userList = new ArrayList<>(users.size());
+                for (org.wso2.carbon.user.core.common.User user : users) {
+                    userList.add(new UserBasicInfo(user.getUserID(), user.getDomainQualifiedUsername()));
+                }
+                String nextCursor = users.size() < limit ? null : String.valueOf(position + users.size());
+                return new RoleMemberPage<>(userList, nextCursor);
+            }
+        } catch (UserStoreException e) {
+            throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                    "Error while getting the realmConfiguration.", e);
+        }
+
+        List<String> disabledDomainName = getDisabledDomainNames();
+        List<String> userNames = new ArrayList<>();
+        int rowCount = 0;
+        int lastMemberID = position;
+        try (Connection connection = IdentityDatabaseUtil.getUserDBConnection(false)) {
+            String databaseProductName = connection.getMetaData().getDatabaseProductName();
+            try (NamedPreparedStatement statement = new NamedPreparedStatement(connection,
+                    getDBTypeSpecificUserListOfRoleQuery(databaseProductName), RoleTableColumns.UM_ID)) {
+                statement.setString(RoleTableColumns.UM_ROLE_NAME, roleName);
+                statement.setInt(RoleTableColumns.UM_TENANT_ID, tenantId);
+                statement.setInt(RoleConstants.CURSOR, position);
+                statement.setInt(RoleConstants.LIMIT, limit);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rowCount++;
+                        lastMemberID = resultSet.getInt(1);
+                        String name = resultSet.getString(2);
+                        String domain = resultSet.getString(3);
+                        if (!disabledDomainName.contains(domain)) {
+                            if (StringUtils.isNotEmpty(domain)) {
+                                name = UserCoreUtil.addDomainToName(name, domain);
+                            }
+                            userNames.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            String errorMessage =
+                    "Error while while getting the user list of role for role name: %s in the " + "tenantDomain: %s";
+            throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                    String.format(errorMessage, roleName, tenantDomain), e);
+        }
+
+        List<UserBasicInfo> userList = new ArrayList<>(userNames.size());
+        List<String> userIDs = getUserIDsByNames(userNames, tenantDomain);
+        for (int i = 0; i < userNames.size(); i++) {
+            userList.add(new UserBasicInfo(userIDs.get(i), userNames.get(i)));
+        }
+        return new RoleMemberPage<>(userList, rowCount < limit ? null : String.valueOf(lastMemberID));
+    }
+
+    protected List<String> getUserIDsByNames(List<String> names, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return userIDResolver.getIDsByNames(names, tenantDomain);
+    }
+
+    @Override
+    public RoleMemberPage<GroupBasicInfo> getGroupListOfRole(String roleID, String cursor, Integer limit,
+                                                             String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        if (!isExistingRoleID(roleID, tenantDomain)) {
+            throw new IdentityRoleManagementClientException(ROLE_NOT_FOUND.getCode(),
+                    "Role id: " + roleID + " does not exist in the system.");
+        }
+        int position = validateCursor(cursor);
+        limit = validateLimit(limit);
+        if (limit == 0) {
+            return new RoleMemberPage<>(Collections.emptyList(), null);
+        }
+        String roleName = getRoleNameByID(roleID, tenantDomain);
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        List<String> groupNames = new ArrayList<>();
+        List<String> disabledDomainName = getDisabledDomainNames();
+
+        String primaryDomainName = IdentityUtil.getPrimaryDomainName();
+        if (primaryDomainName != null) {
+            primaryDomainName = primaryDomainName.toUpperCase(Locale.ENGLISH);
+        }
+
+        int rowCount = 0;
+        int lastMemberID = position;
+        try (Connection connection = IdentityDatabaseUtil.getUserDBConnection(false)) {
+            String databaseProductName = connection.getMetaData().getDatabaseProductName();
+            try (NamedPreparedStatement statement = new NamedPreparedStatement(connection,
+                    getDBTypeSpecificGroupListOfRoleQuery(databaseProductName), RoleTableColumns.UM_ID)) {
+                statement.setString(RoleTableColumns.UM_ROLE_NAME, roleName);
+                statement.setInt(RoleTableColumns.UM_TENANT_ID, tenantId);
+                statement.setInt(RoleConstants.CURSOR, position);
+                statement.setInt(RoleConstants.LIMIT, limit);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rowCount++;
+                        lastMemberID = resultSet.getInt(1);
+                        String name = resultSet.getString(2);
+                        String domain = resultSet.getString(3);
+                        if (!disabledDomainName.contains(domain)) {
+                            if (!StringUtils.equals(primaryDomainName, domain)) {
+                                name = UserCoreUtil.addDomainToName(name, domain);
+                            } else {
+                                name = primaryDomainName + UserCoreConstants.DOMAIN_SEPARATOR + name;
+                            }
+                            groupNames.add(name);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            String errorMessage =
+                    "Error while while getting the group list of role for role name: %s in the " + "tenantDomain: %s";
+            throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                    String.format(errorMessage, roleName, tenantDomain), e);
+        }
+
+        List<GroupBasicInfo> groupList = new ArrayList<>(groupNames.size());
+        Map<String, String> groupNamesToIDs = getGroupIDsByNames(groupNames, tenantDomain);
+        for (String groupName : groupNames) {
+            String groupID = groupNamesToIDs.get(groupName);
+            if (groupID != null) {
+                groupList.add(new GroupBasicInfo(groupID, groupName));
+            }
+        }
+        return new RoleMemberPage<>(groupList, rowCount < limit ? null : String.valueOf(lastMemberID));
+    }
+
+    /**
+     * Validate the cursor of a paginated role member listing.
+     *
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @return Position to continue the listing from.
+     * @throws IdentityRoleManagementClientException If the cursor is invalid.
+     */
+    private int validateCursor(String cursor) throws IdentityRoleManagementClientException {
+
+        if (StringUtils.isBlank(cursor)) {
+            return 0;
+        }
+        try {
+            int position = Integer.parseInt(cursor);
+            if (position >= 0) {
+                return position;
+            }
+        } catch (NumberFormatException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Given cursor is not a number. cursor: " + cursor);
+            }
+        }
+        throw new IdentityRoleManagementClientException(INVALID_REQUEST.getCode(),
+                "Invalid cursor requested. cursor: " + cursor);
+    }
+
+    private String getDBTypeSpecificUserListOfRoleQuery(String databaseProductName)
+            throws IdentityRoleManagementException {
+
+        if (MY_SQL.equals(databaseProductName)
+                || MARIADB.equals(databaseProductName)
+                || H2.equals(databaseProductName)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_MYSQL;
+        } else if (ORACLE.equals(databaseProductName)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_ORACLE;
+        } else if (MICROSOFT.equals(databaseProductName)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_MSSQL;
+        } else if (POSTGRE_SQL.equals(databaseProductName)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL;
+        } else if (databaseProductName != null && databaseProductName.contains(DB2)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_DB2;
+        } else if (INFORMIX.equals(databaseProductName)) {
+            return GET_USER_LIST_OF_ROLE_BY_CURSOR_INFORMIX;
+        }
+
+        throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                "Error while listing users of role from DB. Database driver for " + databaseProductName
+                        + "could not be identified or not supported.");
+    }
+
+    private String getDBTypeSpecificGroupListOfRoleQuery(String databaseProductName)
+            throws IdentityRoleManagementException {
+
+        if (MY_SQL.equals(databaseProductName)
+                || MARIADB.equals(databaseProductName)
+                || H2.equals(databaseProductName)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MYSQL;
+        } else if (ORACLE.equals(databaseProductName)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_ORACLE;
+        } else if (MICROSOFT.equals(databaseProductName)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MSSQL;
+        } else if (POSTGRE_SQL.equals(databaseProductName)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL;
+        } else if (databaseProductName != null && databaseProductName.contains(DB2)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_DB2;
+        } else if (INFORMIX.equals(databaseProductName)) {
+            return GET_GROUP_LIST_OF_ROLE_BY_CURSOR_INFORMIX;
+        }
+
+        throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                "Error while listing groups of role from DB. Database driver for " + databaseProductName
+                        + "could not be identified or not supported.");
+    }
+
     /**
      * Get the disabled domain names.
      *
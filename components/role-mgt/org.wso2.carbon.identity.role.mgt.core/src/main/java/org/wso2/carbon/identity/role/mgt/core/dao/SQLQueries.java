@@ -94,6 +94,107 @@ public class SQLQueries {
                     + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
                     + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID";
 
+    // DB queries to list role members by cursor. The cursor is the UM_ID of the last member of the previous page.
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_MYSQL =
+            "SELECT UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID LIMIT :LIMIT;";
+
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_ORACLE = "SELECT * FROM ("
+                    + "SELECT UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME "
+                    + "FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID) WHERE rownum <= :LIMIT;";
+
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_MSSQL =
+            "SELECT UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID OFFSET 0 ROWS FETCH NEXT :LIMIT; ROWS ONLY";
+
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL =
+            "SELECT UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID LIMIT :LIMIT;";
+
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_DB2 =
+            "SELECT UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID FETCH FIRST :LIMIT; ROWS ONLY";
+
+    public static final String GET_USER_LIST_OF_ROLE_BY_CURSOR_INFORMIX =
+            "SELECT FIRST :LIMIT; UM_HYBRID_USER_ROLE.UM_ID, UM_USER_NAME, UM_DOMAIN_NAME "
+                    + "FROM UM_HYBRID_USER_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_USER_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_USER_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_USER_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_USER_ROLE.UM_ID";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MYSQL =
+            "SELECT UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID LIMIT :LIMIT;";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_ORACLE = "SELECT * FROM ("
+                    + "SELECT UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME "
+                    + "FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID) WHERE rownum <= :LIMIT;";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_MSSQL =
+            "SELECT UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID OFFSET 0 ROWS FETCH NEXT :LIMIT; ROWS ONLY";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_POSTGRESQL =
+            "SELECT UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID LIMIT :LIMIT;";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_DB2 =
+            "SELECT UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID FETCH FIRST :LIMIT; ROWS ONLY";
+
+    public static final String GET_GROUP_LIST_OF_ROLE_BY_CURSOR_INFORMIX =
+            "SELECT FIRST :LIMIT; UM_HYBRID_GROUP_ROLE.UM_ID, UM_GROUP_NAME, UM_DOMAIN_NAME "
+                    + "FROM UM_HYBRID_GROUP_ROLE, UM_DOMAIN "
+                    + "WHERE UM_ROLE_ID=(SELECT UM_ID FROM UM_HYBRID_ROLE WHERE UM_ROLE_NAME=:UM_ROLE_NAME; AND "
+                    + "UM_TENANT_ID=:UM_TENANT_ID;) AND UM_HYBRID_GROUP_ROLE.UM_TENANT_ID=:UM_TENANT_ID; "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_DOMAIN_ID=UM_DOMAIN.UM_DOMAIN_ID "
+                    + "AND UM_HYBRID_GROUP_ROLE.UM_ID > :CURSOR; "
+                    + "ORDER BY UM_HYBRID_GROUP_ROLE.UM_ID";
+
     // DB queries to list roles.
     public static final String GET_ROLES_BY_TENANT_MYSQL = "SELECT UM_ROLE_NAME FROM UM_HYBRID_ROLE WHERE "
             + "UM_TENANT_ID=:UM_TENANT_ID; ORDER BY UM_ID DESC LIMIT :OFFSET;, :LIMIT;";
@@ -28,6 +28,7 @@ import org.wso2.carbon.identity.role.mgt.core.IdentityRoleManagementException;
 import org.wso2.carbon.identity.role.mgt.core.Role;
 import org.wso2.carbon.identity.role.mgt.core.RoleBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.RoleManagementService;
+import org.wso2.carbon.identity.role.mgt.core.RoleMemberPage;
 import org.wso2.carbon.identity.role.mgt.core.UserBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.dao.RoleDAO;
 import org.wso2.carbon.identity.role.mgt.core.dao.RoleMgtDAOFactory;
@@ -101,6 +102,13 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         return roleDAO.getUserListOfRole(roleID, tenantDomain);
     }
 
+    @Override
+    public RoleMemberPage<UserBasicInfo> getUserListOfRole(String roleID, String cursor, Integer limit,
+                                                      String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getUserListOfRole(roleID, cursor, limit, tenantDomain);
+    }
+
     @Override
     public RoleBasicInfo updateUserListOfRole(String roleID, List<String> newUserIDList, List<String> deletedUserIDList,
             String tenantDomain) throws IdentityRoleManagementException {
@@ -115,6 +123,13 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         return roleDAO.getGroupListOfRole(roleID, tenantDomain);
     }
 
+    @Override
+    public RoleMemberPage<GroupBasicInfo> getGroupListOfRole(String roleID, String cursor, Integer limit,
+                                                      String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getGroupListOfRole(roleID, cursor, limit, tenantDomain);
+    }
+
     @Override
     public RoleBasicInfo updateGroupListOfRole(String roleID, List<String> newGroupIDList,
             List<String> deletedGroupIDList, String tenantDomain) throws IdentityRoleManagementException {
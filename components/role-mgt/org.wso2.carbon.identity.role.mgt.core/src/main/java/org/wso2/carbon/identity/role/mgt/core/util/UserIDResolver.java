@@ -92,7 +92,15 @@ public class UserIDResolver implements IDResolver {
     public List<String> getIDsByNames(List<String> namesList, String tenantDomain)
             throws IdentityRoleManagementException {
 
-        List<String> usersIDList = new ArrayList<>();
+        if (namesList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> usersIDList = resolveIDsFromUserNames(namesList);
+        if (usersIDList != null && usersIDList.size() == namesList.size()) {
+            return usersIDList;
+        }
+        // Some of the users could not be resolved. Resolve them one by one to report the missing user.
+        usersIDList = new ArrayList<>();
         for (String name : namesList) {
             usersIDList.add(getIDByName(name, tenantDomain));
         }
@@ -132,6 +140,39 @@ public class UserIDResolver implements IDResolver {
         }
     }
 
+    /**
+     * Retrieves the unique user ids of the given userNames from the user store in a single call.
+     *
+     * @param userNames userNames.
+     * @return unique user ids of the users, in the order of the given userNames.
+     * @throws IdentityRoleManagementException IdentityRoleManagementException.
+     */
+    private List<String> resolveIDsFromUserNames(List<String> userNames) throws IdentityRoleManagementException {
+
+        try {
+            UserStoreManager userStoreManager = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUserRealm()
+                    .getUserStoreManager();
+            try {
+                if (userStoreManager instanceof AbstractUserStoreManager) {
+                    return ((AbstractUserStoreManager) userStoreManager).getUserIDsFromUserNames(userNames);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Provided user store manager for the userNames: " + userNames + ", is not an instance "
+                            + "of the AbstractUserStore manager");
+                }
+                throw new IdentityRoleManagementClientException(OPERATION_NOT_SUPPORTED.getCode(),
+                        "Unable to get the user ids of the userNames: " + userNames + ".");
+            } catch (UserStoreException e) {
+                throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                        "Error occurred while resolving user ids for the userNames: " + userNames, e);
+            }
+        } catch (UserStoreException e) {
+            throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(),
+                    "Error occurred while retrieving the userstore manager to resolve user ids for the userNames: "
+                            + userNames, e);
+        }
+    }
+
     /**
      * Retrieves the unique user id of the given userName.
      *
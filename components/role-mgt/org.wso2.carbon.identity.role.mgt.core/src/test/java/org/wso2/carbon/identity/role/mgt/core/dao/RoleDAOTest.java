@@ -33,6 +33,7 @@ import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.role.mgt.core.GroupBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.RoleBasicInfo;
+import org.wso2.carbon.identity.role.mgt.core.RoleMemberPage;
 import org.wso2.carbon.identity.role.mgt.core.UserBasicInfo;
 import org.wso2.carbon.identity.role.mgt.core.dao.util.DAOUtils;
 import org.wso2.carbon.user.api.AuthorizationManager;
@@ -45,6 +46,7 @@ import org.wso2.carbon.user.core.util.UserCoreUtil;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +66,8 @@ import static org.powermock.api.mockito.PowerMockito.spy;
 import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 @WithCarbonHome
@@ -406,6 +410,116 @@ public class RoleDAOTest extends PowerMockTestCase {
         }
     }
 
+    @Test
+    public void testGetUserListOfRoleByCursor() throws Exception {
+
+        try (Connection connection1 = DAOUtils.getConnection(DB_NAME);
+                Connection connection2 = DAOUtils.getConnection(DB_NAME);
+                Connection connection3 = DAOUtils.getConnection(DB_NAME);
+                Connection connection4 = DAOUtils.getConnection(DB_NAME);
+                Connection connection5 = DAOUtils.getConnection(DB_NAME);
+                Connection connection6 = DAOUtils.getConnection(DB_NAME);
+                Connection connection7 = DAOUtils.getConnection(DB_NAME)) {
+
+            roleDAO = spy(RoleMgtDAOFactory.getInstance().getRoleDAO());
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean())).thenReturn(connection1);
+            when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenReturn(connection2);
+            RoleBasicInfo role = addRole("role1");
+
+            doReturn(true).when(roleDAO, "isExistingRoleName", anyString(), anyString());
+            doCallRealMethod()
+                    .when(roleDAO, "updateUserListOfRole", anyString(), anyCollection(), anyCollection(), anyString());
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean())).thenReturn(connection3);
+            when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenReturn(connection4);
+            mockStatic(IdentityUtil.class);
+            when(IdentityUtil.getPrimaryDomainName()).thenReturn("PRIMARY");
+            doReturn(userNamesList).when(roleDAO, "getUserNamesByIDs", eq(userIDsList), anyString());
+            roleDAO.updateUserListOfRole(role.getId(), userIDsList, null, SAMPLE_TENANT_DOMAIN);
+
+            mockRealmConfiguration();
+
+            mockStatic(UserCoreUtil.class);
+            when(UserCoreUtil.isEveryoneRole(anyString(), any(RealmConfiguration.class))).thenReturn(false);
+            when(IdentityUtil.getMaximumItemPerPage()).thenReturn(100);
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean()))
+                    .thenReturn(connection5, connection6, connection7);
+            doCallRealMethod().when(UserCoreUtil.class, "addDomainToName", anyString(), anyString());
+            doReturn(true).when(roleDAO, "isExistingRoleID", anyString(), anyString());
+            doReturn(Collections.singletonList("userID1")).when(roleDAO, "getUserIDsByNames",
+                    eq(Collections.singletonList(userNamesList.get(0))), anyString());
+            doReturn(Collections.singletonList("userID2")).when(roleDAO, "getUserIDsByNames",
+                    eq(Collections.singletonList(userNamesList.get(1))), anyString());
+
+            RoleMemberPage<UserBasicInfo> firstPage = roleDAO.getUserListOfRole(role.getId(), null, 1,
+                    SAMPLE_TENANT_DOMAIN);
+            assertEquals(getUserNamesList(firstPage.getMembers()), userNamesList.subList(0, 1));
+            assertEquals(firstPage.getMembers().get(0).getId(), "userID1");
+            assertNotNull(firstPage.getNextCursor());
+
+            RoleMemberPage<UserBasicInfo> secondPage = roleDAO.getUserListOfRole(role.getId(),
+                    firstPage.getNextCursor(), 1, SAMPLE_TENANT_DOMAIN);
+            assertEquals(getUserNamesList(secondPage.getMembers()), userNamesList.subList(1, 2));
+            assertEquals(secondPage.getMembers().get(0).getId(), "userID2");
+            assertNotNull(secondPage.getNextCursor());
+
+            RoleMemberPage<UserBasicInfo> lastPage = roleDAO.getUserListOfRole(role.getId(),
+                    secondPage.getNextCursor(), 1, SAMPLE_TENANT_DOMAIN);
+            assertTrue(lastPage.getMembers().isEmpty());
+            assertNull(lastPage.getNextCursor());
+        }
+    }
+
+    @Test
+    public void testGetGroupListOfRoleByCursor() throws Exception {
+
+        try (Connection connection1 = DAOUtils.getConnection(DB_NAME);
+                Connection connection2 = DAOUtils.getConnection(DB_NAME);
+                Connection connection3 = DAOUtils.getConnection(DB_NAME);
+                Connection connection4 = DAOUtils.getConnection(DB_NAME);
+                Connection connection5 = DAOUtils.getConnection(DB_NAME);
+                Connection connection6 = DAOUtils.getConnection(DB_NAME)) {
+
+            roleDAO = spy(RoleMgtDAOFactory.getInstance().getRoleDAO());
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean())).thenReturn(connection1);
+            when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenReturn(connection2);
+            RoleBasicInfo role = addRole("role1");
+
+            doReturn(true).when(roleDAO, "isExistingRoleName", anyString(), anyString());
+            doCallRealMethod()
+                    .when(roleDAO, "updateGroupListOfRole", anyString(), anyCollection(), anyCollection(), anyString());
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean())).thenReturn(connection3);
+            when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenReturn(connection4);
+            mockStatic(IdentityUtil.class);
+            when(IdentityUtil.getPrimaryDomainName()).thenReturn("PRIMARY");
+            doReturn(groupNamesMap).when(roleDAO, "getGroupNamesByIDs", eq(groupIDsList), anyString());
+            roleDAO.updateGroupListOfRole(role.getId(), groupIDsList, null, SAMPLE_TENANT_DOMAIN);
+
+            mockRealmConfiguration();
+
+            mockStatic(UserCoreUtil.class);
+            when(UserCoreUtil.isEveryoneRole(anyString(), any(RealmConfiguration.class))).thenReturn(false);
+            when(IdentityUtil.getMaximumItemPerPage()).thenReturn(100);
+            when(IdentityDatabaseUtil.getUserDBConnection(anyBoolean())).thenReturn(connection5, connection6);
+            doCallRealMethod().when(UserCoreUtil.class, "addDomainToName", anyString(), anyString());
+            doReturn(true).when(roleDAO, "isExistingRoleID", anyString(), anyString());
+
+            RoleMemberPage<GroupBasicInfo> firstPage = roleDAO.getGroupListOfRole(role.getId(), null, 2,
+                    SAMPLE_TENANT_DOMAIN);
+            List<String> groupNames = getGroupNamesList(firstPage.getMembers());
+            assertEquals(groupNames.size(), 2);
+            assertTrue(groupNames.containsAll(groupNamesList));
+            for (GroupBasicInfo group : firstPage.getMembers()) {
+                assertEquals(group.getId(), groupIdsMap.get(group.getName()));
+            }
+            assertNotNull(firstPage.getNextCursor());
+
+            RoleMemberPage<GroupBasicInfo> lastPage = roleDAO.getGroupListOfRole(role.getId(),
+                    firstPage.getNextCursor(), 2, SAMPLE_TENANT_DOMAIN);
+            assertTrue(lastPage.getMembers().isEmpty());
+            assertNull(lastPage.getNextCursor());
+        }
+    }
+
     @Test
     public void testDeleteUser() throws Exception {
 
@@ -939,6 +939,18 @@ CREATE TRIGGER IDP_PROV_ENTITY_TRIG NO CASCADE
                     SET (NEW.ID) = (NEXTVAL FOR IDP_PROV_ENTITY_SEQ);
                 END
 /
+CREATE TABLE IDP_PROVISIONING_OUTBOX (
+            ID VARCHAR(36) NOT NULL,
+            TENANT_ID INTEGER NOT NULL,
+            IDP_NAME VARCHAR(254) NOT NULL,
+            CONNECTOR_TYPE VARCHAR(255) NOT NULL,
+            PROVISIONING_ENTITY BLOB,
+            ATTEMPT_COUNT INTEGER DEFAULT 0,
+            NEXT_ATTEMPT_TIME BIGINT NOT NULL,
+            TIME_CREATED BIGINT NOT NULL,
+            PRIMARY KEY (ID)
+)
+/
 CREATE TABLE IDP_LOCAL_CLAIM (
             ID INTEGER NOT NULL,
             TENANT_ID INTEGER NOT NULL,
@@ -1746,3 +1758,7 @@ CREATE INDEX IDX_CORS_SP_APP_ID ON IDN_CORS_ASSOCIATION (SP_APP_ID)
 -- IDN_CORS_ASSOCIATION --
 CREATE INDEX IDX_CORS_ORIGIN_ID ON IDN_CORS_ASSOCIATION (IDN_CORS_ORIGIN_ID)
 /
+
+-- IDP_PROVISIONING_OUTBOX --
+CREATE INDEX IDX_IDP_PROV_OUTBOX_NAT ON IDP_PROVISIONING_OUTBOX (NEXT_ATTEMPT_TIME)
+/
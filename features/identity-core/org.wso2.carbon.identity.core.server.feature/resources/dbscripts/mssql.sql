@@ -710,6 +710,19 @@ CREATE TABLE IDP_PROVISIONING_ENTITY (
   FOREIGN KEY (PROVISIONING_CONFIG_ID) REFERENCES IDP_PROVISIONING_CONFIG(ID) ON DELETE CASCADE
 );
 
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDP_PROVISIONING_OUTBOX]') AND TYPE IN (N'U'))
+CREATE TABLE IDP_PROVISIONING_OUTBOX (
+  ID VARCHAR(36) NOT NULL,
+  TENANT_ID INTEGER NOT NULL,
+  IDP_NAME VARCHAR(254) NOT NULL,
+  CONNECTOR_TYPE VARCHAR(255) NOT NULL,
+  PROVISIONING_ENTITY VARBINARY(MAX),
+  ATTEMPT_COUNT INTEGER DEFAULT 0,
+  NEXT_ATTEMPT_TIME BIGINT NOT NULL,
+  TIME_CREATED BIGINT NOT NULL,
+  PRIMARY KEY (ID)
+);
+
 IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDP_LOCAL_CLAIM]') AND TYPE IN (N'U'))
 CREATE TABLE IDP_LOCAL_CLAIM (
   ID INTEGER IDENTITY,
@@ -1310,3 +1323,6 @@ CREATE INDEX IDX_CORS_SP_APP_ID ON IDN_CORS_ASSOCIATION (SP_APP_ID);
 
 -- IDN_CORS_ASSOCIATION --
 CREATE INDEX IDX_CORS_ORIGIN_ID ON IDN_CORS_ASSOCIATION (IDN_CORS_ORIGIN_ID);
+
+-- IDP_PROVISIONING_OUTBOX --
+CREATE INDEX IDX_IDP_PROV_OUTBOX_NAT ON IDP_PROVISIONING_OUTBOX (NEXT_ATTEMPT_TIME);